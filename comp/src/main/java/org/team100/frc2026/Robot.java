@@ -9,6 +9,8 @@ import org.team100.lib.coherence.Takt;
 import org.team100.lib.config.Identity;
 import org.team100.lib.experiments.Experiment;
 import org.team100.lib.experiments.Experiments;
+import org.team100.lib.framework.CommandProfiler;
+import org.team100.lib.framework.ProfilerDump;
 import org.team100.lib.framework.TimedRobot100;
 import org.team100.lib.indicator.Alerts;
 import org.team100.lib.indicator.AutonAlerts;
@@ -53,6 +55,8 @@ public class Robot extends TimedRobot100 {
 
         // Log what the scheduler is doing. Use "withName()".
         SmartDashboard.putData(CommandScheduler.getInstance());
+        // Write the loop profile on demand, e.g. after a slow cycle.
+        SmartDashboard.putData("Profiler dump", ProfilerDump.command());
 
         m_robotLog = new RobotLog();
 
@@ -78,8 +82,8 @@ public class Robot extends TimedRobot100 {
         Takt.update();
         // Take all the measurements we can, as soon and quickly as possible.
         Cache.refresh();
-        // Run one iteration of the command scheduler.
-        CommandScheduler.getInstance().run();
+        // Run one iteration of the command scheduler, with profiling.
+        CommandProfiler.run();
         m_machinery.periodic();
         m_robotLog.periodic();
         if (Experiments.instance.enabled(Experiment.FlushOften)) {
@@ -88,10 +92,15 @@ public class Robot extends TimedRobot100 {
         }
     }
 
-    /** Check the auton configuration when disabled. */
+    /**
+     * Check the auton configuration, pre-plan the selected auton, and keep
+     * warming the JIT, when disabled.
+     */
     @Override
     public void disabledPeriodic() {
         m_autonAlerts.run();
+        m_allAutons.prePlan(m_machinery.m_drive.getPose());
+        Prewarmer.disabledPeriodic();
     }
 
     //////////////////////////////////////////////////////////////////////
@@ -112,6 +121,16 @@ public class Robot extends TimedRobot100 {
         CommandScheduler.getInstance().cancelAll();
     }
 
+    /** For tests. */
+    AllAutons allAutons() {
+        return m_allAutons;
+    }
+
+    /** For tests. */
+    Machinery machinery() {
+        return m_machinery;
+    }
+
     @Override
     public void close() {
         super.close();
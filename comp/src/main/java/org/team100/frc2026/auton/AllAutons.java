@@ -1,5 +1,7 @@
 package org.team100.frc2026.auton;
 
+import java.util.List;
+
 import org.team100.frc2026.robot.Machinery;
 import org.team100.lib.config.AnnotatedCommand;
 import org.team100.lib.config.AutonChooser;
@@ -7,6 +9,7 @@ import org.team100.lib.controller.se2.ControllerSE2;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.Logging;
 
+import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.wpilibj2.command.Command;
 
 /**
@@ -53,6 +56,19 @@ public class AllAutons {
         return m_autonChooser.get();
     }
 
+    /** Pre-plan the selected auton, if any, from the current pose. */
+    public void prePlan(Pose2d pose) {
+        AnnotatedCommand annotatedCommand = getAnnotated();
+        if (annotatedCommand == null)
+            return;
+        annotatedCommand.prePlan(pose);
+    }
+
+    /** Every auton, e.g. to run them all in a test. */
+    public List<AnnotatedCommand> all() {
+        return m_autonChooser.all();
+    }
+
     public void close() {
         m_autonChooser.close();
     }
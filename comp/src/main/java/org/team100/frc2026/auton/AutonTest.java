@@ -13,6 +13,7 @@ import org.team100.lib.geometry.WaypointSE2;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.subsystems.se2.commands.DriveWithTrajectoryFunction;
 import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.trajectory.PrePlannedTrajectory;
 import org.team100.lib.trajectory.TrajectorySE2;
 import org.team100.lib.trajectory.TrajectorySE2Factory;
 import org.team100.lib.trajectory.TrajectorySE2Planner;
@@ -26,6 +27,8 @@ import edu.wpi.first.wpilibj2.command.Command;
 
 /** An example of a simple sequence */
 public class AutonTest implements AnnotatedCommand {
+    /** End of the first leg, where the second one is pre-planned from. */
+    private static final Pose2d FIRST = new Pose2d(2, 4, Rotation2d.kZero);
     private final LoggerFactory log;
     private final ControllerSE2 controller;
     private final Machinery machinery;
@@ -33,6 +36,9 @@ public class AutonTest implements AnnotatedCommand {
     private final TrajectorySE2Factory trajectoryFactory;
     private final PathSE2Factory pathFactory;
     private final TrajectorySE2Planner planner;
+    private final PrePlannedTrajectory preplanned1;
+    private final PrePlannedTrajectory preplanned2;
+    private final PrePlannedTrajectory preplanned3;
 
     public AutonTest(
             LoggerFactory parent,
@@ -46,6 +52,9 @@ public class AutonTest implements AnnotatedCommand {
         trajectoryFactory = new TrajectorySE2Factory(constraints);
         pathFactory = new PathSE2Factory();
         planner = new TrajectorySE2Planner(pathFactory, trajectoryFactory);
+        preplanned1 = new PrePlannedTrajectory(this::t1);
+        preplanned2 = new PrePlannedTrajectory(this::t2);
+        preplanned3 = new PrePlannedTrajectory(this::t3);
     }
 
     @Override
@@ -57,7 +66,7 @@ public class AutonTest implements AnnotatedCommand {
         List<WaypointSE2> waypoints = List.of(
                 new WaypointSE2(startingPose,
                         new DirectionSE2(-1, 0, 0), 1),
-                new WaypointSE2(new Pose2d(2, 4, Rotation2d.kZero),
+                new WaypointSE2(FIRST,
                         new DirectionSE2(-1, 1, 0), 1));
         return planner.restToRest(waypoints);
     }
@@ -86,13 +95,13 @@ public class AutonTest implements AnnotatedCommand {
     public Command command() {
         DriveWithTrajectoryFunction n1 = new DriveWithTrajectoryFunction(
                 log, machinery.m_drive, controller,
-                machinery.m_trajectoryViz, this::t1);
+                machinery.m_trajectoryViz, preplanned1);
         DriveWithTrajectoryFunction n2 = new DriveWithTrajectoryFunction(
                 log, machinery.m_drive, controller,
-                machinery.m_trajectoryViz, this::t2);
+                machinery.m_trajectoryViz, preplanned2);
         DriveWithTrajectoryFunction n3 = new DriveWithTrajectoryFunction(
                 log, machinery.m_drive, controller,
-                machinery.m_trajectoryViz, this::t3);
+                machinery.m_trajectoryViz, preplanned3);
         return sequence(
                 n1.until(n1::isDone),
                 waitSeconds(1),
@@ -101,6 +110,17 @@ public class AutonTest implements AnnotatedCommand {
                 n3.until(n3::isDone));
     }
 
+    /**
+     * Later legs are planned from where the previous ones should end; if they
+     * end somewhere else, those legs are planned when they start.
+     */
+    @Override
+    public void prePlan(Pose2d pose) {
+        preplanned1.prePlan(pose);
+        preplanned2.prePlan(FIRST);
+        preplanned3.prePlan(AutonPositions.ABOVE_BALL_FIELD);
+    }
+
     @Override
     public Pose2d start() {
         return StartingPositions.RIGHT_BUMP;
@@ -13,6 +13,7 @@ import org.team100.lib.geometry.WaypointSE2;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.subsystems.se2.commands.DriveWithTrajectoryFunction;
 import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.trajectory.PrePlannedTrajectory;
 import org.team100.lib.trajectory.TrajectorySE2;
 import org.team100.lib.trajectory.TrajectorySE2Factory;
 import org.team100.lib.trajectory.TrajectorySE2Planner;
@@ -26,6 +27,8 @@ import edu.wpi.first.wpilibj2.command.Command;
 
 /** An example of a simple sequence */
 public class LeftSequenceExample implements AnnotatedCommand {
+    /** End of the first leg, where the second one is pre-planned from. */
+    private static final Pose2d MIDDLE = new Pose2d(2, 4, Rotation2d.kCW_Pi_2);
     private final LoggerFactory log;
     private final ControllerSE2 controller;
     private final Machinery machinery;
@@ -33,6 +36,8 @@ public class LeftSequenceExample implements AnnotatedCommand {
     private final TrajectorySE2Factory trajectoryFactory;
     private final PathSE2Factory pathFactory;
     private final TrajectorySE2Planner planner;
+    private final PrePlannedTrajectory preplanned1;
+    private final PrePlannedTrajectory preplanned2;
 
     public LeftSequenceExample(
             LoggerFactory parent,
@@ -46,6 +51,8 @@ public class LeftSequenceExample implements AnnotatedCommand {
         trajectoryFactory = new TrajectorySE2Factory(constraints);
         pathFactory = new PathSE2Factory();
         planner = new TrajectorySE2Planner(pathFactory, trajectoryFactory);
+        preplanned1 = new PrePlannedTrajectory(this::t1);
+        preplanned2 = new PrePlannedTrajectory(this::t2);
     }
 
     @Override
@@ -58,7 +65,7 @@ public class LeftSequenceExample implements AnnotatedCommand {
         List<WaypointSE2> waypoints = List.of(
                 new WaypointSE2(startingPose,
                         new DirectionSE2(-1, 0, 0), 1),
-                new WaypointSE2(new Pose2d(2, 4, Rotation2d.kCW_Pi_2),
+                new WaypointSE2(MIDDLE,
                         new DirectionSE2(0, -1, 0), 1));
         return planner.restToRest(waypoints);
     }
@@ -77,16 +84,26 @@ public class LeftSequenceExample implements AnnotatedCommand {
     public Command command() {
         DriveWithTrajectoryFunction n1 = new DriveWithTrajectoryFunction(
                 log, machinery.m_drive, controller,
-                machinery.m_trajectoryViz, this::t1);
+                machinery.m_trajectoryViz, preplanned1);
         DriveWithTrajectoryFunction n2 = new DriveWithTrajectoryFunction(
                 log, machinery.m_drive, controller,
-                machinery.m_trajectoryViz, this::t2);
+                machinery.m_trajectoryViz, preplanned2);
         return sequence(
                 n1.until(n1::isDone),
                 waitSeconds(1),
                 n2.until(n2::isDone));
     }
 
+    /**
+     * The second leg is planned from where the first one should end; if it ends
+     * somewhere else, the second leg is planned when it starts.
+     */
+    @Override
+    public void prePlan(Pose2d pose) {
+        preplanned1.prePlan(pose);
+        preplanned2.prePlan(MIDDLE);
+    }
+
     @Override
     public Pose2d start() {
         return StartingPositions.LEFT_TRENCH;
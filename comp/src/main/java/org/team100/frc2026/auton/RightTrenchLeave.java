@@ -10,6 +10,7 @@ import org.team100.lib.geometry.WaypointSE2;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.subsystems.se2.commands.DriveWithTrajectoryFunction;
 import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.trajectory.PrePlannedTrajectory;
 import org.team100.lib.trajectory.TrajectorySE2;
 import org.team100.lib.trajectory.TrajectorySE2Factory;
 import org.team100.lib.trajectory.TrajectorySE2Planner;
@@ -35,6 +36,7 @@ public class RightTrenchLeave implements AnnotatedCommand {
     private final TrajectorySE2Factory trajectoryFactory;
     private final PathSE2Factory pathFactory;
     private final TrajectorySE2Planner planner;
+    private final PrePlannedTrajectory preplanned;
 
     public RightTrenchLeave(
             LoggerFactory parent,
@@ -48,6 +50,7 @@ public class RightTrenchLeave implements AnnotatedCommand {
         trajectoryFactory = new TrajectorySE2Factory(constraints);
         pathFactory = new PathSE2Factory();
         planner = new TrajectorySE2Planner(pathFactory, trajectoryFactory);
+        preplanned = new PrePlannedTrajectory(this::trajectory);
     }
 
     @Override
@@ -75,10 +78,15 @@ public class RightTrenchLeave implements AnnotatedCommand {
                 machinery.m_drive,
                 controller,
                 machinery.m_trajectoryViz,
-                this::trajectory);
+                preplanned);
         return navigator.until(navigator::isDone);
     }
 
+    @Override
+    public void prePlan(Pose2d pose) {
+        preplanned.prePlan(pose);
+    }
+
     @Override
     public Pose2d start() {
         return StartingPositions.RIGHT_TRENCH;
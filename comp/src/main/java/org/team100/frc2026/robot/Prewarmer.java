@@ -1,20 +1,89 @@
 package org.team100.frc2026.robot;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
 import org.team100.lib.coherence.Takt;
+import org.team100.lib.framework.TimedRobot100;
+import org.team100.lib.framework.Warmup;
+import org.team100.lib.geometry.DirectionSE2;
+import org.team100.lib.geometry.VelocitySE2;
+import org.team100.lib.geometry.WaypointSE2;
+import org.team100.lib.localization.OdometryUpdater;
+import org.team100.lib.localization.SwerveHistory;
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.Logging;
+import org.team100.lib.sensor.gyro.Gyro;
+import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.subsystems.swerve.kinodynamics.limiter.SwerveLimiter;
+import org.team100.lib.subsystems.swerve.module.state.SwerveModuleDeltas;
+import org.team100.lib.subsystems.swerve.module.state.SwerveModulePosition100;
+import org.team100.lib.subsystems.swerve.module.state.SwerveModulePositions;
+import org.team100.lib.trajectory.TrajectorySE2Factory;
+import org.team100.lib.trajectory.TrajectorySE2Planner;
+import org.team100.lib.trajectory.constraint.TimingConstraintFactory;
+import org.team100.lib.trajectory.path.PathSE2Factory;
+import org.team100.lib.uncertainty.IsotropicNoiseSE2;
+import org.team100.lib.uncertainty.VariableR1;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
 
+/**
+ * Exercise the hot paths of the first auton cycle with synthetic inputs, so the
+ * JIT compiles them before auton instead of during it.
+ *
+ * Everything here uses private instances, or read-only paths of the real ones,
+ * so there are no side effects on hardware or robot state.
+ *
+ * Warming runs for a while in robot init, and then in small slices during
+ * disabled time, until the disabled budget is spent. Warmup skips exercises that
+ * wouldn't fit in what's left of a slice, so the slices stay short even though
+ * pre-planning shares the disabled cycle.
+ */
 public class Prewarmer {
+    /** Warming time in robot init. */
+    private static final double INIT_BUDGET_S = 1.0;
+    /** Warming time per disabled cycle, well inside the loop period. */
+    private static final double SLICE_S = 0.005;
+    /** Total warming time while disabled. */
+    private static final double DISABLED_BUDGET_S = 10;
+
+    private static Warmup warmup;
+    private static int slices;
+
     public static void init(Machinery machinery) {
         System.out.println("\n*** PREWARM START");
         double startS = Takt.actual();
-        //
-        // actual warming goes here
-        //
+        warmup = warmup(machinery);
+        slices = 0;
+        warmup.run(INIT_BUDGET_S);
+        warmup.report();
         double endS = Takt.actual();
         // don't count this delay in the ET
         waitForFPGA();
         System.out.printf("\n*** PREWARM END ET: %f\n", endS - startS);
     }
 
+    /**
+     * Warm a little more in each disabled cycle, until the budget is spent, and
+     * then report.
+     */
+    public static void disabledPeriodic() {
+        if (warmup == null)
+            return;
+        long budgetSlices = Math.round(DISABLED_BUDGET_S / SLICE_S);
+        if (slices >= budgetSlices)
+            return;
+        warmup.run(SLICE_S);
+        slices++;
+        if (slices == budgetSlices)
+            warmup.report();
+    }
+
     /**
      * The duty cycle encoder produces garbage for a few seconds so sleep.
      */
@@ -31,4 +100,101 @@ public class Prewarmer {
         }
     }
 
+    private static Warmup warmup(Machinery machinery) {
+        LoggerFactory log = Logging.instance().rootLogger.name("Prewarmer");
+        SwerveKinodynamics kinodynamics = machinery.m_swerveKinodynamics;
+        Warmup w = new Warmup(log);
+
+        // Trajectory planning.
+        TrajectorySE2Planner planner = new TrajectorySE2Planner(
+                new PathSE2Factory(),
+                new TrajectorySE2Factory(new TimingConstraintFactory(kinodynamics).medium(log)));
+        List<WaypointSE2> waypoints = List.of(
+                new WaypointSE2(new Pose2d(0, 0, Rotation2d.kZero), new DirectionSE2(1, 0, 0), 1),
+                new WaypointSE2(new Pose2d(2, 1, Rotation2d.kCCW_Pi_2), new DirectionSE2(1, 0, 0), 1));
+        w.add("trajectory", () -> planner.restToRest(waypoints));
+
+        // Limiter chain, with its own setpoint.
+        SwerveLimiter limiter = new SwerveLimiter(log, kinodynamics, () -> 12);
+        w.add("limiter", () -> {
+            for (int i = 0; i < 10; ++i) {
+                limiter.apply(new VelocitySE2(0.5 * i, 0.2 * i, 0.1 * i));
+            }
+            limiter.updateSetpoint(new VelocitySE2(0, 0, 0));
+        });
+
+        // Kinematics, both ways.
+        SwerveModulePositions p0 = SwerveModulePositions.kZero();
+        w.add("kinematics", () -> {
+            for (int i = 0; i < 10; ++i) {
+                kinodynamics.toSwerveModuleStates(new ChassisSpeeds(1, 0.5, 0.1 * i));
+                SwerveModulePositions p1 = kinodynamics.getKinematics().toSwerveModulePositions(
+                        p0, new Twist2d(0.02, 0.01, 0.001 * i));
+                kinodynamics.getKinematics().toTwist2d(SwerveModuleDeltas.modulePositionDelta(p0, p1));
+            }
+        });
+
+        // Odometry, with its own history, gyro, and module positions.
+        SwerveModulePositions[] positions = { p0 };
+        Gyro gyro = new StillGyro();
+        SwerveHistory history = new SwerveHistory(
+                log, kinodynamics, 0.2, gyro.getYawNWU(), VariableR1.fromStdDev(0, 1),
+                p0, Pose2d.kZero, IsotropicNoiseSE2.high(), Takt.get());
+        OdometryUpdater odometry = new OdometryUpdater(
+                log, kinodynamics, gyro, history, () -> positions[0], UnaryOperator.identity());
+        w.add("odometry", () -> {
+            positions[0] = p0;
+            // Put the reset one cycle in the past, so the update has a delta.
+            odometry.reset(Pose2d.kZero, IsotropicNoiseSE2.high(),
+                    Takt.get() - TimedRobot100.LOOP_PERIOD_S);
+            positions[0] = new SwerveModulePositions(
+                    new SwerveModulePosition100(0.02, Optional.of(Rotation2d.kZero)),
+                    new SwerveModulePosition100(0.02, Optional.of(Rotation2d.kZero)),
+                    new SwerveModulePosition100(0.02, Optional.of(Rotation2d.kZero)),
+                    new SwerveModulePosition100(0.02, Optional.of(Rotation2d.kZero)));
+            odometry.update();
+        });
+
+        // AprilTag decoding and pose algebra, without using the result.
+        w.add("vision", machinery.m_localizer::prewarm);
+
+        return w;
+    }
+
+    /** Synthetic gyro that never moves. */
+    private static class StillGyro implements Gyro {
+        @Override
+        public double white_noise() {
+            return 0.001;
+        }
+
+        @Override
+        public double bias_noise() {
+            return 0.00005;
+        }
+
+        @Override
+        public Rotation2d getYawNWU() {
+            return Rotation2d.kZero;
+        }
+
+        @Override
+        public double getYawRateNWU() {
+            return 0;
+        }
+
+        @Override
+        public Rotation2d getPitchNWU() {
+            return Rotation2d.kZero;
+        }
+
+        @Override
+        public Rotation2d getRollNWU() {
+            return Rotation2d.kZero;
+        }
+
+        @Override
+        public void periodic() {
+        }
+    }
 }
@@ -0,0 +1,65 @@
+package org.team100.frc2026;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.team100.frc2026.auton.DoNothing;
+import org.team100.lib.config.AnnotatedCommand;
+import org.team100.lib.framework.HeadlessDriver;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+/**
+ * Runs every auton end to end, headless, in simulated time, to catch crashers,
+ * and checks that each auton with a trajectory drove away from its start.
+ * Some autons end by idling, so not finishing isn't a failure.
+ */
+public class AllAutonsTest {
+    private static final boolean DEBUG = false;
+    /** The auton period is 20 seconds. */
+    private static final double TIMEOUT_S = 20;
+    /** Any real trajectory goes at least this far, in meters. */
+    private static final double MOVED_M = 0.1;
+
+    @Test
+    void testAll() {
+        // Stop the clock while the robot is built, so its callback schedule
+        // doesn't fall behind before the driver takes over.
+        SimHooks.pauseTiming();
+        Robot robot = new Robot();
+        try (HeadlessDriver driver = new HeadlessDriver(robot)) {
+            for (AnnotatedCommand auton : robot.allAutons().all()) {
+                Command command = auton.command();
+                if (command == null)
+                    continue;
+                driver.disabled();
+                driver.step();
+                if (auton.start() != null)
+                    robot.machinery().resetPose(auton.start());
+                driver.autonomous();
+                double start = driver.time();
+                long startNs = System.nanoTime();
+                boolean finished = driver.run(command, TIMEOUT_S);
+                if (DEBUG)
+                    System.out.printf("%s finished %b sim %5.2f s wall %6.1f ms\n",
+                            auton.name(), finished, driver.time() - start,
+                            (System.nanoTime() - startNs) / 1e6);
+                if (auton.start() == null)
+                    continue;
+                Pose2d end = robot.machinery().m_drive.getPose();
+                double moved = end.getTranslation().getDistance(auton.start().getTranslation());
+                if (auton instanceof DoNothing) {
+                    assertTrue(moved < MOVED_M, auton.name() + " moved " + moved);
+                } else {
+                    assertTrue(moved > MOVED_M, auton.name() + " moved only " + moved);
+                }
+            }
+        } finally {
+            CommandScheduler.getInstance().cancelAll();
+            robot.close();
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.team100.lib.coherence.Takt;
 import org.team100.lib.config.Identity;
 import org.team100.lib.experiments.Experiment;
 import org.team100.lib.experiments.Experiments;
+import org.team100.lib.framework.CommandProfiler;
 import org.team100.lib.framework.TimedRobot100;
 import org.team100.lib.logging.RobotLog;
 import org.team100.lib.util.Banner;
@@ -63,8 +64,8 @@ public class Robot2025 extends TimedRobot100 {
         Takt.update();
         // Take all the measurements we can, as soon and quickly as possible.
         Cache.refresh();
-        // Run one iteration of the command scheduler.
-        CommandScheduler.getInstance().run();
+        // Run one iteration of the command scheduler, with profiling.
+        CommandProfiler.run();
         m_machinery.periodic();
         m_robotLog.periodic();
         if (Experiments.instance.enabled(Experiment.FlushOften)) {
@@ -1,10 +1,16 @@
 package org.team100.lib.coherence;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
 import java.util.function.DoubleSupplier;
 import java.util.function.Supplier;
 
+import org.team100.lib.framework.Profiler;
 import org.team100.lib.logging.Level;
 import org.team100.lib.logging.LoggerFactory.DoubleLogger;
 import org.team100.lib.logging.Logging;
@@ -25,16 +31,45 @@ import com.ctre.phoenix6.StatusCode;
  * observations we actually cache seem to be from motors. On the other hand,
  * it doesn't hurt anything to cache at multiple levels -- the updater makes
  * everything consistent.
+ * 
+ * The update runs in this order, to keep the time between the hardware sample
+ * and the first use short:
+ * 
+ * * start the independent caches (see ofIndependent()) on the worker pool
+ * * refresh the CTRE signals that are due (see Freshness), one batch per CAN
+ * bus
+ * * wait for the independent caches
+ * * update the rest of the caches, in registration order
  */
 public class Cache {
     private static final boolean DEBUG = false;
     /** How long it takes to update the cache. */
     private static final DoubleLogger m_log_update = Logging.instance().rootLogger.name("Cache")
             .doubleLogger(Level.COMP, "update time (s)");
+    private static final int SCOPE = Profiler.scope("Cache");
+    private static final int REFRESH_ALL_SCOPE = Profiler.scope("refreshAll");
+    private static final int SIDE_EFFECT_SCOPE = Profiler.scope("side effects");
+    private static final int INDEPENDENT_SCOPE = Profiler.scope("independent");
+    /** The roboRIO's own CAN bus. */
+    public static final String RIO_BUS = "rio";
+    /** The RIO has two cores, and the main thread is busy too. */
+    private static final int WORKERS = 2;
     private static final List<ObjectCache<?>> caches = new ArrayList<>();
     private static final List<DoubleCache> doubles = new ArrayList<>();
     private static final List<SideEffect> sideEffects = new ArrayList<>();
-    private static final List<BaseStatusSignal> signals = new ArrayList<>();
+    /** Key is CAN bus name. */
+    private static final Map<String, SignalBus> buses = new LinkedHashMap<>();
+    private static final List<ObjectCache<?>> independent = new ArrayList<>();
+    /** One reused task per independent cache, so submitting doesn't allocate. */
+    private static final List<Runnable> independentTasks = new ArrayList<>();
+    /**
+     * Barrier for the independent caches: the main thread is the one permanent
+     * party, and each task is a party for one cycle.
+     */
+    private static final Phaser independentDone = new Phaser(1);
+    private static ExecutorService pool;
+    /** Counts refreshes, for Freshness. */
+    private static long cycle;
 
     /**
      * Adds the delegate to the set that is reset and updated synchronously by
@@ -48,12 +83,58 @@ public class Cache {
         return cache;
     }
 
+    /**
+     * Like of(), but the delegate is updated on a worker thread, in parallel with
+     * the CTRE refresh and the other independent caches.
+     * 
+     * The delegate must not depend on anything else updated in the same cycle
+     * (e.g. CTRE signals, other caches), and must be safe to run off the main
+     * thread. Sensors read directly through the HAL (e.g. RoboRIO DIO, REV
+     * devices) and simulations are good candidates.
+     */
+    public static <T> ObjectCache<T> ofIndependent(Supplier<T> delegate) {
+        ObjectCache<T> cache = new ObjectCache<>(delegate);
+        independent.add(cache);
+        independentTasks.add(() -> {
+            try {
+                cache.get();
+            } catch (RuntimeException e) {
+                // The cache will try again when someone calls get().
+                System.out.printf("WARNING: independent cache update failed: %s\n", e);
+            } finally {
+                independentDone.arriveAndDeregister();
+            }
+        });
+        if (pool == null) {
+            pool = Executors.newFixedThreadPool(WORKERS, r -> {
+                Thread t = new Thread(r, "Cache");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return cache;
+    }
+
     public static void removeObjectCache(ObjectCache<?> obj) {
         caches.remove(obj);
+        int i = independent.indexOf(obj);
+        if (i >= 0) {
+            independent.remove(i);
+            independentTasks.remove(i);
+        }
     }
 
     public static DoubleCache ofDouble(DoubleSupplier delegate) {
-        DoubleCache cache = new DoubleCache(delegate);
+        return ofDouble(Freshness.CONTROL, delegate);
+    }
+
+    /**
+     * Like ofDouble(), but only updated as often as the freshness class says;
+     * in between, the old value is kept. Use the same class as the signals it
+     * reads.
+     */
+    public static DoubleCache ofDouble(Freshness freshness, DoubleSupplier delegate) {
+        DoubleCache cache = new DoubleCache(freshness, delegate);
         doubles.add(cache);
         return cache;
     }
@@ -64,12 +145,61 @@ public class Cache {
         return sideEffect;
     }
 
+    /**
+     * True if the side effect is still updated every cycle, i.e. clear() hasn't
+     * forgotten it. For static side effects that outlive a clear() in tests.
+     */
+    public static boolean isRegistered(SideEffect sideEffect) {
+        return sideEffects.contains(sideEffect);
+    }
+
     /**
      * There's a "resetter" that calls CTRE's refreshAll; add the supplied signal to
-     * the list in the refresh.
+     * the list in the refresh, for the RIO bus, every cycle.
      */
     public static void registerSignal(BaseStatusSignal signal) {
-        signals.add(signal);
+        registerSignal(RIO_BUS, signal);
+    }
+
+    /**
+     * Add the signal to the refresh for the named CAN bus, every cycle, leaving
+     * the device update frequency alone. Each bus is refreshed in one call.
+     */
+    public static void registerSignal(String bus, BaseStatusSignal signal) {
+        buses.computeIfAbsent(bus, SignalBus::new).add(signal, Freshness.CONTROL);
+    }
+
+    /** Add the signal to the refresh for the RIO bus, as often as it needs. */
+    public static void registerSignal(BaseStatusSignal signal, Freshness freshness) {
+        registerSignal(RIO_BUS, signal, freshness);
+    }
+
+    /**
+     * Add the signal to the refresh for the named CAN bus, as often as it needs,
+     * and set the device update frequency to match. Each bus is refreshed in one
+     * call.
+     * 
+     * To turn off the signals nobody registered, call optimizeBusUtilization()
+     * on the device afterwards.
+     */
+    public static void registerSignal(String bus, BaseStatusSignal signal, Freshness freshness) {
+        StatusCode result = signal.setUpdateFrequency(freshness.hz);
+        if (result.isError()) {
+            System.out.printf("WARNING: setUpdateFrequency failed for %s: %s\n",
+                    signal.getName(), result.toString());
+        }
+        buses.computeIfAbsent(bus, SignalBus::new).add(signal, freshness);
+    }
+
+    /**
+     * Instead of refreshAll, use waitForAll for the named bus, i.e. block until
+     * every signal on the bus has a new value, so the samples are synchronous
+     * with the loop. This makes sense for a CANivore with the signal update
+     * frequency matched to the loop. The timeout should be well inside
+     * TimedRobot100.LOOP_PERIOD_S; zero means refreshAll.
+     */
+    public static void waitForAll(String bus, double timeoutS) {
+        buses.computeIfAbsent(bus, SignalBus::new).setWaitTimeout(timeoutS);
     }
 
     /**
@@ -83,9 +213,15 @@ public class Cache {
         if (DEBUG)
             System.out.println("Cache refresh");
         double startUpdateS = Takt.actual();
-        reset();
-        update();
-        m_log_update.log(() -> (Takt.actual() - startUpdateS));
+        Profiler.begin(SCOPE);
+        try {
+            reset();
+            update();
+        } finally {
+            Profiler.end();
+        }
+        cycle++;
+        m_log_update.log(Takt.actual() - startUpdateS);
     }
 
     /** For testing only */
@@ -93,6 +229,13 @@ public class Cache {
         caches.clear();
         doubles.clear();
         sideEffects.clear();
+        independent.clear();
+        independentTasks.clear();
+        cycle = 0;
+        // The rebuilt caches reuse the old scope names, and the tree starts
+        // over, so clearing again and again doesn't fill it up.
+        Profiler.resetNames();
+        Profiler.clear();
     }
 
     /////////////////////////////////////////////////
@@ -104,9 +247,12 @@ public class Cache {
         for (ObjectCache<?> r : caches) {
             r.reset();
         }
-        for (DoubleCache r : doubles) {
+        for (ObjectCache<?> r : independent) {
             r.reset();
         }
+        for (DoubleCache r : doubles) {
+            r.reset(cycle);
+        }
         for (SideEffect r : sideEffects) {
             r.reset();
         }
@@ -117,27 +263,52 @@ public class Cache {
         if (DEBUG) {
             System.out.printf("Cache update %d\n", caches.size());
         }
-        if (!signals.isEmpty()) {
-            StatusCode result = BaseStatusSignal.refreshAll(signals.toArray(new BaseStatusSignal[0]));
+        // Start the independent caches first, so they run during the refresh.
+        int tasks = independentTasks.size();
+        if (tasks > 0) {
+            independentDone.bulkRegister(tasks);
+            for (int i = 0; i < tasks; ++i) {
+                pool.execute(independentTasks.get(i));
+            }
+        }
+        Profiler.begin(REFRESH_ALL_SCOPE);
+        for (SignalBus bus : buses.values()) {
+            if (bus.isEmpty())
+                continue;
+            StatusCode result = bus.refresh(cycle);
             if (result != StatusCode.OK) {
-                System.out.printf("WARNING: RefreshAll failed: %s: %s\n",
-                        result.toString(), result.getDescription());
+                System.out.printf("WARNING: RefreshAll failed on bus %s: %s: %s\n",
+                        bus.m_name, result.toString(), result.getDescription());
             }
         }
+        Profiler.end();
+        // Barrier: everything is fresh before anyone uses it.
+        Profiler.begin(INDEPENDENT_SCOPE);
+        if (tasks > 0)
+            independentDone.arriveAndAwaitAdvance();
+        Profiler.end();
         for (ObjectCache<?> r : caches) {
             if (DEBUG) {
                 System.out.printf("update %s\n", r.get().getClass().getSimpleName());
             }
+            // Each cache has its own scope, named by its delegate's class and
+            // a serial number.
+            Profiler.begin(r.m_scope);
             r.get();
+            Profiler.end();
         }
         for (DoubleCache r : doubles) {
             if (DEBUG)
                 System.out.println("double update");
+            Profiler.begin(r.m_scope);
             r.getAsDouble();
+            Profiler.end();
         }
+        Profiler.begin(SIDE_EFFECT_SCOPE);
         for (SideEffect r : sideEffects) {
             r.run();
         }
+        Profiler.end();
     }
 
     private Cache() {
@@ -2,14 +2,21 @@ package org.team100.lib.coherence;
 
 import java.util.function.DoubleSupplier;
 
+import org.team100.lib.framework.Profiler;
+
 public class DoubleCache implements DoubleSupplier {
     private final DoubleSupplier m_delegate;
+    private final Freshness m_freshness;
+    /** Profiler scope for Cache.update(). */
+    final int m_scope;
     private double m_value;
     private boolean m_valid;
 
     /** Do not call this directly, use Cache.ofDouble() */
-    DoubleCache(DoubleSupplier delegate) {
+    DoubleCache(Freshness freshness, DoubleSupplier delegate) {
         m_delegate = delegate;
+        m_freshness = freshness;
+        m_scope = Profiler.scope(Profiler.uniqueName(delegate));
         m_valid = false;
     }
 
@@ -31,4 +38,10 @@ public class DoubleCache implements DoubleSupplier {
     public synchronized void reset() {
         m_valid = false;
     }
+
+    /** Erase the cache if the freshness class is due in this cycle. */
+    synchronized void reset(long cycle) {
+        if (m_freshness.due(cycle))
+            m_valid = false;
+    }
 }
\ No newline at end of file
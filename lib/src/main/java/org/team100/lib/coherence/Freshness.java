@@ -0,0 +1,42 @@
+package org.team100.lib.coherence;
+
+/**
+ * How fresh an observation needs to be, which determines how often the device
+ * sends it, and how often Cache refreshes it.
+ * 
+ * Refreshing a CTRE signal doesn't use the CAN bus, it just reads the latest
+ * frame, but it does cost time on the RIO, and the frames themselves do use the
+ * bus. So anything that isn't used for control should be slower.
+ */
+public enum Freshness {
+    /**
+     * Used by controls: refreshed every cycle.
+     * 
+     * Speeding up the updates is a tradeoff between latency and CAN utilization.
+     * 254 seems to think that 100 is a good compromise? See
+     * https://github.com/Team254/FRC-2024-Public/blob/040f653744c9b18182be5f6bc51a7e505e346e59/src/main/java/com/team254/lib/ctre/swerve/SwerveDrivetrain.java#L382
+     */
+    CONTROL(100, 1),
+    /** Only logged: 10 hz is plenty for a human to look at. */
+    TELEMETRY(10, 5),
+    /**
+     * Slow-changing health indicators, e.g. temperature. CTRE's minimum nonzero
+     * update frequency is 4 hz.
+     */
+    DIAGNOSTIC(4, 25);
+
+    /** Device update frequency. */
+    public final double hz;
+    /** Refresh every this many cycles. */
+    public final int cycles;
+
+    private Freshness(double hz, int cycles) {
+        this.hz = hz;
+        this.cycles = cycles;
+    }
+
+    /** True if this class should be refreshed in the given cycle. */
+    boolean due(long cycle) {
+        return cycle % cycles == 0;
+    }
+}
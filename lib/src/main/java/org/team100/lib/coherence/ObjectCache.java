@@ -2,14 +2,19 @@ package org.team100.lib.coherence;
 
 import java.util.function.Supplier;
 
+import org.team100.lib.framework.Profiler;
+
 /** Cache an object supplier */
 public class ObjectCache<T> implements Supplier<T> {
     private final Supplier<T> m_delegate;
+    /** Profiler scope for Cache.update(). */
+    final int m_scope;
     private T m_value;
 
     /** Do not call this directly, use Cache.of(). */
     ObjectCache(Supplier<T> delegate) {
         m_delegate = delegate;
+        m_scope = Profiler.scope(Profiler.uniqueName(delegate));
         m_value = null;
     }
 
@@ -0,0 +1,108 @@
+package org.team100.lib.coherence;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.team100.lib.logging.Level;
+import org.team100.lib.logging.LoggerFactory.DoubleLogger;
+import org.team100.lib.logging.Logging;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.CANBus;
+import com.ctre.phoenix6.StatusCode;
+
+/**
+ * The CTRE signals on one CAN bus, refreshed together.
+ * 
+ * Each signal has a Freshness, and each cycle refreshes only the signals that
+ * are due. There's one precomputed array for each combination of due classes,
+ * rebuilt only when a signal is added, not every cycle.
+ * 
+ * The bus utilization is logged at the DIAGNOSTIC rate, to see what the
+ * update frequencies cost.
+ */
+class SignalBus {
+    private static final Freshness[] CLASSES = Freshness.values();
+    final String m_name;
+    private final CANBus m_bus;
+    private final DoubleLogger m_log_utilization;
+    /** Signals by Freshness ordinal. */
+    private final List<List<BaseStatusSignal>> m_signals = new ArrayList<>();
+    /** Index is a bitmask of due Freshness ordinals. */
+    private final BaseStatusSignal[][] m_arrays = new BaseStatusSignal[1 << CLASSES.length][];
+    /** The same, without CONTROL, for use with waitForAll. */
+    private final BaseStatusSignal[][] m_slowArrays = new BaseStatusSignal[1 << CLASSES.length][];
+    private BaseStatusSignal[] m_control = new BaseStatusSignal[0];
+    private int m_size;
+    /** If positive, use waitForAll with this timeout, otherwise refreshAll. */
+    private double m_waitTimeoutS;
+
+    SignalBus(String name) {
+        m_name = name;
+        m_bus = new CANBus(name);
+        m_log_utilization = Logging.instance().rootLogger.name("Cache").name(name)
+                .doubleLogger(Level.COMP, "bus utilization [0,1]");
+        for (int i = 0; i < CLASSES.length; ++i) {
+            m_signals.add(new ArrayList<>());
+        }
+        rebuild();
+    }
+
+    void add(BaseStatusSignal signal, Freshness freshness) {
+        m_signals.get(freshness.ordinal()).add(signal);
+        m_size++;
+        rebuild();
+    }
+
+    void setWaitTimeout(double timeoutS) {
+        m_waitTimeoutS = timeoutS;
+    }
+
+    boolean isEmpty() {
+        return m_size == 0;
+    }
+
+    /**
+     * Refresh the signals due in this cycle. With waitForAll, only the CONTROL
+     * signals are waited for, since the others update more slowly than the loop.
+     */
+    StatusCode refresh(long cycle) {
+        int mask = 0;
+        for (Freshness f : CLASSES) {
+            if (f.due(cycle))
+                mask |= 1 << f.ordinal();
+        }
+        if (Freshness.DIAGNOSTIC.due(cycle))
+            m_log_utilization.log(() -> m_bus.getStatus().BusUtilization);
+        if (m_waitTimeoutS <= 0)
+            return refreshAll(m_arrays[mask]);
+        StatusCode result = m_control.length == 0
+                ? StatusCode.OK
+                : BaseStatusSignal.waitForAll(m_waitTimeoutS, m_control);
+        StatusCode slow = refreshAll(m_slowArrays[mask]);
+        return result.isOK() ? slow : result;
+    }
+
+    private static StatusCode refreshAll(BaseStatusSignal[] signals) {
+        if (signals.length == 0)
+            return StatusCode.OK;
+        return BaseStatusSignal.refreshAll(signals);
+    }
+
+    private void rebuild() {
+        for (int mask = 0; mask < m_arrays.length; ++mask) {
+            List<BaseStatusSignal> all = new ArrayList<>();
+            List<BaseStatusSignal> slow = new ArrayList<>();
+            for (Freshness f : CLASSES) {
+                if ((mask & (1 << f.ordinal())) == 0)
+                    continue;
+                all.addAll(m_signals.get(f.ordinal()));
+                if (f != Freshness.CONTROL)
+                    slow.addAll(m_signals.get(f.ordinal()));
+            }
+            m_arrays[mask] = all.toArray(new BaseStatusSignal[0]);
+            m_slowArrays[mask] = slow.toArray(new BaseStatusSignal[0]);
+        }
+        m_control = m_signals.get(Freshness.CONTROL.ordinal()).toArray(new BaseStatusSignal[0]);
+    }
+}
@@ -0,0 +1,31 @@
+package org.team100.lib.coherence;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * A time source that only moves when you step it, for Takt.setSource().
+ * 
+ * This makes simulated time independent of the CPU: a simulation can run as
+ * fast as the CPU allows, and the results don't depend on how fast that is.
+ */
+public class SteppedClock implements DoubleSupplier {
+    private double m_timeS;
+
+    /** @param startS initial time in seconds */
+    public SteppedClock(double startS) {
+        m_timeS = startS;
+    }
+
+    /** Advance the clock by dtS seconds. */
+    public void step(double dtS) {
+        if (dtS < 0)
+            throw new IllegalArgumentException("negative step " + dtS);
+        m_timeS += dtS;
+    }
+
+    /** Current time in seconds. */
+    @Override
+    public double getAsDouble() {
+        return m_timeS;
+    }
+}
@@ -1,11 +1,19 @@
 package org.team100.lib.coherence;
 
+import java.util.function.DoubleSupplier;
+
 /**
  * Takt just caches the FPGA timer, so that all the readers get the same value.
  * 
  * It should be updated in robotPeriodic and nowhere else (except maybe tests).
+ * 
+ * The time source is pluggable, so that simulations can run faster than real
+ * time, e.g. with SteppedClock and HeadlessDriver.
  */
 public class Takt {
+    private static final DoubleSupplier FPGA = edu.wpi.first.wpilibj.Timer::getFPGATimestamp;
+    /** Time source in seconds. */
+    private static DoubleSupplier source = FPGA;
     /** Current Takt time in seconds. */
     private static double now = actual();
 
@@ -30,11 +38,27 @@ public class Takt {
     }
 
     /**
-     * Curent actual FPGA time in seconds.
+     * Curent actual time in seconds, from the time source, which is usually the
+     * FPGA.
      * 
      * A few consumers want the actual time; don't use this unless you really do.
      */
     public static double actual() {
-        return edu.wpi.first.wpilibj.Timer.getFPGATimestamp();
+        return source.getAsDouble();
+    }
+
+    /**
+     * Use a different time source, and update the Takt time from it.
+     * 
+     * Remember to put the FPGA back with useFPGA() when you're done.
+     */
+    public static void setSource(DoubleSupplier timeSource) {
+        source = timeSource;
+        update();
+    }
+
+    /** Use the FPGA time source, which is the default. */
+    public static void useFPGA() {
+        setSource(FPGA);
     }
 }
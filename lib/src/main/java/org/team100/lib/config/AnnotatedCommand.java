@@ -33,4 +33,12 @@ public interface AnnotatedCommand {
     default Pose2d start() {
         return null;
     }
+
+    /**
+     * Called every cycle while disabled, with the current pose estimate, so that
+     * expensive planning can happen ahead of time, rather than in the first
+     * autonomous cycle. The default does nothing.
+     */
+    default void prePlan(Pose2d pose) {
+    }
 }
@@ -1,6 +1,9 @@
 package org.team100.lib.config;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.team100.lib.util.NamedChooser;
@@ -12,26 +15,36 @@ public class AutonChooser {
     private final NamedChooser<AnnotatedCommand> m_chooser;
     /** duplicate names are not allowed. */
     private final Set<String> m_names;
+    /** Everything added, in order, for tests and batch simulation. */
+    private final List<AnnotatedCommand> m_all;
 
     public AutonChooser() {
         m_chooser = new NamedChooser<>("Auton Command");
         m_names = new HashSet<>();
+        m_all = new ArrayList<>();
         addAsDefault(new AnnotatedCommandImpl("NONE", null, null, null));
         SmartDashboard.putData(m_chooser);
     }
 
     public void addAsDefault(AnnotatedCommand cmd) {
         m_chooser.setDefaultOption(unique(cmd.name()), cmd);
+        m_all.add(cmd);
     }
 
     public void add(AnnotatedCommand cmd) {
         m_chooser.addOption(unique(cmd.name()), cmd);
+        m_all.add(cmd);
     }
 
     public AnnotatedCommand get() {
         return m_chooser.getSelected();
     }
 
+    /** All the options, including the default, in the order they were added. */
+    public List<AnnotatedCommand> all() {
+        return Collections.unmodifiableList(m_all);
+    }
+
     public void close() {
         m_chooser.close();
     }
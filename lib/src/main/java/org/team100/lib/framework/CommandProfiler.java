@@ -0,0 +1,61 @@
+package org.team100.lib.framework;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+/**
+ * Runs the command scheduler inside a profiler scope, with a child scope for
+ * each command, named by Command.getName(), so use withName().
+ *
+ * The scheduler has no "after execute" hook, so each command's scope runs from
+ * its execute() to the next command's execute() (or the end of the run), which
+ * includes its isFinished(). Subsystem periodics and scheduler overhead show up
+ * as the self time of the "scheduler" scope.
+ *
+ * Use run() instead of CommandScheduler.getInstance().run().
+ */
+public class CommandProfiler {
+    private static final int SCHEDULER = Profiler.scope("scheduler");
+    private static final Map<String, Integer> commandScopes = new HashMap<>();
+    private static boolean initialized;
+    private static boolean commandActive;
+
+    public static void run() {
+        if (!initialized) {
+            CommandScheduler.getInstance().onCommandExecute(CommandProfiler::onExecute);
+            initialized = true;
+        }
+        Profiler.begin(SCHEDULER);
+        try {
+            CommandScheduler.getInstance().run();
+        } finally {
+            endCommand();
+            Profiler.end();
+        }
+    }
+
+    private static void onExecute(Command command) {
+        endCommand();
+        Integer scope = commandScopes.get(command.getName());
+        if (scope == null) {
+            scope = Profiler.scope(command.getName());
+            commandScopes.put(command.getName(), scope);
+        }
+        Profiler.begin(scope);
+        commandActive = true;
+    }
+
+    private static void endCommand() {
+        if (commandActive) {
+            Profiler.end();
+            commandActive = false;
+        }
+    }
+
+    private CommandProfiler() {
+        //
+    }
+}
@@ -0,0 +1,132 @@
+package org.team100.lib.framework;
+
+import java.util.function.BooleanSupplier;
+
+import org.team100.lib.coherence.SteppedClock;
+import org.team100.lib.coherence.Takt;
+
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+/**
+ * Runs a TimedRobot100 without the notifier, advancing simulated time in fixed
+ * LOOP_PERIOD_S steps as fast as the CPU allows, instead of startCompetition(),
+ * which waits for real time to pass.
+ *
+ * Each step advances Takt (using a SteppedClock) and the simulated FPGA clock
+ * (using SimHooks, so that WPILib things like Timer agree), and then runs the
+ * robot callbacks that are due, i.e. the main loop, and anything added with
+ * addPeriodic().
+ *
+ * This is for tests and batch simulations, e.g. running every auton end to end
+ * in a few milliseconds:
+ *
+ * <pre>
+ * try (HeadlessDriver driver = new HeadlessDriver(robot)) {
+ *     driver.autonomous();
+ *     assertTrue(driver.run(command, 15));
+ * }
+ * </pre>
+ *
+ * Closing the driver disables the simulated driver station, puts Takt back on
+ * the FPGA, and resumes the FPGA clock, so later tests in the same JVM don't
+ * inherit an enabled robot; it doesn't close the robot.
+ */
+public class HeadlessDriver implements AutoCloseable {
+    private final TimedRobot100 m_robot;
+    private final SteppedClock m_clock;
+
+    /**
+     * Pauses the FPGA clock, moves the robot's callback schedule to the start of
+     * the stepped clock, and initializes the robot.
+     */
+    public HeadlessDriver(TimedRobot100 robot) {
+        m_robot = robot;
+        SimHooks.pauseTiming();
+        m_clock = new SteppedClock(Takt.actual());
+        Takt.setSource(m_clock);
+        m_robot.rebase(m_clock.getAsDouble());
+        m_robot.robotInit();
+        m_robot.simulationInit();
+    }
+
+    public void disabled() {
+        DriverStationSim.setEnabled(false);
+        DriverStationSim.notifyNewData();
+    }
+
+    public void autonomous() {
+        DriverStationSim.setAutonomous(true);
+        DriverStationSim.setTest(false);
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+    }
+
+    public void teleop() {
+        DriverStationSim.setAutonomous(false);
+        DriverStationSim.setTest(false);
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+    }
+
+    /** Advance one loop period and run the robot. */
+    public void step() {
+        m_clock.step(TimedRobot100.LOOP_PERIOD_S);
+        SimHooks.stepTiming(TimedRobot100.LOOP_PERIOD_S);
+        m_robot.step(m_clock.getAsDouble());
+    }
+
+    /** Run for the duration, in seconds, of simulated time. */
+    public void run(double durationS) {
+        long steps = Math.round(durationS / TimedRobot100.LOOP_PERIOD_S);
+        for (long i = 0; i < steps; ++i) {
+            step();
+        }
+    }
+
+    /**
+     * Run until done, or until the timeout, in seconds of simulated time.
+     *
+     * @return true if done
+     */
+    public boolean runUntil(BooleanSupplier done, double timeoutS) {
+        long steps = Math.round(timeoutS / TimedRobot100.LOOP_PERIOD_S);
+        for (long i = 0; i < steps; ++i) {
+            if (done.getAsBoolean())
+                return true;
+            step();
+        }
+        return done.getAsBoolean();
+    }
+
+    /**
+     * Schedule the command, and run until it finishes, or until the timeout, in
+     * seconds of simulated time. The command is cancelled if it times out.
+     *
+     * @return true if the command finished
+     */
+    public boolean run(Command command, double timeoutS) {
+        CommandScheduler.getInstance().schedule(command);
+        boolean finished = runUntil(() -> !command.isScheduled(), timeoutS);
+        if (!finished)
+            command.cancel();
+        return finished;
+    }
+
+    /** Simulated time in seconds. */
+    public double time() {
+        return m_clock.getAsDouble();
+    }
+
+    @Override
+    public void close() {
+        DriverStationSim.setEnabled(false);
+        DriverStationSim.setAutonomous(false);
+        DriverStationSim.setTest(false);
+        DriverStationSim.notifyNewData();
+        Takt.useFPGA();
+        SimHooks.resumeTiming();
+    }
+}
@@ -0,0 +1,359 @@
+package org.team100.lib.framework;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.team100.lib.logging.Level;
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.LoggerFactory.DoubleLogger;
+import org.team100.lib.logging.Logging;
+
+/**
+ * Hierarchical per-cycle loop profiler.
+ *
+ * Scopes are registered once, by name, e.g. in a constructor:
+ *
+ * <pre>
+ * private static final int SCOPE = Profiler.scope("my thing");
+ * </pre>
+ *
+ * and timed in the loop:
+ *
+ * <pre>
+ * Profiler.begin(SCOPE);
+ * try {
+ *     ...
+ * } finally {
+ *     Profiler.end();
+ * }
+ * </pre>
+ *
+ * Nested scopes form a tree, e.g. "main loop/Cache/Talon6Motor". Each node of
+ * the tree accumulates nanoTime durations into preallocated arrays, so timing
+ * doesn't allocate, except the first time a node is seen.
+ *
+ * TimedRobot100 calls endCycle() after the main loop, which records each
+ * node's total for the cycle into a rolling window. Each cycle, one node's
+ * p50/p99/max over the window is logged (at TRACE), so the sorting cost is
+ * spread out. Use stats() or dump() to get everything at once.
+ *
+ * Robot thread only.
+ */
+public class Profiler {
+    /** Rolling window, in cycles. 250 cycles is 5 seconds. */
+    static final int WINDOW = 250;
+    private static final int MAX_NODES = 512;
+    private static final int MAX_DEPTH = 32;
+    private static final int ROOT = 0;
+
+    private static final LoggerFactory m_log = Logging.instance().rootLogger.name("Profiler");
+
+    //////////////////////////////////////////
+    // scopes
+
+    private static final Map<String, Integer> scopeIds = new HashMap<>();
+    private static final List<String> scopeNames = new ArrayList<>();
+    /** Instances so far of each name(), for uniqueName(). */
+    private static final Map<String, Integer> nameCounts = new HashMap<>();
+
+    //////////////////////////////////////////
+    // tree nodes; node 0 is the root.
+
+    private static final int[] nodeScope = new int[MAX_NODES];
+    private static final int[] nodeParent = new int[MAX_NODES];
+    private static final int[] firstChild = new int[MAX_NODES];
+    private static final int[] nextSibling = new int[MAX_NODES];
+    /** Nanoseconds so far in this cycle. */
+    private static final long[] accum = new long[MAX_NODES];
+    /** Nanoseconds per cycle, row-major, WINDOW per node. */
+    private static final long[] history = new long[MAX_NODES * WINDOW];
+    private static final DoubleLogger[] logP50 = new DoubleLogger[MAX_NODES];
+    private static final DoubleLogger[] logP99 = new DoubleLogger[MAX_NODES];
+    private static final DoubleLogger[] logMax = new DoubleLogger[MAX_NODES];
+    private static int nodeCount;
+
+    //////////////////////////////////////////
+    // active scopes
+
+    private static final int[] stackNode = new int[MAX_DEPTH];
+    private static final long[] stackStart = new long[MAX_DEPTH];
+    private static int depth;
+    /** Number of nested begin() calls ignored because the tree is full. */
+    private static int ignored;
+
+    //////////////////////////////////////////
+    // window
+
+    private static int cycle;
+    private static int filled;
+    /** Next node to log. */
+    private static int reportNode;
+    private static final long[] scratch = new long[WINDOW];
+
+    private static boolean enabled = true;
+
+    static {
+        clear();
+    }
+
+    /**
+     * Register a scope name. Calling it again with the same name returns the
+     * same id.
+     */
+    public static int scope(String name) {
+        synchronized (scopeIds) {
+            return scopeIds.computeIfAbsent(name, n -> {
+                scopeNames.add(n);
+                return scopeNames.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * A short name for the class of the object, e.g. the enclosing class of a
+     * lambda.
+     */
+    public static String name(Object obj) {
+        String name = obj.getClass().getName();
+        int lambda = name.indexOf("$$");
+        if (lambda >= 0)
+            name = name.substring(0, lambda);
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * name(), with a serial number for each instance, e.g. "Talon6Motor#3", so
+     * that many instances of the same class (e.g. caches with lambdas from the
+     * same enclosing class) get separate scopes instead of one merged one. The
+     * numbers are in construction order, so the same robot code yields the same
+     * names every time, and resetNames() starts them over.
+     */
+    public static String uniqueName(Object obj) {
+        String name = name(obj);
+        synchronized (nameCounts) {
+            int n = nameCounts.merge(name, 1, Integer::sum);
+            return name + "#" + n;
+        }
+    }
+
+    /**
+     * Start the uniqueName() serial numbers over, so that rebuilt instances
+     * reuse the scopes of the ones they replace, instead of adding new ones.
+     */
+    public static void resetNames() {
+        synchronized (nameCounts) {
+            nameCounts.clear();
+        }
+    }
+
+    /** Start timing the scope, inside the currently active scope, if any. */
+    public static void begin(int scope) {
+        if (!enabled)
+            return;
+        if (ignored > 0 || depth == MAX_DEPTH) {
+            ignored++;
+            return;
+        }
+        int parent = depth == 0 ? ROOT : stackNode[depth - 1];
+        int node = child(parent, scope);
+        if (node < 0) {
+            ignored++;
+            return;
+        }
+        stackNode[depth] = node;
+        stackStart[depth] = System.nanoTime();
+        depth++;
+    }
+
+    /** Stop timing the most-recently begun scope. */
+    public static void end() {
+        if (!enabled)
+            return;
+        if (ignored > 0) {
+            ignored--;
+            return;
+        }
+        if (depth == 0)
+            return;
+        depth--;
+        accum[stackNode[depth]] += System.nanoTime() - stackStart[depth];
+    }
+
+    /** Time the runnable. */
+    public static void run(int scope, Runnable runnable) {
+        begin(scope);
+        try {
+            runnable.run();
+        } finally {
+            end();
+        }
+    }
+
+    /**
+     * Record this cycle's totals into the window, and log the stats for one
+     * node.
+     */
+    public static void endCycle() {
+        if (!enabled)
+            return;
+        if (depth != 0) {
+            System.out.printf("WARNING: Profiler unbalanced at end of cycle, depth %d\n", depth);
+            depth = 0;
+            ignored = 0;
+        }
+        for (int n = 1; n < nodeCount; ++n) {
+            history[n * WINDOW + cycle] = accum[n];
+            accum[n] = 0;
+        }
+        cycle = (cycle + 1) % WINDOW;
+        if (filled < WINDOW)
+            filled++;
+        if (nodeCount > 1 && Logging.instance().getLevel().admit(Level.TRACE)) {
+            reportNode = reportNode % (nodeCount - 1) + 1;
+            sort(reportNode);
+            double p50 = percentileS(0.5);
+            double p99 = percentileS(0.99);
+            double max = percentileS(1.0);
+            logP50[reportNode].log(p50);
+            logP99[reportNode].log(p99);
+            logMax[reportNode].log(max);
+        }
+    }
+
+    /** Per-node summary of the window. */
+    public record Stats(String path, double p50S, double p99S, double maxS) {
+    }
+
+    /** Stats for every node, in tree order. Allocates, so don't call it every cycle. */
+    public static List<Stats> stats() {
+        List<Stats> result = new ArrayList<>();
+        for (int n = 1; n < nodeCount; ++n) {
+            sort(n);
+            result.add(new Stats(path(n, "/"),
+                    percentileS(0.5), percentileS(0.99), percentileS(1.0)));
+        }
+        return result;
+    }
+
+    /** Stats as a table, for printing. */
+    public static String report() {
+        StringBuilder b = new StringBuilder();
+        b.append(String.format("%10s %10s %10s  %s\n", "p50 (ms)", "p99 (ms)", "max (ms)", "scope"));
+        for (Stats s : stats()) {
+            b.append(String.format("%10.3f %10.3f %10.3f  %s\n",
+                    s.p50S() * 1e3, s.p99S() * 1e3, s.maxS() * 1e3, s.path()));
+        }
+        return b.toString();
+    }
+
+    /**
+     * Write the window in "collapsed stack" format, one line per node, with the
+     * self time in microseconds, for flamegraph.pl, speedscope, etc.
+     */
+    public static void dump(Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            for (int n = 1; n < nodeCount; ++n) {
+                long self = total(n);
+                for (int c = firstChild[n]; c >= 0; c = nextSibling[c]) {
+                    self -= total(c);
+                }
+                out.printf("%s %d\n", path(n, ";"), Math.max(0, self) / 1000);
+            }
+        }
+    }
+
+    /** Turn profiling on or off. Off makes begin/end/endCycle do nothing. */
+    public static void enable(boolean enable) {
+        enabled = enable;
+        depth = 0;
+        ignored = 0;
+    }
+
+    /** Forget the tree and the window. Scope ids are kept. */
+    public static void clear() {
+        Arrays.fill(firstChild, -1);
+        Arrays.fill(nextSibling, -1);
+        Arrays.fill(accum, 0);
+        Arrays.fill(history, 0);
+        Arrays.fill(logP50, null);
+        Arrays.fill(logP99, null);
+        Arrays.fill(logMax, null);
+        nodeScope[ROOT] = -1;
+        nodeParent[ROOT] = -1;
+        nodeCount = 1;
+        depth = 0;
+        ignored = 0;
+        cycle = 0;
+        filled = 0;
+        reportNode = 0;
+    }
+
+    ///////////////////////////////////////////////////
+
+    /** @return the child of parent for the scope, or -1 if the tree is full. */
+    private static int child(int parent, int scope) {
+        for (int c = firstChild[parent]; c >= 0; c = nextSibling[c]) {
+            if (nodeScope[c] == scope)
+                return c;
+        }
+        if (nodeCount == MAX_NODES)
+            return -1;
+        int node = nodeCount++;
+        nodeScope[node] = scope;
+        nodeParent[node] = parent;
+        nextSibling[node] = firstChild[parent];
+        firstChild[parent] = node;
+        String path = path(node, "/");
+        logP50[node] = m_log.doubleLogger(Level.TRACE, path + "/p50 (s)");
+        logP99[node] = m_log.doubleLogger(Level.TRACE, path + "/p99 (s)");
+        logMax[node] = m_log.doubleLogger(Level.TRACE, path + "/max (s)");
+        return node;
+    }
+
+    private static String path(int node, String separator) {
+        String path = scopeName(nodeScope[node]);
+        for (int p = nodeParent[node]; p != ROOT; p = nodeParent[p]) {
+            path = scopeName(nodeScope[p]) + separator + path;
+        }
+        return path;
+    }
+
+    private static String scopeName(int scope) {
+        synchronized (scopeIds) {
+            return scopeNames.get(scope);
+        }
+    }
+
+    private static long total(int node) {
+        long total = 0;
+        for (int i = 0; i < filled; ++i) {
+            total += history[node * WINDOW + i];
+        }
+        return total;
+    }
+
+    /** Copy the node's window into scratch, and sort it. */
+    private static void sort(int node) {
+        System.arraycopy(history, node * WINDOW, scratch, 0, filled);
+        Arrays.sort(scratch, 0, filled);
+    }
+
+    /** Percentile of the sorted scratch, in seconds. */
+    private static double percentileS(double p) {
+        if (filled == 0)
+            return 0;
+        int i = (int) Math.ceil(p * (filled - 1));
+        return scratch[i] / 1e9;
+    }
+
+    private Profiler() {
+        //
+    }
+}
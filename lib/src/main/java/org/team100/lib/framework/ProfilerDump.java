@@ -0,0 +1,47 @@
+package org.team100.lib.framework;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.team100.lib.coherence.Takt;
+
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+
+/**
+ * On-demand Profiler.dump(), e.g. as a dashboard button:
+ *
+ * <pre>
+ * SmartDashboard.putData("Profiler dump", ProfilerDump.command());
+ * </pre>
+ *
+ * Each press prints the report and writes the window, in collapsed-stack
+ * format, to a new file in the operating directory (/home/lvuser on the
+ * RoboRIO), named by the time. It works while disabled, too.
+ */
+public class ProfilerDump {
+
+    public static Command command() {
+        return Commands.runOnce(ProfilerDump::dump)
+                .ignoringDisable(true)
+                .withName("Profiler dump");
+    }
+
+    /** Print the report and write the file. */
+    public static void dump() {
+        Path file = Filesystem.getOperatingDirectory().toPath()
+                .resolve(String.format("profile-%.0f.txt", Takt.actual()));
+        System.out.print(Profiler.report());
+        try {
+            Profiler.dump(file);
+            System.out.printf("Profiler dump: %s\n", file);
+        } catch (IOException e) {
+            System.out.printf("WARNING: Profiler dump failed: %s\n", e);
+        }
+    }
+
+    private ProfilerDump() {
+        //
+    }
+}
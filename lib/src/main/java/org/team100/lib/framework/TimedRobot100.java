@@ -1,5 +1,7 @@
 package org.team100.lib.framework;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.PriorityQueue;
 
 import org.team100.lib.coherence.Takt;
@@ -26,6 +28,10 @@ public class TimedRobot100 extends IterativeRobotBase {
         public double period;
         public double expirationTime;
         public DoubleLogger logger;
+        /** Profiler scope. */
+        public final int scope;
+        /** The main loop ends the profiler cycle. */
+        public boolean endsCycle;
 
         /**
          * Construct a callback container.
@@ -47,15 +53,23 @@ public class TimedRobot100 extends IterativeRobotBase {
                             * this.period
                     + this.period;
             this.logger = logger.doubleLogger(Level.COMP, "duration (s)/" + name);
+            this.scope = Profiler.scope(name);
         }
 
         public void run() {
 
             double startWaitingS = Takt.actual();
-            func.run();
+            Profiler.begin(scope);
+            try {
+                func.run();
+            } finally {
+                Profiler.end();
+            }
             double endWaitingS = Takt.actual();
             double durationS = endWaitingS - startWaitingS;
-            this.logger.log(() -> durationS);
+            this.logger.log(durationS);
+            if (endsCycle)
+                Profiler.endCycle();
 
         }
 
@@ -104,7 +118,10 @@ public class TimedRobot100 extends IterativeRobotBase {
         m_robotLogger = Logging.instance().rootLogger.type(this);
         m_log_slack = m_robotLogger.doubleLogger(Level.COMP, "slack time (s)");
         m_startTime = Takt.actual();
-        addPeriodic(this::loopFunc, TimedRobot100.LOOP_PERIOD_S, "main loop");
+        Callback mainLoop = new Callback(
+                m_robotLogger, this::loopFunc, m_startTime, LOOP_PERIOD_S, 0.0, "main loop");
+        mainLoop.endsCycle = true;
+        m_callbacks.add(mainLoop);
         NotifierJNI.setNotifierName(m_notifier, "TimedRobot");
         HAL.report(tResourceType.kResourceType_Framework, tInstances.kFramework_Timed);
     }
@@ -150,7 +167,7 @@ public class TimedRobot100 extends IterativeRobotBase {
             if (Logging.instance().getLevel().admit(Level.TRACE) && slackS < 0.001) {
                 System.out.printf("WARNING: Slack time %f is too low!\n", slackS);
             }
-            m_log_slack.log(() -> slackS);
+            m_log_slack.log(slackS);
 
             callback.run();
 
@@ -160,14 +177,49 @@ public class TimedRobot100 extends IterativeRobotBase {
             // Process all other callbacks that are ready to run
             // note when we're falling behind, we stay in this inner loop,
             // perhaps never touching the outer loop.
-            while ((long) (m_callbacks.peek().expirationTime * 1e6) <= curTime) {
-                callback = m_callbacks.poll();
+            runDue(curTime);
+        }
+    }
 
-                callback.run();
+    /**
+     * Run all the callbacks that are due at the given time, without waiting for
+     * the notifier. This is for HeadlessDriver, which supplies the time itself.
+     * 
+     * @param nowS time in seconds
+     */
+    void step(double nowS) {
+        runDue(Math.round(nowS * 1e6));
+    }
 
-                callback.expirationTime += callback.period;
-                m_callbacks.add(callback);
-            }
+    /**
+     * Move the common starting point, and all the callback expiration times with
+     * it, to the given time, keeping their relative phases. This is for
+     * HeadlessDriver, which takes over the clock after the robot is built;
+     * otherwise the first step would run a catch-up callback for every period
+     * that passed during construction.
+     * 
+     * @param nowS time in seconds
+     */
+    void rebase(double nowS) {
+        double shift = nowS - m_startTime;
+        m_startTime = nowS;
+        List<Callback> callbacks = new ArrayList<>(m_callbacks);
+        m_callbacks.clear();
+        for (Callback callback : callbacks) {
+            callback.expirationTime += shift;
+            m_callbacks.add(callback);
+        }
+    }
+
+    /** Run the callbacks due at or before curTime, in microseconds. */
+    private void runDue(long curTime) {
+        while ((long) (m_callbacks.peek().expirationTime * 1e6) <= curTime) {
+            Callback callback = m_callbacks.poll();
+
+            callback.run();
+
+            callback.expirationTime += callback.period;
+            m_callbacks.add(callback);
         }
     }
 
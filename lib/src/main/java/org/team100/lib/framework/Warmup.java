@@ -0,0 +1,151 @@
+package org.team100.lib.framework;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.team100.lib.logging.Level;
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.LoggerFactory.DoubleLogger;
+
+/**
+ * Exercises hot paths with synthetic inputs, so that the JIT has compiled them
+ * before the first auton cycle needs them. On the RoboRIO, the first few calls
+ * of something like the trajectory planner run in the interpreter, and can take
+ * many times longer than they do later.
+ *
+ * Exercises must not touch hardware or any shared state: use private instances
+ * and synthetic inputs.
+ *
+ * Exercises are run round-robin within a time budget, so that warming can be
+ * done in robot init, and also in small slices during disabled time. The budget
+ * uses nanoTime, not Takt, so it works even if time is paused in simulation.
+ * Exercises can't be preempted, so an exercise whose most recent duration is
+ * longer than what's left of the budget is skipped, and the run ends when
+ * nothing fits. The budget can still be exceeded by an exercise that hasn't run
+ * yet, so run with a large budget (e.g. in robot init) first, to measure them.
+ *
+ * The first ("cold") and most recent ("warm") duration of each exercise is
+ * recorded; the difference is roughly what the first cycle would have paid.
+ * Use report() to see it.
+ *
+ * Robot thread only.
+ */
+public class Warmup {
+    private static class Exercise {
+        final String name;
+        final Runnable runnable;
+        final DoubleLogger log_cold;
+        final DoubleLogger log_warm;
+        long coldNs = -1;
+        long warmNs;
+        int count;
+        boolean failed;
+
+        Exercise(LoggerFactory log, String name, Runnable runnable) {
+            this.name = name;
+            this.runnable = runnable;
+            this.log_cold = log.doubleLogger(Level.COMP, name + "/cold (ms)");
+            this.log_warm = log.doubleLogger(Level.COMP, name + "/warm (ms)");
+        }
+    }
+
+    private final LoggerFactory m_log;
+    private final List<Exercise> m_exercises;
+    /** Round-robin position, so that slices continue where they left off. */
+    private int m_next;
+    private long m_totalNs;
+
+    public Warmup(LoggerFactory parent) {
+        m_log = parent.type(this);
+        m_exercises = new ArrayList<>();
+    }
+
+    /**
+     * @param name     for the report
+     * @param exercise must not touch hardware or shared state
+     */
+    public void add(String name, Runnable exercise) {
+        m_exercises.add(new Exercise(m_log, name, exercise));
+    }
+
+    /**
+     * Run exercises round-robin until the budget is spent, skipping any that
+     * wouldn't fit in the remainder. An exercise that throws is reported and
+     * dropped.
+     *
+     * @param budgetS in seconds
+     * @return the number of exercises run
+     */
+    public int run(double budgetS) {
+        long start = System.nanoTime();
+        long budgetNs = (long) (budgetS * 1e9);
+        int runs = 0;
+        while (true) {
+            long remainingNs = budgetNs - (System.nanoTime() - start);
+            if (remainingNs <= 0)
+                break;
+            Exercise e = nextFitting(remainingNs);
+            if (e == null)
+                break;
+            long t0 = System.nanoTime();
+            try {
+                e.runnable.run();
+            } catch (RuntimeException ex) {
+                System.out.printf("WARNING: warmup %s failed: %s\n", e.name, ex);
+                e.failed = true;
+                continue;
+            }
+            long dt = System.nanoTime() - t0;
+            if (e.coldNs < 0)
+                e.coldNs = dt;
+            e.warmNs = dt;
+            e.count++;
+            runs++;
+        }
+        m_totalNs += System.nanoTime() - start;
+        return runs;
+    }
+
+    /** Print and log the cold and warm durations of each exercise. */
+    public void report() {
+        System.out.printf("Warmup total %.3f s\n", m_totalNs / 1e9);
+        double saved = 0;
+        for (Exercise e : m_exercises) {
+            if (e.count == 0)
+                continue;
+            double coldMs = e.coldNs / 1e6;
+            double warmMs = e.warmNs / 1e6;
+            saved += coldMs - warmMs;
+            e.log_cold.log(coldMs);
+            e.log_warm.log(warmMs);
+            System.out.printf("Warmup %-12s runs %6d cold %8.3f ms warm %8.3f ms\n",
+                    e.name, e.count, coldMs, warmMs);
+        }
+        System.out.printf("Warmup first-cycle savings about %.3f ms\n", saved);
+    }
+
+    /** Number of successful runs of the named exercise. */
+    public int count(String name) {
+        for (Exercise e : m_exercises) {
+            if (e.name.equals(name))
+                return e.count;
+        }
+        return 0;
+    }
+
+    /**
+     * The next exercise that hasn't failed, and that either hasn't run yet or
+     * took less than the remaining time last time, or null if there isn't one.
+     */
+    private Exercise nextFitting(long remainingNs) {
+        for (int i = 0; i < m_exercises.size(); ++i) {
+            Exercise e = m_exercises.get(m_next);
+            m_next = (m_next + 1) % m_exercises.size();
+            if (e.failed)
+                continue;
+            if (e.count == 0 || e.warmNs <= remainingNs)
+                return e;
+        }
+        return null;
+    }
+}
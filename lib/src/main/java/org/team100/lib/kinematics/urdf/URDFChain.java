@@ -0,0 +1,327 @@
+package org.team100.lib.kinematics.urdf;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.math.MatBuilder;
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.Nat;
+import edu.wpi.first.math.Num;
+import edu.wpi.first.math.Vector;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.math.numbers.N6;
+
+/**
+ * The joints of a URDFRobot, compiled into flat arrays, so that forward
+ * kinematics is a single pass over the joints, parents first, with no maps,
+ * name lookups, or geometry objects.
+ *
+ * Joint indices are the same as in the URDFRobot joint list, which is also the
+ * index into the configuration vector, q.
+ *
+ * Frames are stored as row-major rotation matrices and translations, in the
+ * robot base frame.
+ *
+ * Not thread-safe: the frame arrays are reused.
+ */
+class URDFChain {
+    private static final int FIXED = 0;
+    private static final int REVOLUTE = 1;
+    private static final int PRISMATIC = 2;
+    private static final int UNSUPPORTED = 3;
+
+    private final int m_n;
+    private final String[] m_names;
+    private final Map<String, Integer> m_index;
+    private final int[] m_type;
+    /** Parent joint index, or -1 for the root. */
+    private final int[] m_parent;
+    /** Joint indices, parents before children. */
+    private final int[] m_order;
+    /** Origin rotation, row-major 3x3 per joint. */
+    private final double[] m_originR;
+    /** Origin translation, 3 per joint. */
+    private final double[] m_originT;
+    /** Axis as given, for prismatic joints, 3 per joint. */
+    private final double[] m_axis;
+    /** Unit axis, for revolute joints, 3 per joint. */
+    private final double[] m_unitAxis;
+
+    /** Joint frame rotations, output of forward(). */
+    final double[] m_R;
+    /** Joint frame translations, output of forward(). */
+    final double[] m_p;
+
+    URDFChain(List<URDFJoint> joints) {
+        m_n = joints.size();
+        m_names = new String[m_n];
+        m_index = new HashMap<>();
+        m_type = new int[m_n];
+        m_parent = new int[m_n];
+        m_order = new int[m_n];
+        m_originR = new double[9 * m_n];
+        m_originT = new double[3 * m_n];
+        m_axis = new double[3 * m_n];
+        m_unitAxis = new double[3 * m_n];
+        m_R = new double[9 * m_n];
+        m_p = new double[3 * m_n];
+
+        for (int i = 0; i < m_n; ++i) {
+            URDFJoint joint = joints.get(i);
+            m_names[i] = joint.name();
+            m_index.put(joint.name(), i);
+            m_type[i] = switch (joint.type()) {
+                case revolute, continuous -> REVOLUTE;
+                case prismatic -> PRISMATIC;
+                case fixed -> FIXED;
+                default -> UNSUPPORTED;
+            };
+            Pose3d origin = joint.origin();
+            Matrix<N3, N3> r = origin.getRotation().toMatrix();
+            for (int row = 0; row < 3; ++row) {
+                for (int col = 0; col < 3; ++col) {
+                    m_originR[9 * i + 3 * row + col] = r.get(row, col);
+                }
+            }
+            m_originT[3 * i] = origin.getX();
+            m_originT[3 * i + 1] = origin.getY();
+            m_originT[3 * i + 2] = origin.getZ();
+            Vector<N3> axis = joint.axis();
+            if (axis != null) {
+                double norm = axis.norm();
+                for (int k = 0; k < 3; ++k) {
+                    m_axis[3 * i + k] = axis.get(k);
+                    m_unitAxis[3 * i + k] = norm > 0 ? axis.get(k) / norm : 0;
+                }
+            }
+        }
+
+        // the parent joint is the one whose child is our parent link.
+        for (int i = 0; i < m_n; ++i) {
+            m_parent[i] = -1;
+            URDFLink parentLink = joints.get(i).parent();
+            for (int j = 0; j < m_n; ++j) {
+                if (joints.get(j).child() == parentLink) {
+                    m_parent[i] = j;
+                    break;
+                }
+            }
+        }
+
+        // topological sort: each joint after its parent.
+        boolean[] done = new boolean[m_n];
+        int count = 0;
+        for (int i = 0; i < m_n; ++i) {
+            count = visit(i, done, count, 0);
+        }
+    }
+
+    /** Append i to the order after its ancestors. */
+    private int visit(int i, boolean[] done, int count, int depth) {
+        if (done[i])
+            return count;
+        if (depth > m_n)
+            throw new IllegalArgumentException("joint cycle at " + m_names[i]);
+        if (m_parent[i] >= 0)
+            count = visit(m_parent[i], done, count, depth + 1);
+        done[i] = true;
+        m_order[count] = i;
+        return count + 1;
+    }
+
+    int size() {
+        return m_n;
+    }
+
+    String name(int i) {
+        return m_names[i];
+    }
+
+    /** @return the index of the named joint, or -1 if there's no such joint. */
+    int index(String name) {
+        return m_index.getOrDefault(name, -1);
+    }
+
+    /**
+     * Compute all the joint frames, writing m_R and m_p.
+     *
+     * The joint frame is the origin transform, in the parent frame, followed by
+     * the joint motion, as in URDFJoint.transform().
+     *
+     * @param q joint parameters, by joint index; ignored for fixed joints.
+     */
+    void forward(double[] q) {
+        for (int k = 0; k < m_n; ++k) {
+            int i = m_order[k];
+            int o9 = 9 * i;
+            int o3 = 3 * i;
+            // local transform: origin, then motion.
+            double r00 = m_originR[o9], r01 = m_originR[o9 + 1], r02 = m_originR[o9 + 2];
+            double r10 = m_originR[o9 + 3], r11 = m_originR[o9 + 4], r12 = m_originR[o9 + 5];
+            double r20 = m_originR[o9 + 6], r21 = m_originR[o9 + 7], r22 = m_originR[o9 + 8];
+            double tx = m_originT[o3], ty = m_originT[o3 + 1], tz = m_originT[o3 + 2];
+            switch (m_type[i]) {
+                case REVOLUTE -> {
+                    // Rodrigues: M = I + sin K + (1 - cos) K^2
+                    double x = m_unitAxis[o3], y = m_unitAxis[o3 + 1], z = m_unitAxis[o3 + 2];
+                    double s = Math.sin(q[i]);
+                    double c = Math.cos(q[i]);
+                    double v = 1 - c;
+                    double m00 = c + x * x * v, m01 = x * y * v - z * s, m02 = x * z * v + y * s;
+                    double m10 = y * x * v + z * s, m11 = c + y * y * v, m12 = y * z * v - x * s;
+                    double m20 = z * x * v - y * s, m21 = z * y * v + x * s, m22 = c + z * z * v;
+                    double a00 = r00 * m00 + r01 * m10 + r02 * m20;
+                    double a01 = r00 * m01 + r01 * m11 + r02 * m21;
+                    double a02 = r00 * m02 + r01 * m12 + r02 * m22;
+                    double a10 = r10 * m00 + r11 * m10 + r12 * m20;
+                    double a11 = r10 * m01 + r11 * m11 + r12 * m21;
+                    double a12 = r10 * m02 + r11 * m12 + r12 * m22;
+                    double a20 = r20 * m00 + r21 * m10 + r22 * m20;
+                    double a21 = r20 * m01 + r21 * m11 + r22 * m21;
+                    double a22 = r20 * m02 + r21 * m12 + r22 * m22;
+                    r00 = a00;
+                    r01 = a01;
+                    r02 = a02;
+                    r10 = a10;
+                    r11 = a11;
+                    r12 = a12;
+                    r20 = a20;
+                    r21 = a21;
+                    r22 = a22;
+                }
+                case PRISMATIC -> {
+                    // translate along the axis, in the origin frame.
+                    double ax = m_axis[o3] * q[i];
+                    double ay = m_axis[o3 + 1] * q[i];
+                    double az = m_axis[o3 + 2] * q[i];
+                    tx += r00 * ax + r01 * ay + r02 * az;
+                    ty += r10 * ax + r11 * ay + r12 * az;
+                    tz += r20 * ax + r21 * ay + r22 * az;
+                }
+                case FIXED -> {
+                    //
+                }
+                default -> throw new UnsupportedOperationException();
+            }
+            int parent = m_parent[i];
+            if (parent < 0) {
+                set(i, r00, r01, r02, r10, r11, r12, r20, r21, r22, tx, ty, tz);
+                continue;
+            }
+            // world = parent * local
+            int p9 = 9 * parent;
+            int p3 = 3 * parent;
+            double[] R = m_R;
+            double p00 = R[p9], p01 = R[p9 + 1], p02 = R[p9 + 2];
+            double p10 = R[p9 + 3], p11 = R[p9 + 4], p12 = R[p9 + 5];
+            double p20 = R[p9 + 6], p21 = R[p9 + 7], p22 = R[p9 + 8];
+            set(i,
+                    p00 * r00 + p01 * r10 + p02 * r20,
+                    p00 * r01 + p01 * r11 + p02 * r21,
+                    p00 * r02 + p01 * r12 + p02 * r22,
+                    p10 * r00 + p11 * r10 + p12 * r20,
+                    p10 * r01 + p11 * r11 + p12 * r21,
+                    p10 * r02 + p11 * r12 + p12 * r22,
+                    p20 * r00 + p21 * r10 + p22 * r20,
+                    p20 * r01 + p21 * r11 + p22 * r21,
+                    p20 * r02 + p21 * r12 + p22 * r22,
+                    m_p[p3] + p00 * tx + p01 * ty + p02 * tz,
+                    m_p[p3 + 1] + p10 * tx + p11 * ty + p12 * tz,
+                    m_p[p3 + 2] + p20 * tx + p21 * ty + p22 * tz);
+        }
+    }
+
+    /** The frame of joint i, from the last forward(). */
+    Pose3d pose(int i) {
+        int o9 = 9 * i;
+        int o3 = 3 * i;
+        Matrix<N3, N3> r = MatBuilder.fill(Nat.N3(), Nat.N3(),
+                m_R[o9], m_R[o9 + 1], m_R[o9 + 2],
+                m_R[o9 + 3], m_R[o9 + 4], m_R[o9 + 5],
+                m_R[o9 + 6], m_R[o9 + 7], m_R[o9 + 8]);
+        return new Pose3d(
+                new Translation3d(m_p[o3], m_p[o3 + 1], m_p[o3 + 2]),
+                new Rotation3d(r));
+    }
+
+    /**
+     * Geometric Jacobian of the end joint frame, from the last forward(), in
+     * the end frame, i.e. the body twist (vx, vy, vz, wx, wy, wz) resulting from
+     * unit motion of each joint. Joints that don't move the end frame, i.e.
+     * fixed joints and those not among its ancestors, have zero columns.
+     *
+     * Mutates and returns the supplied matrix, which should have a column for
+     * each joint.
+     */
+    <Q extends Num> Matrix<N6, Q> jacobian(int end, Matrix<N6, Q> out) {
+        out.fill(0);
+        int e9 = 9 * end;
+        int e3 = 3 * end;
+        double[] R = m_R;
+        for (int j = end; j >= 0; j = m_parent[j]) {
+            int type = m_type[j];
+            if (type == FIXED)
+                continue;
+            int j9 = 9 * j;
+            int j3 = 3 * j;
+            // joint axis in the base frame; the joint motion doesn't change it.
+            double[] axis = type == REVOLUTE ? m_unitAxis : m_axis;
+            double ax = axis[j3], ay = axis[j3 + 1], az = axis[j3 + 2];
+            double wx = R[j9] * ax + R[j9 + 1] * ay + R[j9 + 2] * az;
+            double wy = R[j9 + 3] * ax + R[j9 + 4] * ay + R[j9 + 5] * az;
+            double wz = R[j9 + 6] * ax + R[j9 + 7] * ay + R[j9 + 8] * az;
+            double vx;
+            double vy;
+            double vz;
+            if (type == REVOLUTE) {
+                // v = w x (p_end - p_joint)
+                double dx = m_p[e3] - m_p[j3];
+                double dy = m_p[e3 + 1] - m_p[j3 + 1];
+                double dz = m_p[e3 + 2] - m_p[j3 + 2];
+                vx = wy * dz - wz * dy;
+                vy = wz * dx - wx * dz;
+                vz = wx * dy - wy * dx;
+            } else {
+                vx = wx;
+                vy = wy;
+                vz = wz;
+                wx = 0;
+                wy = 0;
+                wz = 0;
+            }
+            // rotate into the end frame: R_end^T
+            out.set(0, j, R[e9] * vx + R[e9 + 3] * vy + R[e9 + 6] * vz);
+            out.set(1, j, R[e9 + 1] * vx + R[e9 + 4] * vy + R[e9 + 7] * vz);
+            out.set(2, j, R[e9 + 2] * vx + R[e9 + 5] * vy + R[e9 + 8] * vz);
+            out.set(3, j, R[e9] * wx + R[e9 + 3] * wy + R[e9 + 6] * wz);
+            out.set(4, j, R[e9 + 1] * wx + R[e9 + 4] * wy + R[e9 + 7] * wz);
+            out.set(5, j, R[e9 + 2] * wx + R[e9 + 5] * wy + R[e9 + 8] * wz);
+        }
+        return out;
+    }
+
+    private void set(int i,
+            double r00, double r01, double r02,
+            double r10, double r11, double r12,
+            double r20, double r21, double r22,
+            double tx, double ty, double tz) {
+        int o9 = 9 * i;
+        int o3 = 3 * i;
+        m_R[o9] = r00;
+        m_R[o9 + 1] = r01;
+        m_R[o9 + 2] = r02;
+        m_R[o9 + 3] = r10;
+        m_R[o9 + 4] = r11;
+        m_R[o9 + 5] = r12;
+        m_R[o9 + 6] = r20;
+        m_R[o9 + 7] = r21;
+        m_R[o9 + 8] = r22;
+        m_p[o3] = tx;
+        m_p[o3 + 1] = ty;
+        m_p[o3 + 2] = tz;
+    }
+}
@@ -7,12 +7,14 @@ import java.util.function.Function;
 
 import org.team100.lib.geometry.GeometryUtil;
 import org.team100.lib.optimization.NewtonsMethod;
+import org.team100.lib.optimization.NewtonsMethodWorkspace;
+import org.team100.lib.optimization.NumericalJacobian100;
 
+import edu.wpi.first.math.Matrix;
 import edu.wpi.first.math.Nat;
 import edu.wpi.first.math.Num;
 import edu.wpi.first.math.Vector;
 import edu.wpi.first.math.geometry.Pose3d;
-import edu.wpi.first.math.geometry.Transform3d;
 import edu.wpi.first.math.numbers.N6;
 
 /**
@@ -43,6 +45,10 @@ import edu.wpi.first.math.numbers.N6;
  * 
  * https://wiki.ros.org/srdf/review
  * 
+ * The joints are compiled into a URDFChain, so forward kinematics is one pass
+ * over flat arrays, and the Jacobian is analytic. The chain is reused, so this
+ * class is not thread-safe.
+ * 
  * @param Q the number of joints
  */
 public class URDFRobot<Q extends Num> {
@@ -53,12 +59,20 @@ public class URDFRobot<Q extends Num> {
     private final List<URDFLink> m_links;
     private final List<URDFJoint> m_joints;
     private final Nat<Q> m_qDim;
+    /** Scratch for inverse(). */
+    private final NewtonsMethodWorkspace<Q, N6> m_ws;
+    private final URDFChain m_chain;
+    /** Joint parameters, by joint index, for the chain. */
+    private final double[] m_q;
 
     public URDFRobot(Nat<Q> qDim, String name, List<URDFLink> links, List<URDFJoint> joints) {
         m_qDim = qDim;
+        m_ws = new NewtonsMethodWorkspace<>(qDim, Nat.N6());
         m_name = name;
         m_links = links;
         m_joints = joints;
+        m_chain = new URDFChain(joints);
+        m_q = new double[joints.size()];
     }
 
     /**
@@ -67,13 +81,35 @@ public class URDFRobot<Q extends Num> {
      * Key is joint name.
      */
     public Map<String, Pose3d> forward(Map<String, Double> qMap) {
+        for (int i = 0; i < m_joints.size(); ++i) {
+            URDFJoint joint = m_joints.get(i);
+            m_q[i] = joint.active() ? qMap.get(joint.name()) : 0;
+        }
+        m_chain.forward(m_q);
         Map<String, Pose3d> poses = new HashMap<>();
-        for (URDFJoint joint : m_joints) {
-            forward(poses, joint.name(), qMap);
+        for (int i = 0; i < m_chain.size(); ++i) {
+            poses.put(m_chain.name(i), m_chain.pose(i));
         }
         return poses;
     }
 
+    /** Solve forward kinematics for one joint. */
+    public Pose3d forward(Vector<Q> q, String jointName) {
+        int end = index(jointName);
+        chainForward(q);
+        return m_chain.pose(end);
+    }
+
+    /**
+     * Geometric Jacobian of the specified joint frame, in that frame: column i
+     * is the twist (vx, vy, vz, wx, wy, wz) from unit velocity of joint i.
+     */
+    public Matrix<N6, Q> jacobian(Vector<Q> q, String jointName) {
+        int end = index(jointName);
+        chainForward(q);
+        return m_chain.jacobian(end, new Matrix<>(Nat.N6(), m_qDim));
+    }
+
     /**
      * Solve inverse kinematics for all joints using Newton's method.
      * 
@@ -98,9 +134,10 @@ public class URDFRobot<Q extends Num> {
             double dqLimit,
             String jointName,
             Pose3d goal) {
+        int end = index(jointName);
         Function<Vector<Q>, Pose3d> fwd = q -> {
-            Pose3d pose = forward(qMap(q)).get(jointName);
-            return pose;
+            chainForward(q);
+            return m_chain.pose(end);
         };
 
         Function<Vector<Q>, Vector<N6>> err = q -> GeometryUtil.toVec(goal.log(fwd.apply(q)));
@@ -117,9 +154,9 @@ public class URDFRobot<Q extends Num> {
         // but it only happens in the middle of movements, when the
         // initial and goal are far apart.
 
-        // regardless, each iteration (on my fast machine) takes 50 us,
-        // so we can only afford to do, say, 20, even when random-restarting, so make
-        // each iteration limit low.
+        // each iteration used to take 50 us (on my fast machine) before the
+        // chain was compiled, so the limits were set low. it's much cheaper now,
+        // but it's still better to restart than to keep circling.
         int iterations = 8;
 
         // random restart tries to escape local minima.
@@ -128,9 +165,9 @@ public class URDFRobot<Q extends Num> {
         int restarts = 3;
 
         NewtonsMethod<Q, N6> solver = new NewtonsMethod<>(
-                m_qDim, twistDim, err,
+                m_qDim, twistDim, err, NumericalJacobian100.forward(err),
                 minQ(m_qDim), maxQ(m_qDim),
-                tolerance, iterations, dqLimit);
+                tolerance, iterations, dqLimit, m_ws);
         long startTime = System.nanoTime();
         Vector<Q> qVec = solver.solve2(q0, restarts, true);
 
@@ -144,54 +181,27 @@ public class URDFRobot<Q extends Num> {
     ///////////////////////////////////////////////////
 
     URDFJoint getJoint(String name) {
-        for (URDFJoint joint : m_joints) {
-            if (joint.name().equals(name))
-                return joint;
-        }
-        return null;
+        int i = m_chain.index(name);
+        if (i < 0)
+            return null;
+        return m_joints.get(i);
     }
 
     ///////////////////////////////////////////////////
 
-    /**
-     * Populate poses with the pose of the specified joint and those of its parent
-     * chain.
-     */
-    private Pose3d forward(
-            Map<String, Pose3d> poses,
-            String jointName,
-            Map<String, Double> qMap) {
-        URDFJoint joint = getJoint(jointName);
-        Transform3d t = joint.transform(qMap.get(jointName));
-        URDFJoint parent = parentJoint(jointName);
-        if (parent == null) {
-            // this is the root
-            Pose3d basePose = Pose3d.kZero.transformBy(t);
-            poses.put(jointName, basePose);
-            return basePose;
-        }
-        Pose3d parentPose = poses.get(parent.name());
-        if (parentPose != null) {
-            Pose3d newPose = parentPose.transformBy(t);
-            poses.put(jointName, newPose);
-            return newPose;
-        }
-        // if the parent hasn't been computed yet, recurse to do it.
-        Pose3d newParentPose = forward(poses, parent.name(), qMap);
-        Pose3d newNewPose = newParentPose.transformBy(t);
-        poses.put(jointName, newNewPose);
-        return newNewPose;
+    private int index(String jointName) {
+        int i = m_chain.index(jointName);
+        if (i < 0)
+            throw new IllegalArgumentException("no joint named " + jointName);
+        return i;
     }
 
-    /** Parent joint of the specified joint. */
-    private URDFJoint parentJoint(String childName) {
-        URDFJoint childJoint = getJoint(childName);
-        URDFLink parentLink = childJoint.parent();
-        for (URDFJoint joint : m_joints) {
-            if (joint.child() == parentLink)
-                return joint;
+    /** Run the chain for the config vector, q. */
+    private void chainForward(Vector<?> q) {
+        for (int i = 0; i < m_joints.size(); ++i) {
+            m_q[i] = m_joints.get(i).active() ? q.get(i) : 0;
         }
-        return null;
+        m_chain.forward(m_q);
     }
 
     /** Transform the config vector, q, into a named map. */
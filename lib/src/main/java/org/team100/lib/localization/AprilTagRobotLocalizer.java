@@ -1,6 +1,15 @@
 package org.team100.lib.localization;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.DoubleFunction;
 import java.util.stream.DoubleStream;
 
@@ -40,6 +49,23 @@ import edu.wpi.first.wpilibj.DriverStation.Alliance;
  * Note this class depends only on the state *history*, not on the coherent sate
  * *estimate*. The camera input doesn't require fresh odometry, it modifies the
  * past (and replays up to the present).
+ * 
+ * The measurements from all the cameras in one update() are given to the
+ * VisionUpdater together, so it can replay the history just once.
+ * 
+ * In update(), the pose algebra runs off the main thread, one task per camera,
+ * in parallel, pipelined so the main thread never waits for it. The main
+ * thread decodes the frames and samples the history (which isn't thread-safe)
+ * into one batch, while the workers solve the previous batch. At the end of
+ * update(), if the workers are done, the main thread takes their sights, in
+ * timestamp order, for the logging, filtering, and the VisionUpdater, and hands
+ * them the new batch. If they're not done, the new frames wait for the next
+ * cycle. So results are used a cycle (or more) after they arrive, which is fine,
+ * since the VisionUpdater replays from the frame timestamp anyway.
+ * 
+ * Batches are keyed by camera, i.e. by NT topic, and the frames and sights
+ * are pooled, so there's no allocation per frame, beyond the decoded blips
+ * themselves and the pose algebra.
  */
 public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
     private static final boolean DEBUG = false;
@@ -126,6 +152,177 @@ public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
      */
     private double m_heedRadiusM;
 
+    /**
+     * Measurements from the current update(), applied together in
+     * finishUpdate(), so the history is replayed once per cycle instead of once
+     * per tag.
+     */
+    private final List<VisionUpdater.Measurement> m_batch;
+    /** True during update(). */
+    private boolean m_batching;
+
+    // Per-frame state, set by beginFrame().
+    private Alliance m_alliance;
+    private double m_correctedTimestamp;
+    private Pose2d m_samplePose;
+
+    /** The main thread fills this batch in update(). */
+    private Batch m_filling;
+    /** The workers solve this batch, and the main thread uses the results. */
+    private Batch m_solving;
+    /** Reused for sorting. */
+    private final List<Sight> m_sorted;
+    /** For the inline (non-batch) path. */
+    private final Sight m_sight;
+    /** One worker per camera. */
+    private final ExecutorService m_pool;
+
+    /** One camera frame, with everything the workers need. Reused. */
+    private static final class Frame {
+        int ordinal;
+        Transform3d cameraOffset;
+        Alliance alliance;
+        double correctedTimestamp;
+        Pose2d samplePose;
+        Blip24[] blips = new Blip24[0];
+        int count;
+
+        void add(Blip24 blip) {
+            if (count == blips.length)
+                blips = Arrays.copyOf(blips, Math.max(4, 2 * count));
+            blips[count++] = blip;
+        }
+
+        void clear() {
+            Arrays.fill(blips, 0, count, null);
+            count = 0;
+        }
+    }
+
+    /**
+     * The pose algebra for one blip, computed by solve(), which doesn't touch
+     * any shared state, so it can run on a worker. Pooled.
+     */
+    private static final class Sight {
+        int ordinal;
+        int index;
+        double correctedTimestamp;
+        Transform3d rawTagInCamera;
+        boolean usingGyro;
+        Transform3d tagInCamera;
+        Pose3d tagInField;
+        Pose3d estimatedTagInField;
+        Pose2d robotPose2d;
+    }
+
+    /**
+     * The frames from one camera in one batch, and their sights. One worker task
+     * solves them all.
+     */
+    private final class CameraSlot implements Runnable {
+        private final Batch m_batch;
+        private final List<Frame> m_frames = new ArrayList<>();
+        private int m_frameCount;
+        private final List<Sight> m_sights = new ArrayList<>();
+        private int m_sightCount;
+
+        CameraSlot(Batch batch) {
+            m_batch = batch;
+        }
+
+        Frame nextFrame() {
+            if (m_frameCount == m_frames.size())
+                m_frames.add(new Frame());
+            return m_frames.get(m_frameCount++);
+        }
+
+        boolean isEmpty() {
+            return m_frameCount == 0;
+        }
+
+        void clear() {
+            for (int i = 0; i < m_frameCount; ++i) {
+                m_frames.get(i).clear();
+            }
+            m_frameCount = 0;
+            m_sightCount = 0;
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int f = 0; f < m_frameCount; ++f) {
+                    Frame frame = m_frames.get(f);
+                    for (int i = 0; i < frame.count; ++i) {
+                        if (m_sightCount == m_sights.size())
+                            m_sights.add(new Sight());
+                        Sight sight = m_sights.get(m_sightCount);
+                        if (solve(frame.ordinal, i, frame.cameraOffset, frame.alliance,
+                                frame.correctedTimestamp, frame.samplePose, frame.blips[i], sight))
+                            m_sightCount++;
+                    }
+                }
+            } catch (RuntimeException e) {
+                System.out.printf("WARNING: vision solve failed: %s\n", e);
+            } finally {
+                m_batch.m_pending.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Everything received in one cycle (or more, if the workers are slow), by
+     * camera.
+     */
+    private final class Batch {
+        /** Indexed by camera. */
+        private final List<CameraSlot> m_slots = new ArrayList<>();
+        /** Tasks still running. */
+        private final AtomicInteger m_pending = new AtomicInteger();
+        /** For ordering. */
+        private int m_frameCount;
+
+        CameraSlot slot(int camera) {
+            while (m_slots.size() <= camera)
+                m_slots.add(new CameraSlot(this));
+            return m_slots.get(camera);
+        }
+
+        boolean isEmpty() {
+            return m_frameCount == 0;
+        }
+
+        boolean isDone() {
+            return m_pending.get() == 0;
+        }
+
+        /** Start one task per camera with frames. */
+        void submit() {
+            int tasks = 0;
+            for (CameraSlot slot : m_slots) {
+                if (!slot.isEmpty())
+                    tasks++;
+            }
+            m_pending.set(tasks);
+            for (CameraSlot slot : m_slots) {
+                if (!slot.isEmpty())
+                    m_pool.execute(slot);
+            }
+        }
+
+        void clear() {
+            for (CameraSlot slot : m_slots) {
+                slot.clear();
+            }
+            m_frameCount = 0;
+        }
+    }
+
+    private static final Comparator<Sight> ORDER = Comparator
+            .comparingDouble((Sight s) -> s.correctedTimestamp)
+            .thenComparingInt(s -> s.ordinal)
+            .thenComparingInt(s -> s.index);
+
     /**
      * @param parent        logger
      * @param layout        map of apriltags
@@ -147,6 +344,17 @@ public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
         m_visionUpdater = visionUpdater;
         m_allTags = new TrailingHistory<>(HISTORY_DURATION);
         m_usedTags = new TrailingHistory<>(HISTORY_DURATION);
+        m_batch = new ArrayList<>();
+        m_filling = new Batch();
+        m_solving = new Batch();
+        m_sorted = new ArrayList<>();
+        m_sight = new Sight();
+        // Threads are made as needed, i.e. one per camera, and then reused.
+        m_pool = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "AprilTagRobotLocalizer");
+            t.setDaemon(true);
+            return t;
+        });
 
         m_log_allTags = fieldLogger.doubleArrayLogger(Level.TRACE, "all tags");
         m_log_usedTags = fieldLogger.doubleArrayLogger(Level.TRACE, "used tags");
@@ -168,6 +376,50 @@ public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
         setHeedRadiusM(3.5);
     }
 
+    /**
+     * Decodes the blips one at a time, straight from the payload, without making
+     * an array. In update(), the blips go into the camera's frame slot for the
+     * workers.
+     */
+    @Override
+    protected void perValue(
+            int camera,
+            Transform3d cameraOffset,
+            double valueTimestamp,
+            ByteBuffer payload,
+            int count) {
+        if (!beginFrame(valueTimestamp, DriverStation.getAlliance()))
+            return;
+        if (m_batching) {
+            Frame frame = m_filling.slot(camera).nextFrame();
+            frame.ordinal = m_filling.m_frameCount++;
+            frame.cameraOffset = cameraOffset;
+            frame.alliance = m_alliance;
+            frame.correctedTimestamp = m_correctedTimestamp;
+            frame.samplePose = m_samplePose;
+            // The payload buffer is reused, so decode it now, for the workers.
+            try {
+                for (int i = 0; i < count; ++i) {
+                    frame.add(Blip24.struct.unpack(payload));
+                }
+            } catch (RuntimeException ex) {
+                System.out.println("WARNING: decoding failed");
+                frame.clear();
+            }
+            return;
+        }
+        for (int i = 0; i < count; ++i) {
+            Blip24 blip;
+            try {
+                blip = Blip24.struct.unpack(payload);
+            } catch (RuntimeException ex) {
+                System.out.println("WARNING: decoding failed");
+                return;
+            }
+            perBlip(cameraOffset, blip);
+        }
+    }
+
     @Override
     protected void perValue(
             Transform3d cameraOffset,
@@ -180,8 +432,31 @@ public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
                 DriverStation.getAlliance());
     }
 
+    @Override
+    protected void beginUpdate() {
+        m_batch.clear();
+        m_batching = true;
+    }
+
+    /**
+     * If the workers are done with the previous batch, use their results, and
+     * give them this one. Otherwise, keep filling this one next cycle.
+     */
     @Override
     protected void finishUpdate() {
+        if (m_solving.isDone()) {
+            useAll(m_solving);
+            m_solving.clear();
+            if (!m_filling.isEmpty()) {
+                Batch next = m_solving;
+                m_solving = m_filling;
+                m_filling = next;
+                m_solving.submit();
+            }
+        }
+        m_batching = false;
+        m_visionUpdater.putAll(m_batch);
+        m_batch.clear();
         m_pub_tags.set(m_allTags.getAll().toArray(new Pose3d[0]));
         m_pub_used_tags.set(m_usedTags.getAll().toArray(new Pose3d[0]));
         m_log_allTags.log(
@@ -201,6 +476,34 @@ public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
 
     }
 
+    /**
+     * Decode and solve some synthetic blips, a couple of meters in front of the
+     * camera, and throw the results away, so that the JIT compiles the decoder
+     * and the pose algebra before the first real frame. Nothing is logged or
+     * put in the pose estimator.
+     */
+    public void prewarm() {
+        final int count = 8;
+        ByteBuffer payload = ByteBuffer.allocate(Blip24.struct.getSize() * count)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < count; ++i) {
+            Blip24.struct.pack(payload, new Blip24(i + 1, new Transform3d(
+                    new Translation3d(0.1 * i, 0, 2), new Rotation3d(0, 0, 0.1 * i))));
+        }
+        payload.flip();
+        Sight sight = new Sight();
+        for (int i = 0; i < count; ++i) {
+            solve(0, i, new Transform3d(), Alliance.Blue, 0, Pose2d.kZero,
+                    Blip24.struct.unpack(payload), sight);
+        }
+    }
+
+    /** For testing: wait for the workers to finish the current batch. */
+    void awaitSolving() {
+        while (!m_solving.isDone())
+            Thread.onSpinWait();
+    }
+
     /**
      * Compute the robot pose and put it in the pose estimator.
      * 
@@ -216,97 +519,184 @@ public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
             Blip24[] blips,
             double valueTimestamp,
             Optional<Alliance> optAlliance) {
+        if (!beginFrame(valueTimestamp, optAlliance))
+            return;
+        for (int i = 0; i < blips.length; ++i) {
+            perBlip(cameraOffset, blips[i]);
+        }
+    }
 
+    /**
+     * Set up the per-frame state used by perBlip().
+     * 
+     * @return false if the frame should be skipped.
+     */
+    private boolean beginFrame(double valueTimestamp, Optional<Alliance> optAlliance) {
         // Fetch the alliance (not available immediately after startup).
         if (!optAlliance.isPresent()) {
-            return;
+            return false;
         }
-        Alliance alliance = optAlliance.get();
-        m_log_alliance.log(() -> alliance);
+        m_alliance = optAlliance.get();
+        m_log_alliance.log(m_alliance);
 
         // Add the extra delay. TODO: remove this correction.
-        double correctedTimestamp = getCorrectedTimestamp(valueTimestamp);
+        m_correctedTimestamp = getCorrectedTimestamp(valueTimestamp);
 
         // Sample the history.
-        Pose2d samplePose = sample(correctedTimestamp);
-
-        for (int i = 0; i < blips.length; ++i) {
-            Blip24 blip = blips[i];
-
-            printBlip(blip);
+        m_samplePose = sample(m_correctedTimestamp);
+        return true;
+    }
 
-            // Look up the pose of the tag in the field frame.
-            Optional<Pose3d> tagInFieldOpt = m_layout.getTagPose(alliance, blip.getId());
-            if (!tagInFieldOpt.isPresent()) {
-                // This shouldn't happen, but it does.
-                System.out.printf("WARNING: VisionDataProvider24: no tag for id %d\n", blip.getId());
-                continue;
+    /** Use the solved sights, in timestamp order. Main thread only. */
+    private void useAll(Batch batch) {
+        m_sorted.clear();
+        for (CameraSlot slot : batch.m_slots) {
+            for (int i = 0; i < slot.m_sightCount; ++i) {
+                m_sorted.add(slot.m_sights.get(i));
             }
+        }
+        m_sorted.sort(ORDER);
+        for (int i = 0; i < m_sorted.size(); ++i) {
+            use(m_sorted.get(i));
+        }
+        m_sorted.clear();
+    }
 
-            // Field-to-tag.
-            // This is not an estimate, it's the canonical pose from JSON.
-            final Pose3d tagInField = tagInFieldOpt.get();
-
-            // Camera-to-tag.
-            Transform3d tagInCamera = tagInCamera(blip);
-
-            printForCalibration(cameraOffset, blip, tagInCamera);
+    /**
+     * Compute the robot pose implied by one blip, and maybe put it in the pose
+     * estimator.
+     * 
+     * @param cameraOffset Camera pose in robot coordinates.
+     * @param blip         One target in the current frame.
+     */
+    private void perBlip(final Transform3d cameraOffset, Blip24 blip) {
+        if (solve(0, 0, cameraOffset, m_alliance, m_correctedTimestamp, m_samplePose, blip, m_sight))
+            use(m_sight);
+    }
 
-            // TODO: replace this with mixing?
-            tagInCamera = maybeOverrideRotation(cameraOffset, samplePose, tagInField, tagInCamera);
+    /**
+     * The pose algebra for one blip. This doesn't log or touch any mutable
+     * state other than the result, so it's safe on a worker thread.
+     * 
+     * @param result filled in with the answer
+     * @return false if the tag isn't in the layout.
+     */
+    private boolean solve(
+            int ordinal,
+            int index,
+            Transform3d cameraOffset,
+            Alliance alliance,
+            double correctedTimestamp,
+            Pose2d samplePose,
+            Blip24 blip,
+            Sight result) {
+        printBlip(blip);
+
+        // Look up the pose of the tag in the field frame.
+        Optional<Pose3d> tagInFieldOpt = m_layout.getTagPose(alliance, blip.getId());
+        if (!tagInFieldOpt.isPresent()) {
+            // This shouldn't happen, but it does.
+            System.out.printf("WARNING: VisionDataProvider24: no tag for id %d\n", blip.getId());
+            return false;
+        }
 
-            // Estimate the tag pose in the field frame.
-            Pose3d estimatedTagInField = estimatedTagInField(cameraOffset, samplePose, tagInCamera);
-            m_allTags.add(correctedTimestamp, estimatedTagInField);
-            logTagError(tagInField, estimatedTagInField);
+        // Field-to-tag.
+        // This is not an estimate, it's the canonical pose from JSON.
+        final Pose3d tagInField = tagInFieldOpt.get();
+
+        // Camera-to-tag.
+        Transform3d rawTagInCamera = blip.blipToTransform();
+
+        printForCalibration(cameraOffset, blip, rawTagInCamera);
+
+        // TODO: replace this with mixing?
+        boolean usingGyro = useGyro(rawTagInCamera);
+        Transform3d tagInCamera = usingGyro
+                ? PoseEstimationHelper.tagInCamera(
+                        cameraOffset, tagInField, rawTagInCamera, new Rotation3d(samplePose.getRotation()))
+                : rawTagInCamera;
+
+        // Estimate the tag pose in the field frame.
+        Pose3d estimatedTagInField = estimatedTagInField(cameraOffset, samplePose, tagInCamera);
+
+        // Compute the pose implied by the vision input.
+        Pose2d robotPose2d = robotPose2d(samplePose, cameraOffset, tagInField, tagInCamera);
+
+        result.ordinal = ordinal;
+        result.index = index;
+        result.correctedTimestamp = correctedTimestamp;
+        result.rawTagInCamera = rawTagInCamera;
+        result.usingGyro = usingGyro;
+        result.tagInCamera = tagInCamera;
+        result.tagInField = tagInField;
+        result.estimatedTagInField = estimatedTagInField;
+        result.robotPose2d = robotPose2d;
+        return true;
+    }
 
-            // Compute the pose implied by the vision input.
-            Pose2d robotPose2d = robotPose2d(samplePose, cameraOffset, tagInField, tagInCamera);
+    /**
+     * Log the sight, and maybe put it in the pose estimator. Main thread only.
+     */
+    private void use(Sight sight) {
+        final double correctedTimestamp = sight.correctedTimestamp;
+        final Transform3d tagInCamera = sight.tagInCamera;
+        final Pose2d robotPose2d = sight.robotPose2d;
+        final Transform3d rawTagInCamera = sight.rawTagInCamera;
+        final boolean usingGyro = sight.usingGyro;
+        m_log_tag_in_camera.log(() -> rawTagInCamera);
+        m_log_using_gyro.log(() -> usingGyro);
+        m_allTags.add(correctedTimestamp, sight.estimatedTagInField);
+        logTagError(sight.tagInField, sight.estimatedTagInField);
+        m_log_pose.log(() -> robotPose2d);
+        m_pub_pose.set(robotPose2d);
 
-            // Clean the used-tags collection in case we don't end up writing to it.
-            m_usedTags.cleanup(correctedTimestamp);
+        // Clean the used-tags collection in case we don't end up writing to it.
+        m_usedTags.cleanup(correctedTimestamp);
 
-            //////////////////////////////////////////////////////////////////
-            ///
-            /// Should we use this update?
-            ///
-            if (!Experiments.instance.enabled(Experiment.HeedVision)) {
-                // No, we've turned vision off.
-                continue;
-            }
-            ///
-            if (tagInCamera.getTranslation().getNorm() > m_heedRadiusM) {
-                // No, the tag is too far away.
-                continue;
-            }
-            ///
-            if (m_prevPose == null) {
-                // No, we need another nearby fix to believe either one.
-                m_prevPose = robotPose2d;
-                continue;
-            }
-            ///
-            if (Metrics.translationalDistance(m_prevPose, robotPose2d) > VISION_CHANGE_TOLERANCE_M) {
-                // No, the new estimate is too far from the previous one.
-                m_prevPose = robotPose2d;
-                continue;
-            }
-            ///
-            /// Yes, we should use this update.
-            ///
-            //////////////////////////////////////////////////////////////////
+        //////////////////////////////////////////////////////////////////
+        ///
+        /// Should we use this update?
+        ///
+        if (!Experiments.instance.enabled(Experiment.HeedVision)) {
+            // No, we've turned vision off.
+            return;
+        }
+        ///
+        if (tagInCamera.getTranslation().getNorm() > m_heedRadiusM) {
+            // No, the tag is too far away.
+            return;
+        }
+        ///
+        if (m_prevPose == null) {
+            // No, we need another nearby fix to believe either one.
+            m_prevPose = robotPose2d;
+            return;
+        }
+        ///
+        if (Metrics.translationalDistance(m_prevPose, robotPose2d) > VISION_CHANGE_TOLERANCE_M) {
+            // No, the new estimate is too far from the previous one.
+            m_prevPose = robotPose2d;
+            return;
+        }
+        ///
+        /// Yes, we should use this update.
+        ///
+        //////////////////////////////////////////////////////////////////
 
-            m_usedTags.add(correctedTimestamp, estimatedTagInField);
+        m_usedTags.add(correctedTimestamp, sight.estimatedTagInField);
 
-            NoisyPose2d noisyMeasurement = new NoisyPose2d(
-                    robotPose2d,
-                    Uncertainty.visionMeasurementStdDevs(
-                            tagInCamera.getTranslation().getNorm(),
-                            Metrics.offAxisAngleRad(tagInCamera)));
+        NoisyPose2d noisyMeasurement = new NoisyPose2d(
+                robotPose2d,
+                Uncertainty.visionMeasurementStdDevs(
+                        tagInCamera.getTranslation().getNorm(),
+                        Metrics.offAxisAngleRad(tagInCamera)));
 
+        if (m_batching) {
+            m_batch.add(new VisionUpdater.Measurement(correctedTimestamp, noisyMeasurement));
+        } else {
             m_visionUpdater.put(correctedTimestamp, noisyMeasurement);
-            m_prevPose = robotPose2d;
         }
+        m_prevPose = robotPose2d;
     }
 
     /**
@@ -348,30 +738,19 @@ public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
         // Robot in field frame, just using the camera.
         Pose3d robotPose3d = PoseEstimationHelper.robotInField(
                 cameraInRobot, tagInField, tagInCamera);
-        Pose2d robotPose2d = robotPose3d.toPose2d();
         // we used to override the rotation
         // Pose2d robotPose2d = new Pose2d(
         // robotPose3d.getTranslation().toTranslation2d(),
         // historicalPose.getRotation());
-        m_log_pose.log(() -> robotPose2d);
-        m_pub_pose.set(robotPose2d);
-        return robotPose2d;
+        return robotPose3d.toPose2d();
     }
 
     /**
      * If the tag is too far, replace the blip-derived tag rotation with a
      * gyro-derived tag rotation.
      */
-    private Transform3d maybeOverrideRotation(
-            Transform3d cameraOffset, Pose2d historicalPose, Pose3d tagInField, Transform3d tagInCamera) {
-        if (tagInCamera.getTranslation().getNorm() > m_tagRotationBeliefThreshold) {
-            m_log_using_gyro.log(() -> true);
-            tagInCamera = PoseEstimationHelper.tagInCamera(
-                    cameraOffset, tagInField, tagInCamera, new Rotation3d(historicalPose.getRotation()));
-        } else {
-            m_log_using_gyro.log(() -> false);
-        }
-        return tagInCamera;
+    private boolean useGyro(Transform3d tagInCamera) {
+        return tagInCamera.getTranslation().getNorm() > m_tagRotationBeliefThreshold;
     }
 
     /** Log the norm of the translational error of the tag. */
@@ -435,11 +814,4 @@ public class AprilTagRobotLocalizer extends CameraReader<Blip24> {
         return historicalCameraInField.transformBy(tagInCamera);
     }
 
-    /** Camera-to-tag, as it appears in the camera frame. */
-    private Transform3d tagInCamera(Blip24 blip) {
-        Transform3d blipTransform = blip.blipToTransform();
-        m_log_tag_in_camera.log(() -> blipTransform);
-        return blipTransform;
-    }
-
 }
\ No newline at end of file
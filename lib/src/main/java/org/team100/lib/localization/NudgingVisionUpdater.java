@@ -1,5 +1,9 @@
 package org.team100.lib.localization;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
 import org.team100.lib.coherence.Takt;
 import org.team100.lib.fusion.CovarianceInflation;
 import org.team100.lib.fusion.Fusor;
@@ -25,6 +29,7 @@ import edu.wpi.first.math.geometry.Translation2d;
  * weights you want at update time.
  */
 public class NudgingVisionUpdater implements VisionUpdater {
+    private static final Comparator<Measurement> BY_TIMESTAMP = Comparator.comparingDouble(Measurement::timestampS);
 
     private final SwerveHistory m_history;
     /** For replay. */
@@ -32,6 +37,8 @@ public class NudgingVisionUpdater implements VisionUpdater {
     private final Fusor m_cartesianFusor;
     private final Fusor m_rotationFusor;
     private final SwerveStateLogger m_logState;
+    /** Reused by putAll(). */
+    private final List<Measurement> m_batch = new ArrayList<>();
 
     /** To measure time since last update, for indicator. */
     private double m_latestTimeS;
@@ -86,6 +93,47 @@ public class NudgingVisionUpdater implements VisionUpdater {
         m_latestTimeS = Takt.get();
     }
 
+    /**
+     * Put all the measurements, in timestamp order, replaying odometry only as far
+     * as each measurement needs, and then replaying the rest once at the end.
+     * 
+     * The result is the same as calling put() for each measurement in timestamp
+     * order, but the replay cost depends on the length of the history, not the
+     * number of measurements.
+     */
+    @Override
+    public void putAll(List<Measurement> measurements) {
+        if (measurements.isEmpty())
+            return;
+        m_batch.clear();
+        m_batch.addAll(measurements);
+        // Stable, so measurements with the same timestamp keep their order.
+        m_batch.sort(BY_TIMESTAMP);
+
+        double replayFrom = Double.NaN;
+        for (Measurement m : m_batch) {
+            double timestamp = m.timestampS();
+            if (m_history.tooOld(timestamp))
+                continue;
+            if (!Double.isNaN(replayFrom)) {
+                // Make the history correct around this timestamp.
+                m_odometryUpdater.replay(replayFrom, timestamp);
+            }
+            SwerveState sample = m_history.getRecord(timestamp);
+            SwerveState newState = newState(sample, m.noisyMeasurement());
+            m_logState.log(() -> newState);
+            m_history.put(timestamp, newState);
+            replayFrom = timestamp;
+        }
+        if (Double.isNaN(replayFrom))
+            return;
+
+        // Replay everything after the last sample.
+        m_odometryUpdater.replay(replayFrom);
+
+        m_latestTimeS = Takt.get();
+    }
+
     /**
      * Compute the new state, based on the sample.
      * 
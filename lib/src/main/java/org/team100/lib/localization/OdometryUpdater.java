@@ -1,7 +1,5 @@
 package org.team100.lib.localization;
 
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 
@@ -44,6 +42,8 @@ public class OdometryUpdater {
     private final Supplier<SwerveModulePositions> m_positions;
     /** For simulation. For a real robot, supply UnaryOperator.identity(). */
     private final UnaryOperator<Twist2d> m_noise;
+    /** Reused for the module twist in each update. */
+    private final Twist2d m_twist = new Twist2d();
     /**
      * Minimum variance for this fusor represents the true bias noise, aka "bias
      * instability," which is quite low.
@@ -149,19 +149,19 @@ public class OdometryUpdater {
             SwerveModulePositions positions) {
 
         // the entry right before this one, the basis for integration.
-        Entry<Double, SwerveState> lowerEntry = m_history.lowerEntry(
-                currentTimeS);
+        int lowerIndex = m_history.lowerIndex(currentTimeS);
 
-        if (lowerEntry == null) {
+        if (lowerIndex < 0) {
             // System.out.println("lower entry is null");
             // We're at the beginning. There's nothing to apply the wheel position delta to.
             // This should never happen.
             return null;
         }
 
-        double dt = currentTimeS - lowerEntry.getKey();
+        double lowerTimeS = m_history.time(lowerIndex);
+        double dt = currentTimeS - lowerTimeS;
 
-        SwerveState previousState = lowerEntry.getValue();
+        SwerveState previousState = m_history.value(lowerIndex);
         if (dt < 0.0001) {
             // I'm not sure why this happens. In any case, the logic is deterministic so
             // there's no reason to repeat it.
@@ -170,7 +170,7 @@ public class OdometryUpdater {
 
         if (m_debug)
             System.out.printf("=== compute for current time %6.3f sample time %6.3f dt %6.3f\n",
-                    currentTimeS, lowerEntry.getKey(), dt);
+                    currentTimeS, lowerTimeS, dt);
 
         SwerveState newState = newState(previousState, dt, gyroYaw, positions);
 
@@ -206,9 +206,9 @@ public class OdometryUpdater {
             System.out.printf("modulePositionDelta %s\n", modulePositionDelta);
         }
 
-        Twist2d twist = m_kinodynamics.getKinematics().toTwist2d(modulePositionDelta);
+        m_kinodynamics.getKinematics().toTwist2d(modulePositionDelta, m_twist);
         // add noise
-        twist = m_noise.apply(twist);
+        Twist2d twist = m_noise.apply(m_twist);
         if (DEBUG) {
             System.out.printf("twist %s\n", StrUtil.twistStr(twist));
         }
@@ -316,15 +316,29 @@ public class OdometryUpdater {
 
     /** Replay odometry after the sample time. */
     void replay(double sampleTime) {
+        replay(sampleTime, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Replay odometry after the sample time, stopping at the first entry at or
+     * after the end time, so that the history can be sampled anywhere up to the
+     * end time. Use this to apply several vision updates with only one full
+     * replay: replay up to each one, and then all the way after the last one.
+     */
+    void replay(double sampleTime, double endTime) {
         if (m_debug)
-            System.out.printf("==== REPLAY FOR TIME %f\n", sampleTime);
-        // Note the exclusive tailmap: we don't see the entry at timestamp.
-        for (Map.Entry<Double, SwerveState> entry : m_history.exclusiveTailMap(sampleTime).entrySet()) {
-            double timestamp = entry.getKey();
-            SwerveState value = entry.getValue();
+            System.out.printf("==== REPLAY FOR TIME %f TO %f\n", sampleTime, endTime);
+        // Note the exclusive search: we don't see the entry at timestamp.
+        // Look up each index by time, since put() may evict old entries.
+        double timestamp = sampleTime;
+        for (int i = m_history.higherIndex(timestamp); i >= 0; i = m_history.higherIndex(timestamp)) {
+            timestamp = m_history.time(i);
+            SwerveState value = m_history.value(i);
             Rotation2d gyroYaw = value.gyroYaw();
             SwerveModulePositions positions = value.positions();
             put(timestamp, gyroYaw, positions);
+            if (timestamp >= endTime)
+                break;
         }
         if (m_debug)
             System.out.printf("==== DONE REPLAYING FOR TIME %f\n", sampleTime);
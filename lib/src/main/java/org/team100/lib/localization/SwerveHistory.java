@@ -1,7 +1,5 @@
 package org.team100.lib.localization;
 
-import java.util.Map.Entry;
-import java.util.SortedMap;
 import java.util.function.DoubleFunction;
 
 import org.team100.lib.geometry.VelocitySE2;
@@ -13,14 +11,14 @@ import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
 import org.team100.lib.subsystems.swerve.module.state.SwerveModulePositions;
 import org.team100.lib.uncertainty.IsotropicNoiseSE2;
 import org.team100.lib.uncertainty.VariableR1;
-import org.team100.lib.util.TimeInterpolatableBuffer100;
+import org.team100.lib.util.TimeInterpolatableRingBuffer100;
 
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 
 /**
  * History is just a container, in fact the implementation is little more than a
- * wrapper around TimeInterpolatableBuffer.
+ * wrapper around TimeInterpolatableRingBuffer100.
  * 
  * The history always has *something* in it, even the initial zero pose.
  * 
@@ -41,8 +39,14 @@ public class SwerveHistory implements DoubleFunction<ModelSE2> {
      */
     // private static final double BUFFER_DURATION = 0.2;
 
+    /**
+     * Odometry is 50 hz, and five cameras at 50 hz add an entry each per frame, so
+     * 0.2 s of history is about 60 entries.
+     */
+    private static final int BUFFER_CAPACITY = 256;
+
     private final DoubleLogger m_log_timestamp;
-    private final TimeInterpolatableBuffer100<SwerveState> m_poseBuffer;
+    private final TimeInterpolatableRingBuffer100<SwerveState> m_poseBuffer;
 
     public SwerveHistory(
             LoggerFactory parent,
@@ -60,8 +64,8 @@ public class SwerveHistory implements DoubleFunction<ModelSE2> {
         ModelSE2 state = new ModelSE2(initialPoseMeters, new VelocitySE2(0, 0, 0));
         SwerveState initialState = new SwerveState(
                 state, noise, modulePositions, gyroAngle, gyroBias);
-        m_poseBuffer = new TimeInterpolatableBuffer100<>(
-                interpolator, bufferDuration, timestampSeconds, initialState);
+        m_poseBuffer = new TimeInterpolatableRingBuffer100<>(
+                interpolator, bufferDuration, BUFFER_CAPACITY, timestampSeconds, initialState);
     }
 
     /**
@@ -119,8 +123,22 @@ public class SwerveHistory implements DoubleFunction<ModelSE2> {
         m_poseBuffer.put(timestamp, state);
     }
 
-    Entry<Double, SwerveState> lowerEntry(double timestamp) {
-        return m_poseBuffer.lowerEntry(timestamp);
+    /** Index of the latest entry before the timestamp, or -1. */
+    int lowerIndex(double timestamp) {
+        return m_poseBuffer.lowerIndex(timestamp);
+    }
+
+    /** Index of the earliest entry after the timestamp, or -1. */
+    int higherIndex(double timestamp) {
+        return m_poseBuffer.higherIndex(timestamp);
+    }
+
+    double time(int index) {
+        return m_poseBuffer.time(index);
+    }
+
+    SwerveState value(int index) {
+        return m_poseBuffer.value(index);
     }
 
     SwerveState getRecord(double timestamp) {
@@ -131,10 +149,6 @@ public class SwerveHistory implements DoubleFunction<ModelSE2> {
         return m_poseBuffer.tooOld(timestamp);
     }
 
-    SortedMap<Double, SwerveState> exclusiveTailMap(double timestamp) {
-        return m_poseBuffer.tailMap(timestamp, false);
-    }
-
     int size() {
         return m_poseBuffer.size();
     }
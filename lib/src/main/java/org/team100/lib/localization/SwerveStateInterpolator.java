@@ -19,9 +19,13 @@ import edu.wpi.first.math.interpolation.Interpolator;
  * Interpolates the wheel positions.
  * Integrates wheel positions to find the interpolated pose.
  * Interpolates the velocity.
+ * 
+ * Not thread-safe: the twist is reused.
  */
 public class SwerveStateInterpolator implements Interpolator<SwerveState> {
     private final SwerveDriveKinematics100 m_kinematics;
+    /** Reused for each interpolation. */
+    private final Twist2d m_twist = new Twist2d();
 
     public SwerveStateInterpolator(SwerveDriveKinematics100 kinematics) {
         m_kinematics = kinematics;
@@ -51,8 +55,8 @@ public class SwerveStateInterpolator implements Interpolator<SwerveState> {
         // sensor inputs.
         SwerveModuleDeltas delta = SwerveModuleDeltas.modulePositionDelta(
                 startValue.positions(), wheelLerp);
-        Twist2d twist = m_kinematics.toTwist2d(delta);
-        Pose2d pose = startValue.state().pose().exp(twist);
+        m_kinematics.toTwist2d(delta, m_twist);
+        Pose2d pose = startValue.state().pose().exp(m_twist);
 
         // These lerps are wrong but maybe close enough
         VelocitySE2 startVelocity = startValue.state().velocity();
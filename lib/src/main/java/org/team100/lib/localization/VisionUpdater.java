@@ -1,10 +1,16 @@
 package org.team100.lib.localization;
 
+import java.util.List;
+
 import org.team100.lib.uncertainty.NoisyPose2d;
 
 /** For testing. */
 public interface VisionUpdater {
 
+    /** A vision measurement and its timestamp, for batch updates. */
+    record Measurement(double timestampS, NoisyPose2d noisyMeasurement) {
+    }
+
     /**
      * Put a new state estimate based on the supplied measurement. If not current,
      * subsequent wheel updates are replayed.
@@ -13,4 +19,14 @@ public interface VisionUpdater {
             double timestampS,
             NoisyPose2d noisyMeasurement);
 
-}
\ No newline at end of file
+    /**
+     * Put all the measurements, in timestamp order. Implementations with history
+     * replay should override this to replay only once.
+     */
+    default void putAll(List<Measurement> measurements) {
+        measurements.stream()
+                .sorted((a, b) -> Double.compare(a.timestampS(), b.timestampS()))
+                .forEach(m -> put(m.timestampS(), m.noisyMeasurement()));
+    }
+
+}
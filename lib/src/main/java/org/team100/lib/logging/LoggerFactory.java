@@ -105,9 +105,22 @@ public class LoggerFactory {
         return a + "/" + b;
     }
 
+    /**
+     * Tell all the loggers to check the level again. The loggers cache the result
+     * of the level check, so if the level supplier changes its answer, it needs to
+     * call this. Logging does it when the level chooser changes.
+     */
+    public static void levelChanged() {
+        generation++;
+    }
+
     //////////////////////////////////////////////////////
 
-    private boolean allow(Level level) {
+    /** Incremented when the level changes. */
+    private static volatile int generation;
+
+    /** Package-private for testing. */
+    boolean allow(Level level) {
         Level allowed = m_level.get();
         if (allowed == Level.COMP && level == Level.COMP) {
             // comp mode allows COMP level regardless of enablement.
@@ -116,95 +129,139 @@ public class LoggerFactory {
         return allowed.admit(level);
     }
 
+    /**
+     * Checks the level only when it changes, not on every log() call.
+     *
+     * The cached fields aren't volatile: a logger used from a second thread might
+     * see a stale answer for a cycle, which is fine.
+     */
+    abstract class Gated {
+        private final Level m_level;
+        private int m_generation = -1;
+        private boolean m_enabled;
+
+        Gated(Level level) {
+            m_level = level;
+        }
+
+        final boolean enabled() {
+            int g = generation;
+            if (g != m_generation) {
+                m_enabled = allow(m_level);
+                m_generation = g;
+            }
+            return m_enabled;
+        }
+    }
+
     /////////////////////////////////////////////////////
     //
     // logger inner classes
     //
 
-    public class BooleanLogger {
-        private final Level m_level;
+    public class BooleanLogger extends Gated {
         private final PrimitiveLogger.PrimitiveBooleanLogger m_primitiveLogger;
 
         BooleanLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_primitiveLogger = m_pLogger.booleanLogger(root(leaf));
         }
 
         public void log(BooleanSupplier vals) {
-            if (!allow(m_level))
+            if (!enabled())
                 return;
             boolean val = vals.getAsBoolean();
             m_primitiveLogger.log(val);
         }
+
+        public void log(boolean val) {
+            if (!enabled())
+                return;
+            m_primitiveLogger.log(val);
+        }
     }
 
     public BooleanLogger booleanLogger(Level level, String leaf) {
         return new BooleanLogger(level, leaf);
     }
 
-    public class DoubleLogger {
-        private final Level m_level;
+    public class DoubleLogger extends Gated {
         private final PrimitiveLogger.PrimitiveDoubleLogger m_primitiveLogger;
 
         DoubleLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_primitiveLogger = m_pLogger.doubleLogger(root(leaf));
         }
 
         public void log(DoubleSupplier vals) {
-            if (!allow(m_level))
+            if (!enabled())
                 return;
             double val = vals.getAsDouble();
             m_primitiveLogger.log(val);
         }
 
         public void log(Supplier<Double> vals) {
-            if (!allow(m_level))
+            if (!enabled())
                 return;
             Double val = vals.get();
             if (val != null)
                 m_primitiveLogger.log(val.doubleValue());
         }
+
+        public void log(double val) {
+            if (!enabled())
+                return;
+            m_primitiveLogger.log(val);
+        }
     }
 
     public DoubleLogger doubleLogger(Level level, String leaf) {
         return new DoubleLogger(level, leaf);
     }
 
-    public class IntLogger {
-        private final Level m_level;
+    public class IntLogger extends Gated {
         private final PrimitiveLogger.PrimitiveIntLogger m_primitiveLogger;
 
         IntLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_primitiveLogger = m_pLogger.intLogger(root(leaf));
         }
 
         public void log(IntSupplier vals) {
-            if (!allow(m_level))
+            if (!enabled())
                 return;
             int val = vals.getAsInt();
             m_primitiveLogger.log(val);
         }
+
+        public void log(int val) {
+            if (!enabled())
+                return;
+            m_primitiveLogger.log(val);
+        }
     }
 
     public IntLogger intLogger(Level level, String leaf) {
         return new IntLogger(level, leaf);
     }
 
-    public class DoubleArrayLogger {
-        private final Level m_level;
+    public class DoubleArrayLogger extends Gated {
         private final PrimitiveLogger.PrimitiveDoubleArrayLogger m_primitiveLogger;
 
         DoubleArrayLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_primitiveLogger = m_pLogger.doubleArrayLogger(root(leaf));
         }
 
         public void log(Supplier<double[]> vals) {
-            if (!allow(m_level))
+            if (!enabled())
+                return;
+            log(vals.get());
+        }
+
+        public void log(double[] val) {
+            if (!enabled())
                 return;
-            double[] val = vals.get();
             m_primitiveLogger.log(val);
         }
     }
@@ -213,21 +270,26 @@ public class LoggerFactory {
         return new DoubleArrayLogger(level, leaf);
     }
 
-    public class LongLogger {
-        private final Level m_level;
+    public class LongLogger extends Gated {
         private final PrimitiveLogger.PrimitiveLongLogger m_primitiveLogger;
 
         LongLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_primitiveLogger = m_pLogger.longLogger(root(leaf));
         }
 
         public void log(LongSupplier vals) {
-            if (!allow(m_level))
+            if (!enabled())
                 return;
             long val = vals.getAsLong();
             m_primitiveLogger.log(val);
         }
+
+        public void log(long val) {
+            if (!enabled())
+                return;
+            m_primitiveLogger.log(val);
+        }
     }
 
     public LongLogger longLogger(Level level, String leaf) {
@@ -239,19 +301,23 @@ public class LoggerFactory {
      * supplier with this logger, so you don't generate a string if you're not
      * actually going to log it (e.g. because you're running at a coarse log level)
      */
-    public class StringLogger {
-        private final Level m_level;
+    public class StringLogger extends Gated {
         private final PrimitiveLogger.PrimitiveStringLogger m_primitiveLogger;
 
         StringLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_primitiveLogger = m_pLogger.stringLogger(root(leaf));
         }
 
         public void log(Supplier<String> vals) {
-            if (!allow(m_level))
+            if (!enabled())
+                return;
+            log(vals.get());
+        }
+
+        public void log(String val) {
+            if (!enabled())
                 return;
-            String val = vals.get();
             m_primitiveLogger.log(val);
         }
     }
@@ -260,19 +326,23 @@ public class LoggerFactory {
         return new StringLogger(level, leaf);
     }
 
-    public class OptionalDoubleLogger {
-        private final Level m_level;
+    public class OptionalDoubleLogger extends Gated {
         private final PrimitiveLogger.PrimitiveDoubleLogger m_primitiveLogger;
 
         OptionalDoubleLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_primitiveLogger = m_pLogger.doubleLogger(root(leaf));
         }
 
         public void log(Supplier<OptionalDouble> vals) {
-            if (!allow(m_level))
+            if (!enabled())
+                return;
+            log(vals.get());
+        }
+
+        public void log(OptionalDouble val) {
+            if (!enabled())
                 return;
-            OptionalDouble val = vals.get();
             if (val.isPresent()) {
                 m_primitiveLogger.log(val.getAsDouble());
             }
@@ -283,19 +353,24 @@ public class LoggerFactory {
         return new OptionalDoubleLogger(level, leaf);
     }
 
-    public class EnumLogger {
-        private final Level m_level;
+    public class EnumLogger extends Gated {
         private final PrimitiveLogger.PrimitiveStringLogger m_primitiveLogger;
 
         EnumLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_primitiveLogger = m_pLogger.stringLogger(root(leaf));
         }
 
         public void log(Supplier<Enum<?>> vals) {
-            if (!allow(m_level))
+            if (!enabled())
+                return;
+            log(vals.get());
+        }
+
+        public void log(Enum<?> value) {
+            if (!enabled())
                 return;
-            String val = vals.get().name();
+            String val = value.name();
             m_primitiveLogger.log(val);
         }
     }
@@ -304,23 +379,27 @@ public class LoggerFactory {
         return new EnumLogger(level, leaf);
     }
 
-    public class Pose2dLogger {
-        private final Level m_level;
+    public class Pose2dLogger extends Gated {
         private final Translation2dLogger m_translation2dLogger;
         private final Rotation2dLogger m_rotation2dLogger;
 
         Pose2dLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_translation2dLogger = translation2dLogger(level, join(leaf, "translation"));
             m_rotation2dLogger = rotation2dLogger(level, join(leaf, "rotation"));
         }
 
         public void log(Supplier<Pose2d> vals) {
-            if (!allow(m_level))
+            if (!enabled())
                 return;
-            Pose2d val = vals.get();
-            m_translation2dLogger.log(val::getTranslation);
-            m_rotation2dLogger.log(val::getRotation);
+            log(vals.get());
+        }
+
+        public void log(Pose2d val) {
+            if (!enabled())
+                return;
+            m_translation2dLogger.log(val.getTranslation());
+            m_rotation2dLogger.log(val.getRotation());
         }
     }
 
@@ -328,23 +407,27 @@ public class LoggerFactory {
         return new Pose2dLogger(level, leaf);
     }
 
-    public class Transform3dLogger {
-        private final Level m_level;
+    public class Transform3dLogger extends Gated {
         private final Translation3dLogger m_translation3dLogger;
         private final Rotation3dLogger m_rotation3dLogger;
 
         Transform3dLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_translation3dLogger = translation3dLogger(level, join(leaf, "translation"));
             m_rotation3dLogger = rotation3dLogger(level, join(leaf, "rotation"));
         }
 
         public void log(Supplier<Transform3d> vals) {
-            if (!allow(m_level))
+            if (!enabled())
                 return;
-            Transform3d val = vals.get();
-            m_translation3dLogger.log(val::getTranslation);
-            m_rotation3dLogger.log(val::getRotation);
+            log(vals.get());
+        }
+
+        public void log(Transform3d val) {
+            if (!enabled())
+                return;
+            m_translation3dLogger.log(val.getTranslation());
+            m_rotation3dLogger.log(val.getRotation());
         }
     }
 
@@ -352,26 +435,30 @@ public class LoggerFactory {
         return new Transform3dLogger(level, leaf);
     }
 
-    public class Translation3dLogger {
-        private final Level m_level;
+    public class Translation3dLogger extends Gated {
         private final DoubleLogger m_xLogger;
         private final DoubleLogger m_yLogger;
         private final DoubleLogger m_zLogger;
 
         Translation3dLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_xLogger = doubleLogger(level, join(leaf, "x"));
             m_yLogger = doubleLogger(level, join(leaf, "y"));
             m_zLogger = doubleLogger(level, join(leaf, "z"));
         }
 
         public void log(Supplier<Translation3d> vals) {
-            if (!allow(m_level))
+            if (!enabled())
                 return;
-            Translation3d val = vals.get();
-            m_xLogger.log(val::getX);
-            m_yLogger.log(val::getY);
-            m_zLogger.log(val::getZ);
+            log(vals.get());
+        }
+
+        public void log(Translation3d val) {
+            if (!enabled())
+                return;
+            m_xLogger.log(val.getX());
+            m_yLogger.log(val.getY());
+            m_zLogger.log(val.getZ());
         }
     }
 
@@ -379,26 +466,30 @@ public class LoggerFactory {
         return new Translation3dLogger(level, leaf);
     }
 
-    public class Rotation3dLogger {
-        private final Level m_level;
+    public class Rotation3dLogger extends Gated {
         private final DoubleLogger m_rollLogger;
         private final DoubleLogger m_pitchLogger;
         private final DoubleLogger m_yawLogger;
 
         Rotation3dLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_rollLogger = doubleLogger(level, join(leaf, "roll"));
             m_pitchLogger = doubleLogger(level, join(leaf, "pitch"));
             m_yawLogger = doubleLogger(level, join(leaf, "yaw"));
         }
 
         public void log(Supplier<Rotation3d> vals) {
-            if (!allow(m_level))
+            if (!enabled())
+                return;
+            log(vals.get());
+        }
+
+        public void log(Rotation3d val) {
+            if (!enabled())
                 return;
-            Rotation3d val = vals.get();
-            m_rollLogger.log(val::getX);
-            m_pitchLogger.log(val::getY);
-            m_yawLogger.log(val::getZ);
+            m_rollLogger.log(val.getX());
+            m_pitchLogger.log(val.getY());
+            m_yawLogger.log(val.getZ());
         }
     }
 
@@ -406,23 +497,27 @@ public class LoggerFactory {
         return new Rotation3dLogger(level, leaf);
     }
 
-    public class Translation2dLogger {
-        private final Level m_level;
+    public class Translation2dLogger extends Gated {
         private final DoubleLogger m_xLogger;
         private final DoubleLogger m_yLogger;
 
         Translation2dLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_xLogger = doubleLogger(level, join(leaf, "x"));
             m_yLogger = doubleLogger(level, join(leaf, "y"));
         }
 
         public void log(Supplier<Translation2d> vals) {
-            if (!allow(m_level))
+            if (!enabled())
                 return;
-            Translation2d val = vals.get();
-            m_xLogger.log(val::getX);
-            m_yLogger.log(val::getY);
+            log(vals.get());
+        }
+
+        public void log(Translation2d val) {
+            if (!enabled())
+                return;
+            m_xLogger.log(val.getX());
+            m_yLogger.log(val.getY());
         }
     }
 
@@ -430,20 +525,24 @@ public class LoggerFactory {
         return new Translation2dLogger(level, leaf);
     }
 
-    public class Rotation2dLogger {
-        private final Level m_level;
+    public class Rotation2dLogger extends Gated {
         private final DoubleLogger m_radLogger;
 
         Rotation2dLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_radLogger = doubleLogger(level, join(leaf, "rad"));
         }
 
         public void log(Supplier<Rotation2d> vals) {
-            if (!allow(m_level))
+            if (!enabled())
                 return;
-            Rotation2d val = vals.get();
-            m_radLogger.log(val::getRadians);
+            log(vals.get());
+        }
+
+        public void log(Rotation2d val) {
+            if (!enabled())
+                return;
+            m_radLogger.log(val.getRadians());
         }
     }
 
@@ -451,15 +550,14 @@ public class LoggerFactory {
         return new Rotation2dLogger(level, leaf);
     }
 
-    public class TrajectorySE2EntryLogger {
-        private final Level m_level;
+    public class TrajectorySE2EntryLogger extends Gated {
         private final PathSE2PointLogger m_pose2dWithMotionLogger;
         private final DoubleLogger m_timeLogger;
         private final DoubleLogger m_velocityLogger;
         private final DoubleLogger m_accelLogger;
 
         TrajectorySE2EntryLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_pose2dWithMotionLogger = pathSE2PointLogger(level, join(leaf, "posestate"));
             m_timeLogger = doubleLogger(level, join(leaf, "time"));
             m_velocityLogger = doubleLogger(level, join(leaf, "velocity"));
@@ -467,21 +565,18 @@ public class LoggerFactory {
         }
 
         public void log(Supplier<TrajectorySE2Entry> vals) {
-            if (!allow(m_level))
+            if (!enabled())
+                return;
+            log(vals.get());
+        }
+
+        public void log(TrajectorySE2Entry val) {
+            if (!enabled())
                 return;
-            TrajectorySE2Entry val = vals.get();
-            m_pose2dWithMotionLogger.log(() -> {
-                return val.point().point();
-            });
-            m_timeLogger.log(() -> {
-                return val.point().time();
-            });
-            m_velocityLogger.log(() -> {
-                return val.point().velocity();
-            });
-            m_accelLogger.log(() -> {
-                return val.point().accel();
-            });
+            m_pose2dWithMotionLogger.log(val.point().point());
+            m_timeLogger.log(val.point().time());
+            m_velocityLogger.log(val.point().velocity());
+            m_accelLogger.log(val.point().accel());
 
         }
     }
@@ -490,23 +585,28 @@ public class LoggerFactory {
         return new TrajectorySE2EntryLogger(level, leaf);
     }
 
-    public class PathSE2PointLogger {
-        private final Level m_level;
+    public class PathSE2PointLogger extends Gated {
         private final Pose2dLogger m_pose2dLogger;
         private final Rotation2dLogger m_rotation2dLogger;
 
         PathSE2PointLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_pose2dLogger = pose2dLogger(level, join(leaf, "pose"));
             m_rotation2dLogger = rotation2dLogger(level, join(leaf, "course"));
         }
 
         public void log(Supplier<PathSE2Point> vals) {
-            if (!allow(m_level))
+            if (!enabled())
+                return;
+            log(vals.get());
+        }
+
+        public void log(PathSE2Point value) {
+            if (!enabled())
                 return;
-            WaypointSE2 val = vals.get().waypoint();
-            m_pose2dLogger.log(val::pose);
-            m_rotation2dLogger.log(() -> val.course().toRotation());
+            WaypointSE2 val = value.waypoint();
+            m_pose2dLogger.log(val.pose());
+            m_rotation2dLogger.log(val.course().toRotation());
         }
     }
 
@@ -514,26 +614,30 @@ public class LoggerFactory {
         return new PathSE2PointLogger(level, leaf);
     }
 
-    public class Twist2dLogger {
-        private final Level m_level;
+    public class Twist2dLogger extends Gated {
         private final DoubleLogger m_dxLogger;
         private final DoubleLogger m_dyLogger;
         private final DoubleLogger m_dthetaLogger;
 
         Twist2dLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_dxLogger = doubleLogger(level, join(leaf, "dx"));
             m_dyLogger = doubleLogger(level, join(leaf, "dy"));
             m_dthetaLogger = doubleLogger(level, join(leaf, "dtheta"));
         }
 
         public void log(Supplier<Twist2d> vals) {
-            if (!allow(m_level))
+            if (!enabled())
+                return;
+            log(vals.get());
+        }
+
+        public void log(Twist2d val) {
+            if (!enabled())
                 return;
-            Twist2d val = vals.get();
-            m_dxLogger.log(() -> val.dx);
-            m_dyLogger.log(() -> val.dy);
-            m_dthetaLogger.log(() -> val.dtheta);
+            m_dxLogger.log(val.dx);
+            m_dyLogger.log(val.dy);
+            m_dthetaLogger.log(val.dtheta);
         }
     }
 
@@ -541,26 +645,30 @@ public class LoggerFactory {
         return new Twist2dLogger(level, leaf);
     }
 
-    public class ChassisSpeedsLogger {
-        private final Level m_level;
+    public class ChassisSpeedsLogger extends Gated {
         private final DoubleLogger m_vxLogger;
         private final DoubleLogger m_vyLogger;
         private final DoubleLogger m_omegaLogger;
 
         ChassisSpeedsLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_vxLogger = doubleLogger(level, join(leaf, "vx m_s"));
             m_vyLogger = doubleLogger(level, join(leaf, "vy m_s"));
             m_omegaLogger = doubleLogger(level, join(leaf, "omega rad_s"));
         }
 
         public void log(Supplier<ChassisSpeeds> vals) {
-            if (!allow(m_level))
+            if (!enabled())
+                return;
+            log(vals.get());
+        }
+
+        public void log(ChassisSpeeds val) {
+            if (!enabled())
                 return;
-            ChassisSpeeds val = vals.get();
-            m_vxLogger.log(() -> val.vxMetersPerSecond);
-            m_vyLogger.log(() -> val.vyMetersPerSecond);
-            m_omegaLogger.log(() -> val.omegaRadiansPerSecond);
+            m_vxLogger.log(val.vxMetersPerSecond);
+            m_vyLogger.log(val.vyMetersPerSecond);
+            m_omegaLogger.log(val.omegaRadiansPerSecond);
         }
     }
 
@@ -568,26 +676,30 @@ public class LoggerFactory {
         return new ChassisSpeedsLogger(level, leaf);
     }
 
-    public class GlobaDeltaSE2Logger {
-        private final Level m_level;
+    public class GlobaDeltaSE2Logger extends Gated {
         private final DoubleLogger m_xLogger;
         private final DoubleLogger m_yLogger;
         private final DoubleLogger m_thetaLogger;
 
         GlobaDeltaSE2Logger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_xLogger = doubleLogger(level, join(leaf, "x m"));
             m_yLogger = doubleLogger(level, join(leaf, "y m"));
             m_thetaLogger = doubleLogger(level, join(leaf, "theta rad"));
         }
 
         public void log(Supplier<DeltaSE2> vals) {
-            if (!allow(m_level))
+            if (!enabled())
+                return;
+            log(vals.get());
+        }
+
+        public void log(DeltaSE2 val) {
+            if (!enabled())
                 return;
-            DeltaSE2 val = vals.get();
-            m_xLogger.log(val::getX);
-            m_yLogger.log(val::getY);
-            m_thetaLogger.log(val::getRadians);
+            m_xLogger.log(val.getX());
+            m_yLogger.log(val.getY());
+            m_thetaLogger.log(val.getRadians());
         }
     }
 
@@ -595,26 +707,30 @@ public class LoggerFactory {
         return new GlobaDeltaSE2Logger(level, leaf);
     }
 
-    public class VelocitySE2Logger {
-        private final Level m_level;
+    public class VelocitySE2Logger extends Gated {
         private final DoubleLogger m_xLogger;
         private final DoubleLogger m_yLogger;
         private final DoubleLogger m_thetaLogger;
 
         VelocitySE2Logger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_xLogger = doubleLogger(level, join(leaf, "x m_s"));
             m_yLogger = doubleLogger(level, join(leaf, "y m_s"));
             m_thetaLogger = doubleLogger(level, join(leaf, "theta rad_s"));
         }
 
         public void log(Supplier<VelocitySE2> vals) {
-            if (!allow(m_level))
+            if (!enabled())
+                return;
+            log(vals.get());
+        }
+
+        public void log(VelocitySE2 val) {
+            if (!enabled())
                 return;
-            VelocitySE2 val = vals.get();
-            m_xLogger.log(val::x);
-            m_yLogger.log(val::y);
-            m_thetaLogger.log(val::theta);
+            m_xLogger.log(val.x());
+            m_yLogger.log(val.y());
+            m_thetaLogger.log(val.theta());
         }
     }
 
@@ -622,23 +738,27 @@ public class LoggerFactory {
         return new VelocitySE2Logger(level, leaf);
     }
 
-    public class GlobalVelocityR2Logger {
-        private final Level m_level;
+    public class GlobalVelocityR2Logger extends Gated {
         private final DoubleLogger m_xLogger;
         private final DoubleLogger m_yLogger;
 
         GlobalVelocityR2Logger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_xLogger = doubleLogger(level, join(leaf, "x m_s"));
             m_yLogger = doubleLogger(level, join(leaf, "y m_s"));
         }
 
         public void log(Supplier<GlobalVelocityR2> vals) {
-            if (!allow(m_level))
+            if (!enabled())
                 return;
-            GlobalVelocityR2 val = vals.get();
-            m_xLogger.log(val::x);
-            m_yLogger.log(val::y);
+            log(vals.get());
+        }
+
+        public void log(GlobalVelocityR2 val) {
+            if (!enabled())
+                return;
+            m_xLogger.log(val.x());
+            m_yLogger.log(val.y());
         }
     }
 
@@ -646,26 +766,30 @@ public class LoggerFactory {
         return new GlobalVelocityR2Logger(level, leaf);
     }
 
-    public class AccelerationSE2Logger {
-        private final Level m_level;
+    public class AccelerationSE2Logger extends Gated {
         private final DoubleLogger m_xLogger;
         private final DoubleLogger m_yLogger;
         private final DoubleLogger m_thetaLogger;
 
         AccelerationSE2Logger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_xLogger = doubleLogger(level, join(leaf, "x m_s_s"));
             m_yLogger = doubleLogger(level, join(leaf, "y m_s_s"));
             m_thetaLogger = doubleLogger(level, join(leaf, "theta rad_s_s"));
         }
 
         public void log(Supplier<AccelerationSE2> vals) {
-            if (!allow(m_level))
+            if (!enabled())
                 return;
-            AccelerationSE2 val = vals.get();
-            m_xLogger.log(val::x);
-            m_yLogger.log(val::y);
-            m_thetaLogger.log(val::theta);
+            log(vals.get());
+        }
+
+        public void log(AccelerationSE2 val) {
+            if (!enabled())
+                return;
+            m_xLogger.log(val.x());
+            m_yLogger.log(val.y());
+            m_thetaLogger.log(val.theta());
         }
     }
 
@@ -673,46 +797,54 @@ public class LoggerFactory {
         return new AccelerationSE2Logger(level, leaf);
     }
 
-    public class ModelR1Logger {
-        private final Level m_level;
+    public class ModelR1Logger extends Gated {
         private final DoubleLogger m_xLogger;
         private final DoubleLogger m_vLogger;
 
         ModelR1Logger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_xLogger = doubleLogger(level, join(leaf, "x"));
             m_vLogger = doubleLogger(level, join(leaf, "v"));
         }
 
         public void log(Supplier<ModelR1> vals) {
-            if (!allow(m_level))
+            if (!enabled())
                 return;
-            ModelR1 val = vals.get();
-            m_xLogger.log(() -> val.x());
-            m_vLogger.log(val::v);
+            log(vals.get());
+        }
+
+        public void log(ModelR1 val) {
+            if (!enabled())
+                return;
+            m_xLogger.log(val.x());
+            m_vLogger.log(val.v());
         }
     }
 
-    public class ControlR1Logger {
-        private final Level m_level;
+    public class ControlR1Logger extends Gated {
         private final DoubleLogger m_xLogger;
         private final DoubleLogger m_vLogger;
         private final DoubleLogger m_aLogger;
 
         ControlR1Logger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_xLogger = doubleLogger(level, join(leaf, "x"));
             m_vLogger = doubleLogger(level, join(leaf, "v"));
             m_aLogger = doubleLogger(level, join(leaf, "a"));
         }
 
         public void log(Supplier<ControlR1> vals) {
-            if (!allow(m_level))
+            if (!enabled())
+                return;
+            log(vals.get());
+        }
+
+        public void log(ControlR1 val) {
+            if (!enabled())
                 return;
-            ControlR1 val = vals.get();
-            m_xLogger.log(val::x);
-            m_vLogger.log(val::v);
-            m_aLogger.log(val::a);
+            m_xLogger.log(val.x());
+            m_vLogger.log(val.v());
+            m_aLogger.log(val.a());
         }
     }
 
@@ -720,23 +852,27 @@ public class LoggerFactory {
         return new ControlR1Logger(level, leaf);
     }
 
-    public class SetpointsR1Logger {
-        private final Level m_level;
+    public class SetpointsR1Logger extends Gated {
         private final ControlR1Logger m_current;
         private final ControlR1Logger m_next;
 
         SetpointsR1Logger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_current = ControlR1Logger(level, join(leaf, "current"));
             m_next = ControlR1Logger(level, join(leaf, "next"));
         }
 
         public void log(Supplier<SetpointsR1> vals) {
-            if (!allow(m_level))
+            if (!enabled())
+                return;
+            log(vals.get());
+        }
+
+        public void log(SetpointsR1 val) {
+            if (!enabled())
                 return;
-            SetpointsR1 val = vals.get();
-            m_current.log(val::current);
-            m_next.log(val::next);
+            m_current.log(val.current());
+            m_next.log(val.next());
         }
     }
 
@@ -744,26 +880,30 @@ public class LoggerFactory {
         return new SetpointsR1Logger(level, leaf);
     }
 
-    public class ControlSE2Logger {
-        private final Level m_level;
+    public class ControlSE2Logger extends Gated {
         private final ControlR1Logger m_xLogger;
         private final ControlR1Logger m_yLogger;
         private final ControlR1Logger m_thetaLogger;
 
         ControlSE2Logger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_xLogger = ControlR1Logger(level, join(leaf, "x"));
             m_yLogger = ControlR1Logger(level, join(leaf, "y"));
             m_thetaLogger = ControlR1Logger(level, join(leaf, "theta"));
         }
 
         public void log(Supplier<ControlSE2> vals) {
-            if (!allow(m_level))
+            if (!enabled())
+                return;
+            log(vals.get());
+        }
+
+        public void log(ControlSE2 val) {
+            if (!enabled())
                 return;
-            ControlSE2 val = vals.get();
-            m_xLogger.log(val::x);
-            m_yLogger.log(val::y);
-            m_thetaLogger.log(val::theta);
+            m_xLogger.log(val.x());
+            m_yLogger.log(val.y());
+            m_thetaLogger.log(val.theta());
         }
     }
 
@@ -775,26 +915,30 @@ public class LoggerFactory {
         return new ModelR1Logger(level, leaf);
     }
 
-    public class ModelSE2Logger {
-        private final Level m_level;
+    public class ModelSE2Logger extends Gated {
         private final ModelR1Logger m_xLogger;
         private final ModelR1Logger m_yLogger;
         private final ModelR1Logger m_thetaLogger;
 
         ModelSE2Logger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_xLogger = ModelR1Logger(level, join(leaf, "x"));
             m_yLogger = ModelR1Logger(level, join(leaf, "y"));
             m_thetaLogger = ModelR1Logger(level, join(leaf, "theta"));
         }
 
         public void log(Supplier<ModelSE2> vals) {
-            if (!allow(m_level))
+            if (!enabled())
                 return;
-            ModelSE2 val = vals.get();
-            m_xLogger.log(val::x);
-            m_yLogger.log(val::y);
-            m_thetaLogger.log(val::theta);
+            log(vals.get());
+        }
+
+        public void log(ModelSE2 val) {
+            if (!enabled())
+                return;
+            m_xLogger.log(val.x());
+            m_yLogger.log(val.y());
+            m_thetaLogger.log(val.theta());
         }
     }
 
@@ -802,24 +946,28 @@ public class LoggerFactory {
         return new ModelSE2Logger(level, leaf);
     }
 
-    public class SwerveModulePosition100Logger {
-        private final Level m_level;
+    public class SwerveModulePosition100Logger extends Gated {
         private final DoubleLogger m_distanceLogger;
         private final Rotation2dLogger m_rotation2dLogger;
 
         SwerveModulePosition100Logger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_distanceLogger = doubleLogger(level, join(leaf, "distance"));
             m_rotation2dLogger = rotation2dLogger(level, join(leaf, "angle"));
         }
 
         public void log(Supplier<SwerveModulePosition100> vals) {
-            if (!allow(m_level))
+            if (!enabled())
+                return;
+            log(vals.get());
+        }
+
+        public void log(SwerveModulePosition100 val) {
+            if (!enabled())
                 return;
-            SwerveModulePosition100 val = vals.get();
-            m_distanceLogger.log(() -> val.distanceMeters());
+            m_distanceLogger.log(val.distanceMeters());
             if (val.unwrappedAngle().isPresent()) {
-                m_rotation2dLogger.log(val.unwrappedAngle()::get);
+                m_rotation2dLogger.log(val.unwrappedAngle().get());
             }
         }
     }
@@ -828,16 +976,14 @@ public class LoggerFactory {
         return new SwerveModulePosition100Logger(level, leaf);
     }
 
-    public class SwerveModulePositionsLogger {
-        private final Level m_level;
-
+    public class SwerveModulePositionsLogger extends Gated {
         private final SwerveModulePosition100Logger m_frontLeft;
         private final SwerveModulePosition100Logger m_frontRight;
         private final SwerveModulePosition100Logger m_rearLeft;
         private final SwerveModulePosition100Logger m_rearRight;
 
         SwerveModulePositionsLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_frontLeft = swerveModulePosition100Logger(level, join(leaf, "front left"));
             m_frontRight = swerveModulePosition100Logger(level, join(leaf, "front right"));
             m_rearLeft = swerveModulePosition100Logger(level, join(leaf, "rear left"));
@@ -845,13 +991,18 @@ public class LoggerFactory {
         }
 
         public void log(Supplier<SwerveModulePositions> vals) {
-            if (!allow(m_level))
+            if (!enabled())
+                return;
+            log(vals.get());
+        }
+
+        public void log(SwerveModulePositions val) {
+            if (!enabled())
                 return;
-            SwerveModulePositions val = vals.get();
-            m_frontLeft.log(val::frontLeft);
-            m_frontRight.log(val::frontRight);
-            m_rearLeft.log(val::rearLeft);
-            m_rearRight.log(val::rearRight);
+            m_frontLeft.log(val.frontLeft());
+            m_frontRight.log(val.frontRight());
+            m_rearLeft.log(val.rearLeft());
+            m_rearRight.log(val.rearRight());
         }
     }
 
@@ -859,15 +1010,14 @@ public class LoggerFactory {
         return new SwerveModulePositionsLogger(level, leaf);
     }
 
-    public class StateLogger {
-        private final Level m_level;
+    public class StateLogger extends Gated {
         private final Pose2dLogger m_poseLogger;
         private final DoubleLogger m_curvatureLogger;
         private final DoubleLogger m_velocityLogger;
         private final DoubleLogger m_accelLogger;
 
         StateLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_poseLogger = pose2dLogger(level, join(leaf, "pose"));
             m_curvatureLogger = doubleLogger(level, join(leaf, "curvature"));
             m_velocityLogger = doubleLogger(level, join(leaf, "velocity"));
@@ -875,13 +1025,18 @@ public class LoggerFactory {
         }
 
         public void log(Supplier<State> vals) {
-            if (!allow(m_level))
+            if (!enabled())
                 return;
-            State val = vals.get();
-            m_poseLogger.log(() -> val.poseMeters);
-            m_curvatureLogger.log(() -> val.curvatureRadPerMeter);
-            m_velocityLogger.log(() -> val.velocityMetersPerSecond);
-            m_accelLogger.log(() -> val.accelerationMetersPerSecondSq);
+            log(vals.get());
+        }
+
+        public void log(State val) {
+            if (!enabled())
+                return;
+            m_poseLogger.log(val.poseMeters);
+            m_curvatureLogger.log(val.curvatureRadPerMeter);
+            m_velocityLogger.log(val.velocityMetersPerSecond);
+            m_accelLogger.log(val.accelerationMetersPerSecondSq);
         }
     }
 
@@ -889,23 +1044,27 @@ public class LoggerFactory {
         return new StateLogger(level, leaf);
     }
 
-    public class Blip24Logger {
-        private final Level m_level;
+    public class Blip24Logger extends Gated {
         private final IntLogger m_idLogger;
         private final Transform3dLogger m_transformLogger;
 
         Blip24Logger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_idLogger = intLogger(level, join(leaf, "id"));
             m_transformLogger = transform3dLogger(level, join(leaf, "transform"));
         }
 
         public void log(Supplier<Blip24> vals) {
-            if (!allow(m_level))
+            if (!enabled())
                 return;
-            Blip24 val = vals.get();
-            m_idLogger.log(val::getId);
-            m_transformLogger.log(val::getRawPose);
+            log(vals.get());
+        }
+
+        public void log(Blip24 val) {
+            if (!enabled())
+                return;
+            m_idLogger.log(val.getId());
+            m_transformLogger.log(val.getRawPose());
         }
     }
 
@@ -913,26 +1072,30 @@ public class LoggerFactory {
         return new Blip24Logger(level, leaf);
     }
 
-    public class ConfigLogger {
-        private final Level m_level;
+    public class ConfigLogger extends Gated {
         private final DoubleLogger m_elevator;
         private final DoubleLogger m_shoulder;
         private final DoubleLogger m_wrist;
 
         ConfigLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_elevator = doubleLogger(level, join(leaf, "elevator"));
             m_shoulder = doubleLogger(level, join(leaf, "shoulder"));
             m_wrist = doubleLogger(level, join(leaf, "wrist"));
         }
 
         public void log(Supplier<EAWConfig> vals) {
-            if (!allow(m_level))
+            if (!enabled())
                 return;
-            EAWConfig val = vals.get();
-            m_elevator.log(val::shoulderHeight);
-            m_shoulder.log(val::shoulderAngle);
-            m_wrist.log(val::wristAngle);
+            log(vals.get());
+        }
+
+        public void log(EAWConfig val) {
+            if (!enabled())
+                return;
+            m_elevator.log(val.shoulderHeight());
+            m_shoulder.log(val.shoulderAngle());
+            m_wrist.log(val.wristAngle());
         }
     }
 
@@ -940,26 +1103,30 @@ public class LoggerFactory {
         return new ConfigLogger(level, leaf);
     }
 
-    public class JointVelocitiesLogger {
-        private final Level m_level;
+    public class JointVelocitiesLogger extends Gated {
         private final DoubleLogger m_elevator;
         private final DoubleLogger m_shoulder;
         private final DoubleLogger m_wrist;
 
         JointVelocitiesLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_elevator = doubleLogger(level, join(leaf, "elevator"));
             m_shoulder = doubleLogger(level, join(leaf, "shoulder"));
             m_wrist = doubleLogger(level, join(leaf, "wrist"));
         }
 
         public void log(Supplier<JointVelocities> vals) {
-            if (!allow(m_level))
+            if (!enabled())
+                return;
+            log(vals.get());
+        }
+
+        public void log(JointVelocities val) {
+            if (!enabled())
                 return;
-            JointVelocities val = vals.get();
-            m_elevator.log(val::elevator);
-            m_shoulder.log(val::shoulder);
-            m_wrist.log(val::wrist);
+            m_elevator.log(val.elevator());
+            m_shoulder.log(val.shoulder());
+            m_wrist.log(val.wrist());
         }
     }
 
@@ -967,26 +1134,30 @@ public class LoggerFactory {
         return new JointVelocitiesLogger(level, leaf);
     }
 
-    public class JointAccelerationsLogger {
-        private final Level m_level;
+    public class JointAccelerationsLogger extends Gated {
         private final DoubleLogger m_elevator;
         private final DoubleLogger m_shoulder;
         private final DoubleLogger m_wrist;
 
         JointAccelerationsLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_elevator = doubleLogger(level, join(leaf, "elevator"));
             m_shoulder = doubleLogger(level, join(leaf, "shoulder"));
             m_wrist = doubleLogger(level, join(leaf, "wrist"));
         }
 
         public void log(Supplier<JointAccelerations> vals) {
-            if (!allow(m_level))
+            if (!enabled())
                 return;
-            JointAccelerations val = vals.get();
-            m_elevator.log(val::elevator);
-            m_shoulder.log(val::shoulder);
-            m_wrist.log(val::wrist);
+            log(vals.get());
+        }
+
+        public void log(JointAccelerations val) {
+            if (!enabled())
+                return;
+            m_elevator.log(val.elevator());
+            m_shoulder.log(val.shoulder());
+            m_wrist.log(val.wrist());
         }
     }
 
@@ -994,26 +1165,30 @@ public class LoggerFactory {
         return new JointAccelerationsLogger(level, leaf);
     }
 
-    public class JointForceLogger {
-        private final Level m_level;
+    public class JointForceLogger extends Gated {
         private final DoubleLogger m_elevator;
         private final DoubleLogger m_shoulder;
         private final DoubleLogger m_wrist;
 
         JointForceLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_elevator = doubleLogger(level, join(leaf, "elevator"));
             m_shoulder = doubleLogger(level, join(leaf, "shoulder"));
             m_wrist = doubleLogger(level, join(leaf, "wrist"));
         }
 
         public void log(Supplier<JointForce> vals) {
-            if (!allow(m_level))
+            if (!enabled())
                 return;
-            JointForce val = vals.get();
-            m_elevator.log(val::elevator);
-            m_shoulder.log(val::shoulder);
-            m_wrist.log(val::wrist);
+            log(vals.get());
+        }
+
+        public void log(JointForce val) {
+            if (!enabled())
+                return;
+            m_elevator.log(val.elevator());
+            m_shoulder.log(val.shoulder());
+            m_wrist.log(val.wrist());
         }
     }
 
@@ -1021,23 +1196,27 @@ public class LoggerFactory {
         return new JointForceLogger(level, leaf);
     }
 
-    public class VariableR1Logger {
-        private final Level m_level;
+    public class VariableR1Logger extends Gated {
         private final DoubleLogger m_mean;
         private final DoubleLogger m_sigma;
 
         VariableR1Logger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_mean = doubleLogger(level, join(leaf, "mean"));
             m_sigma = doubleLogger(level, join(leaf, "sigma"));
         }
 
         public void log(Supplier<VariableR1> vals) {
-            if (!allow(m_level))
+            if (!enabled())
+                return;
+            log(vals.get());
+        }
+
+        public void log(VariableR1 val) {
+            if (!enabled())
                 return;
-            VariableR1 val = vals.get();
-            m_mean.log(val::mean);
-            m_sigma.log(val::sigma);
+            m_mean.log(val.mean());
+            m_sigma.log(val.sigma());
         }
 
     }
@@ -1046,23 +1225,27 @@ public class LoggerFactory {
         return new VariableR1Logger(level, leaf);
     }
 
-    public class IsotropicNoiseSE2Logger {
-        private final Level m_level;
+    public class IsotropicNoiseSE2Logger extends Gated {
         private final DoubleLogger m_cartesian;
         private final DoubleLogger m_rotation;
 
         IsotropicNoiseSE2Logger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_cartesian = doubleLogger(level, join(leaf, "cartesian"));
             m_rotation = doubleLogger(level, join(leaf, "rotation"));
         }
 
         public void log(Supplier<IsotropicNoiseSE2> vals) {
-            if (!allow(m_level))
+            if (!enabled())
+                return;
+            log(vals.get());
+        }
+
+        public void log(IsotropicNoiseSE2 val) {
+            if (!enabled())
                 return;
-            IsotropicNoiseSE2 val = vals.get();
-            m_cartesian.log(val::cartesian);
-            m_rotation.log(val::rotation);
+            m_cartesian.log(val.cartesian());
+            m_rotation.log(val.rotation());
         }
 
     }
@@ -1071,8 +1254,7 @@ public class LoggerFactory {
         return new IsotropicNoiseSE2Logger(level, leaf);
     }
 
-    public class SwerveStateLogger {
-        private final Level m_level;
+    public class SwerveStateLogger extends Gated {
         private final ModelSE2Logger m_model;
         private final IsotropicNoiseSE2Logger m_noise;
         private final SwerveModulePositionsLogger m_positions;
@@ -1080,7 +1262,7 @@ public class LoggerFactory {
         private final VariableR1Logger m_gyroBias;
 
         SwerveStateLogger(Level level, String leaf) {
-            m_level = level;
+            super(level);
             m_model = modelSE2Logger(level, join(leaf, "model"));
             m_noise = isotropicNoiseSE2Logger(level, join(leaf, "noise"));
             m_positions = swerveModulePositionsLogger(level, join(leaf, "positions"));
@@ -1089,14 +1271,19 @@ public class LoggerFactory {
         }
 
         public void log(Supplier<SwerveState> vals) {
-            if (!allow(m_level))
-                return;
-            SwerveState val = vals.get();
-            m_model.log(val::state);
-            m_noise.log(val::noise);
-            m_positions.log(val::positions);
-            m_gyroYaw.log(val::gyroYaw);
-            m_gyroBias.log(val::gyroBias);
+            if (!enabled())
+                return;
+            log(vals.get());
+        }
+
+        public void log(SwerveState val) {
+            if (!enabled())
+                return;
+            m_model.log(val.state());
+            m_noise.log(val.noise());
+            m_positions.log(val.positions());
+            m_gyroYaw.log(val.gyroYaw());
+            m_gyroBias.log(val.gyroBias());
         }
 
     }
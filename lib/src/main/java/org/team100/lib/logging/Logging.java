@@ -1,11 +1,16 @@
 package org.team100.lib.logging;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.team100.lib.logging.primitive.BinaryPrimitiveLogger;
 import org.team100.lib.logging.primitive.NTPrimitiveLogger;
 import org.team100.lib.logging.primitive.PrimitiveLogger;
 import org.team100.lib.util.NamedChooser;
 
 import com.ctre.phoenix6.SignalLogger;
 
+import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
@@ -16,16 +21,31 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
  */
 public class Logging {
     private static final Level DEFAULT_LEVEL = Level.TRACE;
+    /**
+     * Use the binary file transport for the "log" tree, instead of Network Tables.
+     * This is much faster, but nothing shows up in Glass: convert the file with
+     * BinaryLogReader and look at it in AdvantageScope.
+     */
+    private static final boolean BINARY = false;
+    private static final int BINARY_RING_BYTES = 1 << 22;
 
     private PrimitiveLogger ntLogger;
+    private PrimitiveLogger binaryLogger;
 
     private static final SendableChooser<Level> m_LevelChooser = new NamedChooser<>("Log Level");
 
+    /**
+     * The chooser is slow to read, so remember its selection, and tell the loggers
+     * when it changes.
+     */
+    private static volatile Level m_level = DEFAULT_LEVEL;
+
     static {
         for (Level level : Level.values()) {
             m_LevelChooser.addOption(level.name(), level);
         }
         m_LevelChooser.setDefaultOption(DEFAULT_LEVEL.name(), DEFAULT_LEVEL);
+        m_LevelChooser.onChange(Logging::setLevel);
         SmartDashboard.putData(m_LevelChooser);
     }
 
@@ -43,8 +63,11 @@ public class Logging {
      */
     private Logging() {
         ntLogger = new NTPrimitiveLogger();
+        if (BINARY)
+            binaryLogger = binaryLogger();
         fieldLogger = new LoggerFactory(this::getLevel, "field", ntLogger);
-        rootLogger = new LoggerFactory(this::getLevel, "log", ntLogger);
+        rootLogger = new LoggerFactory(this::getLevel, "log",
+                binaryLogger == null ? ntLogger : binaryLogger);
         fieldLogger.stringLogger(Level.COMP, ".type").log(() -> "Field2d");
 
         // turn off the CTRE log we never use
@@ -52,13 +75,33 @@ public class Logging {
     }
 
     public int keyCount() {
+        int count = 0;
         if (ntLogger != null)
-            return ntLogger.keyCount();
-        return 0;
+            count += ntLogger.keyCount();
+        if (binaryLogger != null)
+            count += binaryLogger.keyCount();
+        return count;
+    }
+
+    /** @return the binary logger, or null if the file can't be opened. */
+    private static PrimitiveLogger binaryLogger() {
+        Path file = Path.of(DataLogManager.getLogDir(),
+                String.format("log_%d.t100log", System.currentTimeMillis()));
+        try {
+            return new BinaryPrimitiveLogger(file, BINARY_RING_BYTES);
+        } catch (IOException e) {
+            System.out.println("WARNING: binary logging unavailable: " + e.getMessage());
+            return null;
+        }
     }
 
     public Level getLevel() {
-        return m_LevelChooser.getSelected();
+        return m_level;
+    }
+
+    private static void setLevel(Level level) {
+        m_level = level;
+        LoggerFactory.levelChanged();
     }
 
     /** The logging singleton. */
@@ -0,0 +1,183 @@
+package org.team100.lib.logging.primitive;
+
+import static org.team100.lib.logging.primitive.BinaryPrimitiveLogger.BOOLEAN;
+import static org.team100.lib.logging.primitive.BinaryPrimitiveLogger.DEFINE;
+import static org.team100.lib.logging.primitive.BinaryPrimitiveLogger.DOUBLE;
+import static org.team100.lib.logging.primitive.BinaryPrimitiveLogger.DOUBLES_PER_SLOT;
+import static org.team100.lib.logging.primitive.BinaryPrimitiveLogger.DOUBLE_ARRAY;
+import static org.team100.lib.logging.primitive.BinaryPrimitiveLogger.INT;
+import static org.team100.lib.logging.primitive.BinaryPrimitiveLogger.LONG;
+import static org.team100.lib.logging.primitive.BinaryPrimitiveLogger.MAGIC;
+import static org.team100.lib.logging.primitive.BinaryPrimitiveLogger.ORDER;
+import static org.team100.lib.logging.primitive.BinaryPrimitiveLogger.SLOT_BYTES;
+import static org.team100.lib.logging.primitive.BinaryPrimitiveLogger.STRING;
+import static org.team100.lib.logging.primitive.BinaryPrimitiveLogger.VERSION;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.wpi.first.util.datalog.DataLogWriter;
+
+/**
+ * Reads files written by {@link BinaryPrimitiveLogger}, and exports them to
+ * WPILOG, for AdvantageScope.
+ *
+ * This runs offline, on the laptop, so it doesn't care about allocation.
+ *
+ * Usage: BinaryLogReader input.t100log output.wpilog
+ */
+public class BinaryLogReader {
+
+    /** Receives the contents of the file in order. */
+    public interface Visitor {
+        void define(int id, String label, byte type);
+
+        void booleanValue(int id, long timestampUs, boolean val);
+
+        void doubleValue(int id, long timestampUs, double val);
+
+        /** Both int and long keys arrive here. */
+        void longValue(int id, long timestampUs, long val);
+
+        void stringValue(int id, long timestampUs, String val);
+
+        void doubleArrayValue(int id, long timestampUs, double[] val);
+    }
+
+    private final ByteBuffer m_buf;
+
+    public BinaryLogReader(Path file) throws IOException {
+        m_buf = ByteBuffer.wrap(Files.readAllBytes(file)).order(ORDER);
+        byte[] magic = new byte[MAGIC.length];
+        m_buf.get(magic);
+        if (!Arrays.equals(magic, MAGIC))
+            throw new IllegalArgumentException("not a binary log file");
+        int version = m_buf.getInt();
+        if (version != VERSION)
+            throw new IllegalArgumentException("unknown version " + version);
+    }
+
+    /**
+     * Visit every record. A partial record at the end (e.g. from a power cut) is
+     * ignored.
+     */
+    public void read(Visitor visitor) {
+        while (m_buf.hasRemaining()) {
+            int start = m_buf.position();
+            byte type = m_buf.get(start);
+            if (type == DEFINE) {
+                if (m_buf.remaining() < 10)
+                    return;
+                m_buf.get();
+                int id = m_buf.getInt();
+                byte keyType = m_buf.get();
+                int len = m_buf.getInt();
+                if (m_buf.remaining() < len)
+                    return;
+                byte[] name = new byte[len];
+                m_buf.get(name);
+                visitor.define(id, new String(name, StandardCharsets.UTF_8), keyType);
+                continue;
+            }
+            if (m_buf.remaining() < SLOT_BYTES)
+                return;
+            int id = m_buf.getInt(start + 4);
+            long timestampUs = m_buf.getLong(start + 8);
+            long payload = m_buf.getLong(start + 16);
+            m_buf.position(start + SLOT_BYTES);
+            switch (type) {
+                case BOOLEAN -> visitor.booleanValue(id, timestampUs, payload != 0);
+                case DOUBLE -> visitor.doubleValue(id, timestampUs, Double.longBitsToDouble(payload));
+                case INT, LONG -> visitor.longValue(id, timestampUs, payload);
+                case STRING -> {
+                    int len = (int) payload;
+                    int slots = (len + SLOT_BYTES - 1) / SLOT_BYTES;
+                    if (m_buf.remaining() < slots * SLOT_BYTES)
+                        return;
+                    byte[] val = new byte[len];
+                    m_buf.get(val);
+                    m_buf.position(start + SLOT_BYTES * (1 + slots));
+                    visitor.stringValue(id, timestampUs, new String(val, StandardCharsets.UTF_8));
+                }
+                case DOUBLE_ARRAY -> {
+                    int len = (int) payload;
+                    int slots = (len + DOUBLES_PER_SLOT - 1) / DOUBLES_PER_SLOT;
+                    if (m_buf.remaining() < slots * SLOT_BYTES)
+                        return;
+                    double[] val = new double[len];
+                    for (int k = 0; k < len; ++k) {
+                        val[k] = m_buf.getDouble(start + SLOT_BYTES * (1 + k / DOUBLES_PER_SLOT)
+                                + (k % DOUBLES_PER_SLOT) * Double.BYTES);
+                    }
+                    m_buf.position(start + SLOT_BYTES * (1 + slots));
+                    visitor.doubleArrayValue(id, timestampUs, val);
+                }
+                default -> throw new IllegalStateException("bad record type " + type + " at " + start);
+            }
+        }
+    }
+
+    /** Writes the whole file as WPILOG. */
+    public void toWpilog(String filename) throws IOException {
+        try (DataLogWriter log = new DataLogWriter(filename)) {
+            Map<Integer, Integer> entries = new HashMap<>();
+            read(new Visitor() {
+                @Override
+                public void define(int id, String label, byte type) {
+                    entries.put(id, log.start(label, wpilogType(type)));
+                }
+
+                @Override
+                public void booleanValue(int id, long timestampUs, boolean val) {
+                    log.appendBoolean(entries.get(id), val, timestampUs);
+                }
+
+                @Override
+                public void doubleValue(int id, long timestampUs, double val) {
+                    log.appendDouble(entries.get(id), val, timestampUs);
+                }
+
+                @Override
+                public void longValue(int id, long timestampUs, long val) {
+                    log.appendInteger(entries.get(id), val, timestampUs);
+                }
+
+                @Override
+                public void stringValue(int id, long timestampUs, String val) {
+                    log.appendString(entries.get(id), val, timestampUs);
+                }
+
+                @Override
+                public void doubleArrayValue(int id, long timestampUs, double[] val) {
+                    log.appendDoubleArray(entries.get(id), val, timestampUs);
+                }
+            });
+            log.flush();
+        }
+    }
+
+    static String wpilogType(byte type) {
+        return switch (type) {
+            case BOOLEAN -> "boolean";
+            case DOUBLE -> "double";
+            case INT, LONG -> "int64";
+            case STRING -> "string";
+            case DOUBLE_ARRAY -> "double[]";
+            default -> throw new IllegalArgumentException("bad key type " + type);
+        };
+    }
+
+    public static void main(String... args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("usage: BinaryLogReader input output.wpilog");
+            return;
+        }
+        new BinaryLogReader(Path.of(args[0])).toWpilog(args[1]);
+    }
+}
@@ -0,0 +1,312 @@
+package org.team100.lib.logging.primitive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.team100.lib.coherence.Takt;
+
+/**
+ * Writes log values into a preallocated off-heap ring buffer, and flushes the
+ * ring to a compact binary file from a background thread.
+ *
+ * Each key gets an integer id when the logger is created (i.e. in the
+ * LoggerFactory constructors), so a log() call is just a few absolute stores
+ * into the ring: no allocation, no string handling, no NT publisher.
+ *
+ * Scalar values take one 24-byte slot:
+ *
+ * <pre>
+ * [byte type][3 pad][int id][long timestamp us][long payload]
+ * </pre>
+ *
+ * Strings and double arrays put the length in the payload and the content in
+ * the following slots.
+ *
+ * If the flusher falls behind, new values are dropped (and counted) rather
+ * than blocking the robot loop.
+ *
+ * Use {@link BinaryLogReader} to turn the file into WPILOG for AdvantageScope.
+ */
+public class BinaryPrimitiveLogger implements PrimitiveLogger, AutoCloseable {
+    static final byte[] MAGIC = "T100BLOG".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    static final byte DEFINE = 0;
+    static final byte BOOLEAN = 1;
+    static final byte DOUBLE = 2;
+    static final byte INT = 3;
+    static final byte LONG = 4;
+    static final byte STRING = 5;
+    static final byte DOUBLE_ARRAY = 6;
+
+    static final int SLOT_BYTES = 24;
+    static final int DOUBLES_PER_SLOT = SLOT_BYTES / Double.BYTES;
+
+    private static final long FLUSH_PERIOD_NS = 100000000;
+
+    private final ByteBuffer m_ring;
+    private final int m_slots;
+    private final int m_mask;
+    /** Next slot to write. Written only by loggers, under the ring lock. */
+    private final AtomicLong m_head = new AtomicLong();
+    /** Next slot to flush. Written only by the flusher. */
+    private final AtomicLong m_tail = new AtomicLong();
+    /** Key definitions not yet written to the file. */
+    private final Queue<byte[]> m_definitions = new ConcurrentLinkedQueue<>();
+    private final Set<String> m_keys = new HashSet<>();
+    /** Guarded by m_keys. */
+    private int m_nextId;
+    private final FileChannel m_channel;
+    private final Thread m_flusher;
+
+    private volatile boolean m_running;
+    private long m_dropped;
+
+    /**
+     * @param file          output file, overwritten if it exists.
+     * @param capacityBytes size of the ring, rounded up to a power of two slots.
+     *                      Should hold at least one flush period of logging.
+     */
+    public BinaryPrimitiveLogger(Path file, int capacityBytes) throws IOException {
+        int slots = Integer.highestOneBit(Math.max(1, capacityBytes / SLOT_BYTES - 1)) << 1;
+        m_slots = slots;
+        m_mask = slots - 1;
+        m_ring = ByteBuffer.allocateDirect(slots * SLOT_BYTES).order(ORDER);
+        m_channel = FileChannel.open(file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(MAGIC.length + Integer.BYTES).order(ORDER);
+        header.put(MAGIC);
+        header.putInt(VERSION);
+        header.flip();
+        write(header);
+        m_running = true;
+        m_flusher = new Thread(this::run, "BinaryPrimitiveLogger");
+        m_flusher.setDaemon(true);
+        m_flusher.start();
+    }
+
+    @Override
+    public int keyCount() {
+        synchronized (m_keys) {
+            return m_keys.size();
+        }
+    }
+
+    /** Number of values dropped because the ring was full. */
+    public synchronized long dropped() {
+        return m_dropped;
+    }
+
+    /** Stops the flusher, after writing everything in the ring. */
+    @Override
+    public void close() {
+        m_running = false;
+        LockSupport.unpark(m_flusher);
+        try {
+            m_flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    ////////////////////////////////////////////////////////////
+    //
+    // key definition, happens at construction time.
+    //
+
+    private int define(String label, byte type) {
+        int id;
+        synchronized (m_keys) {
+            m_keys.add(label);
+            id = m_nextId++;
+        }
+        byte[] name = label.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer def = ByteBuffer.allocate(1 + Integer.BYTES + 1 + Integer.BYTES + name.length)
+                .order(ORDER);
+        def.put(DEFINE);
+        def.putInt(id);
+        def.put(type);
+        def.putInt(name.length);
+        def.put(name);
+        // the definition is queued before any value with this id can be
+        // published, so the flusher always writes it first.
+        m_definitions.add(def.array());
+        return id;
+    }
+
+    ////////////////////////////////////////////////////////////
+    //
+    // ring writes, happen every cycle.
+    //
+
+    /**
+     * Reserves n slots.
+     *
+     * @return the first slot, or -1 if the ring is full.
+     */
+    private long reserve(int n) {
+        long head = m_head.get();
+        if (head + n - m_tail.get() > m_slots) {
+            m_dropped++;
+            return -1;
+        }
+        return head;
+    }
+
+    /** Makes the reserved slots visible to the flusher. */
+    private void publish(long head, int n) {
+        m_head.lazySet(head + n);
+    }
+
+    private void putHeader(long slot, byte type, int id, long payload) {
+        int i = (int) (slot & m_mask) * SLOT_BYTES;
+        m_ring.put(i, type);
+        m_ring.putInt(i + 4, id);
+        m_ring.putLong(i + 8, (long) (Takt.get() * 1000000));
+        m_ring.putLong(i + 16, payload);
+    }
+
+    private synchronized void putScalar(byte type, int id, long payload) {
+        long head = reserve(1);
+        if (head < 0)
+            return;
+        putHeader(head, type, id, payload);
+        publish(head, 1);
+    }
+
+    private synchronized void putBytes(byte type, int id, byte[] val) {
+        int n = 1 + (val.length + SLOT_BYTES - 1) / SLOT_BYTES;
+        long head = reserve(n);
+        if (head < 0)
+            return;
+        putHeader(head, type, id, val.length);
+        for (int k = 0; k < val.length; ++k) {
+            long slot = head + 1 + k / SLOT_BYTES;
+            m_ring.put((int) (slot & m_mask) * SLOT_BYTES + k % SLOT_BYTES, val[k]);
+        }
+        publish(head, n);
+    }
+
+    private synchronized void putDoubles(int id, double[] val) {
+        int n = 1 + (val.length + DOUBLES_PER_SLOT - 1) / DOUBLES_PER_SLOT;
+        long head = reserve(n);
+        if (head < 0)
+            return;
+        putHeader(head, DOUBLE_ARRAY, id, val.length);
+        for (int k = 0; k < val.length; ++k) {
+            long slot = head + 1 + k / DOUBLES_PER_SLOT;
+            m_ring.putDouble(
+                    (int) (slot & m_mask) * SLOT_BYTES + (k % DOUBLES_PER_SLOT) * Double.BYTES,
+                    val[k]);
+        }
+        publish(head, n);
+    }
+
+    ////////////////////////////////////////////////////////////
+    //
+    // flusher
+    //
+
+    private void run() {
+        try {
+            while (m_running) {
+                flush();
+                // close() unparks us for the final flush. Interrupting would
+                // close the channel.
+                LockSupport.parkNanos(FLUSH_PERIOD_NS);
+            }
+            flush();
+        } catch (IOException e) {
+            System.out.println("WARNING: binary log write failed, logging stopped: " + e.getMessage());
+        } finally {
+            try {
+                m_channel.close();
+            } catch (IOException e) {
+                // nothing to do
+            }
+        }
+    }
+
+    /** Writes pending definitions, then everything up to the current head. */
+    private void flush() throws IOException {
+        // read the head first: any value below it had its key defined earlier.
+        long head = m_head.get();
+        byte[] def;
+        while ((def = m_definitions.poll()) != null) {
+            write(ByteBuffer.wrap(def));
+        }
+        long tail = m_tail.get();
+        while (tail < head) {
+            int start = (int) (tail & m_mask);
+            int count = (int) Math.min(head - tail, m_slots - start);
+            ByteBuffer chunk = m_ring.duplicate();
+            chunk.limit((start + count) * SLOT_BYTES);
+            chunk.position(start * SLOT_BYTES);
+            write(chunk);
+            tail += count;
+            m_tail.set(tail);
+        }
+    }
+
+    private void write(ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            m_channel.write(buf);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////
+    //
+    // primitive loggers
+    //
+
+    @Override
+    public PrimitiveBooleanLogger booleanLogger(String label) {
+        final int id = define(label, BOOLEAN);
+        return val -> putScalar(BOOLEAN, id, val ? 1 : 0);
+    }
+
+    @Override
+    public PrimitiveDoubleLogger doubleLogger(String label) {
+        final int id = define(label, DOUBLE);
+        return val -> putScalar(DOUBLE, id, Double.doubleToRawLongBits(val));
+    }
+
+    @Override
+    public PrimitiveIntLogger intLogger(String label) {
+        final int id = define(label, INT);
+        return val -> putScalar(INT, id, val);
+    }
+
+    @Override
+    public PrimitiveDoubleArrayLogger doubleArrayLogger(String label) {
+        final int id = define(label, DOUBLE_ARRAY);
+        return val -> putDoubles(id, val);
+    }
+
+    @Override
+    public PrimitiveLongLogger longLogger(String label) {
+        final int id = define(label, LONG);
+        return val -> putScalar(LONG, id, val);
+    }
+
+    @Override
+    public PrimitiveStringLogger stringLogger(String label) {
+        final int id = define(label, STRING);
+        return val -> putBytes(STRING, id, val.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
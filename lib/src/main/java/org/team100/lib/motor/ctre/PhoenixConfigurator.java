@@ -26,11 +26,6 @@ public class PhoenixConfigurator {
      * failures.
      */
     private static final double TIMEOUT_SEC = 0.3;
-    // speeding up the updates is a tradeoff between latency and CAN utilization.
-    // 254 seems to think that 100 is a good compromise?
-    // see
-    // https://github.com/Team254/FRC-2024-Public/blob/040f653744c9b18182be5f6bc51a7e505e346e59/src/main/java/com/team254/lib/ctre/swerve/SwerveDrivetrain.java#L382
-    private static final int SIGNAL_UPDATE_FREQ_HZ = 100;
 
     private final TalonFX m_motor;
     private final NeutralMode100 m_neutral;
@@ -91,10 +86,16 @@ public class PhoenixConfigurator {
             case REVERSE -> InvertedValue.Clockwise_Positive;
         };
         crash(() -> m_motor.getConfigurator().apply(motorConfigs, TIMEOUT_SEC));
-        crash(() -> m_motor.getPosition().setUpdateFrequency(SIGNAL_UPDATE_FREQ_HZ));
-        crash(() -> m_motor.getVelocity().setUpdateFrequency(SIGNAL_UPDATE_FREQ_HZ));
-        crash(() -> m_motor.getAcceleration().setUpdateFrequency(SIGNAL_UPDATE_FREQ_HZ));
-        crash(() -> m_motor.getTorqueCurrent().setUpdateFrequency(SIGNAL_UPDATE_FREQ_HZ));
+    }
+
+    /**
+     * Turn off the status signals whose update frequency hasn't been set, i.e.
+     * those not registered with Cache. Call this after registering.
+     * 
+     * @see https://v6.docs.ctr-electronics.com/en/stable/docs/api-reference/api-usage/status-signals.html#optimizing-bus-utilization
+     */
+    public void optimizeBusUtilization() {
+        crash(() -> m_motor.optimizeBusUtilization());
     }
 
     /**
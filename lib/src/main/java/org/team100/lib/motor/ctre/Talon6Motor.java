@@ -4,6 +4,7 @@ import java.util.function.Supplier;
 
 import org.team100.lib.coherence.Cache;
 import org.team100.lib.coherence.DoubleCache;
+import org.team100.lib.coherence.Freshness;
 import org.team100.lib.coherence.Takt;
 import org.team100.lib.config.SimpleDynamics;
 import org.team100.lib.config.Friction;
@@ -152,15 +153,19 @@ public abstract class Talon6Motor implements BareMotor {
         StatusSignal<Current> motorStatorCurrent = m_motor.getStatorCurrent();
         StatusSignal<Temperature> motorDeviceTemp = m_motor.getDeviceTemp();
 
-        // The memoizer refreshes all the signals at once.
-        Cache.registerSignal(motorPositionRev);
-        Cache.registerSignal(motorVelocityRev_S);
-        Cache.registerSignal(motorDutyCycle);
-        Cache.registerSignal(motorClosedLoopError);
-        Cache.registerSignal(motorSupplyCurrent);
-        Cache.registerSignal(motorSupplyVoltage);
-        Cache.registerSignal(motorStatorCurrent);
-        Cache.registerSignal(motorDeviceTemp);
+        // The memoizer refreshes all the signals on the bus at once, but only
+        // the ones that are due, and the device sends each one only as often
+        // as it's needed. Stator current is used for control by getCurrent().
+        Cache.registerSignal(motorPositionRev, Freshness.CONTROL);
+        Cache.registerSignal(motorVelocityRev_S, Freshness.CONTROL);
+        Cache.registerSignal(motorStatorCurrent, Freshness.CONTROL);
+        Cache.registerSignal(motorDutyCycle, Freshness.TELEMETRY);
+        Cache.registerSignal(motorClosedLoopError, Freshness.TELEMETRY);
+        Cache.registerSignal(motorSupplyCurrent, Freshness.TELEMETRY);
+        Cache.registerSignal(motorSupplyVoltage, Freshness.TELEMETRY);
+        Cache.registerSignal(motorDeviceTemp, Freshness.DIAGNOSTIC);
+        // Turn off everything else.
+        m_configurator.optimizeBusUtilization();
 
         // None of these need to refresh.
         // this latency compensation uses takt time rather than the real clock.
@@ -175,12 +180,12 @@ public abstract class Talon6Motor implements BareMotor {
             return motorRad + (motorRad_S * latency);
         });
         m_velocity = Cache.ofDouble(() -> motorVelocityRev_S.getValueAsDouble() * 2 * Math.PI);
-        m_dutyCycle = Cache.ofDouble(() -> motorDutyCycle.getValueAsDouble());
-        m_error = Cache.ofDouble(() -> motorClosedLoopError.getValueAsDouble());
-        m_supplyCurrent = Cache.ofDouble(() -> motorSupplyCurrent.getValueAsDouble());
-        m_supplyVoltage = Cache.ofDouble(() -> motorSupplyVoltage.getValueAsDouble());
+        m_dutyCycle = Cache.ofDouble(Freshness.TELEMETRY, () -> motorDutyCycle.getValueAsDouble());
+        m_error = Cache.ofDouble(Freshness.TELEMETRY, () -> motorClosedLoopError.getValueAsDouble());
+        m_supplyCurrent = Cache.ofDouble(Freshness.TELEMETRY, () -> motorSupplyCurrent.getValueAsDouble());
+        m_supplyVoltage = Cache.ofDouble(Freshness.TELEMETRY, () -> motorSupplyVoltage.getValueAsDouble());
         m_statorCurrent = Cache.ofDouble(() -> motorStatorCurrent.getValueAsDouble());
-        m_temp = Cache.ofDouble(() -> motorDeviceTemp.getValueAsDouble());
+        m_temp = Cache.ofDouble(Freshness.DIAGNOSTIC, () -> motorDeviceTemp.getValueAsDouble());
 
         m_log_desired_duty = m_log.doubleLogger(Level.DEBUG, "desired duty cycle [-1,1]");
         m_log_desired_position = m_log.doubleLogger(Level.DEBUG, "desired position (rad)");
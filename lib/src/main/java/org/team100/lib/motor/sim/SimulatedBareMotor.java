@@ -51,7 +51,9 @@ public class SimulatedBareMotor implements BareMotor {
         m_log_positionInput = m_log.doubleLogger(Level.DEBUG, "position input");
         m_log_accelInput = m_log.doubleLogger(Level.DEBUG, "accel input");
         m_log_torqueInput = m_log.doubleLogger(Level.DEBUG, "torque input");
-        m_stateCache = Cache.of(this::update);
+        // The simulation depends only on its own inputs, so it can update in
+        // parallel.
+        m_stateCache = Cache.ofIndependent(this::update);
     }
 
     private ModelR1 update() {
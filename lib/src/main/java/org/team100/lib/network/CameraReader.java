@@ -1,8 +1,13 @@
 package org.team100.lib.network;
 
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
 import java.util.EnumSet;
 
 import org.team100.lib.config.Camera;
+import org.team100.lib.framework.Profiler;
 import org.team100.lib.logging.Level;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.LoggerFactory.DoubleLogger;
@@ -15,12 +20,23 @@ import edu.wpi.first.networktables.NetworkTableListenerPoller;
 import edu.wpi.first.networktables.NetworkTableValue;
 import edu.wpi.first.networktables.PubSubOption;
 import edu.wpi.first.networktables.ValueEventData;
+import edu.wpi.first.util.struct.Struct;
 import edu.wpi.first.util.struct.StructBuffer;
 import edu.wpi.first.wpilibj.Timer;
 
 /**
  * Reads camera input from network tables, which is always a StructArray.
  * 
+ * This runs 250 times a second, so it tries not to allocate:
+ * 
+ * * the camera id and offset are worked out once per topic, not per message
+ * * the payload is copied into a reused buffer
+ * * the default decoder fills pooled arrays, one per length, so subclasses
+ * mustn't keep them
+ * 
+ * Subclasses that can consume one element at a time should override the
+ * ByteBuffer version of perValue() and decode in place.
+ * 
  * @param T payload type
  */
 public abstract class CameraReader<T> {
@@ -38,7 +54,22 @@ public abstract class CameraReader<T> {
     /** Manages the queue of incoming messages. */
     private final NetworkTableListenerPoller m_poller;
     /** Deserializer used in update(). */
-    private final StructBuffer<T> m_buf;
+    private final Struct<T> m_struct;
+    /** Profiler scope, named by the concrete class. */
+    private final int m_scope;
+
+    /**
+     * NT topic handles we've seen, and the corresponding camera offsets, or null
+     * if the topic name is no good. Linear search is fine, there are only a few
+     * cameras.
+     */
+    private int[] m_topics = new int[0];
+    private Transform3d[] m_offsets = new Transform3d[0];
+
+    /** Reused for every payload. */
+    private ByteBuffer m_buffer = ByteBuffer.allocate(0).order(ByteOrder.LITTLE_ENDIAN);
+    /** Decoded arrays, indexed by length. */
+    private T[][] m_arrays;
 
     public CameraReader(
             LoggerFactory parent,
@@ -58,7 +89,9 @@ public abstract class CameraReader<T> {
                         PubSubOption.keepDuplicates(true),
                         PubSubOption.pollStorage(QUEUE_DEPTH)),
                 EnumSet.of(NetworkTableEvent.Kind.kValueAll));
-        m_buf = buf;
+        m_struct = buf.getStruct();
+        m_arrays = newArrays(0);
+        m_scope = Profiler.scope(Profiler.name(this));
     }
 
     /**
@@ -68,6 +101,15 @@ public abstract class CameraReader<T> {
      * Memo.updateAll(), which runs in Robot.robotPeriodic().
      */
     public void update() {
+        Profiler.begin(m_scope);
+        try {
+            doUpdate();
+        } finally {
+            Profiler.end();
+        }
+    }
+
+    private void doUpdate() {
         if (DEBUG) {
             System.out.println("CameraReader update");
         }
@@ -75,44 +117,13 @@ public abstract class CameraReader<T> {
         for (NetworkTableEvent e : m_poller.readQueue()) {
             ValueEventData valueEventData = e.valueData;
             NetworkTableValue ntValue = valueEventData.value;
-            String name = valueEventData.getTopic().getName();
-            if (DEBUG) {
-                System.out.printf("poll %s\n", name);
-            }
-            String[] fields = name.split("/");
-            if (fields.length != 4) {
-                System.out.printf("WARNING: weird event name: %s\n", name);
-                continue;
-            }
-            // key is "rootName/cameraId/cameraNumber/valueName"
-            String cameraId = fields[1];
-            if (!fields[3].equals(m_ntValueName)) {
-                System.out.println("WARNING: weird key: " + name);
-                continue;
-            }
-            if (DEBUG) {
-                System.out.print("found value\n");
-            }
-            // decode the way StructArrayEntryImpl does
-            byte[] valueBytes = ntValue.getRaw();
-            if (valueBytes.length == 0) {
-                // this should never happen, but it does, very occasionally.
-                continue;
-            }
-            T[] valueArray;
-            try {
-                valueArray = m_buf.readArray(valueBytes);
-            } catch (RuntimeException ex) {
-                System.out.printf("WARNING: decoding failed for name: %s\n", name);
-                continue;
-            }
 
             // Robot-to-camera, offset from Camera.java
             // in tests this offset is identity.
-            Transform3d cameraOffset = Camera.get(cameraId).getOffset();
-            if (DEBUG) {
-                System.out.printf("camera %s offset %s\n", cameraId, cameraOffset);
-            }
+            int camera = camera(valueEventData);
+            Transform3d cameraOffset = m_offsets[camera];
+            if (cameraOffset == null)
+                continue;
 
             // time is in microseconds
             // https://docs.wpilib.org/en/stable/docs/software/networktables/networktables-intro.html#timestamps
@@ -120,27 +131,77 @@ public abstract class CameraReader<T> {
             // uses.
             double valueTimestamp = ((double) ntValue.getTime()) / 1000000.0;
             double age = Timer.getFPGATimestamp() - valueTimestamp;
-            m_log_timestamp.log(() -> valueTimestamp);
-            m_log_age.log(() -> age);
+            m_log_timestamp.log(valueTimestamp);
+            m_log_age.log(age);
             if (DEBUG) {
                 System.out.printf("reader timestamp %f\n", valueTimestamp);
             }
 
-            perValue(cameraOffset, valueTimestamp, valueArray);
+            accept(camera, cameraOffset, valueTimestamp, ntValue.getRaw());
         }
         finishUpdate();
     }
 
+    /**
+     * Check the length of one raw StructArray, the way StructArrayEntryImpl does,
+     * and give it to perValue() in the reused buffer.
+     */
+    void accept(int camera, Transform3d cameraOffset, double valueTimestamp, byte[] valueBytes) {
+        if (valueBytes.length == 0) {
+            // this should never happen, but it does, very occasionally.
+            return;
+        }
+        final int size = m_struct.getSize();
+        if (valueBytes.length % size != 0) {
+            System.out.printf("WARNING: decoding failed, length %d\n", valueBytes.length);
+            return;
+        }
+        perValue(camera, cameraOffset, valueTimestamp, wrap(valueBytes), valueBytes.length / size);
+    }
+
     /** Called when update() starts. */
     protected void beginUpdate() {
     };
 
     /**
-     * Called for each StructArray received.
+     * Called for each StructArray received, with the raw payload, positioned at
+     * the first element.
+     * 
+     * The default decodes the elements into a pooled array and calls the array
+     * version. Override this to consume the elements one at a time with
+     * Struct.unpack(), without the array.
      * 
+     * @param camera         index of the camera, i.e. of its NT topic, stable
+     *                       for the life of the reader
      * @param cameraOffset   camera pose in robot coordinates
      * @param valueTimestamp network tables local time in seconds
-     * @param valueArray     payload array
+     * @param payload        little-endian struct data, reused, don't keep it
+     * @param count          number of elements in the payload
+     */
+    protected void perValue(
+            int camera,
+            Transform3d cameraOffset,
+            double valueTimestamp,
+            ByteBuffer payload,
+            int count) {
+        T[] valueArray = array(count);
+        try {
+            for (int i = 0; i < count; ++i) {
+                valueArray[i] = m_struct.unpack(payload);
+            }
+        } catch (RuntimeException ex) {
+            System.out.println("WARNING: decoding failed");
+            return;
+        }
+        perValue(cameraOffset, valueTimestamp, valueArray);
+    }
+
+    /**
+     * Called for each StructArray received, by the default ByteBuffer perValue().
+     * 
+     * @param cameraOffset   camera pose in robot coordinates
+     * @param valueTimestamp network tables local time in seconds
+     * @param valueArray     payload array, reused, don't keep it
      */
     protected abstract void perValue(
             Transform3d cameraOffset,
@@ -151,4 +212,86 @@ public abstract class CameraReader<T> {
     protected void finishUpdate() {
     }
 
+    ///////////////////////////////////////////////////
+
+    /**
+     * The camera index for the event's topic, assigned, and the offset parsed,
+     * the first time we see the topic. The offset is null if the topic name is
+     * no good.
+     */
+    private int camera(ValueEventData valueEventData) {
+        int topic = valueEventData.topic;
+        for (int i = 0; i < m_topics.length; ++i) {
+            if (m_topics[i] == topic)
+                return i;
+        }
+        Transform3d offset = parse(valueEventData.getTopic().getName());
+        int n = m_topics.length;
+        m_topics = Arrays.copyOf(m_topics, n + 1);
+        m_offsets = Arrays.copyOf(m_offsets, n + 1);
+        m_topics[n] = topic;
+        m_offsets[n] = offset;
+        return n;
+    }
+
+    /**
+     * The key is "rootName/cameraId/cameraNumber/valueName"
+     * 
+     * @return camera offset, or null if the name is no good.
+     */
+    private Transform3d parse(String name) {
+        if (DEBUG) {
+            System.out.printf("poll %s\n", name);
+        }
+        String[] fields = name.split("/");
+        if (fields.length != 4) {
+            System.out.printf("WARNING: weird event name: %s\n", name);
+            return null;
+        }
+        String cameraId = fields[1];
+        if (!fields[3].equals(m_ntValueName)) {
+            System.out.println("WARNING: weird key: " + name);
+            return null;
+        }
+        Transform3d cameraOffset = Camera.get(cameraId).getOffset();
+        if (DEBUG) {
+            System.out.printf("camera %s offset %s\n", cameraId, cameraOffset);
+        }
+        return cameraOffset;
+    }
+
+    /** Copy into the reused buffer, growing it if necessary. */
+    private ByteBuffer wrap(byte[] bytes) {
+        if (m_buffer.capacity() < bytes.length) {
+            m_buffer = ByteBuffer.allocate(bytes.length).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        m_buffer.clear();
+        m_buffer.put(bytes);
+        m_buffer.flip();
+        return m_buffer;
+    }
+
+    /** A pooled array of exactly this length. */
+    private T[] array(int length) {
+        if (length >= m_arrays.length) {
+            T[][] arrays = newArrays(length + 1);
+            System.arraycopy(m_arrays, 0, arrays, 0, m_arrays.length);
+            m_arrays = arrays;
+        }
+        if (m_arrays[length] == null) {
+            m_arrays[length] = newArray(length);
+        }
+        return m_arrays[length];
+    }
+
+    @SuppressWarnings("unchecked")
+    private T[][] newArrays(int length) {
+        return (T[][]) Array.newInstance(m_struct.getTypeClass().arrayType(), length);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T[] newArray(int length) {
+        return (T[]) Array.newInstance(m_struct.getTypeClass(), length);
+    }
+
 }
@@ -1,5 +1,6 @@
 package org.team100.lib.network;
 
+import java.nio.ByteBuffer;
 import java.util.function.ObjDoubleConsumer;
 
 import org.team100.lib.localization.Blip24;
@@ -17,6 +18,19 @@ public class RawTags extends CameraReader<Blip24> {
         m_sink = sink;
     }
 
+    /** Decodes the blips one at a time, without making an array. */
+    @Override
+    protected void perValue(
+            int camera,
+            Transform3d cameraOffset,
+            double valueTimestamp,
+            ByteBuffer payload,
+            int count) {
+        for (int i = 0; i < count; ++i) {
+            m_sink.accept(Blip24.struct.unpack(payload).blipToTransform(), valueTimestamp);
+        }
+    }
+
     @Override
     protected void perValue(
             Transform3d cameraOffset,
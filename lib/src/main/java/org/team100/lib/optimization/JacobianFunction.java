@@ -0,0 +1,24 @@
+package org.team100.lib.optimization;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.Num;
+import edu.wpi.first.math.Vector;
+
+/**
+ * Writes the Jacobian of some function f at x into a caller-owned matrix, so
+ * that solvers like NewtonsMethod can reuse it every iteration.
+ * 
+ * Use NumericalJacobian100.forward() or central() for finite differences, or
+ * supply the analytic Jacobian if you have it.
+ */
+@FunctionalInterface
+public interface JacobianFunction<X extends Num, Y extends Num> {
+    /**
+     * @param x   where to evaluate the Jacobian. Implementations may mutate x
+     *            temporarily, but must put it back.
+     * @param y   f(x), already computed by the caller. Analytic implementations
+     *            can ignore it.
+     * @param out the Jacobian, [dy_i/dx_j], is written here.
+     */
+    void apply(Vector<X> x, Vector<Y> y, Matrix<Y, X> out);
+}
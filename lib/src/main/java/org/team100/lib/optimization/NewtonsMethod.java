@@ -3,7 +3,9 @@ package org.team100.lib.optimization;
 import java.util.Random;
 import java.util.function.Function;
 
+import org.ejml.data.DMatrixRMaj;
 import org.ejml.data.SingularMatrixException;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
 import org.team100.lib.util.StrUtil;
 
 import edu.wpi.first.math.MathUtil;
@@ -21,6 +23,10 @@ import edu.wpi.first.math.jni.EigenJNI;
  * 
  * Uses the (estimated) Jacobian of the function to estimate the x intercept.
  * 
+ * The iterations run in a preallocated NewtonsMethodWorkspace, so the only
+ * per-iteration allocation is whatever f does. Clients that solve many
+ * problems should share one workspace across solver instances.
+ * 
  * https://en.wikipedia.org/wiki/Newton%27s_method
  * https://hades.mech.northwestern.edu/images/7/7f/MR.pdf
  */
@@ -29,6 +35,10 @@ public class NewtonsMethod<X extends Num, Y extends Num> {
     private final Nat<X> m_xdim;
     private final Nat<Y> m_ydim;
     private final Function<Vector<X>, Vector<Y>> m_f;
+    /** Used by solve(). */
+    private final JacobianFunction<X, Y> m_symmetricJacobian;
+    /** Used by solve2(). */
+    private final JacobianFunction<X, Y> m_jacobian;
     private final Vector<X> m_xMin;
     private final Vector<X> m_xMax;
     private final double m_tolerance;
@@ -37,10 +47,15 @@ public class NewtonsMethod<X extends Num, Y extends Num> {
      * Max change in estimate per iteration, to avoid overreacting.
      */
     private final double m_dxLimit;
+    private final NewtonsMethodWorkspace<X, Y> m_ws;
+    /** Iterations used by the most recent solve2(), across restarts. */
+    private int m_lastIterations;
 
     private final Random random = new Random();
 
     /**
+     * Uses finite differences for the Jacobian: symmetric for solve(),
+     * single-sided for solve2().
      * 
      * @param xdim       domain dimension
      * @param ydim       codomain dimension
@@ -64,34 +79,78 @@ public class NewtonsMethod<X extends Num, Y extends Num> {
             double tolerance,
             int iterations,
             double dxLimit) {
+        this(xdim, ydim, f, NumericalJacobian100.central(f), NumericalJacobian100.forward(f),
+                xMin, xMax, tolerance, iterations, dxLimit,
+                new NewtonsMethodWorkspace<>(xdim, ydim));
+    }
+
+    /**
+     * Uses the supplied Jacobian for both solve() and solve2(), and the supplied
+     * workspace for scratch.
+     * 
+     * @param jacobian  e.g. NumericalJacobian100.forward(f), central(f), or an
+     *                  analytic Jacobian.
+     * @param workspace reusable buffers, so that clients making a new solver for
+     *                  each problem don't have to allocate them each time.
+     */
+    public NewtonsMethod(
+            Nat<X> xdim,
+            Nat<Y> ydim,
+            Function<Vector<X>, Vector<Y>> f,
+            JacobianFunction<X, Y> jacobian,
+            Vector<X> xMin,
+            Vector<X> xMax,
+            double tolerance,
+            int iterations,
+            double dxLimit,
+            NewtonsMethodWorkspace<X, Y> workspace) {
+        this(xdim, ydim, f, jacobian, jacobian,
+                xMin, xMax, tolerance, iterations, dxLimit, workspace);
+    }
+
+    private NewtonsMethod(
+            Nat<X> xdim,
+            Nat<Y> ydim,
+            Function<Vector<X>, Vector<Y>> f,
+            JacobianFunction<X, Y> symmetricJacobian,
+            JacobianFunction<X, Y> jacobian,
+            Vector<X> xMin,
+            Vector<X> xMax,
+            double tolerance,
+            int iterations,
+            double dxLimit,
+            NewtonsMethodWorkspace<X, Y> workspace) {
         m_xdim = xdim;
         m_ydim = ydim;
         m_f = f;
+        m_symmetricJacobian = symmetricJacobian;
+        m_jacobian = jacobian;
         m_xMin = xMin;
         m_xMax = xMax;
         m_tolerance = tolerance;
         m_iterations = iterations;
         m_dxLimit = dxLimit;
+        m_ws = workspace;
     }
 
-    /** Symmetric Jacobian, slower. */
+    /**
+     * Symmetric Jacobian, slower.
+     * 
+     * @throws SingularMatrixException if the step is not finite.
+     */
     public Vector<X> solve(Vector<X> initial) {
-        Vector<X> x = new Vector<>(initial.getStorage().copy());
+        Vector<X> x = m_ws.m_x;
+        x.getStorage().getDDRM().setTo(initial.getStorage().getDDRM());
         for (int i = 0; i < m_iterations; ++i) {
             Vector<Y> error = m_f.apply(x);
             if (within(error)) {
-                return x;
+                return copy(x);
             }
-            Matrix<Y, X> j = NumericalJacobian100.numericalJacobian(m_xdim, m_ydim, m_f, x);
-            Vector<X> dx = new Vector<>(j.solve(error));
-            // Too-high dx results in oscillation.
-            clamp(dx);
-            update(x, dx);
-            // Keep the x estimate within bounds.
-            limit(x);
+            if (!solveOnce(m_symmetricJacobian, error, x))
+                throw new SingularMatrixException();
         }
         System.out.println("exceeded max iterations");
-        return x;
+        return copy(x);
     }
 
     /**
@@ -109,45 +168,52 @@ public class NewtonsMethod<X extends Num, Y extends Num> {
             System.out.printf("NewtonsMethod.solve2()\ninitialX: %s\n", StrUtil.vecStr(initialX));
         long startTime = System.nanoTime();
         int iter = 0;
+        m_lastIterations = 0;
         Vector<Y> error = new Vector<>(m_ydim);
+        // x is the solution estimate
+        Vector<X> x = m_ws.m_x;
+        Vector<X> start = m_ws.m_start;
+        start.getStorage().getDDRM().setTo(initialX.getStorage().getDDRM());
+        x.getStorage().getDDRM().setTo(initialX.getStorage().getDDRM());
         try {
-            // x is the solution estimate
-            Vector<X> x = new Vector<>(initialX.getStorage().copy());
-            for (iter = 0; iter < m_iterations; ++iter) {
-                if (DEBUG)
-                    System.out.printf("iter: %d x: %s\n", iter, StrUtil.vecStr(x));
-
-                error = m_f.apply(x);
-                if (DEBUG)
-                    System.out.printf("error: %s\n", StrUtil.vecStr(error));
-
-                if (within(error)) {
+            for (int attempt = 0; attempt <= restarts; ++attempt) {
+                if (attempt > 0) {
                     if (DEBUG)
-                        System.out.printf("success iter=%d\n", iter);
-                    return x;
+                        System.out.println("convergence failed, trying random restart");
+                    // nearbyStart(x);
+                    randomStart(x);
+                    limit(x);
+                    start.getStorage().getDDRM().setTo(x.getStorage().getDDRM());
                 }
+                for (iter = 0; iter < m_iterations; ++iter) {
+                    m_lastIterations++;
+                    if (DEBUG)
+                        System.out.printf("iter: %d x: %s\n", iter, StrUtil.vecStr(x));
 
-                if (!solveOnce(error, x)) {
+                    error = m_f.apply(x);
                     if (DEBUG)
-                        System.out.println("solve failed");
-                    break;
+                        System.out.printf("error: %s\n", StrUtil.vecStr(error));
+
+                    if (within(error)) {
+                        if (DEBUG)
+                            System.out.printf("success iter=%d\n", iter);
+                        return copy(x);
+                    }
+
+                    if (!solveOnce(m_jacobian, error, x)) {
+                        if (DEBUG)
+                            System.out.println("solve failed");
+                        break;
+                    }
                 }
             }
-            if (restarts > 0) {
-                if (DEBUG)
-                    System.out.println("convergence failed, trying random restart");
-                // nearbyStart(x);
-                randomStart(x);
-                limit(x);
-                return solve2(x, restarts - 1, throwOnFailure);
-            }
             if (DEBUG)
                 System.out.printf("random restart failed, error %f\n", error.maxAbs());
             if (throwOnFailure)
                 throw new IllegalArgumentException(
                         String.format("failed to converge for inputs %s",
-                                StrUtil.vecStr(initialX)));
-            return x;
+                                StrUtil.vecStr(start)));
+            return copy(x);
         } finally {
             long finishTime = System.nanoTime();
             if (DEBUG) {
@@ -157,6 +223,14 @@ public class NewtonsMethod<X extends Num, Y extends Num> {
         }
     }
 
+    /**
+     * Iterations used by the most recent solve2(), including those of any
+     * restarts, i.e. the number of evaluations of f, not counting the Jacobian.
+     */
+    public int iterations() {
+        return m_lastIterations;
+    }
+
     /**
      * This picks a point *near* the failed point, which is probably not what we
      * want, since we'll just fall into the same local minimum.
@@ -176,38 +250,43 @@ public class NewtonsMethod<X extends Num, Y extends Num> {
     }
 
     /**
+     * Take one step, in place, using the workspace.
+     * 
      * @return false if unsolvable
      */
-    private boolean solveOnce(Vector<Y> error, Vector<X> x) {
-        Matrix<Y, X> J = NumericalJacobian100.numericalJacobian2(m_xdim, m_ydim, m_f, x);
+    private boolean solveOnce(JacobianFunction<X, Y> jacobian, Vector<Y> error, Vector<X> x) {
+        Matrix<Y, X> J = m_ws.m_J;
+        jacobian.apply(x, error, J);
         if (DEBUG) {
             System.out.printf("x %s\n", StrUtil.vecStr(x));
             System.out.printf("J %s\n", StrUtil.matStr(J));
         }
-        try {
-            // solve J dx = error
-            // The normal solver seems to work:
-            Vector<X> dx = new Vector<>(J.solve(error));
-            // QR decomposition also works:
-            // Vector<X> dx = getDxWithQRDecomp(error, J);
-            // The pseudoinverse should always work (but slower)
-            // Matrix<X, Y> jInv = new Matrix<>(J.getStorage().pseudoInverse());
-            // Vector<X> dx = new Vector<>(jInv.times(error));
-
+        // solve J dx = error
+        // Pivoted QR handles singular J without failing, like the pseudoinverse
+        // (but faster); see NewtonsMethodWorkspace.
+        m_ws.m_error.setTo(error.getStorage().getDDRM());
+        DMatrixRMaj dx = m_ws.m_dx;
+        if (!m_ws.m_solver.setA(J.getStorage().getDDRM())) {
             if (DEBUG)
-                System.out.printf("dx: %s\n", StrUtil.vecStr(dx));
-
-            // Too-high dx results in oscillation.
-            clamp(dx);
-            update(x, dx);
-            // Keep the x estimate within bounds.
-            limit(x);
-            return true;
-        } catch (SingularMatrixException ex) {
+                System.out.println("solver cannot succeed");
+            return false;
+        }
+        m_ws.m_solver.solve(m_ws.m_error, dx);
+        if (MatrixFeatures_DDRM.hasUncountable(dx)) {
             if (DEBUG)
                 System.out.println("solver cannot succeed");
             return false;
         }
+
+        if (DEBUG)
+            System.out.printf("dx: %s\n", dx);
+
+        // Too-high dx results in oscillation.
+        clamp(dx);
+        update(x, dx);
+        // Keep the x estimate within bounds.
+        limit(x);
+        return true;
     }
 
     /**
@@ -242,11 +321,11 @@ public class NewtonsMethod<X extends Num, Y extends Num> {
      * Mutates x to save allocations.
      * The "x" space is Euclidean, so using a simple sum is ok.
      */
-    private void update(Vector<X> x, Vector<X> dx) {
+    private void update(Vector<X> x, DMatrixRMaj dx) {
         if (DEBUG) {
             System.out.println("NewtonsMethod.update()");
             System.out.printf("x %s \n", StrUtil.vecStr(x));
-            System.out.printf("dx %s\n", StrUtil.vecStr(dx));
+            System.out.printf("dx %s\n", dx);
         }
         for (int i = 0; i < x.getNumRows(); ++i) {
             double newXi = x.get(i) - dx.get(i);
@@ -261,7 +340,7 @@ public class NewtonsMethod<X extends Num, Y extends Num> {
      * Clamp abs(dx) using a fixed limit.
      * Mutates dx to save allocations.
      */
-    private void clamp(Vector<X> dx) {
+    private void clamp(DMatrixRMaj dx) {
         for (int i = 0; i < dx.getNumRows(); ++i) {
             double dxI = dx.get(i);
             if (Math.abs(dxI) > m_dxLimit) {
@@ -269,8 +348,7 @@ public class NewtonsMethod<X extends Num, Y extends Num> {
                     System.out.println("clamped!");
             }
             double clampedDxI = MathUtil.clamp(dxI, -m_dxLimit, m_dxLimit);
-            // System.out.printf("clamp %d %15.10f %15.10f\n", i, dxI, clampedDxI);
-            dx.set(i, 0, clampedDxI);
+            dx.set(i, clampedDxI);
         }
     }
 
@@ -287,4 +365,9 @@ public class NewtonsMethod<X extends Num, Y extends Num> {
             x.set(i, 0, xi);
         }
     }
+
+    /** The result belongs to the caller; the workspace is reused. */
+    private Vector<X> copy(Vector<X> x) {
+        return new Vector<>(x.getStorage().copy());
+    }
 }
@@ -0,0 +1,53 @@
+package org.team100.lib.optimization;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.factory.LinearSolverFactory_DDRM;
+import org.ejml.interfaces.linsol.LinearSolverDense;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.Nat;
+import edu.wpi.first.math.Num;
+import edu.wpi.first.math.Vector;
+
+/**
+ * Preallocated buffers for NewtonsMethod, so that each iteration doesn't
+ * allocate a Jacobian, a decomposition, and a step.
+ * 
+ * Clients that build a new NewtonsMethod for each problem (e.g. because the
+ * function captures the goal) should keep one of these around and pass it in.
+ * 
+ * Not thread-safe: use one per thread.
+ */
+public class NewtonsMethodWorkspace<X extends Num, Y extends Num> {
+    final Nat<X> m_xdim;
+    final Nat<Y> m_ydim;
+    /** The solution estimate. */
+    final Vector<X> m_x;
+    /** The starting point of the current attempt, for error messages. */
+    final Vector<X> m_start;
+    /** The Jacobian at m_x. */
+    final Matrix<Y, X> m_J;
+    /** f(m_x), copied, since the solver may overwrite its input. */
+    final DMatrixRMaj m_error;
+    /** Step, solution of J dx = error. */
+    final DMatrixRMaj m_dx;
+    /**
+     * Rank-revealing QR with column pivoting, for any shape. It never fails: a
+     * singular Jacobian yields the minimum-norm step, so the iteration can keep
+     * going, rather than giving up as LU would.
+     */
+    final LinearSolverDense<DMatrixRMaj> m_solver;
+
+    public NewtonsMethodWorkspace(Nat<X> xdim, Nat<Y> ydim) {
+        int n = xdim.getNum();
+        int m = ydim.getNum();
+        m_xdim = xdim;
+        m_ydim = ydim;
+        m_x = new Vector<>(xdim);
+        m_start = new Vector<>(xdim);
+        m_J = new Matrix<>(ydim, xdim);
+        m_error = new DMatrixRMaj(m, 1);
+        m_dx = new DMatrixRMaj(n, 1);
+        m_solver = LinearSolverFactory_DDRM.leastSquaresQrPivot(true, false);
+    }
+}
@@ -97,4 +97,52 @@ public class NumericalJacobian100 {
         }
         return result;
     }
+
+    /**
+     * Single-sided difference, like numericalJacobian2(), but writing into the
+     * supplied matrix, and reusing the supplied f(x) as the center point, so it
+     * costs one evaluation of f per column.
+     */
+    public static <X extends Num, Y extends Num> JacobianFunction<X, Y> forward(
+            Function<Vector<X>, Vector<Y>> f) {
+        return (x, y, out) -> {
+            int rows = y.getNumRows();
+            for (int colI = 0; colI < x.getNumRows(); colI++) {
+                final double xi = x.get(colI);
+                x.set(colI, 0, xi + DX);
+                final Vector<Y> Y1 = f.apply(x);
+                for (int rowI = 0; rowI < rows; rowI++) {
+                    out.set(rowI, colI, (Y1.get(rowI) - y.get(rowI)) / DX);
+                }
+                x.set(colI, 0, xi);
+            }
+        };
+    }
+
+    /**
+     * Symmetric difference, like numericalJacobian(), but writing into the
+     * supplied matrix, and mutating x (and putting it back) instead of copying
+     * it. Ignores the supplied f(x); costs two evaluations of f per column.
+     */
+    public static <X extends Num, Y extends Num> JacobianFunction<X, Y> central(
+            Function<Vector<X>, Vector<Y>> f) {
+        return (x, y, out) -> {
+            int rows = y.getNumRows();
+            for (int colI = 0; colI < x.getNumRows(); colI++) {
+                final double xi = x.get(colI);
+                x.set(colI, 0, xi + DX);
+                final Vector<Y> yPlus = f.apply(x);
+                // stash f(x+dx) in the output, in case f reuses its result.
+                for (int rowI = 0; rowI < rows; rowI++) {
+                    out.set(rowI, colI, yPlus.get(rowI));
+                }
+                x.set(colI, 0, xi - DX);
+                final Vector<Y> yMinus = f.apply(x);
+                for (int rowI = 0; rowI < rows; rowI++) {
+                    out.set(rowI, colI, (out.get(rowI, colI) - yMinus.get(rowI)) / (2 * DX));
+                }
+                x.set(colI, 0, xi);
+            }
+        };
+    }
 }
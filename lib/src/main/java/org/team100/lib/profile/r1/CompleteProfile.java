@@ -7,6 +7,7 @@ import org.team100.lib.tuning.Mutable;
 import org.team100.lib.util.Math100;
 
 import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.interpolation.InterpolatingDoubleTreeMap;
 import edu.wpi.first.math.interpolation.InterpolatingTreeMap;
 import edu.wpi.first.math.interpolation.InverseInterpolator;
 
@@ -33,6 +34,9 @@ import edu.wpi.first.math.interpolation.InverseInterpolator;
  * 
  * See https://www.desmos.com/calculator/jnc7u3jg11 for useful curves.
  * 
+ * The ETA is mostly tabulated: the goal path records the time to go along with
+ * the state, so only the initial path needs to be simulated.
+ * 
  * See
  * https://docs.google.com/spreadsheets/d/1JdKViVSTEMZ0dRS8broub4P-f0eA6STRHHzoV0U4N5M/edit?gid=2097479642#gid=2097479642
  * for output of this model
@@ -55,6 +59,11 @@ public class CompleteProfile implements IncrementalProfile {
     private final double m_scale;
     private final Mutable m_tolerance;
     final InterpolatingTreeMap<Double, ControlR1> m_byDistance;
+    /** Time to go along the goal path, by distance, up to the cruise corner. */
+    private final InterpolatingDoubleTreeMap m_etaByDistance;
+    /** Distance and time to go at the corner between cruise and the goal path. */
+    private double m_cornerX;
+    private double m_cornerT;
 
     /**
      * Too-low a tolerance will produce chatter. Too-high a tolerance will produce a
@@ -97,6 +106,7 @@ public class CompleteProfile implements IncrementalProfile {
         m_scale = 1.0;
         m_tolerance = new Mutable(log, "tolerance", tolerance, this::update);
         m_byDistance = new InterpolatingTreeMap<>(InverseInterpolator.forDouble(), ControlR1::interpolate);
+        m_etaByDistance = new InterpolatingDoubleTreeMap();
         init();
     }
 
@@ -113,6 +123,7 @@ public class CompleteProfile implements IncrementalProfile {
         m_scale = scale;
         m_tolerance = tolerance;
         m_byDistance = new InterpolatingTreeMap<>(InverseInterpolator.forDouble(), ControlR1::interpolate);
+        m_etaByDistance = new InterpolatingDoubleTreeMap();
         init();
     }
 
@@ -126,6 +137,10 @@ public class CompleteProfile implements IncrementalProfile {
      */
     void init() {
         m_byDistance.clear();
+        m_etaByDistance.clear();
+        m_etaByDistance.put(0.0, 0.0);
+        m_cornerX = 0;
+        m_cornerT = 0;
         // This is the goal state, zero control here.
         ControlR1 control = new ControlR1();
         put(0.0, control);
@@ -133,7 +148,7 @@ public class CompleteProfile implements IncrementalProfile {
         put(0.0, new ControlR1(-FAR_AWAY, m_maxV.getAsDouble(), 0));
         put(0.0, new ControlR1(FAR_AWAY, -m_maxV.getAsDouble(), 0));
         // control from the left, so deceleration, walking back in time
-        // t is just for debugging
+        // t is the time to go, for the ETA table.
         double t = 0;
         for (int i = 1; i < 1000; ++i) {
             if (MathUtil.isNear(control.v(), m_maxV.getAsDouble(), m_tolerance.getAsDouble())) {
@@ -321,10 +336,49 @@ public class CompleteProfile implements IncrementalProfile {
     }
 
     /**
-     * Put the control and its mirror on the other side of the goal
+     * Time to the goal. This simulates at dt until the setpoint joins the goal
+     * path, which is usually quick, and then looks up the rest of the time in the
+     * table made in init().
+     */
+    @Override
+    public double eta(double dt, ControlR1 initial, ModelR1 goal) {
+        double t = 0;
+        ControlR1 setpoint = initial;
+        while (true) {
+            double togo = setpoint.x() - goal.x();
+            if (MathUtil.isNear(0, togo, m_tolerance.getAsDouble()))
+                return t;
+            if (onGoalPath(setpoint, togo))
+                return t + goalPathEta(Math.abs(togo));
+            setpoint = calculate(dt, setpoint, goal);
+            t += dt;
+            if (t > MAX_ETA)
+                return Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /** True if the setpoint is within tolerance of the goal path. */
+    private boolean onGoalPath(ControlR1 setpoint, double togo) {
+        ControlR1 lerp = m_byDistance.get(togo);
+        if (togo < 0 && setpoint.v() < 0)
+            return false;
+        if (togo > 0 && setpoint.v() > 0)
+            return false;
+        return Math.abs(setpoint.v() - lerp.v()) <= m_tolerance.getAsDouble();
+    }
+
+    /** Time to go along the goal path, cruising beyond the corner. */
+    private double goalPathEta(double distance) {
+        if (distance >= m_cornerX)
+            return m_cornerT + (distance - m_cornerX) / m_maxV.getAsDouble();
+        return m_etaByDistance.get(distance);
+    }
+
+    /**
+     * Put the control and its mirror on the other side of the goal, and, if it's
+     * a new farthest point, record its time to go, t, for goalPathEta().
      */
     private void put(double t, ControlR1 c) {
-        // t is just for debug
         if (DEBUG) {
             System.out.printf("%12.4f %12.4f %12.4f %12.4f\n", t, c.x(), c.v(), c.a());
         }
@@ -333,6 +387,12 @@ public class CompleteProfile implements IncrementalProfile {
         }
         m_byDistance.put(c.x(), c);
         m_byDistance.put(-c.x(), c.mult(-1.0));
+        double d = Math.abs(c.x());
+        if (d < FAR_AWAY && d > m_cornerX) {
+            m_etaByDistance.put(d, t);
+            m_cornerX = d;
+            m_cornerT = t;
+        }
     }
 
     /**
@@ -43,6 +43,16 @@ public interface IncrementalProfile {
         return t;
     }
 
+    /**
+     * Time to reach the goal.
+     * 
+     * The default simulates at dt; profiles that can do better, e.g. with a
+     * closed-form solution or a table, should override it.
+     */
+    default double eta(double dt, ControlR1 initial, ModelR1 goal) {
+        return simulateForETA(dt, initial, goal);
+    }
+
     /**
      * Return a new profile scaled by s. The choice of what the parameter actually
      * does is up to the implementation. A good choice would be to scale
@@ -58,6 +68,7 @@ public interface IncrementalProfile {
      * returns s < 0.01.
      * 
      * It is very approximate, in order to not run too long. It's very primitive.
+     * It uses eta(), so it's only as fast (and as accurate) as that.
      */
     default double solve(
             double dt,
@@ -68,11 +79,11 @@ public interface IncrementalProfile {
         final double minS = 0.01;
         final double maxS = 1.0;
         double ss = Bisection1d.findRoot(
-                s -> scale(s).simulateForETA(dt, i, g) - goalETA,
+                s -> scale(s).eta(dt, i, g) - goalETA,
                 minS,
-                scale(minS).simulateForETA(dt, i, g) - goalETA,
+                scale(minS).eta(dt, i, g) - goalETA,
                 maxS,
-                scale(maxS).simulateForETA(dt, i, g) - goalETA,
+                scale(maxS).eta(dt, i, g) - goalETA,
                 etaTolerance,
                 100);
         if (DEBUG) {
@@ -61,6 +61,9 @@ import edu.wpi.first.math.MathUtil;
  * limits.
  * 
  * Nov 4 2025: constraints are Mutables.
+ * 
+ * The ETA and the scale solve are closed-form, using the same switching-point
+ * math as calculate(), so coordinated profiles are exact, and fast.
  */
 public class TrapezoidIncrementalProfile implements IncrementalProfile {
     private static final boolean DEBUG = false;
@@ -221,6 +224,149 @@ public class TrapezoidIncrementalProfile implements IncrementalProfile {
         return full(dt, initial, -1);
     }
 
+    /**
+     * Exact time to the goal, using the same path choices as calculate(). The dt
+     * is ignored.
+     */
+    @Override
+    public double eta(double dt, final ControlR1 initialRaw, final ModelR1 goalRaw) {
+        final double vmax = m_maxVelocity.getAsDouble();
+        final double a = getScaledAccel();
+        double t = 0;
+        ControlR1 initial = initialRaw;
+        if (Math.abs(initial.v()) > vmax) {
+            // Too-high initial speed is handled with braking to the limit.
+            double v = Math.signum(initial.v()) * vmax;
+            double brake = (Math.abs(initial.v()) - vmax) / a;
+            initial = new ControlR1(initial.x() + 0.5 * (initial.v() + v) * brake, v);
+            t += brake;
+        }
+        ModelR1 goal = limitVelocity(goalRaw);
+        if (goal.control().near(initial, m_tolerance.getAsDouble()))
+            return t;
+        double t1IplusGminus = t1IplusGminus(initial, goal);
+        double t1IminusGplus = t1IminusGplus(initial, goal);
+        if (Double.isNaN(t1IminusGplus) && Double.isNaN(t1IplusGminus))
+            return Double.POSITIVE_INFINITY;
+        if (Double.isNaN(t1IplusGminus))
+            return t + durationIminusGplus(initial, goal);
+        if (Double.isNaN(t1IminusGplus))
+            return t + durationIplusGminus(initial, goal);
+        // We're on the goal path.
+        return t + durationAtMaxA(initial.v(), goal.v());
+    }
+
+    /**
+     * Closed-form scale, i.e. acceleration, that makes the profile take the goal
+     * ETA. The dt is ignored.
+     * 
+     * Each path shape (I+G- or I-G+, with or without cruise) gives a simple
+     * equation in the acceleration; since the shape itself depends on the
+     * acceleration, each candidate is checked with eta(). If none fits, e.g.
+     * the entry speed is too high, fall back to bisection, which is still fast
+     * since eta() is closed-form.
+     * 
+     * As in the default, never returns s > 1 or s < 0.01.
+     */
+    @Override
+    public double solve(
+            double dt,
+            ControlR1 i,
+            ModelR1 g,
+            double goalETA,
+            double etaTolerance) {
+        final double minS = 0.01;
+        final double maxS = 1.0;
+        final double a = m_maxAccelerationUnscaled.getAsDouble();
+        if (eta(dt, i, g) >= goalETA) {
+            // We can't go any faster.
+            return maxS;
+        }
+        ModelR1 goal = limitVelocity(g);
+        double x0 = i.x();
+        double v0 = i.v();
+        double x1 = goal.x();
+        double v1 = goal.v();
+        double[] candidates = {
+                accelIplusGminusCruise(x0, v0, x1, v1, goalETA),
+                accelIplusGminus(x0, v0, x1, v1, goalETA),
+                // I-G+ is the mirror image
+                accelIplusGminusCruise(-x0, -v0, -x1, -v1, goalETA),
+                accelIplusGminus(-x0, -v0, -x1, -v1, goalETA) };
+        for (double accel : candidates) {
+            double s = accel / a;
+            if (!(s >= minS && s <= maxS))
+                continue;
+            if (Math.abs(scale(s).eta(dt, i, g) - goalETA) < 1e-6)
+                return s;
+        }
+        return IncrementalProfile.super.solve(dt, i, g, goalETA, etaTolerance);
+    }
+
+    /**
+     * Acceleration for an I+G- path with cruise, taking time t:
+     * 
+     * t = d/vmax + ((vmax - v0)^2 + (vmax - v1)^2) / (2 a vmax)
+     * 
+     * @return NaN if there's no such path.
+     */
+    private double accelIplusGminusCruise(double x0, double v0, double x1, double v1, double t) {
+        double vmax = m_maxVelocity.getAsDouble();
+        double slack = t - (x1 - x0) / vmax;
+        if (slack <= 0)
+            return Double.NaN;
+        return (Math.pow(vmax - v0, 2) + Math.pow(vmax - v1, 2)) / (2 * vmax * slack);
+    }
+
+    /**
+     * Acceleration for an I+G- path without cruise, taking time t. The switch
+     * velocity is (a t + v0 + v1) / 2, and also sqrt(a d + (v0^2 + v1^2) / 2),
+     * which yields
+     * 
+     * t^2 a^2 + (2 t (v0 + v1) - 4 d) a - (v0 - v1)^2 = 0
+     * 
+     * @return NaN if there's no such path.
+     */
+    private static double accelIplusGminus(double x0, double v0, double x1, double v1, double t) {
+        double b = 2 * t * (v0 + v1) - 4 * (x1 - x0);
+        double c = -Math.pow(v0 - v1, 2);
+        double tt = t * t;
+        double discriminant = b * b - 4 * tt * c;
+        if (discriminant < 0)
+            return Double.NaN;
+        return (-b + Math.sqrt(discriminant)) / (2 * tt);
+    }
+
+    /** Duration of the I+G- path, maybe with cruise in the middle. */
+    private double durationIplusGminus(ControlR1 initial, ModelR1 goal) {
+        double vmax = m_maxVelocity.getAsDouble();
+        double a = getScaledAccel();
+        double v0 = initial.v();
+        double v1 = goal.v();
+        double vs = qDotSwitchIplusGminus(initial, goal);
+        if (vs <= vmax)
+            return (vs - v0) / a + (vs - v1) / a;
+        double d0 = (vmax * vmax - v0 * v0) / (2 * a);
+        double d1 = (vmax * vmax - v1 * v1) / (2 * a);
+        double cruise = (goal.x() - initial.x() - d0 - d1) / vmax;
+        return (vmax - v0) / a + cruise + (vmax - v1) / a;
+    }
+
+    /** Duration of the I-G+ path, maybe with cruise in the middle. */
+    private double durationIminusGplus(ControlR1 initial, ModelR1 goal) {
+        double vmax = m_maxVelocity.getAsDouble();
+        double a = getScaledAccel();
+        double v0 = initial.v();
+        double v1 = goal.v();
+        double vs = qDotSwitchIminusGplus(initial, goal);
+        if (vs >= -vmax)
+            return (v0 - vs) / a + (v1 - vs) / a;
+        double d0 = (vmax * vmax - v0 * v0) / (2 * a);
+        double d1 = (vmax * vmax - v1 * v1) / (2 * a);
+        double cruise = (initial.x() - goal.x() - d0 - d1) / vmax;
+        return (v0 + vmax) / a + cruise + (v1 + vmax) / a;
+    }
+
     /** Clamp state velocity to the profile limit. */
     private ModelR1 limitVelocity(final ModelR1 s) {
         return new ModelR1(
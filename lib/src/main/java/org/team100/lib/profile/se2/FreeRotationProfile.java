@@ -20,9 +20,12 @@ public class FreeRotationProfile implements ProfileSE2 {
 
     /** For testing */
     private static final boolean DEBUG = false;
-    /** Solver accuracy is low, in the interest of speed. */
+    /**
+     * Solver accuracy is low, in the interest of speed. The trapezoid profile
+     * solves exactly, so this only matters for the others.
+     */
     private static final double ETA_TOLERANCE = 0.1;
-    /** Simulation for ETA is coarse, in the interest of speed. */
+    /** Simulation for ETA, if any, is coarse, in the interest of speed. */
     private static final double SOLVE_DT = 0.1;
     private static final double DT = TimedRobot100.LOOP_PERIOD_S;
 
@@ -57,9 +60,9 @@ public class FreeRotationProfile implements ProfileSE2 {
         if (DEBUG) {
             System.out.printf("i %s g %s\n", i, g);
         }
-        // note coarser DT
-        double xETA = px.simulateForETA(SOLVE_DT, i.x().control(), g.x());
-        double yETA = py.simulateForETA(SOLVE_DT, i.y().control(), g.y());
+        // note coarser DT, for profiles that simulate
+        double xETA = px.eta(SOLVE_DT, i.x().control(), g.x());
+        double yETA = py.eta(SOLVE_DT, i.y().control(), g.y());
 
         if (DEBUG) {
             System.out.printf("ETAs: %f %f\n", xETA, yETA);
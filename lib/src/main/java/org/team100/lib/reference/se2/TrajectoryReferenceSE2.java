@@ -17,6 +17,9 @@ import org.team100.lib.trajectory.TrajectorySE2;
 public class TrajectoryReferenceSE2 implements ReferenceSE2 {
     private final LoggerFactory m_log;
     private final TrajectorySE2 m_trajectory;
+    /** Separate cursors for current and next, so each moves forward. */
+    private final TrajectorySE2.Cursor m_currentCursor;
+    private final TrajectorySE2.Cursor m_nextCursor;
     private final ModelSE2Logger m_log_current;
     private final ControlSE2Logger m_log_next;
     private final BooleanLogger m_log_done;
@@ -29,6 +32,8 @@ public class TrajectoryReferenceSE2 implements ReferenceSE2 {
             TrajectorySE2 trajectory) {
         m_log = parent.type(this);
         m_trajectory = trajectory;
+        m_currentCursor = trajectory.cursor();
+        m_nextCursor = trajectory.cursor();
         m_log_progress = m_log.doubleLogger(Level.TRACE, "progress");
         m_log_current = m_log.modelSE2Logger(Level.TRACE, "current");
         m_log_next = m_log.controlSE2Logger(Level.TRACE, "next");
@@ -44,14 +49,14 @@ public class TrajectoryReferenceSE2 implements ReferenceSE2 {
 
     @Override
     public ModelSE2 current() {
-        ModelSE2 current = sample(progress()).model();
+        ModelSE2 current = sample(m_currentCursor, progress()).model();
         m_log_current.log(() -> current);
         return current;
     }
 
     @Override
     public ControlSE2 next() {
-        ControlSE2 next = sample(progress() + TimedRobot100.LOOP_PERIOD_S);
+        ControlSE2 next = sample(m_nextCursor, progress() + TimedRobot100.LOOP_PERIOD_S);
         m_log_next.log(() -> next);
         return next;
     }
@@ -80,8 +85,8 @@ public class TrajectoryReferenceSE2 implements ReferenceSE2 {
         return progress;
     }
 
-    private ControlSE2 sample(double t) {
-        TrajectorySE2Entry sample = m_trajectory.sample(t);
+    private ControlSE2 sample(TrajectorySE2.Cursor cursor, double t) {
+        TrajectorySE2Entry sample = cursor.sample(t);
         return ControlSE2.fromMovingPathSE2Point(
                 sample.point().point(), sample.point().velocity(), sample.point().accel());
     }
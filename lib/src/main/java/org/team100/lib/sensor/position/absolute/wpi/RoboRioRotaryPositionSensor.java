@@ -39,6 +39,8 @@ public abstract class RoboRioRotaryPositionSensor implements RotaryPositionSenso
         m_positionOffset = Math100.throwIfOutOfRange(inputOffset, 0.0, 1.0);
         m_drive = drive;
 
+        // Not independent: wrap() reads the subclass caches, and logs, which
+        // are main-thread only.
         m_turns = Cache.of(this::wrap);
         m_log_position = log.doubleLogger(Level.COMP, "position (rad)");
         m_log_position_turns = log.doubleLogger(Level.COMP, "position (turns)");
@@ -1,6 +1,7 @@
 package org.team100.lib.subsystems.se2.commands;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.team100.lib.commands.MoveAndHold;
 import org.team100.lib.geometry.DirectionSE2;
@@ -11,10 +12,15 @@ import org.team100.lib.subsystems.se2.PositionSubsystemSE2;
 import org.team100.lib.subsystems.se2.commands.helper.PositionReferenceControllerSE2;
 import org.team100.lib.trajectory.TrajectorySE2;
 import org.team100.lib.trajectory.TrajectorySE2Planner;
+import org.team100.lib.trajectory.TrajectorySE2PlannerService;
 
 /**
  * Using the pose at initialization time, and the specified course, construct a
  * rest-to-rest trajectory to the goal and follow it.
+ * 
+ * If a planner service is supplied, the trajectory is planned on its worker
+ * thread, and the command holds still until it's ready. If planning fails, the
+ * command ends.
  */
 public class GoToPosePosition extends MoveAndHold {
     private final LoggerFactory m_log;
@@ -22,8 +28,12 @@ public class GoToPosePosition extends MoveAndHold {
     private final WaypointSE2 m_goal;
     private final DirectionSE2 m_course;
     private final TrajectorySE2Planner m_planner;
+    private final TrajectorySE2PlannerService m_service;
 
+    private CompletableFuture<TrajectorySE2> m_pending;
     private PositionReferenceControllerSE2 m_referenceController;
+    /** True if background planning failed. */
+    private boolean m_failed;
 
     public GoToPosePosition(
             LoggerFactory parent,
@@ -31,32 +41,86 @@ public class GoToPosePosition extends MoveAndHold {
             DirectionSE2 course,
             WaypointSE2 goal,
             TrajectorySE2Planner planner) {
+        this(parent, subsystem, course, goal, planner, null);
+    }
+
+    /** Plans in the background, using the service. */
+    public GoToPosePosition(
+            LoggerFactory parent,
+            PositionSubsystemSE2 subsystem,
+            DirectionSE2 course,
+            WaypointSE2 goal,
+            TrajectorySE2PlannerService service) {
+        this(parent, subsystem, course, goal, null, service);
+    }
+
+    private GoToPosePosition(
+            LoggerFactory parent,
+            PositionSubsystemSE2 subsystem,
+            DirectionSE2 course,
+            WaypointSE2 goal,
+            TrajectorySE2Planner planner,
+            TrajectorySE2PlannerService service) {
         m_log = parent.type(this);
         m_subsystem = subsystem;
         m_goal = goal;
         m_course = course;
         m_planner = planner;
+        m_service = service;
         addRequirements(subsystem);
     }
 
     @Override
     public void initialize() {
+        m_referenceController = null;
+        m_failed = false;
         WaypointSE2 m_currentPose = new WaypointSE2(
                 m_subsystem.getState().pose(),
                 m_course, 1);
-        TrajectorySE2 m_trajectory = m_planner.restToRest(
-                List.of(m_currentPose, m_goal));
-        m_referenceController = new PositionReferenceControllerSE2(
-                m_log, m_subsystem, new TrajectoryReferenceSE2(m_log, m_trajectory));
+        List<WaypointSE2> waypoints = List.of(m_currentPose, m_goal);
+        if (m_service != null) {
+            m_pending = m_service.restToRest(waypoints);
+            return;
+        }
+        start(m_planner.restToRest(waypoints));
     }
 
     @Override
     public void execute() {
+        if (m_referenceController == null) {
+            if (m_failed || m_pending == null || !m_pending.isDone()) {
+                // still planning
+                m_subsystem.stop();
+                return;
+            }
+            if (m_pending.isCompletedExceptionally()) {
+                System.out.println("WARNING: trajectory planning failed");
+                m_failed = true;
+                m_pending = null;
+                m_subsystem.stop();
+                return;
+            }
+            start(m_pending.join());
+            m_pending = null;
+        }
         m_referenceController.execute();
     }
 
+    private void start(TrajectorySE2 trajectory) {
+        m_referenceController = new PositionReferenceControllerSE2(
+                m_log, m_subsystem, new TrajectoryReferenceSE2(m_log, trajectory));
+    }
+
+    /** Ends the command if planning failed; otherwise, hold forever. */
+    @Override
+    public boolean isFinished() {
+        return m_failed;
+    }
+
     @Override
     public boolean isDone() {
+        if (m_failed)
+            return true;
         if (m_referenceController == null)
             return false;
         return m_referenceController.isDone();
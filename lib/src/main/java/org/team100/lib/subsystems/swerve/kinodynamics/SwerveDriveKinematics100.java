@@ -16,12 +16,18 @@ import edu.wpi.first.math.kinematics.ChassisSpeeds;
 /**
  * Helper class that converts between chassis state and module state.
  * 
+ * This is specialized for four modules. The matrices below are computed once,
+ * with EJML, and copied into primitive arrays; the per-call math is done by
+ * hand, in the same order EJML would do it, so the results are identical, but
+ * without making any intermediate matrices. The versions that take an output
+ * holder don't allocate at all.
+ * 
  * Note: forward kinematics is never more accurate than the gyro and we
  * absolutely cannot operate without a functional gyro, so we should use the
  * gyro instead. see https://github.com/Team100/all24/issues/350
  */
 public class SwerveDriveKinematics100 {
-    private final int m_numModules;
+    private static final int MODULES = 4;
     private final Translation2d[] m_moduleLocations;
 
     /**
@@ -85,6 +91,11 @@ public class SwerveDriveKinematics100 {
      */
     final SimpleMatrix m_forwardKinematics;
 
+    /** m_inverseKinematics, row-major (8 x 3) */
+    private final double[] m_inverse;
+    /** m_forwardKinematics, row-major (3 x 8) */
+    private final double[] m_forward;
+
     /**
      * array order:
      * 
@@ -97,10 +108,11 @@ public class SwerveDriveKinematics100 {
      */
     public SwerveDriveKinematics100(Translation2d... moduleTranslationsM) {
         checkModuleCount(moduleTranslationsM);
-        m_numModules = moduleTranslationsM.length;
-        m_moduleLocations = Arrays.copyOf(moduleTranslationsM, m_numModules);
+        m_moduleLocations = Arrays.copyOf(moduleTranslationsM, MODULES);
         m_inverseKinematics = inverseMatrix(m_moduleLocations);
         m_forwardKinematics = m_inverseKinematics.pseudoInverse();
+        m_inverse = m_inverseKinematics.getDDRM().getData().clone();
+        m_forward = m_forwardKinematics.getDDRM().getData().clone();
     }
 
     /**
@@ -113,10 +125,18 @@ public class SwerveDriveKinematics100 {
      * Angles are otherwise always within [-pi, pi].
      */
     public SwerveModuleStates toSwerveModuleStates(DiscreteSpeed speed) {
-        // [vx; vy; omega] (3 x 1)
-        SimpleMatrix chassisSpeedsVector = chassisSpeeds2Vector(speed);
         // [v cos; v sin; ...] (2n x 1)
-        return statesFromVector(chassisSpeedsVector);
+        double[] m = new double[2 * MODULES];
+        inverse(
+                speed.twist().dx / speed.dt(),
+                speed.twist().dy / speed.dt(),
+                speed.twist().dtheta / speed.dt(),
+                m);
+        return new SwerveModuleStates(
+                SwerveModuleState100.fromSpeed(m[0], m[1]),
+                SwerveModuleState100.fromSpeed(m[2], m[3]),
+                SwerveModuleState100.fromSpeed(m[4], m[5]),
+                SwerveModuleState100.fromSpeed(m[6], m[7]));
     }
 
     /**
@@ -129,11 +149,14 @@ public class SwerveDriveKinematics100 {
      * States may include empty angles for motionless wheels.
      */
     public SwerveModuleDeltas toSwerveModuleDelta(Twist2d twist) {
-        // [dx; dy; dtheta] (3 x 1)
-        SimpleMatrix twistVector = twist2Vector(twist);
         // [d cos; d sin; ...] (2n x 1)
-        SimpleMatrix deltaVector = m_inverseKinematics.mult(twistVector);
-        return deltasFromVector(deltaVector);
+        double[] d = new double[2 * MODULES];
+        inverse(twist.dx, twist.dy, twist.dtheta, d);
+        return new SwerveModuleDeltas(
+                new SwerveModuleDelta(d[0], d[1]),
+                new SwerveModuleDelta(d[2], d[3]),
+                new SwerveModuleDelta(d[4], d[5]),
+                new SwerveModuleDelta(d[6], d[7]));
     }
 
     /**
@@ -150,12 +173,16 @@ public class SwerveDriveKinematics100 {
      * FORWARD: module states -> chassis speeds
      */
     public ChassisSpeeds toChassisSpeeds(SwerveModuleStates states) {
-        // checkLength(states);
-        // [v cos; v sin; ...] (2n x 1)
-        SimpleMatrix statesVector = states2Vector(states);
+        SwerveModuleState100 fl = states.frontLeft();
+        SwerveModuleState100 fr = states.frontRight();
+        SwerveModuleState100 rl = states.rearLeft();
+        SwerveModuleState100 rr = states.rearRight();
+        double[] f = m_forward;
         // [vx; vy; omega]
-        SimpleMatrix chassisSpeedsVector = m_forwardKinematics.mult(statesVector);
-        return vector2ChassisSpeeds(chassisSpeedsVector);
+        return new ChassisSpeeds(
+                forwardRow(f, 0, fl, fr, rl, rr),
+                forwardRow(f, 8, fl, fr, rl, rr),
+                forwardRow(f, 16, fl, fr, rl, rr));
     }
 
     /**
@@ -169,121 +196,122 @@ public class SwerveDriveKinematics100 {
      * as if it were the instantaneous speed.
      */
     public Twist2d toTwist2d(SwerveModuleDeltas deltas) {
-        // [d cos; d sin; ...] (2n x 1)
-        SimpleMatrix deltaVector = deltas2Vector(deltas);
-        // [dx ;dy; dtheta]
-        SimpleMatrix twistVector = m_forwardKinematics.mult(deltaVector);
-        return vector2Twist(twistVector);
+        Twist2d result = new Twist2d();
+        toTwist2d(deltas, result);
+        return result;
     }
 
-    ///////////////////////////////////////
-
-    /** states -> [v cos; v sin; ... v cos; v sin] (2n x 1) */
-    private SimpleMatrix states2Vector(SwerveModuleStates moduleStates) {
-        SwerveModuleState100[] moduleStatesAll = moduleStates.all();
-        SimpleMatrix moduleStatesMatrix = new SimpleMatrix(m_numModules * 2, 1);
-        for (int i = 0; i < m_numModules; i++) {
-            SwerveModuleState100 module = moduleStatesAll[i];
-            if (Math.abs(module.speedMetersPerSecond()) < 1e-6 || module.angle().isEmpty()) {
-                // wheel is stopped, or angle is invalid so pretend it's stopped.
-                moduleStatesMatrix.set(i * 2, 0, 0);
-                moduleStatesMatrix.set(i * 2 + 1, 0, 0);
-            } else {
-                moduleStatesMatrix.set(i * 2, 0, module.speedMetersPerSecond() * module.angle().get().getCos());
-                moduleStatesMatrix.set(i * 2 + 1, 0, module.speedMetersPerSecond() * module.angle().get().getSin());
-
-            }
-        }
-        return moduleStatesMatrix;
+    /**
+     * FORWARD: module deltas -> twist, written into the result, so that
+     * odometry and history interpolation, which run many times per cycle
+     * during replay, can reuse one Twist2d.
+     */
+    public void toTwist2d(SwerveModuleDeltas deltas, Twist2d result) {
+        // [d cos; d sin; ...]
+        double x0 = dx(deltas.frontLeft());
+        double y0 = dy(deltas.frontLeft());
+        double x1 = dx(deltas.frontRight());
+        double y1 = dy(deltas.frontRight());
+        double x2 = dx(deltas.rearLeft());
+        double y2 = dy(deltas.rearLeft());
+        double x3 = dx(deltas.rearRight());
+        double y3 = dy(deltas.rearRight());
+        double[] f = m_forward;
+        // [dx ;dy; dtheta]
+        result.dx = row(f, 0, x0, y0, x1, y1, x2, y2, x3, y3);
+        result.dy = row(f, 8, x0, y0, x1, y1, x2, y2, x3, y3);
+        result.dtheta = row(f, 16, x0, y0, x1, y1, x2, y2, x3, y3);
     }
 
     /**
-     * produces a vector of corner dx and dy, assuming the module deltas represent
-     * straight line paths.
+     * INVERSE: [x; y; theta] -> [x0; y0; x1; y1; ...]
+     * 
+     * Works for speeds or for deltas.
      * 
-     * @param moduleDeltas [d cos; d sin; ... ] (2n x 1)
+     * @param result length 8, written in place.
      */
-    private SimpleMatrix deltas2Vector(SwerveModuleDeltas moduleDeltas) {
-        SwerveModuleDelta[] deltas = moduleDeltas.all();
-        SimpleMatrix moduleDeltaMatrix = new SimpleMatrix(m_numModules * 2, 1);
-        for (int i = 0; i < m_numModules; i++) {
-            SwerveModuleDelta module = deltas[i];
-            if (Math.abs(module.distanceMeters()) < 1e-6 || module.wrappedAngle().isEmpty()) {
-                moduleDeltaMatrix.set(i * 2, 0, 0);
-                moduleDeltaMatrix.set(i * 2 + 1, 0, 0);
-            } else {
-                moduleDeltaMatrix.set(i * 2, 0, module.distanceMeters() * module.wrappedAngle().get().getCos());
-                moduleDeltaMatrix.set(i * 2 + 1, 0, module.distanceMeters() * module.wrappedAngle().get().getSin());
-            }
+    public void inverse(double x, double y, double theta, double[] result) {
+        double[] a = m_inverse;
+        for (int i = 0, j = 0; i < 2 * MODULES; ++i, j += 3) {
+            // same order as EJML MatrixVectorMult
+            double total = a[j] * x;
+            total += a[j + 1] * y;
+            total += a[j + 2] * theta;
+            result[i] = total;
         }
-        return moduleDeltaMatrix;
     }
 
-    /** ChassisSpeeds -> [vx; vy; omega] (3 x 1) */
-    private SimpleMatrix chassisSpeeds2Vector(DiscreteSpeed speed) {
-        SimpleMatrix chassisSpeedsVector = new SimpleMatrix(3, 1);
-        chassisSpeedsVector.setColumn(
-                0,
-                0,
-                speed.twist().dx / speed.dt(),
-                speed.twist().dy / speed.dt(),
-                speed.twist().dtheta / speed.dt());
-        return chassisSpeedsVector;
+    public Translation2d[] getModuleLocations() {
+        return m_moduleLocations;
     }
 
-    /** Twist as a 3x1 column vector: [dx; dy; dtheta] */
-    private static SimpleMatrix twist2Vector(Twist2d twist) {
-        return new SimpleMatrix(new double[] {
-                twist.dx,
-                twist.dy,
-                twist.dtheta });
+    ///////////////////////////////////////
+
+    /** One row of the forward matrix times the module vector. */
+    private static double forwardRow(
+            double[] f,
+            int offset,
+            SwerveModuleState100 fl,
+            SwerveModuleState100 fr,
+            SwerveModuleState100 rl,
+            SwerveModuleState100 rr) {
+        return row(f, offset,
+                vx(fl), vy(fl), vx(fr), vy(fr), vx(rl), vy(rl), vx(rr), vy(rr));
     }
 
-    /** [vx; vy; omega] (3 x 1) -> ChassisSpeeds */
-    private static ChassisSpeeds vector2ChassisSpeeds(SimpleMatrix v) {
-        return new ChassisSpeeds(v.get(0, 0), v.get(1, 0), v.get(2, 0));
+    /** Same order as EJML MatrixVectorMult, so the result is identical. */
+    private static double row(
+            double[] f,
+            int offset,
+            double x0, double y0,
+            double x1, double y1,
+            double x2, double y2,
+            double x3, double y3) {
+        double total = f[offset] * x0;
+        total += f[offset + 1] * y0;
+        total += f[offset + 2] * x1;
+        total += f[offset + 3] * y1;
+        total += f[offset + 4] * x2;
+        total += f[offset + 5] * y2;
+        total += f[offset + 6] * x3;
+        total += f[offset + 7] * y3;
+        return total;
     }
 
-    /** [dx; dy; dtheta] (3 x 1) -> Twist2d */
-    private static Twist2d vector2Twist(SimpleMatrix v) {
-        return new Twist2d(v.get(0, 0), v.get(1, 0), v.get(2, 0));
+    /** v cos, or zero if the wheel is stopped, or the angle is invalid. */
+    private static double vx(SwerveModuleState100 module) {
+        if (stopped(module))
+            return 0;
+        return module.speedMetersPerSecond() * module.angle().get().getCos();
     }
 
-    /**
-     * [v cos; v sin; ... ] (2n x 1) -> states[]
-     * 
-     * Speed is always non-negative.
-     * 
-     * Angle can be empty if speed is about zero.
-     * Otherwise angle is always within [-pi, pi].
-     * 
-     * @param chassisSpeedsVector [vx0; vy0; vx1; ...]
-     */
-    SwerveModuleStates statesFromVector(SimpleMatrix chassisSpeedsVector) {
-        SimpleMatrix m = m_inverseKinematics.mult(chassisSpeedsVector);
-        return new SwerveModuleStates(
-                SwerveModuleState100.fromSpeed(m.get(0, 0), m.get(1, 0)),
-                SwerveModuleState100.fromSpeed(m.get(2, 0), m.get(3, 0)),
-                SwerveModuleState100.fromSpeed(m.get(4, 0), m.get(5, 0)),
-                SwerveModuleState100.fromSpeed(m.get(6, 0), m.get(7, 0)));
+    /** v sin, or zero if the wheel is stopped, or the angle is invalid. */
+    private static double vy(SwerveModuleState100 module) {
+        if (stopped(module))
+            return 0;
+        return module.speedMetersPerSecond() * module.angle().get().getSin();
     }
 
-    public Translation2d[] getModuleLocations() {
-        return m_moduleLocations;
+    private static boolean stopped(SwerveModuleState100 module) {
+        return Math.abs(module.speedMetersPerSecond()) < 1e-6 || module.angle().isEmpty();
     }
 
-    /**
-     * The resulting distance is always positive.
-     * 
-     * @param moduleDeltaVector [d cos; d sin; ...] (2n x 1),
-     *                          equivalently [dx0; dy0; dx1; ...]
-     */
-    private SwerveModuleDeltas deltasFromVector(SimpleMatrix moduleDeltaVector) {
-        return new SwerveModuleDeltas(
-                new SwerveModuleDelta(moduleDeltaVector.get(0, 0), moduleDeltaVector.get(1, 0)),
-                new SwerveModuleDelta(moduleDeltaVector.get(2, 0), moduleDeltaVector.get(3, 0)),
-                new SwerveModuleDelta(moduleDeltaVector.get(4, 0), moduleDeltaVector.get(5, 0)),
-                new SwerveModuleDelta(moduleDeltaVector.get(6, 0), moduleDeltaVector.get(7, 0)));
+    /** d cos, assuming the module delta represents a straight line path. */
+    private static double dx(SwerveModuleDelta module) {
+        if (stopped(module))
+            return 0;
+        return module.distanceMeters() * module.wrappedAngle().get().getCos();
+    }
+
+    /** d sin, assuming the module delta represents a straight line path. */
+    private static double dy(SwerveModuleDelta module) {
+        if (stopped(module))
+            return 0;
+        return module.distanceMeters() * module.wrappedAngle().get().getSin();
+    }
+
+    private static boolean stopped(SwerveModuleDelta module) {
+        return Math.abs(module.distanceMeters()) < 1e-6 || module.wrappedAngle().isEmpty();
     }
 
     /** module locations -> inverse kinematics matrix (2n x 3) */
@@ -298,8 +326,8 @@ public class SwerveDriveKinematics100 {
     }
 
     private void checkModuleCount(Translation2d... moduleTranslationsM) {
-        if (moduleTranslationsM.length < 2) {
-            throw new IllegalArgumentException("Swerve requires at least two modules");
+        if (moduleTranslationsM.length != MODULES) {
+            throw new IllegalArgumentException("Swerve requires exactly four modules");
         }
     }
 }
@@ -54,6 +54,11 @@ public class Turret extends SubsystemBase {
      * TODO: why is this so long?
      */
     private static final double DELAY = 0.2;
+    /**
+     * If the target moves further than this in one cycle, it's a different
+     * target, so the previous solution is no use for tracking.
+     */
+    private static final double TARGET_JUMP_M = 0.5;
     private final DoubleArrayLogger m_log_field_turret;
     private final Supplier<ModelSE2> m_state;
     private final Supplier<Translation2d> m_target;
@@ -64,6 +69,8 @@ public class Turret extends SubsystemBase {
     private final Intercept m_intercept;
     private final ShootingMethod m_shootingMethod;
     private boolean m_aiming;
+    /** Target for the previous shooting method solution, or null. */
+    private Translation2d m_previousTarget;
 
     /**
      * @param parent Log
@@ -159,6 +166,8 @@ public class Turret extends SubsystemBase {
             // Use 3d intercept logic.
             return getShootingMethod();
         }
+        // Not tracking anymore.
+        resetTracking();
         if (Experiments.instance.enabled(Experiment.TurretIntercept)) {
             // Use 2d intercept logic.
             return getAbsoluteBearingForIntercept();
@@ -186,17 +195,35 @@ public class Turret extends SubsystemBase {
         GlobalVelocityR2 robotVelocity = state.velocityR2();
         Translation2d targetPosition = m_target.get();
         GlobalVelocityR2 targetVelocity = GlobalVelocityR2.ZERO;
+        if (m_previousTarget != null
+                && m_previousTarget.getDistance(targetPosition) > TARGET_JUMP_M) {
+            // A different target: start over.
+            m_shootingMethod.reset();
+        }
+        m_previousTarget = targetPosition;
         // choose direct fire
         double initialElevation = 0.1;
-        Optional<ShootingMethod.Solution> s = m_shootingMethod.solve(
+        // Start from the previous solution, which is much faster than solving
+        // from scratch each cycle.
+        Optional<ShootingMethod.Solution> s = m_shootingMethod.track(
                 robotPosition,
                 robotVelocity,
                 targetPosition,
                 targetVelocity,
                 initialElevation);
+        if (s.isEmpty()) {
+            // Target lost, i.e. out of range. Start over when it comes back.
+            resetTracking();
+        }
         return s.map(x -> new Solution(x.azimuth(), x.elevation()));
     }
 
+    /** The next shooting method solution is a cold start. */
+    private void resetTracking() {
+        m_shootingMethod.reset();
+        m_previousTarget = null;
+    }
+
     /**
      * Compute absolute bearing to the intercept point, given moving target and
      * moving robot.
@@ -230,6 +257,7 @@ public class Turret extends SubsystemBase {
 
     private void stopAiming() {
         m_aiming = false;
+        resetTracking();
         m_pivot.stop();
     }
 
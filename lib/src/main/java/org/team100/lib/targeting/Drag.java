@@ -58,6 +58,14 @@ public class Drag implements UnaryOperator<Matrix<N6, N1>> {
         xi = cl * RHO * A / (2 * m);
     }
 
+    /** Identifies the coefficients, e.g. for a saved table of solutions. */
+    long fingerprint() {
+        long h = Double.doubleToLongBits(mu);
+        h = 31 * h + Double.doubleToLongBits(nu);
+        h = 31 * h + Double.doubleToLongBits(xi);
+        return h;
+    }
+
     /**
      * The time derivative of state.
      * 
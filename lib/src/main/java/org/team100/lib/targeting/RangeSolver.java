@@ -36,6 +36,17 @@ public class RangeSolver {
         m_targetHeight = targetHeight;
     }
 
+    /**
+     * Identifies the drag model, target height, and integration step, e.g. for
+     * a saved table of solutions.
+     */
+    long fingerprint() {
+        long h = m_d.fingerprint();
+        h = 31 * h + Double.doubleToLongBits(m_targetHeight);
+        h = 31 * h + Double.doubleToLongBits(INTEGRATION_DT);
+        return h;
+    }
+
     /**
      * Both range and time-of-flight are always slight underestimates.
      * 
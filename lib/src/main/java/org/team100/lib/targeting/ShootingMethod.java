@@ -6,8 +6,11 @@ import java.util.function.Function;
 import org.team100.lib.geometry.GeometryUtil;
 import org.team100.lib.geometry.GlobalVelocityR2;
 import org.team100.lib.optimization.NewtonsMethod;
+import org.team100.lib.optimization.NewtonsMethodWorkspace;
+import org.team100.lib.optimization.NumericalJacobian100;
 import org.team100.lib.util.StrUtil;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.Nat;
 import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.Vector;
@@ -21,6 +24,12 @@ import edu.wpi.first.math.numbers.N2;
  * 
  * * azimuth
  * * elevation
+ * 
+ * For shooting on the move, use track() every cycle instead of solve(). The
+ * geometry changes only a little from one cycle to the next, so track() starts
+ * from the previous solution and usually needs only one or two iterations.
+ * 
+ * Not thread-safe.
  */
 public class ShootingMethod {
     private static final boolean DEBUG = false;
@@ -47,6 +56,22 @@ public class ShootingMethod {
      * bounds above.
      */
     private static final int ITERATIONS = 10;
+    /** Random restarts for a cold start. */
+    private static final int RESTARTS = 3;
+    /**
+     * Iteration limit for track() starting from the previous solution. If it
+     * doesn't converge in this many, fall back to a cold start.
+     * 
+     * Each iteration checks f before stepping, so N iterations take N-1 steps
+     * and verify all but the last. Three allows two Newton steps, both checked.
+     * The seed is one cycle old, so it's close, and convergence near the root is
+     * quadratic, so two steps are plenty; one step isn't always enough for the
+     * tolerance when the robot is moving. A miss costs a cold start, up to
+     * ITERATIONS * (RESTARTS + 1) evaluations, so it's cheap to allow one more.
+     * 
+     * VariableVelocityShootingMethod uses this too.
+     */
+    static final int TRACKING_ITERATIONS = 3;
     /**
      * Maximum step in x per iteration. This keeps very low gradient from pushing
      * the solution far away.
@@ -56,10 +81,24 @@ public class ShootingMethod {
     private final IRange m_range;
     /** Solution tolerance, radial distance to target in meters. */
     private final double m_tolerance;
+    /** Scratch for the solver. */
+    private final NewtonsMethodWorkspace<N2, N2> m_ws;
+
+    // Tracking state.
+    /** The previous track() solution, (azimuth, elevation), or null. */
+    private Vector<N2> m_previous;
+    /** The target bearing for the previous solution. */
+    private double m_previousBearing;
+
+    // Counters.
+    private int m_lastIterations;
+    private int m_coldStarts;
+    private int m_failures;
 
     public ShootingMethod(IRange range, double tolerance) {
         m_range = range;
         m_tolerance = tolerance;
+        m_ws = new NewtonsMethodWorkspace<>(Nat.N2(), Nat.N2());
     }
 
     /**
@@ -85,23 +124,111 @@ public class ShootingMethod {
         GlobalVelocityR2 vT = targetVelocity.minus(robotVelocity);
         // Initial azimuth guess is the current target bearing.
         Vector<N2> initialX = VecBuilder.fill(T0.getAngle().getRadians(), initialElevation);
+        m_lastIterations = 0;
+        return newton(T0, vT, initialX, ITERATIONS, RESTARTS).map(ShootingMethod::solution);
+    }
+
+    /**
+     * Like solve(), but starts from the previous track() solution, if there is
+     * one, with the azimuth moved by the change in target bearing since then,
+     * i.e. by the relative motion of the robot and target over the cycle.
+     * 
+     * The warm start is limited to a few iterations, without restarts. If
+     * it doesn't converge, e.g. because the target just appeared, fall back to
+     * solve() with the initial elevation.
+     */
+    public Optional<Solution> track(
+            Translation2d robotPosition,
+            GlobalVelocityR2 robotVelocity,
+            Translation2d targetPosition,
+            GlobalVelocityR2 targetVelocity,
+            double initialElevation) {
+        Translation2d T0 = targetPosition.minus(robotPosition);
+        GlobalVelocityR2 vT = targetVelocity.minus(robotVelocity);
+        double bearing = T0.getAngle().getRadians();
+        m_lastIterations = 0;
+        if (m_previous != null) {
+            Vector<N2> seed = VecBuilder.fill(
+                    MathUtil.angleModulus(m_previous.get(0) + bearing - m_previousBearing),
+                    m_previous.get(1));
+            Optional<Vector<N2>> x = newton(T0, vT, seed, TRACKING_ITERATIONS, 0);
+            if (x.isPresent())
+                return Optional.of(remember(bearing, x.get()));
+            if (DEBUG)
+                System.out.println("tracking failed, cold start");
+            m_coldStarts++;
+        }
+        Vector<N2> initialX = VecBuilder.fill(bearing, initialElevation);
+        Optional<Vector<N2>> x = newton(T0, vT, initialX, ITERATIONS, RESTARTS);
+        if (x.isEmpty()) {
+            m_failures++;
+            m_previous = null;
+            return Optional.empty();
+        }
+        return Optional.of(remember(bearing, x.get()));
+    }
+
+    /** Forget the previous solution, so the next track() is a cold start. */
+    public void reset() {
+        m_previous = null;
+    }
+
+    /** Solver iterations used by the most recent solve() or track(). */
+    public int lastIterations() {
+        return m_lastIterations;
+    }
+
+    /** Number of times track() had to fall back to a cold start. */
+    public int coldStarts() {
+        return m_coldStarts;
+    }
+
+    /** Number of times track() found no solution at all. */
+    public int failures() {
+        return m_failures;
+    }
+
+    private Solution remember(double bearing, Vector<N2> x) {
+        m_previous = x;
+        m_previousBearing = bearing;
+        return solution(x);
+    }
+
+    private static Solution solution(Vector<N2> x) {
+        return new Solution(
+                new Rotation2d(x.get(0)),
+                new Rotation2d(x.get(1)));
+    }
+
+    /**
+     * Adds the iterations used to the count.
+     * 
+     * @return (azimuth, elevation), or empty if the solver fails.
+     */
+    private Optional<Vector<N2>> newton(
+            Translation2d T0,
+            GlobalVelocityR2 vT,
+            Vector<N2> initialX,
+            int iterations,
+            int restarts) {
+        Function<Vector<N2>, Vector<N2>> f = fn(T0, vT);
         NewtonsMethod<N2, N2> solver = new NewtonsMethod<>(
                 Nat.N2(),
                 Nat.N2(),
-                fn(T0, vT),
+                f,
+                NumericalJacobian100.forward(f),
                 X_MIN,
                 X_MAX,
                 m_tolerance,
-                ITERATIONS,
-                DX_LIMIT);
+                iterations,
+                DX_LIMIT,
+                m_ws);
         try {
-            Vector<N2> x = solver.solve2(initialX, 3, true);
-            return Optional.of(
-                    new Solution(
-                            new Rotation2d(x.get(0)),
-                            new Rotation2d(x.get(1))));
+            return Optional.of(solver.solve2(initialX, restarts, true));
         } catch (IllegalArgumentException ex) {
             return Optional.empty();
+        } finally {
+            m_lastIterations += solver.iterations();
         }
     }
 
@@ -9,7 +9,6 @@ import org.team100.lib.coherence.Cache;
 import org.team100.lib.coherence.SideEffect;
 import org.team100.lib.coherence.Takt;
 import org.team100.lib.geometry.CentroidR2;
-import org.team100.lib.geometry.NearR2;
 import org.team100.lib.logging.Level;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.LoggerFactory.DoubleArrayLogger;
@@ -17,7 +16,7 @@ import org.team100.lib.logging.LoggerFactory.DoubleLogger;
 import org.team100.lib.logging.LoggerFactory.IntLogger;
 import org.team100.lib.network.CameraReader;
 import org.team100.lib.state.ModelSE2;
-import org.team100.lib.util.CoalescingCollection;
+import org.team100.lib.util.CoalescingGridR2;
 import org.team100.lib.util.TrailingHistory;
 
 import edu.wpi.first.math.geometry.Pose2d;
@@ -50,8 +49,8 @@ public class Targets extends CameraReader<Rotation3d> {
     private final DoubleFunction<ModelSE2> m_history;
     /** Accumulation of targets we see; this is really for logging only. */
     private final TrailingHistory<Translation2d> m_allTargets;
-    /** Coalesced targets */
-    private final CoalescingCollection<Translation2d> m_targets;
+    /** Coalesced targets, indexed by location. */
+    private final CoalescingGridR2 m_targets;
     /** Side effect mutates targets. */
     private final SideEffect m_vision;
     private final IntLogger m_log_historySize;
@@ -71,9 +70,9 @@ public class Targets extends CameraReader<Rotation3d> {
         m_log_poseTimestamp = log.doubleLogger(Level.TRACE, "pose timestamp");
         m_history = history;
         m_allTargets = new TrailingHistory<>(HISTORY_DURATION);
-        m_targets = new CoalescingCollection<>(
-                new TrailingHistory<>(HISTORY_DURATION),
-                new NearR2(NEARNESS_THRESHOLD),
+        m_targets = new CoalescingGridR2(
+                HISTORY_DURATION,
+                NEARNESS_THRESHOLD,
                 new CentroidR2());
         m_vision = Cache.ofSideEffect(this::update);
     }
@@ -134,11 +133,11 @@ public class Targets extends CameraReader<Rotation3d> {
      */
     public Optional<Translation2d> getClosestTarget() {
         Pose2d robotPose = m_history.apply(Takt.get()).pose();
-        List<Translation2d> targets = getTargets();
+        m_vision.run();
         if (DEBUG) {
-            System.out.printf("translations %d\n", targets.size());
+            System.out.printf("translations %d\n", m_targets.size());
         }
-        return ObjectPicker.closestObject(targets, robotPose);
+        return ObjectPicker.closestObject(m_targets, robotPose);
     }
 
     public void periodic() {
@@ -1,13 +1,28 @@
 package org.team100.lib.targeting;
 
-import org.team100.lib.util.NestedInterpolatingTreeMap;
-
-import edu.wpi.first.math.interpolation.InverseInterpolator;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.IntStream;
 
 /**
  * Provides a firing solution from elevation and muzzle velocity.
  * Uses a constant spin rate, which is probably wrong. Maybe spin rate is a
  * function of velocity?
+ *
+ * The table is a dense uniform grid of primitives, so lookup is just index
+ * arithmetic and bilinear interpolation, with no allocation other than the
+ * returned solution. Use range(), tof(), and targetElevation() to avoid that
+ * too.
+ *
+ * Building the table requires running the range solver for every grid point,
+ * which is slow, so the rows are computed in parallel, and the table can be
+ * saved to a file (e.g. in the deploy directory) and loaded at startup.
  */
 public class VariableVelocityRangeCache implements IVVRange {
     /**
@@ -29,33 +44,121 @@ public class VariableVelocityRangeCache implements IVVRange {
     /** Precomputation step. */
     private static final double ELEVATION_STEP = 0.05;
 
+    /** Number of velocity rows, MIN_V inclusive, MAX_V exclusive. */
+    static final int V_COUNT = (int) Math.ceil((MAX_V - MIN_V) / V_STEP);
+    /** Number of elevation columns, MIN_ELEVATION inclusive, MAX exclusive. */
+    static final int ELEVATION_COUNT = (int) Math.ceil((MAX_ELEVATION - MIN_ELEVATION) / ELEVATION_STEP);
+
+    /** Identifies the file format. */
+    static final int FILE_MAGIC = 0x56565232; // "VVR2"
+
     /**
      * Cache.
-     * 
+     *
      * It won't take very much space (tens of KB), but computing all the values
      * requires running two layers of iterative solvers many times, so it's slow
      * to create.
-     * 
+     *
      * The step values above came from fiddling with testJacobian().
-     * 
-     * 
-     * key1 = velocity (m/s)
-     * key2 = elevation (rad)
-     * value = solution
+     *
+     * Row-major: index = velocity index * ELEVATION_COUNT + elevation index.
      */
-    private final NestedInterpolatingTreeMap<Double, FiringSolution> m_map;
+    private final double[] m_range;
+    private final double[] m_tof;
+    private final double[] m_targetElevation;
+    /** Identifies the solver parameters the table was made with. */
+    private final long m_fingerprint;
 
+    /**
+     * Runs the solver for every grid point, in parallel.
+     *
+     * @param rangeSolver solver with drag
+     * @param omega       spin in rad/s, positive is backspin
+     */
     public VariableVelocityRangeCache(RangeSolver rangeSolver, double omega) {
-        m_map = new NestedInterpolatingTreeMap<>(
-                InverseInterpolator.forDouble(), new FiringSolutionInterpolator());
-        for (double v = MIN_V; v < MAX_V; v += V_STEP) {
-            for (double elevation = MIN_ELEVATION; elevation < MAX_ELEVATION; elevation += ELEVATION_STEP) {
-                FiringSolution solution = rangeSolver.getSolution(v, omega, elevation);
-                if (solution == null) {
-                    // no solution
-                    continue;
-                }
-                m_map.put(v, elevation, solution);
+        this(new double[V_COUNT * ELEVATION_COUNT],
+                new double[V_COUNT * ELEVATION_COUNT],
+                new double[V_COUNT * ELEVATION_COUNT],
+                fingerprint(rangeSolver, omega));
+        // RangeSolver and Drag are immutable, so the rows are independent.
+        IntStream.range(0, V_COUNT).parallel().forEach(
+                vi -> fillRow(rangeSolver, omega, vi));
+    }
+
+    private VariableVelocityRangeCache(
+            double[] range, double[] tof, double[] targetElevation, long fingerprint) {
+        m_range = range;
+        m_tof = tof;
+        m_targetElevation = targetElevation;
+        m_fingerprint = fingerprint;
+    }
+
+    /**
+     * Reads a table written by save().
+     *
+     * @throws IllegalArgumentException if the file was made with a different
+     *                                  format or grid.
+     */
+    public static VariableVelocityRangeCache load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC)
+                throw new IllegalArgumentException("not a range cache file");
+            long fingerprint = in.readLong();
+            int vCount = in.readInt();
+            int elevationCount = in.readInt();
+            if (vCount != V_COUNT || elevationCount != ELEVATION_COUNT)
+                throw new IllegalArgumentException(String.format(
+                        "wrong grid size %d x %d, expected %d x %d",
+                        vCount, elevationCount, V_COUNT, ELEVATION_COUNT));
+            int n = V_COUNT * ELEVATION_COUNT;
+            double[] range = new double[n];
+            double[] tof = new double[n];
+            double[] targetElevation = new double[n];
+            for (int i = 0; i < n; ++i) {
+                range[i] = in.readDouble();
+                tof[i] = in.readDouble();
+                targetElevation[i] = in.readDouble();
+            }
+            return new VariableVelocityRangeCache(range, tof, targetElevation, fingerprint);
+        }
+    }
+
+    /**
+     * Reads the table if the file exists and was made with the same solver
+     * parameters and grid, otherwise computes it and writes the file, so the next
+     * startup is fast.
+     */
+    public static VariableVelocityRangeCache loadOrCompute(
+            Path file, RangeSolver rangeSolver, double omega) throws IOException {
+        long fingerprint = fingerprint(rangeSolver, omega);
+        if (Files.exists(file)) {
+            try {
+                VariableVelocityRangeCache cache = load(file);
+                if (cache.m_fingerprint == fingerprint)
+                    return cache;
+                System.out.printf("WARNING: %s made with different parameters, recomputing\n", file);
+            } catch (IllegalArgumentException | IOException e) {
+                System.out.printf("WARNING: can't use %s, recomputing: %s\n", file, e.getMessage());
+            }
+        }
+        VariableVelocityRangeCache cache = new VariableVelocityRangeCache(rangeSolver, omega);
+        cache.save(file);
+        return cache;
+    }
+
+    /** Writes the table. */
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeLong(m_fingerprint);
+            out.writeInt(V_COUNT);
+            out.writeInt(ELEVATION_COUNT);
+            for (int i = 0; i < m_range.length; ++i) {
+                out.writeDouble(m_range[i]);
+                out.writeDouble(m_tof[i]);
+                out.writeDouble(m_targetElevation[i]);
             }
         }
     }
@@ -63,8 +166,115 @@ public class VariableVelocityRangeCache implements IVVRange {
     /**
      * @param v         velocity in m/s
      * @param elevation in radians
+     * @return null if there's no solution, i.e. the velocity row is empty.
      */
+    @Override
     public FiringSolution get(double v, double elevation) {
-        return m_map.get(v, elevation);
+        double range = range(v, elevation);
+        if (Double.isNaN(range))
+            return null;
+        return new FiringSolution(
+                range,
+                tof(v, elevation),
+                targetElevation(v, elevation));
+    }
+
+    /** Range in meters, without allocating. NaN if there's no solution. */
+    public double range(double v, double elevation) {
+        return lookup(m_range, v, elevation);
+    }
+
+    /** Time of flight in seconds, without allocating. */
+    public double tof(double v, double elevation) {
+        return lookup(m_tof, v, elevation);
+    }
+
+    /** Arrival path elevation in radians, without allocating. */
+    public double targetElevation(double v, double elevation) {
+        return lookup(m_targetElevation, v, elevation);
+    }
+
+    ///////////////////////////////////////////////////
+
+    private static long fingerprint(RangeSolver rangeSolver, double omega) {
+        return 31 * rangeSolver.fingerprint() + Double.doubleToLongBits(omega);
+    }
+
+    /**
+     * Bilinear interpolation. Inputs outside the grid are clamped to the edge.
+     */
+    private static double lookup(double[] table, double v, double elevation) {
+        double vx = clamp((v - MIN_V) / V_STEP, V_COUNT - 1);
+        double ex = clamp((elevation - MIN_ELEVATION) / ELEVATION_STEP, ELEVATION_COUNT - 1);
+        int v0 = Math.min((int) vx, V_COUNT - 2);
+        int e0 = Math.min((int) ex, ELEVATION_COUNT - 2);
+        double vs = vx - v0;
+        double es = ex - e0;
+        int i00 = v0 * ELEVATION_COUNT + e0;
+        int i10 = i00 + ELEVATION_COUNT;
+        double lo = table[i00] + es * (table[i00 + 1] - table[i00]);
+        double hi = table[i10] + es * (table[i10 + 1] - table[i10]);
+        return lo + vs * (hi - lo);
+    }
+
+    private static double clamp(double x, double max) {
+        return Math.max(0, Math.min(x, max));
+    }
+
+    /**
+     * Solves every elevation for one velocity. The solver sometimes finds no
+     * solution; those points are filled from their neighbors, the same way the
+     * interpolating map used to skip them.
+     */
+    private void fillRow(RangeSolver rangeSolver, double omega, int vi) {
+        double v = MIN_V + vi * V_STEP;
+        int row = vi * ELEVATION_COUNT;
+        for (int ei = 0; ei < ELEVATION_COUNT; ++ei) {
+            double elevation = MIN_ELEVATION + ei * ELEVATION_STEP;
+            FiringSolution solution = rangeSolver.getSolution(v, omega, elevation);
+            if (solution == null) {
+                m_range[row + ei] = Double.NaN;
+                continue;
+            }
+            m_range[row + ei] = solution.range();
+            m_tof[row + ei] = solution.tof();
+            m_targetElevation[row + ei] = solution.targetElevation();
+        }
+        fillGaps(row);
+    }
+
+    /**
+     * Replaces missing points with linear interpolation between the valid
+     * neighbors, or the nearest valid neighbor at the ends. If there are no valid
+     * points at all, the row is left empty (NaN), and lookups that touch it
+     * return NaN.
+     */
+    private void fillGaps(int row) {
+        int prev = -1;
+        for (int ei = 0; ei <= ELEVATION_COUNT; ++ei) {
+            if (ei < ELEVATION_COUNT && Double.isNaN(m_range[row + ei]))
+                continue;
+            // ei is valid (or the end), prev is the previous valid one (or -1)
+            if (prev < 0 && ei == ELEVATION_COUNT) {
+                System.out.printf("WARNING: no solutions for velocity row %d\n", row / ELEVATION_COUNT);
+                Arrays.fill(m_tof, row, row + ELEVATION_COUNT, Double.NaN);
+                Arrays.fill(m_targetElevation, row, row + ELEVATION_COUNT, Double.NaN);
+                return;
+            }
+            int src0 = prev < 0 ? ei : prev;
+            int src1 = ei == ELEVATION_COUNT ? prev : ei;
+            for (int k = prev + 1; k < ei; ++k) {
+                double s = src0 == src1 ? 0 : (double) (k - src0) / (src1 - src0);
+                fillOne(row + k, row + src0, row + src1, s);
+            }
+            prev = ei;
+        }
+    }
+
+    private void fillOne(int dst, int src0, int src1, double s) {
+        m_range[dst] = m_range[src0] + s * (m_range[src1] - m_range[src0]);
+        m_tof[dst] = m_tof[src0] + s * (m_tof[src1] - m_tof[src0]);
+        m_targetElevation[dst] = m_targetElevation[src0]
+                + s * (m_targetElevation[src1] - m_targetElevation[src0]);
     }
 }
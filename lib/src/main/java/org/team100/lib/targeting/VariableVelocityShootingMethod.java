@@ -5,8 +5,11 @@ import java.util.function.Function;
 
 import org.team100.lib.geometry.GlobalVelocityR2;
 import org.team100.lib.optimization.NewtonsMethod;
+import org.team100.lib.optimization.NewtonsMethodWorkspace;
+import org.team100.lib.optimization.NumericalJacobian100;
 import org.team100.lib.util.StrUtil;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.Nat;
 import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.Vector;
@@ -34,6 +37,11 @@ import edu.wpi.first.math.numbers.N3;
  * power.
  * 
  * I think the first constraint is more interesting.
+ * 
+ * For shooting on the move, use track() every cycle instead of solve(), to
+ * start from the previous solution.
+ * 
+ * Not thread-safe.
  */
 public class VariableVelocityShootingMethod {
     private static final boolean DEBUG = false;
@@ -50,6 +58,10 @@ public class VariableVelocityShootingMethod {
      * bounds above.
      */
     private static final int ITERATIONS = 10;
+    /** Random restarts for a cold start. */
+    private static final int RESTARTS = 3;
+    /** Initial muzzle velocity guess for a cold start. */
+    private static final double INITIAL_VELOCITY = 5;
     /**
      * Maximum step in x per iteration. This keeps very low gradient from pushing
      * the solution far away.
@@ -58,10 +70,24 @@ public class VariableVelocityShootingMethod {
 
     private final IVVRange m_range;
     private final double m_tolerance;
+    /** Scratch for the solver. */
+    private final NewtonsMethodWorkspace<N3, N3> m_ws;
+
+    // Tracking state.
+    /** The previous track() solution, (azimuth, velocity, elevation), or null. */
+    private Vector<N3> m_previous;
+    /** The target bearing for the previous solution. */
+    private double m_previousBearing;
+
+    // Counters.
+    private int m_lastIterations;
+    private int m_coldStarts;
+    private int m_failures;
 
     public VariableVelocityShootingMethod(IVVRange range, double tolerance) {
         m_range = range;
         m_tolerance = tolerance;
+        m_ws = new NewtonsMethodWorkspace<>(Nat.N3(), Nat.N3());
     }
 
     /**
@@ -82,27 +108,121 @@ public class VariableVelocityShootingMethod {
         Translation2d T0 = targetPosition.minus(robotPosition);
         GlobalVelocityR2 vT = targetVelocity.minus(robotVelocity);
         Vector<N3> initialX = VecBuilder.fill(
-                T0.getAngle().getRadians(), 5, initialElevation);
+                T0.getAngle().getRadians(), INITIAL_VELOCITY, initialElevation);
+        m_lastIterations = 0;
+        return newton(T0, vT, targetElevation, initialX, ITERATIONS, RESTARTS)
+                .map(VariableVelocityShootingMethod::solution);
+    }
+
+    /**
+     * Like solve(), but starts from the previous track() solution, if there is
+     * one, with the azimuth moved by the change in target bearing since then,
+     * i.e. by the relative motion of the robot and target over the cycle.
+     * 
+     * The warm start is limited to ShootingMethod.TRACKING_ITERATIONS, without
+     * restarts. If it doesn't converge, fall back to solve() with the initial
+     * elevation.
+     */
+    public Optional<Solution> track(
+            Translation2d robotPosition,
+            GlobalVelocityR2 robotVelocity,
+            Translation2d targetPosition,
+            GlobalVelocityR2 targetVelocity,
+            double targetElevation,
+            double initialElevation) {
+        Translation2d T0 = targetPosition.minus(robotPosition);
+        GlobalVelocityR2 vT = targetVelocity.minus(robotVelocity);
+        double bearing = T0.getAngle().getRadians();
+        m_lastIterations = 0;
+        if (m_previous != null) {
+            Vector<N3> seed = VecBuilder.fill(
+                    MathUtil.angleModulus(m_previous.get(0) + bearing - m_previousBearing),
+                    m_previous.get(1),
+                    m_previous.get(2));
+            Optional<Vector<N3>> x = newton(
+                    T0, vT, targetElevation, seed, ShootingMethod.TRACKING_ITERATIONS, 0);
+            if (x.isPresent())
+                return Optional.of(remember(bearing, x.get()));
+            if (DEBUG)
+                System.out.println("tracking failed, cold start");
+            m_coldStarts++;
+        }
+        Vector<N3> initialX = VecBuilder.fill(bearing, INITIAL_VELOCITY, initialElevation);
+        Optional<Vector<N3>> x = newton(
+                T0, vT, targetElevation, initialX, ITERATIONS, RESTARTS);
+        if (x.isEmpty()) {
+            m_failures++;
+            m_previous = null;
+            return Optional.empty();
+        }
+        return Optional.of(remember(bearing, x.get()));
+    }
+
+    /** Forget the previous solution, so the next track() is a cold start. */
+    public void reset() {
+        m_previous = null;
+    }
+
+    /** Solver iterations used by the most recent solve() or track(). */
+    public int lastIterations() {
+        return m_lastIterations;
+    }
+
+    /** Number of times track() had to fall back to a cold start. */
+    public int coldStarts() {
+        return m_coldStarts;
+    }
+
+    /** Number of times track() found no solution at all. */
+    public int failures() {
+        return m_failures;
+    }
+
+    private Solution remember(double bearing, Vector<N3> x) {
+        m_previous = x;
+        m_previousBearing = bearing;
+        return solution(x);
+    }
+
+    private static Solution solution(Vector<N3> x) {
+        return new Solution(
+                new Rotation2d(x.get(0)),
+                x.get(1),
+                new Rotation2d(x.get(2)));
+    }
+
+    /**
+     * Adds the iterations used to the count.
+     * 
+     * @return (azimuth, velocity, elevation), or empty if the solver fails.
+     */
+    private Optional<Vector<N3>> newton(
+            Translation2d T0,
+            GlobalVelocityR2 vT,
+            double targetElevation,
+            Vector<N3> initialX,
+            int iterations,
+            int restarts) {
+        Function<Vector<N3>, Vector<N3>> f = fn(T0, vT, targetElevation);
         NewtonsMethod<N3, N3> solver = new NewtonsMethod<>(
                 Nat.N3(),
                 Nat.N3(),
-                fn(T0, vT, targetElevation),
+                f,
+                NumericalJacobian100.forward(f),
                 X_MIN,
                 X_MAX,
                 m_tolerance,
-                ITERATIONS,
-                DX_LIMIT);
+                iterations,
+                DX_LIMIT,
+                m_ws);
         try {
-            Vector<N3> x = solver.solve2(initialX, 3, true);
-            return Optional.of(
-                    new Solution(
-                            new Rotation2d(x.get(0)),
-                            x.get(1),
-                            new Rotation2d(x.get(2))));
+            return Optional.of(solver.solve2(initialX, restarts, true));
         } catch (IllegalArgumentException ex) {
             if (DEBUG)
                 ex.printStackTrace();
             return Optional.empty();
+        } finally {
+            m_lastIterations += solver.iterations();
         }
     }
 
@@ -137,6 +257,10 @@ public class VariableVelocityShootingMethod {
         FiringSolution rangeSolution = m_range.get(v, elevation);
         if (DEBUG)
             System.out.printf("soln %s\n", rangeSolution);
+        if (rangeSolution == null) {
+            // No solution here, so no convergence either.
+            return VecBuilder.fill(Double.NaN, Double.NaN, Double.NaN);
+        }
         Translation2d b = new Translation2d(rangeSolution.range(), azimuth);
         Translation2d T = vT.integrate(T0, rangeSolution.tof());
         Translation2d err = b.minus(T);
@@ -0,0 +1,96 @@
+package org.team100.lib.trajectory;
+
+import java.util.function.Function;
+
+import edu.wpi.first.math.geometry.Pose2d;
+
+/**
+ * Wraps a trajectory function, f(starting pose) = trajectory, so that the
+ * trajectory can be planned ahead of time, e.g. in disabledPeriodic against
+ * the current pose estimate, rather than in the first autonomous cycle.
+ *
+ * prePlan() plans only if there's no plan yet, or if the pose has drifted past
+ * the tolerance from the start of the plan, so it's cheap to call every cycle.
+ *
+ * apply() returns the plan if the pose is within the tolerance, and otherwise
+ * plans on the spot, just like the wrapped function. A reused plan starts up to
+ * the tolerance away from the actual pose; the controller takes up the
+ * difference.
+ *
+ * Robot thread only.
+ */
+public class PrePlannedTrajectory implements Function<Pose2d, TrajectorySE2> {
+    private static final boolean DEBUG = false;
+
+    private final Function<Pose2d, TrajectorySE2> m_planner;
+    private final double m_toleranceM;
+    private final double m_toleranceRad;
+    /** Start of the current plan, or null if there isn't one. */
+    private Pose2d m_start;
+    private TrajectorySE2 m_trajectory;
+    private int m_plans;
+
+    /**
+     * @param planner      f(starting pose) = trajectory
+     * @param toleranceM   reuse the plan if the pose is closer than this
+     * @param toleranceRad ... and the heading is closer than this
+     */
+    public PrePlannedTrajectory(
+            Function<Pose2d, TrajectorySE2> planner,
+            double toleranceM,
+            double toleranceRad) {
+        m_planner = planner;
+        m_toleranceM = toleranceM;
+        m_toleranceRad = toleranceRad;
+    }
+
+    /** Five centimeters, about three degrees. */
+    public PrePlannedTrajectory(Function<Pose2d, TrajectorySE2> planner) {
+        this(planner, 0.05, 0.05);
+    }
+
+    /** Plan from the pose, unless the current plan is close enough. */
+    public void prePlan(Pose2d pose) {
+        if (near(pose))
+            return;
+        plan(pose);
+    }
+
+    /** The plan, if it's close enough, or a new plan. */
+    @Override
+    public TrajectorySE2 apply(Pose2d pose) {
+        if (near(pose)) {
+            if (DEBUG)
+                System.out.println("using pre-planned trajectory");
+            return m_trajectory;
+        }
+        return plan(pose);
+    }
+
+    /** Forget the plan, e.g. if the waypoints change. */
+    public void clear() {
+        m_start = null;
+        m_trajectory = null;
+    }
+
+    /** Number of times the wrapped function has been called. */
+    public int plans() {
+        return m_plans;
+    }
+
+    private boolean near(Pose2d pose) {
+        if (m_start == null)
+            return false;
+        return m_start.getTranslation().getDistance(pose.getTranslation()) < m_toleranceM
+                && Math.abs(m_start.getRotation().minus(pose.getRotation()).getRadians()) < m_toleranceRad;
+    }
+
+    private TrajectorySE2 plan(Pose2d pose) {
+        if (DEBUG)
+            System.out.printf("planning from %s\n", pose);
+        m_trajectory = m_planner.apply(pose);
+        m_start = pose;
+        m_plans++;
+        return m_trajectory;
+    }
+}
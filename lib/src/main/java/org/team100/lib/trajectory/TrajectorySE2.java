@@ -20,11 +20,14 @@ public class TrajectorySE2 {
     /** Constraints used for this trajectory, for resampling */
     // private final List<TimingConstraint> m_constraints;
     private final double m_duration;
+    /** Time of each point, for binary search. */
+    private final double[] m_times;
 
     public TrajectorySE2() {
         m_points = new ArrayList<>();
         // m_constraints = new ArrayList<>();
         m_duration = 0;
+        m_times = new double[0];
     }
 
     /** First timestamp must be zero. */
@@ -33,6 +36,10 @@ public class TrajectorySE2 {
         m_points = points;
         // m_constraints = constraints;
         m_duration = m_points.get(m_points.size() - 1).point().time();
+        m_times = new double[m_points.size()];
+        for (int i = 0; i < m_times.length; ++i) {
+            m_times[i] = m_points.get(i).point().time();
+        }
     }
 
     /**
@@ -41,9 +48,6 @@ public class TrajectorySE2 {
      * @param timeS start is zero.
      */
     public TrajectorySE2Entry sample(double timeS) {
-        // This scans the whole trajectory for every sample, but most of the time
-        // is the interpolation; I tried a TreeMap index and it only saved a few
-        // nanoseconds per call.
         if (isEmpty())
             throw new IllegalStateException("can't sample an empty trajectory");
         if (timeS >= m_duration) {
@@ -52,21 +56,56 @@ public class TrajectorySE2 {
         if (timeS <= 0) {
             return getPoint(0);
         }
+        return interpolate(TrajectoryUtil.ceilingIndex(m_times, timeS), timeS);
+    }
+
+    /**
+     * A stateful sampler for followers, which usually sample forward in time: each
+     * sample starts looking where the previous one ended, so following the whole
+     * trajectory costs O(n) in total, instead of O(log n) per sample. Going
+     * backwards is allowed, it just uses the binary search.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
 
-        for (int i0 = 0; i0 < length() - 1; ++i0) {
-            int i1 = i0 + 1;
-            final TrajectorySE2Entry ceil = getPoint(i1);
-            if (ceil.point().time() >= timeS) {
-                final TrajectorySE2Entry floor = getPoint(i0);
-                double span = ceil.point().time() - floor.point().time();
-                if (Math.abs(span) <= 1e-12) {
-                    return ceil;
-                }
-                double delta_t = timeS - floor.point().time();
-                return TrajectoryUtil.interpolate(floor, ceil, delta_t);
+    public class Cursor {
+        /** Index of the ceiling of the previous sample. */
+        private int m_index = 1;
+
+        public TrajectorySE2Entry sample(double timeS) {
+            if (isEmpty())
+                throw new IllegalStateException("can't sample an empty trajectory");
+            if (timeS >= m_duration) {
+                return getLastPoint();
+            }
+            if (timeS <= 0) {
+                return getPoint(0);
             }
+            if (m_times[m_index - 1] >= timeS) {
+                m_index = TrajectoryUtil.ceilingIndex(m_times, timeS);
+            } else {
+                while (m_times[m_index] < timeS)
+                    ++m_index;
+            }
+            return interpolate(m_index, timeS);
+        }
+    }
+
+    /**
+     * Interpolate between the ceiling at i1 and the previous point.
+     * 
+     * @param i1 the first index with time at or after timeS, at least 1.
+     */
+    private TrajectorySE2Entry interpolate(int i1, double timeS) {
+        final TrajectorySE2Entry ceil = getPoint(i1);
+        final TrajectorySE2Entry floor = getPoint(i1 - 1);
+        double span = ceil.point().time() - floor.point().time();
+        if (Math.abs(span) <= 1e-12) {
+            return ceil;
         }
-        throw new IllegalStateException("impossible trajectory: " + toString());
+        double delta_t = timeS - floor.point().time();
+        return TrajectoryUtil.interpolate(floor, ceil, delta_t);
     }
 
     /** Time is at or beyond the trajectory duration. */
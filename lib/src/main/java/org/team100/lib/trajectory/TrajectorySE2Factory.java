@@ -1,6 +1,7 @@
 package org.team100.lib.trajectory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.team100.lib.trajectory.constraint.TimingConstraint;
@@ -22,9 +23,20 @@ public class TrajectorySE2Factory {
     private static final double HIGH_ACCEL = 1000;
 
     private final List<TimingConstraint> m_constraints;
+    /** Constraints evaluated in every pass; the others are evaluated once. */
+    private final List<TimingConstraint> m_accelByVelocity;
+    private final List<TimingConstraint> m_decelByVelocity;
 
     public TrajectorySE2Factory(List<TimingConstraint> constraints) {
         m_constraints = constraints;
+        m_accelByVelocity = new ArrayList<>();
+        m_decelByVelocity = new ArrayList<>();
+        for (TimingConstraint c : constraints) {
+            if (c.accelDependsOnVelocity())
+                m_accelByVelocity.add(c);
+            if (c.decelDependsOnVelocity())
+                m_decelByVelocity.add(c);
+        }
     }
 
     /**
@@ -33,8 +45,10 @@ public class TrajectorySE2Factory {
      * Output is these same points with time.
      */
     public TrajectorySE2 fromPath(PathSE2 path, double start_vel, double end_vel) {
-        double[] distances = distances(path);
-        double[] velocities = velocities(path, start_vel, end_vel, distances);
+        // the path already has the cumulative distances
+        double[] distances = path.distances();
+        Limits limits = new Limits(path);
+        double[] velocities = velocities(path, limits, start_vel, end_vel, distances);
         double[] accels = accels(distances, velocities);
         double[] runningTime = runningTime(distances, velocities, accels);
         List<TrajectorySE2Entry> timedStates = timedStates(path, velocities, accels, runningTime);
@@ -43,30 +57,15 @@ public class TrajectorySE2Factory {
 
     /////////////////////////////////////////////////////////////////////////////////////
 
-    /**
-     * Computes the length of each segment, as if it were a straight line, and
-     * accumulates.
-     */
-    private double[] distances(PathSE2 path) {
-        int n = path.length();
-        double distances[] = new double[n];
-        for (int i0 = 0; i0 < n - 1; ++i0) {
-            int i1 = i0 + 1;
-            double segmentLength = path.getEntry(i1).point().distanceCartesian(path.getEntry(i0).point());
-            distances[i1] = segmentLength + distances[i0];
-        }
-        return distances;
-    }
-
     /**
      * Assigns a velocity to each sample, using velocity, accel, and decel
      * constraints.
      */
     private double[] velocities(
-            PathSE2 path, double start_vel, double end_vel, double[] distances) {
+            PathSE2 path, Limits limits, double start_vel, double end_vel, double[] distances) {
         double velocities[] = new double[path.length()];
-        forward(path, start_vel, distances, velocities);
-        backward(path, end_vel, distances, velocities);
+        forward(path, limits, start_vel, distances, velocities);
+        backward(path, limits, end_vel, distances, velocities);
         if (start_vel > velocities[0]) {
             System.out.printf("WARNING: start velocity %f is higher than constrained velocity %f\n",
                     start_vel, velocities[0]);
@@ -131,7 +130,7 @@ public class TrajectorySE2Factory {
      * referencing the state at i.
      */
     private void forward(
-            PathSE2 path, double start_vel, double[] distances, double[] velocities) {
+            PathSE2 path, Limits limits, double start_vel, double[] distances, double[] velocities) {
         int n = path.length();
         velocities[0] = start_vel;
         for (int i0 = 0; i0 < n - 1; ++i0) {
@@ -147,14 +146,14 @@ public class TrajectorySE2Factory {
                 break;
             }
             // velocity constraint depends only on state
-            double maxVelocity = maxVelocity(path.getEntry(i1).point());
+            double maxVelocity = limits.m_maxV[i1];
             if (DEBUG)
                 System.out.printf("maxV i %d %f\n", i1, maxVelocity);
             // start with the maximum velocity
             velocities[i1] = maxVelocity;
             // reduce velocity to fit under the acceleration constraint
             double impliedAccel = Math100.accel(velocities[i0], velocities[i1], arclength);
-            double maxAccel = maxAccel(path.getEntry(i0).point(), velocities[i0]);
+            double maxAccel = limits.maxAccel(i0, velocities[i0]);
             if (impliedAccel > maxAccel) {
                 velocities[i1] = Math100.v1(velocities[i0], maxAccel, arclength);
                 if (DEBUG) {
@@ -173,7 +172,7 @@ public class TrajectorySE2Factory {
      * then again for i.
      */
     private void backward(
-            PathSE2 path, double end_vel, double[] distances, double[] velocities) {
+            PathSE2 path, Limits limits, double end_vel, double[] distances, double[] velocities) {
         int n = path.length();
         velocities[n - 1] = end_vel;
         for (int i0 = n - 2; i0 >= 0; --i0) {
@@ -186,13 +185,13 @@ public class TrajectorySE2Factory {
                 break;
             }
 
-            double maxVelocity = maxVelocity(path.getEntry(i0).point());
+            double maxVelocity = limits.m_maxV[i0];
             if (DEBUG)
                 System.out.printf("maxV i %d %f\n", i0, maxVelocity);
 
             double impliedAccel = Math100.accel(velocities[i0], velocities[i1], arclength);
             // Apply the decel constraint at the end of the segment since it is feasible.
-            double maxDecelAtI1 = maxDecel(path.getEntry(i1).point(), velocities[i1]);
+            double maxDecelAtI1 = limits.maxDecel(i1, velocities[i1]);
             if (impliedAccel < maxDecelAtI1) {
                 velocities[i0] = Math100.v0(velocities[i1], maxDecelAtI1, arclength);
                 if (DEBUG)
@@ -201,7 +200,7 @@ public class TrajectorySE2Factory {
             // This can produce an infeasible result at i0 so apply it again there.
             // This will be conservative, which is better than violating the constraint.
             impliedAccel = Math100.accel(velocities[i0], velocities[i1], arclength);
-            double maxDecelAtI0 = maxDecel(path.getEntry(i0).point(), velocities[i0]);
+            double maxDecelAtI0 = limits.maxDecel(i0, velocities[i0]);
             if (impliedAccel < maxDecelAtI0) {
                 velocities[i0] = Math100.v0(velocities[i1], maxDecelAtI0, arclength);
                 if (DEBUG)
@@ -222,39 +221,83 @@ public class TrajectorySE2Factory {
     }
 
     /**
-     * Returns the lowest (i.e. closest to zero) velocity constraint from the list
-     * of constraints. Always positive or zero.
+     * The constraints evaluated for one path.
+     * 
+     * The velocity limits and the velocity-independent acceleration limits are
+     * computed once per point, up front. The velocity-dependent ones are
+     * evaluated on demand, and the last decel is remembered, since the backward
+     * pass asks for the same point and velocity twice in a row.
      */
-    private double maxVelocity(PathSE2Point point) {
-        double minVelocity = HIGH_V;
-        for (TimingConstraint constraint : m_constraints) {
-            minVelocity = Math.min(minVelocity, constraint.maxV(point));
+    private class Limits {
+        private final PathSE2 m_path;
+        /** Lowest (i.e. closest to zero) velocity limit. Always positive or zero. */
+        private final double[] m_maxV;
+        /** Lowest velocity-independent accel limit. */
+        private final double[] m_maxAccel;
+        /** Highest velocity-independent decel limit. */
+        private final double[] m_maxDecel;
+        private int m_lastDecelIndex = -1;
+        private double m_lastDecelVelocity;
+        private double m_lastDecel;
+
+        Limits(PathSE2 path) {
+            m_path = path;
+            int n = path.length();
+            m_maxV = new double[n];
+            m_maxAccel = new double[n];
+            m_maxDecel = new double[n];
+            Arrays.fill(m_maxV, HIGH_V);
+            Arrays.fill(m_maxAccel, HIGH_ACCEL);
+            Arrays.fill(m_maxDecel, -HIGH_ACCEL);
+            for (TimingConstraint constraint : m_constraints) {
+                constraint.maxV(path, m_maxV);
+            }
+            for (int i = 0; i < n; ++i) {
+                PathSE2Point point = path.getEntry(i).point();
+                for (TimingConstraint constraint : m_constraints) {
+                    // the velocity is ignored
+                    if (!constraint.accelDependsOnVelocity())
+                        m_maxAccel[i] = Math.min(m_maxAccel[i], constraint.maxAccel(point, 0));
+                    if (!constraint.decelDependsOnVelocity())
+                        m_maxDecel[i] = Math.max(m_maxDecel[i], constraint.maxDecel(point, 0));
+                }
+            }
         }
-        return minVelocity;
-    }
 
-    /**
-     * Returns the lowest (i.e. closest to zero) acceleration constraint from the
-     * list of constraints. Always positive or zero.
-     */
-    private double maxAccel(PathSE2Point point, double velocity) {
-        double minAccel = HIGH_ACCEL;
-        for (TimingConstraint constraint : m_constraints) {
-            minAccel = Math.min(minAccel, constraint.maxAccel(point, velocity));
+        /**
+         * Returns the lowest (i.e. closest to zero) acceleration constraint from the
+         * list of constraints. Always positive or zero.
+         */
+        double maxAccel(int i, double velocity) {
+            double minAccel = m_maxAccel[i];
+            if (m_accelByVelocity.isEmpty())
+                return minAccel;
+            PathSE2Point point = m_path.getEntry(i).point();
+            for (TimingConstraint constraint : m_accelByVelocity) {
+                minAccel = Math.min(minAccel, constraint.maxAccel(point, velocity));
+            }
+            return minAccel;
         }
-        return minAccel;
-    }
 
-    /**
-     * Returns the highest (i.e. closest to zero) deceleration constraint from the
-     * list of constraints. Always negative or zero.
-     */
-    private double maxDecel(PathSE2Point point, double velocity) {
-        double maxDecel = -HIGH_ACCEL;
-        for (TimingConstraint constraint : m_constraints) {
-            maxDecel = Math.max(maxDecel, constraint.maxDecel(point, velocity));
+        /**
+         * Returns the highest (i.e. closest to zero) deceleration constraint from the
+         * list of constraints. Always negative or zero.
+         */
+        double maxDecel(int i, double velocity) {
+            double maxDecel = m_maxDecel[i];
+            if (m_decelByVelocity.isEmpty())
+                return maxDecel;
+            if (i == m_lastDecelIndex && velocity == m_lastDecelVelocity)
+                return m_lastDecel;
+            PathSE2Point point = m_path.getEntry(i).point();
+            for (TimingConstraint constraint : m_decelByVelocity) {
+                maxDecel = Math.max(maxDecel, constraint.maxDecel(point, velocity));
+            }
+            m_lastDecelIndex = i;
+            m_lastDecelVelocity = velocity;
+            m_lastDecel = maxDecel;
+            return maxDecel;
         }
-        return maxDecel;
     }
 
     private static double dt(
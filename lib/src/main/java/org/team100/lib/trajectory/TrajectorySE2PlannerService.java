@@ -0,0 +1,189 @@
+package org.team100.lib.trajectory;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.team100.lib.geometry.WaypointSE2;
+
+import edu.wpi.first.math.geometry.Pose2d;
+
+/**
+ * Runs TrajectorySE2Planner on a worker thread, so that planning doesn't
+ * happen inside the robot loop.
+ *
+ * The caller gets a future, and should poll it each cycle (isDone()) rather
+ * than blocking on it.
+ *
+ * Results are kept in an LRU cache, keyed by the waypoint poses and courses,
+ * quantized, and the waypoint scales and velocities, exactly, so that repeating
+ * the same request (e.g. the same auton, or the same driver-assist target from
+ * about the same place) is served immediately. Note that a cache hit may start
+ * up to half a quantum away from the requested start.
+ *
+ * In-flight requests are cached too, so asking twice only plans once. Failed
+ * requests are dropped from the cache when they fail, so asking again will try
+ * again.
+ */
+public class TrajectorySE2PlannerService {
+    private static final boolean DEBUG = false;
+
+    private final TrajectorySE2Planner m_planner;
+    private final double m_positionQuantumM;
+    private final double m_angleQuantumRad;
+    private final Map<Key, CompletableFuture<TrajectorySE2>> m_cache;
+    private final ExecutorService m_executor;
+
+    /**
+     * @param planner           does the actual work
+     * @param cacheSize         number of trajectories to keep
+     * @param positionQuantumM  waypoints closer than this are the same
+     * @param angleQuantumRad   headings and courses closer than this are the same
+     */
+    public TrajectorySE2PlannerService(
+            TrajectorySE2Planner planner,
+            int cacheSize,
+            double positionQuantumM,
+            double angleQuantumRad) {
+        m_planner = planner;
+        m_positionQuantumM = positionQuantumM;
+        m_angleQuantumRad = angleQuantumRad;
+        m_cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CompletableFuture<TrajectorySE2>> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        m_executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "TrajectorySE2PlannerService");
+            t.setDaemon(true);
+            // Don't compete with the robot loop.
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    /** One centimeter, about half a degree, 32 trajectories. */
+    public TrajectorySE2PlannerService(TrajectorySE2Planner planner) {
+        this(planner, 32, 0.01, 0.01);
+    }
+
+    /**
+     * Plans a trajectory through the supplied waypoints, starting and ending
+     * motionless.
+     */
+    public CompletableFuture<TrajectorySE2> restToRest(List<WaypointSE2> waypoints) {
+        return generateTrajectory(waypoints, 0.0, 0.0);
+    }
+
+    /**
+     * Plans a trajectory through the supplied waypoints, with start and end
+     * velocities.
+     */
+    public CompletableFuture<TrajectorySE2> generateTrajectory(
+            List<WaypointSE2> waypoints, double start_vel, double end_vel) {
+        Key key = key(waypoints, start_vel, end_vel);
+        synchronized (m_cache) {
+            CompletableFuture<TrajectorySE2> cached = m_cache.get(key);
+            if (cached != null) {
+                if (DEBUG)
+                    System.out.println("trajectory cache hit");
+                return cached;
+            }
+            // Copy the waypoints, in case the caller changes the list.
+            List<WaypointSE2> w = List.copyOf(waypoints);
+            CompletableFuture<TrajectorySE2> result = new CompletableFuture<>();
+            m_cache.put(key, result);
+            m_executor.execute(() -> {
+                try {
+                    result.complete(m_planner.generateTrajectory(w, start_vel, end_vel));
+                } catch (RuntimeException ex) {
+                    // Don't remember failures. Forget first, so that anyone who
+                    // sees the failure can ask again.
+                    forget(key, result);
+                    result.completeExceptionally(ex);
+                }
+            });
+            return result;
+        }
+    }
+
+    /** Forget all the cached trajectories, e.g. if the constraints change. */
+    public void clear() {
+        synchronized (m_cache) {
+            m_cache.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (m_cache) {
+            return m_cache.size();
+        }
+    }
+
+    ////////////////////////////////////////////////////
+
+    private void forget(Key key, CompletableFuture<TrajectorySE2> result) {
+        if (DEBUG)
+            System.out.println("trajectory planning failed");
+        synchronized (m_cache) {
+            // Only if it's still this request.
+            m_cache.remove(key, result);
+        }
+    }
+
+    Key key(List<WaypointSE2> waypoints, double start_vel, double end_vel) {
+        // 7 numbers per waypoint, plus the two velocities.
+        long[] values = new long[waypoints.size() * 7 + 2];
+        int i = 0;
+        for (WaypointSE2 w : waypoints) {
+            Pose2d p = w.pose();
+            values[i++] = Math.round(p.getX() / m_positionQuantumM);
+            values[i++] = Math.round(p.getY() / m_positionQuantumM);
+            values[i++] = Math.round(p.getRotation().getRadians() / m_angleQuantumRad);
+            values[i++] = Math.round(w.course().x / m_angleQuantumRad);
+            values[i++] = Math.round(w.course().y / m_angleQuantumRad);
+            values[i++] = Math.round(w.course().theta / m_angleQuantumRad);
+            values[i++] = exact(w.scale());
+        }
+        values[i++] = exact(start_vel);
+        values[i++] = exact(end_vel);
+        return new Key(values);
+    }
+
+    /**
+     * Scale and velocities aren't quantized: a plan from a slightly different
+     * velocity would start the controller from the wrong one.
+     */
+    private static long exact(double x) {
+        // adding zero makes -0.0 into 0.0
+        return Double.doubleToLongBits(x + 0.0);
+    }
+
+    /** Quantized request. */
+    static final class Key {
+        private final long[] m_values;
+        private final int m_hash;
+
+        Key(long[] values) {
+            m_values = values;
+            m_hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key))
+                return false;
+            return Arrays.equals(m_values, ((Key) obj).m_values);
+        }
+
+        @Override
+        public int hashCode() {
+            return m_hash;
+        }
+    }
+}
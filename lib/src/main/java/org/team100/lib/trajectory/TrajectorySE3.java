@@ -13,11 +13,14 @@ public class TrajectorySE3 {
     private final List<TrajectorySE3Entry> m_points;
     public final List<TimingConstraintSE3> m_constraints;
     private final double m_duration;
+    /** Time of each point, for binary search. */
+    private final double[] m_times;
 
     public TrajectorySE3() {
         m_points = new ArrayList<>();
         m_constraints = new ArrayList<>();
         m_duration = 0;
+        m_times = new double[0];
     }
 
     public TrajectorySE3(
@@ -25,12 +28,13 @@ public class TrajectorySE3 {
         m_points = points;
         m_constraints = constraints;
         m_duration = m_points.get(m_points.size() - 1).point().time();
+        m_times = new double[m_points.size()];
+        for (int i = 0; i < m_times.length; ++i) {
+            m_times[i] = m_points.get(i).point().time();
+        }
     }
 
     public TrajectorySE3Entry sample(double timeS) {
-        // This scans the whole trajectory for every sample, but most of the time
-        // is the interpolation; I tried a TreeMap index and it only saved a few
-        // nanoseconds per call.
         if (isEmpty())
             throw new IllegalStateException("can't sample an empty trajectory");
         if (timeS >= m_duration) {
@@ -39,21 +43,56 @@ public class TrajectorySE3 {
         if (timeS <= 0) {
             return getPoint(0);
         }
+        return interpolate(TrajectoryUtil.ceilingIndex(m_times, timeS), timeS);
+    }
+
+    /**
+     * A stateful sampler for followers, which usually sample forward in time: each
+     * sample starts looking where the previous one ended, so following the whole
+     * trajectory costs O(n) in total, instead of O(log n) per sample. Going
+     * backwards is allowed, it just uses the binary search.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public class Cursor {
+        /** Index of the ceiling of the previous sample. */
+        private int m_index = 1;
 
-        for (int i0 = 0; i0 < length() - 1; ++i0) {
-            int i1 = i0 + 1;
-            final TrajectorySE3Entry ceil = getPoint(i1);
-            if (ceil.point().time() >= timeS) {
-                final TrajectorySE3Entry floor = getPoint(i0);
-                double span = ceil.point().time() - floor.point().time();
-                if (Math.abs(span) <= 1e-12) {
-                    return ceil;
-                }
-                double delta_t = timeS - floor.point().time();
-                return TrajectoryUtil.interpolate(floor, ceil, delta_t);
+        public TrajectorySE3Entry sample(double timeS) {
+            if (isEmpty())
+                throw new IllegalStateException("can't sample an empty trajectory");
+            if (timeS >= m_duration) {
+                return getLastPoint();
             }
+            if (timeS <= 0) {
+                return getPoint(0);
+            }
+            if (m_times[m_index - 1] >= timeS) {
+                m_index = TrajectoryUtil.ceilingIndex(m_times, timeS);
+            } else {
+                while (m_times[m_index] < timeS)
+                    ++m_index;
+            }
+            return interpolate(m_index, timeS);
+        }
+    }
+
+    /**
+     * Interpolate between the ceiling at i1 and the previous point.
+     * 
+     * @param i1 the first index with time at or after timeS, at least 1.
+     */
+    private TrajectorySE3Entry interpolate(int i1, double timeS) {
+        final TrajectorySE3Entry ceil = getPoint(i1);
+        final TrajectorySE3Entry floor = getPoint(i1 - 1);
+        double span = ceil.point().time() - floor.point().time();
+        if (Math.abs(span) <= 1e-12) {
+            return ceil;
         }
-        throw new IllegalStateException("impossible trajectory: " + toString());
+        double delta_t = timeS - floor.point().time();
+        return TrajectoryUtil.interpolate(floor, ceil, delta_t);
     }
 
     public int length() {
@@ -9,6 +9,26 @@ import org.team100.lib.trajectory.path.PathUtil;
 public class TrajectoryUtil {
     private static final boolean DEBUG = false;
 
+    /**
+     * Binary search for the first time at or after t.
+     * 
+     * @param times sorted, non-decreasing
+     * @return index, or times.length if t is after the last time.
+     */
+    public static int ceilingIndex(double[] times, double t) {
+        int lo = 0;
+        int hi = times.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (times[mid] < t) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
     /**
      * Linear interpolation by time.
      * 
@@ -2,6 +2,7 @@ package org.team100.lib.trajectory.constraint;
 
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.trajectory.path.PathSE2;
 import org.team100.lib.trajectory.path.PathSE2Point;
 import org.team100.lib.tuning.Mutable;
 
@@ -105,4 +106,14 @@ public class CapsizeAccelerationConstraint implements TimingConstraint {
         return m_maxCentripetalAccel * m_scale.getAsDouble() * m_maxCentripetalAccel * m_scale.getAsDouble()
                 - actualCentripetalAccel * actualCentripetalAccel;
     }
+
+    /** Same as maxV(PathSE2Point), using the curvature array. */
+    @Override
+    public void maxV(PathSE2 path, double[] maxV) {
+        double maxCentripetalAccel = m_maxCentripetalAccel * m_scale.getAsDouble();
+        for (int i = 0; i < maxV.length; ++i) {
+            double radius = 1 / Math.abs(path.k(i));
+            maxV[i] = Math.min(maxV[i], Math.sqrt(Math.abs(maxCentripetalAccel * radius)));
+        }
+    }
 }
@@ -2,6 +2,7 @@ package org.team100.lib.trajectory.constraint;
 
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.trajectory.path.PathSE2;
 import org.team100.lib.trajectory.path.PathSE2Point;
 import org.team100.lib.tuning.Mutable;
 
@@ -34,4 +35,22 @@ public class ConstantConstraint implements TimingConstraint {
     public double maxDecel(PathSE2Point point, double velocity) {
         return -m_maxAccel.getAsDouble();
     }
+
+    @Override
+    public void maxV(PathSE2 path, double[] maxV) {
+        double v = m_maxVelocity.getAsDouble();
+        for (int i = 0; i < maxV.length; ++i) {
+            maxV[i] = Math.min(maxV[i], v);
+        }
+    }
+
+    @Override
+    public boolean accelDependsOnVelocity() {
+        return false;
+    }
+
+    @Override
+    public boolean decelDependsOnVelocity() {
+        return false;
+    }
 }
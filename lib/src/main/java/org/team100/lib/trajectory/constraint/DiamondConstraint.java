@@ -54,4 +54,13 @@ public class DiamondConstraint implements TimingConstraint {
         return -m_maxAccel.getAsDouble();
     }
 
+    @Override
+    public boolean accelDependsOnVelocity() {
+        return false;
+    }
+
+    @Override
+    public boolean decelDependsOnVelocity() {
+        return false;
+    }
 }
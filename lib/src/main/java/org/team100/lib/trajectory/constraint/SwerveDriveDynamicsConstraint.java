@@ -100,4 +100,9 @@ public class SwerveDriveDynamicsConstraint implements TimingConstraint {
     private double maxA() {
         return aScale.getAsDouble() * m_limits.getMaxDriveDecelerationM_S2();
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean decelDependsOnVelocity() {
+        return false;
+    }
+}
@@ -1,5 +1,6 @@
 package org.team100.lib.trajectory.constraint;
 
+import org.team100.lib.trajectory.path.PathSE2;
 import org.team100.lib.trajectory.path.PathSE2Point;
 
 /**
@@ -13,6 +14,13 @@ import org.team100.lib.trajectory.path.PathSE2Point;
  * I've gone back and forth om supporting jerk limiting, and for now I took it
  * out. It's complicated, we don't seem to need it, and mechanism slack creates
  * jerk even if the motor tries not to.
+ * 
+ * The trajectory factory evaluates the constraints once per path, not once per
+ * point per pass: the velocity limits are computed for the whole path with
+ * maxV(PathSE2, double[]), which implementations can override with something
+ * faster, and the acceleration limits that don't depend on velocity are
+ * computed once per point. Only the velocity-dependent acceleration limits are
+ * evaluated in the forward and backward passes.
  */
 public interface TimingConstraint {
     /**
@@ -35,4 +43,33 @@ public interface TimingConstraint {
      * Always negative.
      */
     double maxDecel(PathSE2Point point, double velocityM_S);
+
+    /**
+     * Lower each element of maxV to this constraint's velocity limit at the
+     * corresponding point of the path, i.e. maxV[i] = min(maxV[i], maxV(point i)).
+     * 
+     * Override this if the whole path can be done faster than one point at a
+     * time, e.g. using the arrays in PathSE2, or if the constraint never binds.
+     */
+    default void maxV(PathSE2 path, double[] maxV) {
+        for (int i = 0; i < path.length(); ++i) {
+            maxV[i] = Math.min(maxV[i], maxV(path.getEntry(i).point()));
+        }
+    }
+
+    /**
+     * False if maxAccel() ignores the velocity, so it can be evaluated once per
+     * point instead of once per point per pass.
+     */
+    default boolean accelDependsOnVelocity() {
+        return true;
+    }
+
+    /**
+     * False if maxDecel() ignores the velocity, so it can be evaluated once per
+     * point instead of once per point per pass.
+     */
+    default boolean decelDependsOnVelocity() {
+        return true;
+    }
 }
@@ -1,6 +1,7 @@
 package org.team100.lib.trajectory.constraint;
 
 import org.team100.lib.geometry.WaypointSE2;
+import org.team100.lib.trajectory.path.PathSE2;
 import org.team100.lib.trajectory.path.PathSE2Point;
 
 import edu.wpi.first.math.geometry.Rotation2d;
@@ -75,4 +76,20 @@ public class TorqueConstraint implements TimingConstraint {
         }
         return a;
     }
+
+    /** Never binds. */
+    @Override
+    public void maxV(PathSE2 path, double[] maxV) {
+        //
+    }
+
+    @Override
+    public boolean accelDependsOnVelocity() {
+        return false;
+    }
+
+    @Override
+    public boolean decelDependsOnVelocity() {
+        return false;
+    }
 }
@@ -60,4 +60,13 @@ public class YawRateConstraint implements TimingConstraint {
         return -(m_maxAlphaRad_S2.getAsDouble() / Math.abs(heading_rate));
     }
 
-}
\ No newline at end of file
+    @Override
+    public boolean accelDependsOnVelocity() {
+        return false;
+    }
+
+    @Override
+    public boolean decelDependsOnVelocity() {
+        return false;
+    }
+}
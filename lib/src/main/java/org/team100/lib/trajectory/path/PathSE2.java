@@ -26,23 +26,29 @@ public class PathSE2 {
      * or anything else, just xy distance.
      */
     private final double[] m_distances;
+    /**
+     * Signed curvature, rad/m, as an array, so the timing passes can walk it
+     * without chasing the point objects.
+     */
+    private final double[] m_k;
 
     public PathSE2(final List<PathSE2Entry> states) {
         int n = states.size();
-        m_points = new ArrayList<>(n);
+        m_points = new ArrayList<>(states);
         m_distances = new double[n];
-        if (states.isEmpty()) {
-            return;
-        }
-        m_distances[0] = 0.0;
-        m_points.add(states.get(0));
-        for (int i0 = 0; i0 < n-1; ++i0) {
-            int i1 = i0 + 1;
-            m_points.add(states.get(i1));
-            Pose2d p0 = getEntry(i0).point().waypoint().pose();
-            Pose2d p1 = getEntry(i1).point().waypoint().pose();
-            double dist = Metrics.translationalDistance(p0, p1);
-            m_distances[i1] = m_distances[i0] + dist;
+        m_k = new double[n];
+        double x0 = 0;
+        double y0 = 0;
+        for (int i = 0; i < n; ++i) {
+            PathSE2Point p = states.get(i).point();
+            Pose2d pose = p.waypoint().pose();
+            double x = pose.getX();
+            double y = pose.getY();
+            m_k[i] = p.k();
+            if (i > 0)
+                m_distances[i] = m_distances[i - 1] + Math.hypot(x - x0, y - y0);
+            x0 = x;
+            y0 = y;
         }
     }
 
@@ -62,6 +68,16 @@ public class PathSE2 {
         return m_distances[index];
     }
 
+    /** Cumulative xy distance of every sample. Don't modify it. */
+    public double[] distances() {
+        return m_distances;
+    }
+
+    /** Signed curvature, rad/m. */
+    public double k(int index) {
+        return m_k[index];
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
@@ -1,11 +1,13 @@
 package org.team100.lib.trajectory.path;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.team100.lib.geometry.DirectionSE2;
 import org.team100.lib.geometry.GeometryUtil;
 import org.team100.lib.geometry.Metrics;
+import org.team100.lib.geometry.WaypointSE2;
 import org.team100.lib.trajectory.spline.ISplineSE2;
 
 import edu.wpi.first.math.geometry.Pose2d;
@@ -79,11 +81,21 @@ public class PathSE2Factory {
     ///
     ///
 
+    /** One evaluation of the spline, kept until both secants using it are done. */
+    private record Sample(double s, WaypointSE2 waypoint) {
+    }
+
     /**
-     * Recursive bisection to find a series of secant lines close to the real curve,
+     * Bisection to find a series of secant lines close to the real curve,
      * and with the points closer than maxNorm to each other, measured in L2 norm
      * (i.e. x, y, heading), and also course.
      * 
+     * This is the same depth-first bisection as the old recursive version, and
+     * produces exactly the same points, but each parameter is evaluated once: the
+     * midpoint of a rejected secant becomes the end of the next one, and the end
+     * of an accepted secant becomes the start of the next one. The pending ends
+     * are kept on a stack.
+     * 
      * Note if the path is s-shaped, then bisection can find the middle, and then
      * believe that the secant is "close" ... which is wrong. :-)
      */
@@ -92,10 +104,38 @@ public class PathSE2Factory {
             List<PathSE2Entry> rv,
             double s0,
             double s1) {
-        double shalf = (s0 + s1) / 2;
-        Pose2d p0 = spline.pose(s0);
-        Pose2d phalf = spline.pose(shalf);
-        Pose2d p1 = spline.pose(s1);
+        Sample start = sample(spline, s0);
+        ArrayDeque<Sample> ends = new ArrayDeque<>();
+        ends.push(sample(spline, s1));
+        while (!ends.isEmpty()) {
+            Sample end = ends.peek();
+            Sample mid = sample(spline, (start.s() + end.s()) / 2);
+            if (tooFar(start, mid, end)) {
+                // add a point in between
+                ends.push(mid);
+            } else {
+                // midpoint is close enough, so add the endpoint
+                ends.pop();
+                rv.add(new PathSE2Entry(
+                        new PathSE2Parameter(spline, end.s()),
+                        new PathSE2Point(end.waypoint(), spline.K(end.s()))));
+                start = end;
+            }
+        }
+    }
+
+    private static Sample sample(ISplineSE2 spline, double s) {
+        return new Sample(s, spline.waypoint(s));
+    }
+
+    /**
+     * Checks both translational and l2 norms of the secant, the secant error at
+     * the midpoint, and also the change in course.
+     */
+    private boolean tooFar(Sample start, Sample mid, Sample end) {
+        Pose2d p0 = start.waypoint().pose();
+        Pose2d phalf = mid.waypoint().pose();
+        Pose2d p1 = end.waypoint().pose();
 
         // twist from p0 to p1
         Twist2d twist_full = p0.log(p1);
@@ -107,24 +147,15 @@ public class PathSE2Factory {
         Transform2d error = phalf_predicted.minus(phalf);
 
         // also prohibit large changes in direction between points
-        DirectionSE2 course0 = spline.waypoint(s0).course();
-        DirectionSE2 course1 = spline.waypoint(s1).course();
+        DirectionSE2 course0 = start.waypoint().course();
+        DirectionSE2 course1 = end.waypoint().course();
         Twist2d courseChange = course0.minus(course1);
 
         // note the extra conditions to avoid points too far apart.
-        // checks both translational and l2 norms
-        // also checks change in course
-        if (Math.abs(error.getTranslation().getNorm()) > m_maxDx
+        return Math.abs(error.getTranslation().getNorm()) > m_maxDx
                 || Math.abs(error.getRotation().getRadians()) > m_maxDTheta
                 || Metrics.translationalNorm(twist_full) > m_maxNorm
                 || Metrics.l2Norm(twist_full) > m_maxNorm
-                || Metrics.l2Norm(courseChange) > m_maxNorm) {
-            // add a point in between
-            addEndpointOrBisect(spline, rv, s0, shalf);
-            addEndpointOrBisect(spline, rv, shalf, s1);
-        } else {
-            // midpoint is close enough, so add the endpoint
-            rv.add(spline.entry(s1));
-        }
+                || Metrics.l2Norm(courseChange) > m_maxNorm;
     }
 }
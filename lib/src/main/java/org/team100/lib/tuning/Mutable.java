@@ -1,17 +1,22 @@
 package org.team100.lib.tuning;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.DoubleConsumer;
 import java.util.function.DoubleSupplier;
 
 import org.team100.lib.coherence.Cache;
-import org.team100.lib.coherence.DoubleCache;
+import org.team100.lib.coherence.SideEffect;
 import org.team100.lib.logging.LoggerFactory;
 
 import edu.wpi.first.networktables.DoubleEntry;
 import edu.wpi.first.networktables.DoubleTopic;
+import edu.wpi.first.networktables.NetworkTableEvent;
 import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.NetworkTableListenerPoller;
 import edu.wpi.first.wpilibj.RobotBase;
 
 /**
@@ -20,13 +25,32 @@ import edu.wpi.first.wpilibj.RobotBase;
  * Use the DoubleSupplier API for polling.
  * Provide a DoubleConsumer to get called on changes.
  * Values do not survive restarts.
+ * 
+ * All the Mutables share one listener poller, which is drained once per cycle
+ * by a Cache side effect, so the per-cycle cost depends on the number of
+ * changes, not the number of Mutables. A change is visible starting with the
+ * cycle after it arrives, and the consumer is called at most once per cycle,
+ * with the latest value.
  */
 public class Mutable implements DoubleSupplier {
     private static final boolean FATAL = false;
     private static final Map<String, DoubleEntry> ALL_ENTRIES = new HashMap<>();
-    private final DoubleEntry m_entry;
+    /** Key is topic handle. Duplicate names share an entry, so a list. */
+    private static final Map<Integer, List<Mutable>> BY_TOPIC = new HashMap<>();
+    /** Listener handles, for cleanup. */
+    private static final List<Integer> LISTENERS = new ArrayList<>();
+    /** Mutables changed in this poll, reused. */
+    private static final List<Mutable> CHANGED = new ArrayList<>();
+    private static NetworkTableListenerPoller poller;
+    /**
+     * Registered with the first Mutable, and again if Cache.clear() has forgotten
+     * it.
+     */
+    private static SideEffect pollEffect;
+
     private final DoubleConsumer m_onChange;
-    private final DoubleCache m_cache;
+    private volatile double m_value;
+    private boolean m_changed;
 
     public Mutable(LoggerFactory log, String leaf, double defaultValue, DoubleConsumer onChange) {
         if (onChange == null)
@@ -34,9 +58,12 @@ public class Mutable implements DoubleSupplier {
         NetworkTableInstance inst = NetworkTableInstance.getDefault();
         inst.startServer();
         String name = log.root(leaf);
-        m_entry = getEntry(inst, name, defaultValue);
+        DoubleEntry entry = getEntry(inst, name, defaultValue);
         m_onChange = onChange;
-        m_cache = Cache.ofDouble(this::update);
+        m_value = entry.get();
+        BY_TOPIC.computeIfAbsent(entry.getTopic().getHandle(), x -> new ArrayList<>(1)).add(this);
+        if (pollEffect == null || !Cache.isRegistered(pollEffect))
+            pollEffect = Cache.ofSideEffect(Mutable::poll);
     }
 
     private static DoubleEntry getEntry(NetworkTableInstance inst, String name, double defaultValue) {
@@ -56,18 +83,30 @@ public class Mutable implements DoubleSupplier {
         // You can't use "persistent" here, because then the key goes in the RoboRIO
         // networktables.json file and can never be deleted (except manually).
         topic.setRetained(true);
-        // make sure the queue is empty
-        entry.readQueue();
+        // Listen after the set above, so we don't hear our own default.
+        if (poller == null)
+            poller = new NetworkTableListenerPoller(inst);
+        LISTENERS.add(poller.addListener(entry, EnumSet.of(NetworkTableEvent.Kind.kValueAll)));
         ALL_ENTRIES.put(name, entry);
         return entry;
     }
 
     /** Use this in tests to avoid mixing values */
     public static void unpublishAll() {
+        if (poller != null) {
+            for (int listener : LISTENERS) {
+                poller.removeListener(listener);
+            }
+            // drop anything left over
+            poller.readQueue();
+        }
+        LISTENERS.clear();
         for (DoubleEntry e : ALL_ENTRIES.values()) {
             e.unpublish();
         }
         ALL_ENTRIES.clear();
+        BY_TOPIC.clear();
+        pollEffect = null;
     }
 
     /** if you don't care to subscribe to changes */
@@ -79,16 +118,39 @@ public class Mutable implements DoubleSupplier {
     /** Supply the current value. */
     @Override
     public double getAsDouble() {
-        return m_cache.getAsDouble();
+        return m_value;
     }
 
-    /** Updates the cache and also notifies the consumer. */
-    private double update() {
-        double[] queue = m_entry.readQueueValues();
-        double val = m_entry.get();
-        if (queue.length > 0)
-            m_onChange.accept(val);
-        return val;
+    /**
+     * Drains the shared event queue, updates the affected Mutables, and then
+     * notifies their consumers, once each.
+     */
+    private static void poll() {
+        if (poller == null)
+            return;
+        NetworkTableEvent[] events = poller.readQueue();
+        if (events.length == 0)
+            return;
+        for (NetworkTableEvent event : events) {
+            if (event.valueData == null)
+                continue;
+            List<Mutable> mutables = BY_TOPIC.get(event.valueData.topic);
+            if (mutables == null)
+                continue;
+            double value = event.valueData.value.getDouble();
+            for (Mutable m : mutables) {
+                m.m_value = value;
+                if (!m.m_changed) {
+                    m.m_changed = true;
+                    CHANGED.add(m);
+                }
+            }
+        }
+        for (Mutable m : CHANGED) {
+            m.m_changed = false;
+            m.m_onChange.accept(m.m_value);
+        }
+        CHANGED.clear();
     }
 
 }
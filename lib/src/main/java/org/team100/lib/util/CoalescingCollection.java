@@ -13,7 +13,7 @@ import org.team100.lib.util.TrailingHistory.ValueRecord;
  * A collection that combines new entries with old ones if they're close enough.
  * 
  * This is brute-force, iterating through the whole collection on every write,
- * so don't let it get too large.
+ * so don't let it get too large.  For translations, CoalescingGridR2 is faster.
  */
 public class CoalescingCollection<T> {
 
@@ -0,0 +1,306 @@
+package org.team100.lib.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Like CoalescingCollection of TrailingHistory, for translations on the floor,
+ * with a uniform grid index so that writes and nearest-neighbor queries only
+ * look at nearby entries instead of scanning everything.
+ *
+ * The cells are the size of the nearness threshold, so the neighbors of a point
+ * are always within the 3x3 block of cells around it.
+ *
+ * Entries are kept in insertion order, which is only roughly time order: e.g.
+ * cameras with different latencies add sightings with their own timestamps. So
+ * expiry looks at every entry, but only when the oldest one has expired.
+ *
+ * Not thread-safe.
+ */
+public class CoalescingGridR2 {
+    private static final class Entry {
+        final double time;
+        final Translation2d value;
+        final long cell;
+        boolean live = true;
+
+        Entry(double time, Translation2d value, long cell) {
+            this.time = time;
+            this.value = value;
+            this.cell = cell;
+        }
+    }
+
+    /** Entry timeout in seconds */
+    private final double m_timeout;
+    /** Entries closer than this are combined; also the cell size. */
+    private final double m_threshold;
+    private final Function<Collection<Translation2d>, Translation2d> m_combine;
+    /** Live entries, by cell. */
+    private final Map<Long, List<Entry>> m_cells;
+    /**
+     * All entries, in insertion order; removed entries stay here until the next
+     * expiry scan.
+     */
+    private final ArrayDeque<Entry> m_entries;
+    /** Reused for the combiner. */
+    private final List<Translation2d> m_neighbors;
+    private int m_size;
+    /** Time of the oldest entry in the deque, maybe a removed one. */
+    private double m_oldestTime = Double.POSITIVE_INFINITY;
+    /** An edge cell emptied, so the bounds may be too large. */
+    private boolean m_boundsStale;
+    // Bounds of the occupied cells, reset when empty.
+    private int m_minX;
+    private int m_maxX;
+    private int m_minY;
+    private int m_maxY;
+
+    /**
+     * @param timeout   in seconds
+     * @param threshold entries closer than this, in meters, are combined
+     * @param combine   e.g. CentroidR2
+     */
+    public CoalescingGridR2(
+            double timeout,
+            double threshold,
+            Function<Collection<Translation2d>, Translation2d> combine) {
+        m_timeout = timeout;
+        m_threshold = threshold;
+        m_combine = combine;
+        m_cells = new HashMap<>();
+        m_entries = new ArrayDeque<>();
+        m_neighbors = new ArrayList<>();
+    }
+
+    /**
+     * Remove stale entries, then replace the value and all the entries near it
+     * with their combination.
+     */
+    public void add(double time, Translation2d value) {
+        cleanup(time);
+        m_neighbors.clear();
+        m_neighbors.add(value);
+        int cx = cell(value.getX());
+        int cy = cell(value.getY());
+        for (int x = cx - 1; x <= cx + 1; ++x) {
+            for (int y = cy - 1; y <= cy + 1; ++y) {
+                List<Entry> entries = m_cells.get(key(x, y));
+                if (entries == null)
+                    continue;
+                for (int i = entries.size() - 1; i >= 0; --i) {
+                    Entry e = entries.get(i);
+                    if (e.value.getDistance(value) < m_threshold) {
+                        remove(entries, i);
+                        m_neighbors.add(e.value);
+                    }
+                }
+            }
+        }
+        Translation2d rep = m_neighbors.size() == 1 ? value : m_combine.apply(m_neighbors);
+        insert(time, rep);
+    }
+
+    public void addAll(double time, Collection<Translation2d> values) {
+        for (Translation2d v : values) {
+            add(time, v);
+        }
+    }
+
+    /** Live entries, in insertion order. */
+    public List<Translation2d> getAll() {
+        List<Translation2d> result = new ArrayList<>(m_size);
+        for (Entry e : m_entries) {
+            if (e.live)
+                result.add(e.value);
+        }
+        return result;
+    }
+
+    public int size() {
+        return m_size;
+    }
+
+    /** The entry closest to the point, if any. */
+    public Optional<Translation2d> closest(Translation2d point) {
+        List<Translation2d> nearest = nearest(point, 1);
+        if (nearest.isEmpty())
+            return Optional.empty();
+        return Optional.of(nearest.get(0));
+    }
+
+    /**
+     * Up to k entries closest to the point, closest first.
+     *
+     * Searches rings of cells outward from the point, stopping when the next ring
+     * can't contain anything closer than what we already have.
+     */
+    public List<Translation2d> nearest(Translation2d point, int k) {
+        List<Translation2d> best = new ArrayList<>(k);
+        if (k <= 0 || m_size == 0)
+            return best;
+        double[] bestDist = new double[k];
+        if (m_boundsStale)
+            recomputeBounds();
+        int cx = cell(point.getX());
+        int cy = cell(point.getY());
+        int maxRing = Math.max(
+                Math.max(Math.abs(cx - m_minX), Math.abs(cx - m_maxX)),
+                Math.max(Math.abs(cy - m_minY), Math.abs(cy - m_maxY)));
+        for (int r = 0; r <= maxRing; ++r) {
+            for (int x = cx - r; x <= cx + r; ++x) {
+                // only the edge of the ring
+                int step = (x == cx - r || x == cx + r) ? 1 : 2 * r;
+                for (int y = cy - r; y <= cy + r; y += Math.max(1, step)) {
+                    List<Entry> entries = m_cells.get(key(x, y));
+                    if (entries == null)
+                        continue;
+                    for (Entry e : entries) {
+                        insertSorted(best, bestDist, k, e.value, e.value.getDistance(point));
+                    }
+                }
+            }
+            // Anything in ring r+1 or beyond is at least r cells away.
+            if (best.size() == k && bestDist[k - 1] <= r * m_threshold)
+                break;
+        }
+        return best;
+    }
+
+    /** Remove stale entries. */
+    public void cleanup(double time) {
+        double horizon = time - m_timeout;
+        if (m_oldestTime >= horizon)
+            return;
+        // One pass around the deque, keeping the live young ones in order.
+        double oldest = Double.POSITIVE_INFINITY;
+        int n = m_entries.size();
+        for (int i = 0; i < n; ++i) {
+            Entry e = m_entries.pollFirst();
+            if (!e.live)
+                continue;
+            if (e.time < horizon) {
+                List<Entry> entries = m_cells.get(e.cell);
+                remove(entries, entries.indexOf(e));
+                continue;
+            }
+            oldest = Math.min(oldest, e.time);
+            m_entries.addLast(e);
+        }
+        m_oldestTime = oldest;
+    }
+
+    ///////////////////////////////////////////////////
+
+    private void insert(double time, Translation2d value) {
+        int cx = cell(value.getX());
+        int cy = cell(value.getY());
+        long key = key(cx, cy);
+        Entry e = new Entry(time, value, key);
+        m_cells.computeIfAbsent(key, x -> new ArrayList<>(2)).add(e);
+        m_entries.addLast(e);
+        m_oldestTime = Math.min(m_oldestTime, time);
+        if (m_size == 0) {
+            m_boundsStale = false;
+            m_minX = cx;
+            m_maxX = cx;
+            m_minY = cy;
+            m_maxY = cy;
+        } else {
+            m_minX = Math.min(m_minX, cx);
+            m_maxX = Math.max(m_maxX, cx);
+            m_minY = Math.min(m_minY, cy);
+            m_maxY = Math.max(m_maxY, cy);
+        }
+        m_size++;
+    }
+
+    /** Remove the i-th entry of the cell, leaving it in the deque to expire. */
+    private void remove(List<Entry> entries, int i) {
+        Entry e = entries.get(i);
+        e.live = false;
+        int last = entries.size() - 1;
+        entries.set(i, entries.get(last));
+        entries.remove(last);
+        m_size--;
+        if (entries.isEmpty()) {
+            m_cells.remove(e.cell);
+            int x = cellX(e.cell);
+            int y = cellY(e.cell);
+            if (x == m_minX || x == m_maxX || y == m_minY || y == m_maxY)
+                m_boundsStale = true;
+        }
+    }
+
+    /**
+     * Shrink the bounds to the live cells, so that one stale outlier doesn't
+     * make nearest() search a huge area forever. This is done lazily, by
+     * nearest(), because add() often empties a cell and then fills it again.
+     */
+    private void recomputeBounds() {
+        m_boundsStale = false;
+        boolean first = true;
+        for (long key : m_cells.keySet()) {
+            int x = cellX(key);
+            int y = cellY(key);
+            if (first) {
+                m_minX = x;
+                m_maxX = x;
+                m_minY = y;
+                m_maxY = y;
+                first = false;
+            } else {
+                m_minX = Math.min(m_minX, x);
+                m_maxX = Math.max(m_maxX, x);
+                m_minY = Math.min(m_minY, y);
+                m_maxY = Math.max(m_maxY, y);
+            }
+        }
+    }
+
+    /** Keep the k closest, sorted by distance. */
+    private static void insertSorted(
+            List<Translation2d> best,
+            double[] bestDist,
+            int k,
+            Translation2d value,
+            double dist) {
+        int n = best.size();
+        if (n == k && dist >= bestDist[k - 1])
+            return;
+        int i = n == k ? k - 1 : n;
+        if (n < k)
+            best.add(value);
+        while (i > 0 && bestDist[i - 1] > dist) {
+            bestDist[i] = bestDist[i - 1];
+            best.set(i, best.get(i - 1));
+            --i;
+        }
+        bestDist[i] = dist;
+        best.set(i, value);
+    }
+
+    private int cell(double coord) {
+        return (int) Math.floor(coord / m_threshold);
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    private static int cellX(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int cellY(long key) {
+        return (int) key;
+    }
+}
@@ -0,0 +1,256 @@
+package org.team100.lib.util;
+
+import java.lang.invoke.VarHandle;
+
+import edu.wpi.first.math.interpolation.Interpolator;
+
+/**
+ * Like TimeInterpolatableBuffer100, but using a fixed-capacity ring of
+ * primitive timestamps instead of a ConcurrentSkipListMap, so put() doesn't box
+ * or allocate, and lookups are binary searches over a double[].
+ *
+ * Entries are kept in time order. Appending (the usual case) is O(1); inserting
+ * in the middle (e.g. a vision update) shifts the later entries, which is cheap
+ * because there are only a few of them. If the ring is full, the oldest entry
+ * is dropped, or, if the new entry is older than all of them, the new one is.
+ *
+ * Concurrency: there is a single writer (the robot thread). get(), tooOld(),
+ * size(), and lastKey() may be called from any thread: they use a sequence
+ * lock, retrying if a write happened during the read. The index-based methods (lowerIndex(), time(), value(), etc) are
+ * for the writer thread only, e.g. for odometry replay.
+ *
+ * The buffer is never empty, so get() always returns *something*.
+ */
+public class TimeInterpolatableRingBuffer100<T> {
+    private final Interpolator<T> m_interpolator;
+    /** Length of the buffer in seconds */
+    private final double m_historyS;
+    private final int m_mask;
+    private final double[] m_times;
+    private final Object[] m_values;
+
+    /** Physical index of the oldest entry. */
+    private int m_head;
+    private int m_size;
+    /** Odd while a write is in progress. */
+    private volatile int m_seq;
+
+    /**
+     * @param capacity maximum number of entries, rounded up to a power of two.
+     */
+    public TimeInterpolatableRingBuffer100(
+            Interpolator<T> interpolator,
+            double historyS,
+            int capacity,
+            double timeS,
+            T initialValue) {
+        int n = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        m_interpolator = interpolator;
+        m_historyS = historyS;
+        m_mask = n - 1;
+        m_times = new double[n];
+        m_values = new Object[n];
+        m_times[0] = timeS;
+        m_values[0] = initialValue;
+        m_size = 1;
+    }
+
+    /**
+     * Remove stale entries and add the new one. If there's already an entry at
+     * this time, it is replaced.
+     */
+    public void put(double timeS, T value) {
+        beginWrite();
+        try {
+            while (m_size > 0 && timeS - m_times[m_head] >= m_historyS) {
+                removeOldest();
+            }
+            int i = search(timeS);
+            if (i < m_size && m_times[physical(i)] == timeS) {
+                m_values[physical(i)] = value;
+                return;
+            }
+            if (m_size == m_times.length) {
+                if (i == 0) {
+                    // older than everything we're keeping, so drop it.
+                    return;
+                }
+                removeOldest();
+                i--;
+            }
+            // shift the later entries, if any.
+            for (int j = m_size; j > i; --j) {
+                int dst = physical(j);
+                int src = physical(j - 1);
+                m_times[dst] = m_times[src];
+                m_values[dst] = m_values[src];
+            }
+            m_times[physical(i)] = timeS;
+            m_values[physical(i)] = value;
+            m_size++;
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Remove all entries and add the new one.
+     */
+    public void reset(double timeS, T value) {
+        beginWrite();
+        try {
+            for (int i = 0; i < m_values.length; ++i) {
+                m_values[i] = null;
+            }
+            m_head = 0;
+            m_times[0] = timeS;
+            m_values[0] = value;
+            m_size = 1;
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Sample the buffer at the given time. Safe to call from any thread.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(double timeSeconds) {
+        double t0;
+        double t1;
+        Object v0;
+        Object v1;
+        while (true) {
+            int seq = m_seq;
+            if ((seq & 1) == 0) {
+                int i = search(timeSeconds);
+                int lo = Math.max(0, Math.min(i, m_size) - 1);
+                int hi = Math.min(i, m_size - 1);
+                if (i < m_size && m_times[physical(i)] == timeSeconds) {
+                    // exact match
+                    lo = i;
+                    hi = i;
+                }
+                t0 = m_times[physical(lo)];
+                t1 = m_times[physical(hi)];
+                v0 = m_values[physical(lo)];
+                v1 = m_values[physical(hi)];
+                VarHandle.loadLoadFence();
+                if (seq == m_seq)
+                    break;
+            }
+            Thread.onSpinWait();
+        }
+        if (v0 == v1 || t1 <= t0)
+            return (T) v0;
+        return m_interpolator.interpolate((T) v0, (T) v1, (timeSeconds - t0) / (t1 - t0));
+    }
+
+    /**
+     * True if the timestamp is older than the history window. Safe to call from
+     * any thread.
+     */
+    public boolean tooOld(double timestampS) {
+        double oldestAcceptableS = lastKey() - m_historyS;
+        return timestampS < oldestAcceptableS;
+    }
+
+    /** Safe to call from any thread. */
+    public int size() {
+        while (true) {
+            int seq = m_seq;
+            if ((seq & 1) == 0) {
+                int size = m_size;
+                VarHandle.loadLoadFence();
+                if (seq == m_seq)
+                    return size;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /** Timestamp of the most-recent snapshot. Safe to call from any thread. */
+    public double lastKey() {
+        while (true) {
+            int seq = m_seq;
+            if ((seq & 1) == 0) {
+                double t = m_times[physical(m_size - 1)];
+                VarHandle.loadLoadFence();
+                if (seq == m_seq)
+                    return t;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    ///////////////////////////////////////////////////
+    //
+    // Index access, for the writer thread only. Index 0 is the oldest.
+    // Indices shift when put() evicts old entries, so look them up again after
+    // put().
+    //
+
+    /** Index of the latest entry strictly before the time, or -1. */
+    public int lowerIndex(double timeS) {
+        return search(timeS) - 1;
+    }
+
+    /** Index of the earliest entry strictly after the time, or -1. */
+    public int higherIndex(double timeS) {
+        int i = search(timeS);
+        if (i < m_size && m_times[physical(i)] == timeS)
+            i++;
+        return i < m_size ? i : -1;
+    }
+
+    /** Index of the earliest entry at or after the time, or -1. */
+    public int ceilingIndex(double timeS) {
+        int i = search(timeS);
+        return i < m_size ? i : -1;
+    }
+
+    public double time(int index) {
+        return m_times[physical(index)];
+    }
+
+    @SuppressWarnings("unchecked")
+    public T value(int index) {
+        return (T) m_values[physical(index)];
+    }
+
+    ///////////////////////////////////////////////////
+
+    /** @return the index of the first entry at or after the time, or size. */
+    private int search(double timeS) {
+        int lo = 0;
+        int hi = m_size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (m_times[physical(mid)] < timeS) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int physical(int index) {
+        return (m_head + index) & m_mask;
+    }
+
+    private void removeOldest() {
+        m_values[m_head] = null;
+        m_head = (m_head + 1) & m_mask;
+        m_size--;
+    }
+
+    private void beginWrite() {
+        m_seq = m_seq + 1;
+        VarHandle.storeStoreFence();
+    }
+
+    private void endWrite() {
+        m_seq = m_seq + 1;
+    }
+}
@@ -0,0 +1,96 @@
+package org.team100.lib.coherence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class CacheTest {
+
+    @AfterEach
+    void after() {
+        Cache.clear();
+    }
+
+    @Test
+    void testIndependent() {
+        AtomicInteger count = new AtomicInteger();
+        Thread main = Thread.currentThread();
+        Thread[] updater = new Thread[1];
+        ObjectCache<Integer> c = Cache.ofIndependent(() -> {
+            updater[0] = Thread.currentThread();
+            return count.incrementAndGet();
+        });
+        Cache.refresh();
+        // the update happened on a worker, and is finished.
+        assertNotSame(main, updater[0]);
+        assertEquals(1, count.get());
+        assertEquals(1, c.get());
+        // cached until the next refresh
+        assertEquals(1, c.get());
+        Cache.refresh();
+        assertEquals(2, c.get());
+        assertEquals(2, count.get());
+    }
+
+    @Test
+    void testIndependentFailure() {
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger count = new AtomicInteger();
+        Cache.ofIndependent(() -> {
+            failures.incrementAndGet();
+            throw new IllegalStateException("test");
+        });
+        ObjectCache<Integer> c = Cache.ofIndependent(count::incrementAndGet);
+        // a failed update doesn't hold up the barrier, or the other caches.
+        for (int i = 0; i < 3; ++i) {
+            Cache.refresh();
+        }
+        assertEquals(3, failures.get());
+        assertEquals(3, count.get());
+        assertEquals(3, c.get());
+    }
+
+    @Test
+    void testOrdinary() {
+        Thread[] updater = new Thread[1];
+        Cache.of(() -> {
+            updater[0] = Thread.currentThread();
+            return 0;
+        });
+        Cache.refresh();
+        assertSame(Thread.currentThread(), updater[0]);
+    }
+
+    @Test
+    void testEnd() {
+        AtomicInteger count = new AtomicInteger();
+        ObjectCache<Integer> c = Cache.ofIndependent(count::incrementAndGet);
+        Cache.refresh();
+        assertEquals(1, count.get());
+        c.end();
+        Cache.refresh();
+        assertEquals(1, count.get());
+    }
+
+    @Test
+    void testFreshness() {
+        Cache.clear();
+        AtomicInteger control = new AtomicInteger();
+        AtomicInteger telemetry = new AtomicInteger();
+        DoubleCache c = Cache.ofDouble(control::incrementAndGet);
+        DoubleCache t = Cache.ofDouble(Freshness.TELEMETRY, telemetry::incrementAndGet);
+        for (int i = 0; i < 10; ++i) {
+            Cache.refresh();
+        }
+        assertEquals(10, control.get());
+        assertEquals(10, c.getAsDouble());
+        // refreshed in cycles 0 and 5, holding the value in between.
+        assertEquals(2, telemetry.get());
+        assertEquals(2, t.getAsDouble());
+    }
+}
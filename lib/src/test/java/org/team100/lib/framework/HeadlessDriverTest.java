@@ -0,0 +1,89 @@
+package org.team100.lib.framework;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.coherence.Takt;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Commands;
+
+public class HeadlessDriverTest {
+    private static final double DELTA = 1e-9;
+
+    static class CountingRobot extends TimedRobot100 {
+        int robot;
+        int auton;
+        int slow;
+
+        CountingRobot() {
+            addPeriodic(() -> slow++, 0.1, "slow");
+        }
+
+        @Override
+        public void robotPeriodic() {
+            Takt.update();
+            CommandScheduler.getInstance().run();
+            robot++;
+        }
+
+        @Override
+        public void autonomousPeriodic() {
+            auton++;
+        }
+    }
+
+    @Test
+    void testSteps() {
+        CountingRobot robot = new CountingRobot();
+        try (HeadlessDriver driver = new HeadlessDriver(robot)) {
+            double start = driver.time();
+            driver.autonomous();
+            driver.run(1.0);
+            assertEquals(50, robot.robot);
+            assertEquals(50, robot.auton);
+            assertEquals(10, robot.slow);
+            assertEquals(start + 1.0, driver.time(), 1e-6);
+            // the robot sees the stepped time
+            assertEquals(driver.time(), Takt.get(), DELTA);
+        } finally {
+            robot.close();
+        }
+    }
+
+    @Test
+    void testNoCatchUp() throws InterruptedException {
+        CountingRobot robot = new CountingRobot();
+        // time passes between building the robot and starting the driver
+        Thread.sleep(200);
+        try (HeadlessDriver driver = new HeadlessDriver(robot)) {
+            driver.step();
+            // just one loop, not one for every period of the delay
+            assertEquals(1, robot.robot);
+        } finally {
+            robot.close();
+        }
+    }
+
+    @Test
+    void testCommand() {
+        CountingRobot robot = new CountingRobot();
+        try (HeadlessDriver driver = new HeadlessDriver(robot)) {
+            driver.autonomous();
+            double start = driver.time();
+            // the wait uses the WPILib timer, which agrees with Takt.
+            Command wait = Commands.waitSeconds(1.0);
+            assertTrue(driver.run(wait, 2.0));
+            assertEquals(1.0, driver.time() - start, 0.05);
+            Command forever = Commands.idle();
+            assertFalse(driver.run(forever, 0.5));
+            assertFalse(forever.isScheduled());
+        } finally {
+            robot.close();
+            CommandScheduler.getInstance().cancelAll();
+        }
+    }
+}
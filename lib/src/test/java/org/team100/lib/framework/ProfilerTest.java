@@ -0,0 +1,114 @@
+package org.team100.lib.framework;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ProfilerTest {
+    private static final boolean DEBUG = false;
+
+    @BeforeEach
+    void before() {
+        Profiler.clear();
+        Profiler.enable(true);
+    }
+
+    @AfterEach
+    void after() {
+        Profiler.clear();
+    }
+
+    @Test
+    void testTree(@TempDir Path dir) throws IOException {
+        int outer = Profiler.scope("outer");
+        int inner = Profiler.scope("inner");
+        assertEquals(outer, Profiler.scope("outer"));
+        for (int i = 0; i < 10; ++i) {
+            Profiler.begin(outer);
+            spin(100000);
+            // same scope twice in one cycle accumulates
+            Profiler.run(inner, () -> spin(200000));
+            Profiler.run(inner, () -> spin(200000));
+            Profiler.end();
+            Profiler.endCycle();
+        }
+        List<Profiler.Stats> stats = Profiler.stats();
+        assertEquals(2, stats.size());
+        assertEquals("outer", stats.get(0).path());
+        assertEquals("outer/inner", stats.get(1).path());
+        // outer includes inner
+        assertTrue(stats.get(0).p50S() >= 0.0005);
+        assertTrue(stats.get(1).p50S() >= 0.0004);
+        assertTrue(stats.get(0).p50S() > stats.get(1).p50S());
+        assertTrue(stats.get(1).maxS() >= stats.get(1).p99S());
+        assertTrue(stats.get(1).p99S() >= stats.get(1).p50S());
+        if (DEBUG)
+            System.out.println(Profiler.report());
+
+        Path file = dir.resolve("profile.txt");
+        Profiler.dump(file);
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).startsWith("outer "));
+        assertTrue(lines.get(1).startsWith("outer;inner "));
+    }
+
+    @Test
+    void testUnbalanced() {
+        int outer = Profiler.scope("outer");
+        Profiler.begin(outer);
+        // missing end() is repaired at the end of the cycle.
+        Profiler.endCycle();
+        Profiler.end();
+        Profiler.run(outer, () -> spin(1000));
+        Profiler.endCycle();
+        assertEquals(1, Profiler.stats().size());
+    }
+
+    @Test
+    void testDisabled() {
+        Profiler.enable(false);
+        Profiler.run(Profiler.scope("outer"), () -> spin(1000));
+        Profiler.endCycle();
+        assertEquals(0, Profiler.stats().size());
+    }
+
+    @Test
+    void testName() {
+        Runnable r = () -> {
+        };
+        assertEquals("ProfilerTest", Profiler.name(r));
+        assertEquals("String", Profiler.name("foo"));
+    }
+
+    @Test
+    void testUniqueName() {
+        String a = Profiler.uniqueName(new StringBuilder());
+        String b = Profiler.uniqueName(new StringBuilder());
+        assertTrue(a.startsWith("StringBuilder#"));
+        assertTrue(b.startsWith("StringBuilder#"));
+        assertNotEquals(a, b);
+        // after a reset, the same names again
+        Profiler.resetNames();
+        assertEquals("StringBuilder#1", Profiler.uniqueName(new StringBuilder()));
+        assertEquals("StringBuilder#2", Profiler.uniqueName(new StringBuilder()));
+        assertNotEquals(Profiler.scope(a), Profiler.scope(b));
+    }
+
+    private static void spin(long ns) {
+        long end = System.nanoTime() + ns;
+        while (System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
+    }
+}
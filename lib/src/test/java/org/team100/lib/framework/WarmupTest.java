@@ -0,0 +1,76 @@
+package org.team100.lib.framework;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.TestLoggerFactory;
+import org.team100.lib.logging.primitive.TestPrimitiveLogger;
+
+public class WarmupTest {
+    private static final boolean DEBUG = false;
+    private static final LoggerFactory log = new TestLoggerFactory(new TestPrimitiveLogger());
+
+    @Test
+    void testRoundRobin() {
+        Warmup w = new Warmup(log);
+        int[] counts = new int[2];
+        w.add("a", () -> counts[0]++);
+        w.add("b", () -> counts[1]++);
+        int runs = w.run(0.01);
+        assertTrue(runs > 0);
+        assertEquals(runs, counts[0] + counts[1]);
+        // round robin, so they're within one of each other.
+        assertTrue(Math.abs(counts[0] - counts[1]) <= 1);
+        assertEquals(counts[0], w.count("a"));
+        if (DEBUG)
+            w.report();
+    }
+
+    @Test
+    void testFailure() {
+        Warmup w = new Warmup(log);
+        int[] count = new int[1];
+        w.add("bad", () -> {
+            throw new IllegalStateException();
+        });
+        w.add("good", () -> count[0]++);
+        w.run(0.01);
+        // the bad one is dropped, the good one keeps going.
+        assertEquals(0, w.count("bad"));
+        assertEquals(count[0], w.count("good"));
+        assertTrue(count[0] > 0);
+    }
+
+    @Test
+    void testSkipSlow() {
+        Warmup w = new Warmup(log);
+        w.add("slow", () -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        w.add("fast", () -> {
+        });
+        // the big budget measures both.
+        w.run(0.1);
+        int slow = w.count("slow");
+        assertTrue(slow > 0);
+        // the slow one doesn't fit in a small slice, so it's skipped.
+        long t0 = System.nanoTime();
+        int runs = w.run(0.005);
+        long dt = System.nanoTime() - t0;
+        assertEquals(slow, w.count("slow"));
+        assertTrue(runs > 0);
+        assertTrue(dt < 15_000_000, "slice overran: " + dt);
+    }
+
+    @Test
+    void testEmpty() {
+        Warmup w = new Warmup(log);
+        assertEquals(0, w.run(0.01));
+    }
+}
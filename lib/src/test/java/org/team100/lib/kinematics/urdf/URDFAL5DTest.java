@@ -2,12 +2,21 @@ package org.team100.lib.kinematics.urdf;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
 
 import org.junit.jupiter.api.Test;
+import org.team100.lib.geometry.GeometryUtil;
+import org.team100.lib.optimization.NewtonsMethod;
 import org.team100.lib.subsystems.lynxmotion_arm.LynxArmConfig;
 import org.team100.lib.testing.TestUtil;
 
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.Nat;
 import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.Vector;
 import edu.wpi.first.math.geometry.Pose3d;
@@ -15,8 +24,11 @@ import edu.wpi.first.math.geometry.Rotation3d;
 import edu.wpi.first.math.geometry.Transform3d;
 import edu.wpi.first.math.geometry.Translation3d;
 import edu.wpi.first.math.numbers.N5;
+import edu.wpi.first.math.numbers.N6;
 
 public class URDFAL5DTest {
+    private static final boolean DEBUG = false;
+
     @Test
     void testZeroForward() {
         URDFAL5D m = URDFAL5D.make();
@@ -203,4 +215,150 @@ public class URDFAL5DTest {
         m.inverse(c.toVec(), 2, "center_point", goal);
     }
 
+    /** The compiled chain matches the old map-and-recurse algorithm. */
+    @Test
+    void testCompiledForward() {
+        URDFAL5D m = URDFAL5D.make();
+        Random random = new Random(0);
+        for (int i = 0; i < 100; ++i) {
+            Vector<N5> q = randomQ(m, random);
+            Map<String, Pose3d> expected = referenceForward(m, q);
+            Map<String, Pose3d> actual = m.forward(m.qMap(q));
+            for (String name : NAMES) {
+                assertNear(expected.get(name), actual.get(name));
+            }
+            assertNear(expected.get("center_point"), m.forward(q, "center_point"));
+        }
+    }
+
+    /** The analytic Jacobian matches finite differences of the body twist. */
+    @Test
+    void testJacobian() {
+        URDFAL5D m = URDFAL5D.make();
+        Random random = new Random(0);
+        double h = 1e-6;
+        for (int i = 0; i < 20; ++i) {
+            Vector<N5> q = randomQ(m, random);
+            Matrix<N6, N5> j = m.jacobian(q, "center_point");
+            Pose3d p0 = m.forward(q, "center_point");
+            for (int col = 0; col < 5; ++col) {
+                Vector<N5> q1 = new Vector<>(q.getStorage().copy());
+                q1.set(col, 0, q.get(col) + h);
+                Vector<N6> twist = GeometryUtil.toVec(p0.log(m.forward(q1, "center_point"))).div(h);
+                for (int row = 0; row < 6; ++row) {
+                    assertEquals(twist.get(row), j.get(row, col), 1e-5);
+                }
+            }
+        }
+    }
+
+    /**
+     * Inverse kinematics throughput, for reachable goals near the start, as in
+     * a moving arm, compared with the same solver using the old forward
+     * kinematics, which should reach the same poses. Not a real benchmark; run
+     * it with DEBUG to see the numbers.
+     */
+    @Test
+    void testInversePerformance() {
+        URDFAL5D m = URDFAL5D.make();
+        Vector<N5> q0 = VecBuilder.fill(0.1, -1.8, 1.5, 1.0, 0.1);
+        Pose3d start = m.forward(q0, "center_point");
+        int n = 100;
+        Pose3d[] goals = new Pose3d[n];
+        for (int i = 0; i < n; ++i) {
+            double t = 0.01 * Math.sin(i * 0.1);
+            goals[i] = new Pose3d(
+                    start.getTranslation().plus(new Translation3d(t, 0, t)),
+                    start.getRotation());
+        }
+        List<Vector<N5>> referenceQ = new ArrayList<>(n);
+        List<Map<String, Double>> compiledQ = new ArrayList<>(n);
+        for (int round = 0; round < 2; ++round) {
+            referenceQ.clear();
+            compiledQ.clear();
+            long startTime = System.nanoTime();
+            for (int i = 0; i < n; ++i) {
+                Pose3d goal = goals[i];
+                Function<Vector<N5>, Vector<N6>> err = q -> GeometryUtil.toVec(
+                        goal.log(referenceForward(m, q).get("center_point")));
+                referenceQ.add(new NewtonsMethod<>(Nat.N5(), Nat.N6(), err,
+                        m.minQ(Nat.N5()), m.maxQ(Nat.N5()), 2e-3, 8, 2)
+                        .solve2(new Vector<>(q0.getStorage().copy()), 3, true));
+            }
+            double reference = (System.nanoTime() - startTime) / 1e9;
+            startTime = System.nanoTime();
+            for (Pose3d goal : goals) {
+                compiledQ.add(m.inverse(q0, 2, "center_point", goal));
+            }
+            double et = (System.nanoTime() - startTime) / 1e9;
+            if (DEBUG)
+                System.out.printf("IK solves/s old %8.0f  compiled %8.0f  us/solve old %6.1f compiled %6.1f\n",
+                        n / reference, n / et, 1e6 * reference / n, 1e6 * et / n);
+        }
+        // both solvers reach each goal, within the solver tolerance, so they
+        // reach the same pose.
+        for (int i = 0; i < n; ++i) {
+            Pose3d reference = m.forward(referenceQ.get(i), "center_point");
+            Pose3d compiled = m.forward(compiledQ.get(i)).get("center_point");
+            assertNear(goals[i], reference, 2e-3);
+            assertNear(goals[i], compiled, 2e-3);
+            assertNear(reference, compiled, 4e-3);
+        }
+    }
+
+    /** Compare on the manifold, to avoid Euler-angle wrapping. */
+    private static void assertNear(Pose3d expected, Pose3d actual) {
+        assertNear(expected, actual, 1e-9);
+    }
+
+    private static void assertNear(Pose3d expected, Pose3d actual, double tolerance) {
+        assertEquals(0, GeometryUtil.toVec(expected.log(actual)).norm(), tolerance);
+    }
+
+    private static final List<String> NAMES = List.of(
+            "base_pan", "shoulder_tilt", "elbow_tilt", "wrist_tilt", "wrist_rotate", "center_point");
+
+    private static Vector<N5> randomQ(URDFAL5D m, Random random) {
+        Vector<N5> min = m.minQ(Nat.N5());
+        Vector<N5> max = m.maxQ(Nat.N5());
+        Vector<N5> q = new Vector<>(Nat.N5());
+        for (int i = 0; i < 5; ++i) {
+            q.set(i, 0, min.get(i) + random.nextDouble() * (max.get(i) - min.get(i)));
+        }
+        return q;
+    }
+
+    /**
+     * The forward kinematics algorithm from before the chain was compiled: a
+     * map of poses, with linear-scan parent lookups, recursing through parents.
+     */
+    private static Map<String, Pose3d> referenceForward(URDFAL5D m, Vector<N5> q) {
+        Map<String, Double> qMap = m.qMap(q);
+        Map<String, Pose3d> poses = new HashMap<>();
+        for (String name : NAMES) {
+            referencePose(m, poses, name, qMap);
+        }
+        return poses;
+    }
+
+    private static Pose3d referencePose(
+            URDFAL5D m, Map<String, Pose3d> poses, String name, Map<String, Double> qMap) {
+        Pose3d pose = poses.get(name);
+        if (pose != null)
+            return pose;
+        URDFJoint joint = m.getJoint(name);
+        Transform3d t = joint.transform(qMap.get(name));
+        URDFJoint parent = null;
+        for (String n : NAMES) {
+            if (m.getJoint(n).child() == joint.parent())
+                parent = m.getJoint(n);
+        }
+        if (parent == null) {
+            pose = Pose3d.kZero.transformBy(t);
+        } else {
+            pose = referencePose(m, poses, parent.name(), qMap).transformBy(t);
+        }
+        poses.put(name, pose);
+        return pose;
+    }
 }
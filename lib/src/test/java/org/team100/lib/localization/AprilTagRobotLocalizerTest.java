@@ -2,8 +2,11 @@ package org.team100.lib.localization;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -81,6 +84,7 @@ class AprilTagRobotLocalizerTest implements Timeless {
         DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
         DriverStationSim.notifyNewData();
         localizer.update();
+        localizer.awaitSolving();
         // skip first update
         assertTrue(poseEstimate.isEmpty());
         // a little bit different so NT will pass it along
@@ -95,6 +99,9 @@ class AprilTagRobotLocalizerTest implements Timeless {
         Thread.sleep(200);
         inst.flush();
 
+        localizer.update();
+        localizer.awaitSolving();
+        // the solve is pipelined, so the results are used in the next update.
         localizer.update();
         assertEquals(1, poseEstimate.size());
         Pose2d pose = poseEstimate.get(0);
@@ -107,6 +114,62 @@ class AprilTagRobotLocalizerTest implements Timeless {
         assertEquals(0.0, pose.getRotation().getRadians(), DELTA);
     }
 
+    /**
+     * Frames from two cameras, received out of order, are solved in parallel and
+     * used in timestamp order.
+     */
+    @Test
+    void testBatchOrder() throws IOException {
+        AprilTagFieldLayoutWithCorrectOrientation layout = new AprilTagFieldLayoutWithCorrectOrientation(
+                "2025-reefscape.json");
+        final List<Double> timeEstimate = new ArrayList<Double>();
+        DoubleFunction<ModelSE2> history = t -> new ModelSE2();
+        VisionUpdater visionUpdater = new VisionUpdater() {
+            @Override
+            public void put(double t, NoisyPose2d p) {
+                fail("batch should use putAll");
+            }
+
+            @Override
+            public void putAll(List<Measurement> measurements) {
+                // record the order we're given, don't sort.
+                for (Measurement m : measurements)
+                    timeEstimate.add(m.timestampS());
+            }
+        };
+        AprilTagRobotLocalizer localizer = new AprilTagRobotLocalizer(
+                logger, fieldLogger, layout, history, visionUpdater, 0);
+        DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+        DriverStationSim.notifyNewData();
+
+        Transform3d offset = new Transform3d();
+        localizer.beginUpdate();
+        // camera 1 arrives first, with the later frames
+        localizer.perValue(1, offset, 0.05, payload(1.0), 1);
+        localizer.perValue(1, offset, 0.07, payload(1.0), 1);
+        // camera 0 arrives second, with the earlier frames
+        localizer.perValue(0, offset, 0.04, payload(1.0), 1);
+        localizer.perValue(0, offset, 0.06, payload(1.0), 1);
+        localizer.finishUpdate();
+        // nothing yet, the workers are solving
+        assertTrue(timeEstimate.isEmpty());
+
+        localizer.awaitSolving();
+        localizer.beginUpdate();
+        localizer.finishUpdate();
+        // the first one just primes the filter.
+        assertEquals(List.of(0.05, 0.06, 0.07), timeEstimate);
+    }
+
+    /** Little-endian payload with one sighting of tag 1, straight ahead. */
+    private static ByteBuffer payload(double range) {
+        ByteBuffer b = ByteBuffer.allocate(Blip24.struct.getSize())
+                .order(ByteOrder.LITTLE_ENDIAN);
+        Blip24.struct.pack(b, Blip24.fromXForward(1, new Transform3d(range, 0, 0, new Rotation3d())));
+        b.flip();
+        return b;
+    }
+
     @Test
     void testEstimateRobotPose() throws IOException {
         AprilTagFieldLayoutWithCorrectOrientation layout = new AprilTagFieldLayoutWithCorrectOrientation(
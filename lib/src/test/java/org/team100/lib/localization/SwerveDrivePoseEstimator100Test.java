@@ -1127,4 +1127,59 @@ class SwerveDrivePoseEstimator100Test implements Timeless {
                 odometryPose.getRotation().getRadians(),
                 visionPose.getRotation().getRadians(), DELTA);
     }
-}
\ No newline at end of file
+
+    /** Batch update is the same as individual updates in timestamp order. */
+    @Test
+    void testPutAllMatchesPut() {
+        SwerveKinodynamics kinodynamics = SwerveKinodynamicsFactory.forWPITest(logger);
+        SwerveHistory h1 = history(kinodynamics);
+        SwerveHistory h2 = history(kinodynamics);
+        OdometryUpdater ou1 = new OdometryUpdater(
+                logger, kinodynamics, new MockGyro(), h1, () -> positions, UnaryOperator.identity());
+        OdometryUpdater ou2 = new OdometryUpdater(
+                logger, kinodynamics, new MockGyro(), h2, () -> positions, UnaryOperator.identity());
+        positions = positionZero;
+        ou1.reset(Pose2d.kZero, IsotropicNoiseSE2.fromStdDev(0.1, 0.1), 0);
+        ou2.reset(Pose2d.kZero, IsotropicNoiseSE2.fromStdDev(0.1, 0.1), 0);
+        // drive forward
+        for (int i = 1; i < 10; ++i) {
+            SwerveModulePosition100 p = new SwerveModulePosition100(0.01 * i, Optional.of(Rotation2d.kZero));
+            positions = new SwerveModulePositions(p, p, p, p);
+            ou1.update(0.02 * i);
+            ou2.update(0.02 * i);
+        }
+        NudgingVisionUpdater vu1 = new NudgingVisionUpdater(logger, h1, ou1);
+        NudgingVisionUpdater vu2 = new NudgingVisionUpdater(logger, h2, ou2);
+        IsotropicNoiseSE2 noise = IsotropicNoiseSE2.fromStdDev(0.1, 0.1);
+        // out of order, some between entries, some repeated.
+        List<VisionUpdater.Measurement> measurements = List.of(
+                new VisionUpdater.Measurement(0.11, new NoisyPose2d(new Pose2d(0.1, 0.1, Rotation2d.kZero), noise)),
+                new VisionUpdater.Measurement(0.03, new NoisyPose2d(new Pose2d(0.0, 0.1, Rotation2d.kZero), noise)),
+                new VisionUpdater.Measurement(0.11, new NoisyPose2d(new Pose2d(0.1, 0.2, Rotation2d.kZero), noise)),
+                new VisionUpdater.Measurement(0.06, new NoisyPose2d(new Pose2d(0.1, 0.0, Rotation2d.kZero), noise)));
+        measurements.stream()
+                .sorted((a, b) -> Double.compare(a.timestampS(), b.timestampS()))
+                .forEach(m -> vu1.put(m.timestampS(), m.noisyMeasurement()));
+        vu2.putAll(measurements);
+        for (double t = 0; t < 0.2; t += 0.01) {
+            Pose2d p1 = h1.apply(t).pose();
+            Pose2d p2 = h2.apply(t).pose();
+            assertEquals(p1.getX(), p2.getX(), 1e-12);
+            assertEquals(p1.getY(), p2.getY(), 1e-12);
+            assertEquals(p1.getRotation().getRadians(), p2.getRotation().getRadians(), 1e-12);
+        }
+    }
+
+    private SwerveHistory history(SwerveKinodynamics kinodynamics) {
+        return new SwerveHistory(
+                logger,
+                kinodynamics,
+                0.2,
+                Rotation2d.kZero,
+                VariableR1.fromVariance(0, 1),
+                positionZero,
+                Pose2d.kZero,
+                IsotropicNoiseSE2.high(),
+                0);
+    }
+}
@@ -0,0 +1,112 @@
+package org.team100.lib.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.logging.LoggerFactory.DoubleLogger;
+import org.team100.lib.logging.LoggerFactory.Pose2dLogger;
+import org.team100.lib.logging.primitive.PrimitiveLogger.PrimitiveDoubleLogger;
+import org.team100.lib.logging.primitive.TestPrimitiveLogger;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+public class LoggerFactoryTest {
+    private static final boolean DEBUG = false;
+
+    @Test
+    void testLevelChange() {
+        AtomicReference<Level> level = new AtomicReference<>(Level.COMP);
+        LoggerFactory log = new LoggerFactory(level::get, "test", new TestPrimitiveLogger());
+        int[] count = new int[1];
+        DoubleLogger d = log.doubleLogger(Level.TRACE, "d");
+        d.log(() -> count[0]++);
+        assertEquals(0, count[0]);
+        // the logger caches the check, so the change has no effect ...
+        level.set(Level.TRACE);
+        d.log(() -> count[0]++);
+        assertEquals(0, count[0]);
+        // ... until we say so.
+        LoggerFactory.levelChanged();
+        d.log(() -> count[0]++);
+        assertEquals(1, count[0]);
+        level.set(Level.COMP);
+        LoggerFactory.levelChanged();
+        d.log(() -> count[0]++);
+        assertEquals(1, count[0]);
+    }
+
+    @Test
+    void testValueOverloads() {
+        LoggerFactory log = new TestLoggerFactory(new TestPrimitiveLogger());
+        log.doubleLogger(Level.TRACE, "d").log(1.0);
+        log.booleanLogger(Level.TRACE, "b").log(true);
+        log.intLogger(Level.TRACE, "i").log(1);
+        log.longLogger(Level.TRACE, "l").log(1L);
+        log.stringLogger(Level.TRACE, "s").log("foo");
+        log.pose2dLogger(Level.TRACE, "p").log(new Pose2d(1, 2, new Rotation2d(3)));
+        log.rotation2dLogger(Level.TRACE, "r").log(new Rotation2d(3));
+    }
+
+    /** Sums the values logged to each key. */
+    static class SummingPrimitiveLogger extends TestPrimitiveLogger {
+        final Map<String, Double> sums = new HashMap<>();
+
+        @Override
+        public PrimitiveDoubleLogger doubleLogger(String label) {
+            super.doubleLogger(label);
+            return val -> sums.merge(label, val, Double::sum);
+        }
+    }
+
+    /**
+     * Compares the old way (check the level supplier on every call, capture a
+     * lambda) with the new way (cached check, pass the value). Not a real
+     * benchmark, we don't have JMH; use DEBUG to see the numbers.
+     */
+    @Test
+    void testPerformance() {
+        SummingPrimitiveLogger primitive = new SummingPrimitiveLogger();
+        LoggerFactory log = new LoggerFactory(() -> Level.TRACE, "test", primitive);
+        DoubleLogger dOld = log.doubleLogger(Level.TRACE, "old");
+        DoubleLogger dNew = log.doubleLogger(Level.TRACE, "new");
+        Pose2dLogger p = log.pose2dLogger(Level.TRACE, "p");
+        final int iterations = 100000;
+        for (int round = 0; round < 3; ++round) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; ++i) {
+                // what log() used to do
+                if (log.allow(Level.TRACE)) {
+                    final double x = i;
+                    dOld.log((DoubleSupplier) () -> x);
+                }
+            }
+            long old = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; ++i) {
+                dNew.log(i);
+            }
+            long now = System.nanoTime() - start;
+            start = System.nanoTime();
+            Pose2d pose = new Pose2d(1, 2, new Rotation2d(3));
+            for (int i = 0; i < iterations; ++i) {
+                p.log(pose);
+            }
+            long pose2d = System.nanoTime() - start;
+            if (DEBUG)
+                System.out.printf("old %5.1f ns/op  new %5.1f ns/op  pose2d %5.1f ns/op\n",
+                        (double) old / iterations,
+                        (double) now / iterations,
+                        (double) pose2d / iterations);
+        }
+        // both ways log the same values.
+        double expected = 3.0 * iterations * (iterations - 1) / 2;
+        assertEquals(expected, primitive.sums.get("test/old"), 1e-3);
+        assertEquals(expected, primitive.sums.get("test/new"), 1e-3);
+    }
+}
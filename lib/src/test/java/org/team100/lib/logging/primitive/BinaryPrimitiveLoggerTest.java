@@ -0,0 +1,137 @@
+package org.team100.lib.logging.primitive;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BinaryPrimitiveLoggerTest {
+    private static final boolean DEBUG = false;
+
+    @TempDir
+    Path dir;
+
+    /** Write a few of each type, read them back. */
+    @Test
+    void testRoundTrip() throws IOException {
+        Path file = dir.resolve("test.t100log");
+        BinaryPrimitiveLogger logger = new BinaryPrimitiveLogger(file, 1024);
+        PrimitiveLogger.PrimitiveDoubleLogger d = logger.doubleLogger("d");
+        PrimitiveLogger.PrimitiveBooleanLogger b = logger.booleanLogger("b");
+        PrimitiveLogger.PrimitiveIntLogger i = logger.intLogger("i");
+        PrimitiveLogger.PrimitiveStringLogger s = logger.stringLogger("s");
+        PrimitiveLogger.PrimitiveDoubleArrayLogger a = logger.doubleArrayLogger("a");
+        assertEquals(5, logger.keyCount());
+        d.log(1.5);
+        b.log(true);
+        i.log(-3);
+        s.log("a string longer than one slot, to test continuation");
+        a.log(new double[] { 1, 2, 3, 4 });
+        d.log(2.5);
+        logger.close();
+        assertEquals(0, logger.dropped());
+
+        List<String> labels = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        read(file, labels, values);
+        assertEquals(List.of("d", "b", "i", "s", "a"), labels);
+        assertEquals(6, values.size());
+        assertEquals(1.5, values.get(0));
+        assertEquals(true, values.get(1));
+        assertEquals(-3L, values.get(2));
+        assertEquals("a string longer than one slot, to test continuation", values.get(3));
+        assertArrayEquals(new double[] { 1, 2, 3, 4 }, (double[]) values.get(4));
+        assertEquals(2.5, values.get(5));
+    }
+
+    /** If the flusher can't keep up, values are dropped, not blocked. */
+    @Test
+    void testDrop() throws IOException, InterruptedException {
+        Path file = dir.resolve("drop.t100log");
+        // 2 slots
+        BinaryPrimitiveLogger logger = new BinaryPrimitiveLogger(file, 48);
+        PrimitiveLogger.PrimitiveDoubleLogger d = logger.doubleLogger("d");
+        // let the first flush go by, so the loop is well inside one flush period.
+        Thread.sleep(10);
+        for (int i = 0; i < 1000; ++i) {
+            d.log(i);
+        }
+        logger.close();
+        if (DEBUG)
+            System.out.printf("dropped %d\n", logger.dropped());
+        assertTrue(logger.dropped() > 0);
+
+        List<String> labels = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        read(file, labels, values);
+        assertEquals(List.of("d"), labels);
+        // the ring holds two values, the rest are dropped.
+        assertTrue(values.size() <= 2);
+        assertEquals(1000, values.size() + logger.dropped());
+    }
+
+    /** Per-value cost, compare to NTPrimitiveLogger. */
+    @Test
+    void testPerformance() throws IOException {
+        Path file = dir.resolve("perf.t100log");
+        BinaryPrimitiveLogger logger = new BinaryPrimitiveLogger(file, 1 << 22);
+        PrimitiveLogger.PrimitiveDoubleLogger d = logger.doubleLogger("d");
+        int n = 100000;
+        long start = System.nanoTime();
+        for (int i = 0; i < n; ++i) {
+            d.log(i);
+        }
+        long end = System.nanoTime();
+        logger.close();
+        if (DEBUG)
+            System.out.printf("per value (ns) %.1f dropped %d\n",
+                    (double) (end - start) / n, logger.dropped());
+        // the ring holds all of them.
+        assertEquals(0, logger.dropped());
+        List<String> labels = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        read(file, labels, values);
+        assertEquals(n, values.size());
+    }
+
+    private static void read(Path file, List<String> labels, List<Object> values) throws IOException {
+        new BinaryLogReader(file).read(new BinaryLogReader.Visitor() {
+            @Override
+            public void define(int id, String label, byte type) {
+                labels.add(label);
+            }
+
+            @Override
+            public void booleanValue(int id, long timestampUs, boolean val) {
+                values.add(val);
+            }
+
+            @Override
+            public void doubleValue(int id, long timestampUs, double val) {
+                values.add(val);
+            }
+
+            @Override
+            public void longValue(int id, long timestampUs, long val) {
+                values.add(val);
+            }
+
+            @Override
+            public void stringValue(int id, long timestampUs, String val) {
+                values.add(val);
+            }
+
+            @Override
+            public void doubleArrayValue(int id, long timestampUs, double[] val) {
+                values.add(val);
+            }
+        });
+    }
+}
@@ -0,0 +1,122 @@
+package org.team100.lib.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.TestLoggerFactory;
+import org.team100.lib.logging.primitive.TestPrimitiveLogger;
+import org.team100.lib.testing.Timeless;
+
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.util.struct.StructBuffer;
+
+public class CameraReaderTest implements Timeless {
+    private static final double DELTA = 1e-9;
+    private static final Transform3d OFFSET = new Transform3d();
+    private static final LoggerFactory log = new TestLoggerFactory(new TestPrimitiveLogger());
+
+    /** Consumes the elements in place, without the array. */
+    static class InPlaceReader extends CameraReader<Translation2d> {
+        final List<Double> xs = new ArrayList<>();
+        int calls;
+
+        InPlaceReader() {
+            super(log, "test", "values", StructBuffer.create(Translation2d.struct));
+        }
+
+        @Override
+        protected void perValue(
+                int camera,
+                Transform3d cameraOffset,
+                double valueTimestamp,
+                ByteBuffer payload,
+                int count) {
+            calls++;
+            for (int i = 0; i < count; ++i) {
+                xs.add(Translation2d.struct.unpack(payload).getX());
+            }
+        }
+
+        @Override
+        protected void perValue(Transform3d cameraOffset, double valueTimestamp, Translation2d[] value) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /** Uses the default decoder, into the pooled arrays. */
+    static class ArrayReader extends CameraReader<Translation2d> {
+        final List<Translation2d[]> arrays = new ArrayList<>();
+        final List<Double> xs = new ArrayList<>();
+
+        ArrayReader() {
+            super(log, "test", "values", StructBuffer.create(Translation2d.struct));
+        }
+
+        @Override
+        protected void perValue(Transform3d cameraOffset, double valueTimestamp, Translation2d[] value) {
+            arrays.add(value);
+            for (Translation2d t : value) {
+                xs.add(t.getX());
+            }
+        }
+    }
+
+    @Test
+    void testInPlace() {
+        InPlaceReader reader = new InPlaceReader();
+        reader.accept(0, OFFSET, 0, bytes(1, 2, 3));
+        assertEquals(1, reader.calls);
+        assertEquals(List.of(1.0, 2.0, 3.0), reader.xs);
+        // the buffer is reused, and the next payload starts at the beginning.
+        reader.accept(0, OFFSET, 0, bytes(4));
+        assertEquals(2, reader.calls);
+        assertEquals(4.0, reader.xs.get(3), DELTA);
+    }
+
+    @Test
+    void testArray() {
+        ArrayReader reader = new ArrayReader();
+        reader.accept(0, OFFSET, 0, bytes(1, 2));
+        reader.accept(0, OFFSET, 0, bytes(3, 4));
+        assertEquals(List.of(1.0, 2.0, 3.0, 4.0), reader.xs);
+        // same length, same pooled array
+        assertSame(reader.arrays.get(0), reader.arrays.get(1));
+    }
+
+    @Test
+    void testDecodingFailed() {
+        InPlaceReader reader = new InPlaceReader();
+        // not a whole number of elements
+        byte[] b = bytes(1, 2);
+        byte[] truncated = new byte[b.length - 1];
+        System.arraycopy(b, 0, truncated, 0, truncated.length);
+        reader.accept(0, OFFSET, 0, truncated);
+        // empty
+        reader.accept(0, OFFSET, 0, new byte[0]);
+        assertEquals(0, reader.calls);
+
+        // the default decoder drops a payload shorter than the count
+        ArrayReader arrayReader = new ArrayReader();
+        ByteBuffer one = ByteBuffer.wrap(bytes(1)).order(ByteOrder.LITTLE_ENDIAN);
+        arrayReader.perValue(0, OFFSET, 0, one, 2);
+        assertEquals(0, arrayReader.arrays.size());
+    }
+
+    /** Little-endian payload of translations with these x values. */
+    private static byte[] bytes(double... xs) {
+        ByteBuffer b = ByteBuffer.allocate(xs.length * Translation2d.struct.getSize())
+                .order(ByteOrder.LITTLE_ENDIAN);
+        for (double x : xs) {
+            Translation2d.struct.pack(b, new Translation2d(x, 0));
+        }
+        return b.array();
+    }
+}
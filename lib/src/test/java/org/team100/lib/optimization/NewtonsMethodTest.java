@@ -425,6 +425,30 @@ public class NewtonsMethodTest {
         assertThrows(SingularMatrixException.class, () -> A.solve(b));
     }
 
+    /**
+     * The Jacobian is singular everywhere, but the system is consistent, so the
+     * pivoted QR step still finds a solution.
+     */
+    @Test
+    void testSingularJacobian() {
+        // x0 + x1 = 2, twice
+        Function<Vector<N2>, Vector<N2>> f = x -> VecBuilder.fill(
+                x.get(0) + x.get(1) - 2,
+                2 * (x.get(0) + x.get(1)) - 4);
+        NewtonsMethod<N2, N2> solver = new NewtonsMethod<>(
+                Nat.N2(), Nat.N2(), f,
+                VecBuilder.fill(-10, -10), VecBuilder.fill(10, 10),
+                1e-6, 10, 10);
+        Matrix<N2, N2> j = NumericalJacobian100.numericalJacobian(
+                Nat.N2(), Nat.N2(), f, VecBuilder.fill(0, 0));
+        assertEquals(0, j.det(), 1e-9);
+
+        Vector<N2> x = solver.solve2(VecBuilder.fill(0, 0), 0, true);
+        assertEquals(2, x.get(0) + x.get(1), 1e-6);
+        x = solver.solve(VecBuilder.fill(0, 0));
+        assertEquals(2, x.get(0) + x.get(1), 1e-6);
+    }
+
     @Test
     void test4Pose2Solver2() {
         // case above but using the solver
@@ -704,4 +728,65 @@ public class NewtonsMethodTest {
 
         }
     }
+
+    /** Same answer with the analytic Jacobian of the RR arm. */
+    @Test
+    void testAnalyticJacobian() {
+        Vector<N2> Xd = VecBuilder.fill(0, 1);
+        Vector<N2> q0 = VecBuilder.fill(0, Math.PI / 2);
+        Function<Vector<N2>, Vector<N2>> err = q -> VecBuilder.fill(
+                Math.cos(q.get(0)) + Math.cos(q.get(0) + q.get(1)),
+                Math.sin(q.get(0)) + Math.sin(q.get(0) + q.get(1))).minus(Xd);
+        JacobianFunction<N2, N2> jacobian = (q, y, J) -> {
+            double s0 = Math.sin(q.get(0));
+            double c0 = Math.cos(q.get(0));
+            double s01 = Math.sin(q.get(0) + q.get(1));
+            double c01 = Math.cos(q.get(0) + q.get(1));
+            J.set(0, 0, -s0 - s01);
+            J.set(0, 1, -s01);
+            J.set(1, 0, c0 + c01);
+            J.set(1, 1, c01);
+        };
+        Vector<N2> minQ = VecBuilder.fill(-Math.PI, -Math.PI);
+        Vector<N2> maxQ = VecBuilder.fill(Math.PI, Math.PI);
+        NewtonsMethod<N2, N2> s = new NewtonsMethod<>(
+                Nat.N2(), Nat.N2(), err, jacobian, minQ, maxQ, 1e-3, 10, 1,
+                new NewtonsMethodWorkspace<>(Nat.N2(), Nat.N2()));
+        Vector<N2> x = s.solve2(q0, 5, true);
+        assertEquals(0.524, x.get(0), 1e-3);
+        assertEquals(2.094, x.get(1), 1e-3);
+        x = s.solve(q0);
+        assertEquals(0.524, x.get(0), 1e-3);
+        assertEquals(2.094, x.get(1), 1e-3);
+    }
+
+    /** Solvers sharing a workspace don't share results. */
+    @Test
+    void testSharedWorkspace() {
+        NewtonsMethodWorkspace<N2, N2> ws = new NewtonsMethodWorkspace<>(Nat.N2(), Nat.N2());
+        Vector<N2> minQ = VecBuilder.fill(-Math.PI, -Math.PI);
+        Vector<N2> maxQ = VecBuilder.fill(Math.PI, Math.PI);
+        Vector<N2> q0 = VecBuilder.fill(0, Math.PI / 2);
+        Vector<N2> x1 = solveRR(ws, VecBuilder.fill(0, 1), minQ, maxQ, q0);
+        Vector<N2> x2 = solveRR(ws, VecBuilder.fill(1, 1), minQ, maxQ, q0);
+        assertEquals(0.524, x1.get(0), 1e-3);
+        assertEquals(2.094, x1.get(1), 1e-3);
+        assertEquals(0, x2.get(0), 1e-3);
+        assertEquals(Math.PI / 2, x2.get(1), 1e-3);
+    }
+
+    private static Vector<N2> solveRR(
+            NewtonsMethodWorkspace<N2, N2> ws,
+            Vector<N2> Xd,
+            Vector<N2> minQ,
+            Vector<N2> maxQ,
+            Vector<N2> q0) {
+        Function<Vector<N2>, Vector<N2>> err = q -> VecBuilder.fill(
+                Math.cos(q.get(0)) + Math.cos(q.get(0) + q.get(1)),
+                Math.sin(q.get(0)) + Math.sin(q.get(0) + q.get(1))).minus(Xd);
+        NewtonsMethod<N2, N2> s = new NewtonsMethod<>(
+                Nat.N2(), Nat.N2(), err, NumericalJacobian100.forward(err),
+                minQ, maxQ, 1e-3, 10, 1, ws);
+        return s.solve2(q0, 5, true);
+    }
 }
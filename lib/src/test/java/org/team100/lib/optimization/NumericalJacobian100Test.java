@@ -123,4 +123,33 @@ public class NumericalJacobian100Test {
         assertEquals(0, j0.get(1, 1), 1e-3);
     }
 
+    /** The in-place versions match the allocating ones, and restore x. */
+    @Test
+    void testInPlace() {
+        Vector<N2> Xd = VecBuilder.fill(0, 1);
+        Function<Vector<N2>, Vector<N2>> err = q -> VecBuilder.fill(
+                Math.cos(q.get(0)) + Math.cos(q.get(0) + q.get(1)),
+                Math.sin(q.get(0)) + Math.sin(q.get(0) + q.get(1))).minus(Xd);
+        Vector<N2> q0 = VecBuilder.fill(0.3, 1.2);
+        Vector<N2> y0 = err.apply(q0);
+
+        Matrix<N2, N2> forward = new Matrix<>(Nat.N2(), Nat.N2());
+        NumericalJacobian100.forward(err).apply(q0, y0, forward);
+        Matrix<N2, N2> j2 = NumericalJacobian100.numericalJacobian2(
+                Nat.N2(), Nat.N2(), err, q0);
+
+        Matrix<N2, N2> central = new Matrix<>(Nat.N2(), Nat.N2());
+        NumericalJacobian100.central(err).apply(q0, y0, central);
+        Matrix<N2, N2> j = NumericalJacobian100.numericalJacobian(
+                Nat.N2(), Nat.N2(), err, q0);
+
+        for (int row = 0; row < 2; ++row) {
+            for (int col = 0; col < 2; ++col) {
+                assertEquals(j2.get(row, col), forward.get(row, col), 1e-12);
+                assertEquals(j.get(row, col), central.get(row, col), 1e-12);
+            }
+        }
+        assertEquals(0.3, q0.get(0), 0);
+        assertEquals(1.2, q0.get(1), 0);
+    }
 }
@@ -167,4 +167,29 @@ public class CompleteProfileTest implements Timeless{
         assertEquals(2, m.get(2.0).x(), DELTA);
         assertEquals(3, m.get(3.0).x(), DELTA);
     }
+
+    /**
+     * The tabulated ETA agrees with simulation. Note simulateForETA() drops the
+     * acceleration between steps, which defeats the takeoff jerk limit, so
+     * simulate here instead.
+     */
+    @Test
+    void testEta() {
+        CompleteProfile p = new CompleteProfile(logger, 2, 6, 10, 30, 50, 50, 0.001);
+        ControlR1[] initials = {
+                new ControlR1(0, 0), new ControlR1(0, 1), new ControlR1(3, -1), new ControlR1(-5, 0) };
+        for (ControlR1 initial : initials) {
+            ModelR1 goal = new ModelR1(1, 0);
+            double eta = p.eta(0.001, initial, goal);
+            double simulated = 0;
+            ControlR1 c = initial;
+            while (!c.model().near(goal, 0.01) && simulated < 10) {
+                c = p.calculate(0.001, c, goal);
+                simulated += 0.001;
+            }
+            if (DEBUG)
+                System.out.printf("%s eta %6.3f simulated %6.3f\n", initial, eta, simulated);
+            assertEquals(simulated, eta, 0.05);
+        }
+    }
 }
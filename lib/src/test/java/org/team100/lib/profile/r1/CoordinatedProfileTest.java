@@ -245,9 +245,9 @@ class CoordinatedProfileTest implements Timeless {
         double sy = py.solve(
                 0.1, iy, gy, slowETA, DELTA);
 
-        // this should be about 1.0
-        assertEquals(0.937, sx, DELTA);
-        assertEquals(0.281, sy, DELTA);
+        // exact: x takes (1 + sqrt(2)) / a, y takes 2 sqrt(0.5 / a)
+        assertEquals((1 + Math.sqrt(2)) / 2.6, sx, DELTA);
+        assertEquals(2 / (2.6 * 2.6), sy, DELTA);
 
         // use the scale parameter to make adjusted profiles
         px = px.scale(sx);
@@ -60,7 +60,9 @@ class TrapezoidIncrementalProfileTest implements Timeless {
         final ModelR1 end = new ModelR1(3, 0);
         final double ETA_TOLERANCE = 0.02;
         double s = profile.solve(0.1, sample, end, 2.0, ETA_TOLERANCE);
-        assertEquals(0.4375, s, DELTA);
+        // exact: 2 = 3/2 + 8/(4a)
+        assertEquals(0.4, s, DELTA);
+        assertEquals(2.0, profile.scale(s).eta(0.1, sample, end), 1e-9);
     }
 
     /** Around 25 us at 0.1 DT */
@@ -1882,4 +1884,40 @@ class TrapezoidIncrementalProfileTest implements Timeless {
         assertEquals(goal.v(), state.v(), 0.05);
     }
 
+    /** The closed-form ETA agrees with fine-grained simulation. */
+    @Test
+    void testEta() {
+        TrapezoidIncrementalProfile p = new TrapezoidIncrementalProfile(logger, 2, 3, 0.001);
+        // rest to rest, triangle and trapezoid
+        assertEquals(2 * Math.sqrt(0.5 / 3), p.eta(0.1, new ControlR1(0, 0), new ModelR1(0.5, 0)), 1e-9);
+        assertEquals(3.0 / 2 + 2.0 / 3, p.eta(0.1, new ControlR1(0, 0), new ModelR1(3, 0)), 1e-9);
+        assertEquals(3.0 / 2 + 2.0 / 3, p.eta(0.1, new ControlR1(3, 0), new ModelR1(0, 0)), 1e-9);
+        Random random = new Random(0);
+        for (int i = 0; i < 100; ++i) {
+            ControlR1 initial = new ControlR1(random.nextGaussian(), 2 * random.nextGaussian());
+            ModelR1 goal = new ModelR1(random.nextGaussian(), random.nextDouble() - 0.5);
+            double eta = p.eta(0.1, initial, goal);
+            double simulated = p.simulateForETA(0.0005, initial, goal);
+            assertEquals(simulated, eta, 0.05);
+        }
+    }
+
+    /** Solve matches the ETA exactly, in all the path shapes. */
+    @Test
+    void testSolveShapes() {
+        TrapezoidIncrementalProfile p = new TrapezoidIncrementalProfile(logger, 1, 1, 0.001);
+        ControlR1[] initials = {
+                new ControlR1(0, 0), new ControlR1(0, 1), new ControlR1(0, -0.5), new ControlR1(2, 0) };
+        ModelR1[] goals = {
+                new ModelR1(0.5, 0), new ModelR1(3, 0), new ModelR1(0, 0), new ModelR1(-1, 0.5) };
+        for (ControlR1 i : initials) {
+            for (ModelR1 g : goals) {
+                double eta = p.eta(0.1, i, g);
+                if (eta == 0)
+                    continue;
+                double s = p.solve(0.1, i, g, eta * 1.5, 0.001);
+                assertEquals(eta * 1.5, p.scale(s).eta(0.1, i, g), 0.05);
+            }
+        }
+    }
 }
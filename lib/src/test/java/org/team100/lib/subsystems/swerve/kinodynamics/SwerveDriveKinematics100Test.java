@@ -5,7 +5,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Optional;
+import java.util.Random;
 
+import org.ejml.simple.SimpleMatrix;
 import org.junit.jupiter.api.Test;
 import org.team100.lib.subsystems.swerve.module.state.SwerveModuleDelta;
 import org.team100.lib.subsystems.swerve.module.state.SwerveModuleDeltas;
@@ -21,6 +23,7 @@ import edu.wpi.first.math.geometry.Twist2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 
 class SwerveDriveKinematics100Test {
+    private static final boolean DEBUG = false;
     private static final double DELTA = 0.001;
 
     @Test
@@ -712,4 +715,92 @@ class SwerveDriveKinematics100Test {
                 () -> assertEquals(1.5, twist.dtheta, 0.1));
     }
 
+    /** The primitive path gives exactly the same answers as EJML. */
+    @Test
+    void testBitCompatible() {
+        SwerveDriveKinematics100 kinematics = new SwerveDriveKinematics100(
+                new Translation2d(0.31, 0.27),
+                new Translation2d(0.31, -0.27),
+                new Translation2d(-0.23, 0.27),
+                new Translation2d(-0.23, -0.27));
+        Random random = new Random(0);
+        double[] modules = new double[8];
+        for (int i = 0; i < 1000; ++i) {
+            Twist2d twist = new Twist2d(
+                    random.nextGaussian(), random.nextGaussian(), random.nextGaussian());
+            SimpleMatrix expected = kinematics.m_inverseKinematics.mult(
+                    new SimpleMatrix(new double[] { twist.dx, twist.dy, twist.dtheta }));
+            kinematics.inverse(twist.dx, twist.dy, twist.dtheta, modules);
+            for (int j = 0; j < 8; ++j) {
+                assertEquals(expected.get(j, 0), modules[j]);
+            }
+
+            SwerveModuleDeltas deltas = kinematics.toSwerveModuleDelta(twist);
+            SimpleMatrix deltaVector = new SimpleMatrix(8, 1);
+            SwerveModuleDelta[] all = deltas.all();
+            for (int j = 0; j < 4; ++j) {
+                if (Math.abs(all[j].distanceMeters()) < 1e-6 || all[j].wrappedAngle().isEmpty())
+                    continue;
+                deltaVector.set(j * 2, 0,
+                        all[j].distanceMeters() * all[j].wrappedAngle().get().getCos());
+                deltaVector.set(j * 2 + 1, 0,
+                        all[j].distanceMeters() * all[j].wrappedAngle().get().getSin());
+            }
+            SimpleMatrix twistVector = kinematics.m_forwardKinematics.mult(deltaVector);
+            Twist2d actual = new Twist2d();
+            kinematics.toTwist2d(deltas, actual);
+            assertEquals(twistVector.get(0, 0), actual.dx);
+            assertEquals(twistVector.get(1, 0), actual.dy);
+            assertEquals(twistVector.get(2, 0), actual.dtheta);
+        }
+    }
+
+    /**
+     * Replay-like workload, compared with the EJML path this replaced. Not a real
+     * benchmark, we don't have JMH; use DEBUG to see the numbers.
+     */
+    @Test
+    void testPerformance() {
+        SwerveDriveKinematics100 kinematics = new SwerveDriveKinematics100(
+                new Translation2d(0.31, 0.27),
+                new Translation2d(0.31, -0.27),
+                new Translation2d(-0.23, 0.27),
+                new Translation2d(-0.23, -0.27));
+        SwerveModuleDeltas deltas = kinematics.toSwerveModuleDelta(new Twist2d(0.02, 0.01, 0.03));
+        SwerveModuleDelta[] all = deltas.all();
+        final int iterations = 100000;
+        Twist2d result = new Twist2d();
+        Twist2d expected = null;
+        for (int round = 0; round < 3; ++round) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; ++i) {
+                // what toTwist2d used to do
+                SimpleMatrix v = new SimpleMatrix(8, 1);
+                for (int j = 0; j < 4; ++j) {
+                    v.set(j * 2, 0, all[j].distanceMeters() * all[j].wrappedAngle().get().getCos());
+                    v.set(j * 2 + 1, 0, all[j].distanceMeters() * all[j].wrappedAngle().get().getSin());
+                }
+                SimpleMatrix t = kinematics.m_forwardKinematics.mult(v);
+                expected = new Twist2d(t.get(0, 0), t.get(1, 0), t.get(2, 0));
+            }
+            long ejml = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; ++i) {
+                kinematics.toTwist2d(deltas, result);
+            }
+            long primitive = System.nanoTime() - start;
+            if (DEBUG)
+                System.out.printf("ejml %5.1f ns/op  primitive %5.1f ns/op\n",
+                        (double) ejml / iterations,
+                        (double) primitive / iterations);
+            // same answer both ways
+            assertEquals(expected.dx, result.dx, 1e-12);
+            assertEquals(expected.dy, result.dy, 1e-12);
+            assertEquals(expected.dtheta, result.dtheta, 1e-12);
+        }
+        // and it's the twist we started with
+        assertEquals(0.02, result.dx, 1e-9);
+        assertEquals(0.01, result.dy, 1e-9);
+        assertEquals(0.03, result.dtheta, 1e-9);
+    }
 }
@@ -250,6 +250,45 @@ public class ShootingMethodTest {
         checkSolution(ir, x, r, tof);
     }
 
+    /**
+     * Strafing past the target for one second. Tracking gives the same answers
+     * as solving from scratch each cycle, with fewer iterations.
+     */
+    @Test
+    void testTracking() {
+        Drag d = new Drag(0.5, 0.025, 0.1, 0.1, 0.1);
+        RangeSolver rangeSolver = new RangeSolver(d, 0);
+        IRange ir = (e) -> rangeSolver.getSolution(7, 0, e);
+        ShootingMethod tracker = new ShootingMethod(ir, 0.01);
+        ShootingMethod solver = new ShootingMethod(ir, 0.01);
+        GlobalVelocityR2 robotVelocity = new GlobalVelocityR2(0, 2);
+        Translation2d targetPosition = new Translation2d(2, 0);
+        GlobalVelocityR2 targetVelocity = GlobalVelocityR2.ZERO;
+        double initialElevation = 0.1;
+        int trackIterations = 0;
+        int solveIterations = 0;
+        for (int i = 0; i < 50; ++i) {
+            Translation2d robotPosition = new Translation2d(0, -1 + 0.04 * i);
+            ShootingMethod.Solution tracked = tracker.track(
+                    robotPosition, robotVelocity, targetPosition, targetVelocity, initialElevation)
+                    .orElseThrow();
+            ShootingMethod.Solution solved = solver.solve(
+                    robotPosition, robotVelocity, targetPosition, targetVelocity, initialElevation)
+                    .orElseThrow();
+            assertEquals(solved.azimuth().getRadians(), tracked.azimuth().getRadians(), 0.02);
+            assertEquals(solved.elevation().getRadians(), tracked.elevation().getRadians(), 0.02);
+            if (i > 0) {
+                trackIterations += tracker.lastIterations();
+                solveIterations += solver.lastIterations();
+            }
+        }
+        if (DEBUG)
+            System.out.printf("iterations track %d solve %d cold starts %d\n",
+                    trackIterations, solveIterations, tracker.coldStarts());
+        assertTrue(trackIterations < solveIterations);
+        assertEquals(0, tracker.failures());
+    }
+
     /**
      * With Range caching off, using DT of 0.01 s (see RangeSolverTest), on my
      * machine this solves in about 350 us, so the RoboRIO could probably do it in
@@ -1,8 +1,16 @@
 package org.team100.lib.targeting;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class VariableVelocityRangeTest {
     private static final double DELTA = 0.001;
@@ -25,4 +33,75 @@ public class VariableVelocityRangeTest {
         assertEquals(2.825, s.range(), 0.01);
         assertEquals(1.011, s.tof(), DELTA);
     }
+
+    @Test
+    void testAccessors() {
+        Drag d = new Drag(0.5, 0.025, 0.1, 0.1, 0.1);
+        RangeSolver rangeSolver = new RangeSolver(d, 0);
+        VariableVelocityRangeCache r = new VariableVelocityRangeCache(rangeSolver, 50);
+        FiringSolution s = r.get(8.2, 0.7);
+        assertEquals(s.range(), r.range(8.2, 0.7), 1e-12);
+        assertEquals(s.tof(), r.tof(8.2, 0.7), 1e-12);
+        assertEquals(s.targetElevation(), r.targetElevation(8.2, 0.7), 1e-12);
+        // outside the grid is clamped
+        assertEquals(r.range(3, 0.7), r.range(1, 0.7), 1e-12);
+        assertEquals(r.range(8, 0), r.range(8, -1), 1e-12);
+    }
+
+    @Test
+    void testSaveAndLoad(@TempDir Path dir) throws IOException {
+        Drag d = new Drag(0.5, 0.025, 0.1, 0.1, 0.1);
+        RangeSolver rangeSolver = new RangeSolver(d, 0);
+        VariableVelocityRangeCache r = new VariableVelocityRangeCache(rangeSolver, 50);
+        Path file = dir.resolve("range.bin");
+        r.save(file);
+        VariableVelocityRangeCache loaded = VariableVelocityRangeCache.load(file);
+        for (double v = 2; v < 21; v += 0.3) {
+            for (double e = 0; e < 1.6; e += 0.07) {
+                assertEquals(r.range(v, e), loaded.range(v, e), 1e-12);
+                assertEquals(r.tof(v, e), loaded.tof(v, e), 1e-12);
+                assertEquals(r.targetElevation(v, e), loaded.targetElevation(v, e), 1e-12);
+            }
+        }
+        // loadOrCompute uses the file
+        VariableVelocityRangeCache again = VariableVelocityRangeCache.loadOrCompute(file, rangeSolver, 50);
+        assertEquals(2.825, again.get(8, Math.PI / 4).range(), 0.01);
+    }
+
+    @Test
+    void testRecomputeIfParametersChange(@TempDir Path dir) throws IOException {
+        Drag d = new Drag(0.5, 0.025, 0.1, 0.1, 0.1);
+        Path file = dir.resolve("range.bin");
+        VariableVelocityRangeCache.loadOrCompute(file, new RangeSolver(d, 0), 50);
+        // a different target height makes a different table, not the saved one.
+        RangeSolver higher = new RangeSolver(d, 0.5);
+        VariableVelocityRangeCache r = VariableVelocityRangeCache.loadOrCompute(file, higher, 50);
+        assertEquals(higher.getSolution(8, 50, 0.7).range(), r.range(8, 0.7), 1e-9);
+        // ... and it replaces the file.
+        VariableVelocityRangeCache loaded = VariableVelocityRangeCache.load(file);
+        assertEquals(r.range(8, 0.7), loaded.range(8, 0.7), 1e-12);
+    }
+
+    @Test
+    void testEmptyRow(@TempDir Path dir) throws IOException {
+        // a table where the slowest row has no solutions.
+        Path file = dir.resolve("range.bin");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(VariableVelocityRangeCache.FILE_MAGIC);
+            out.writeLong(0);
+            out.writeInt(VariableVelocityRangeCache.V_COUNT);
+            out.writeInt(VariableVelocityRangeCache.ELEVATION_COUNT);
+            for (int vi = 0; vi < VariableVelocityRangeCache.V_COUNT; ++vi) {
+                for (int ei = 0; ei < VariableVelocityRangeCache.ELEVATION_COUNT; ++ei) {
+                    double x = vi == 0 ? Double.NaN : 1;
+                    out.writeDouble(x);
+                    out.writeDouble(x);
+                    out.writeDouble(x);
+                }
+            }
+        }
+        VariableVelocityRangeCache r = VariableVelocityRangeCache.load(file);
+        assertNull(r.get(3, 0.7));
+        assertNotNull(r.get(8, 0.7));
+    }
 }
@@ -1,6 +1,7 @@
 package org.team100.lib.targeting;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Optional;
 import java.util.function.Function;
@@ -159,4 +160,46 @@ public class VariableVelocityShootingMethodTest {
 
     }
 
+    /**
+     * Strafing past the target, track() agrees with solve(), with fewer
+     * iterations.
+     */
+    @Test
+    void testTracking() {
+        Drag d = new Drag(0, 0, 0, 1, 0);
+        RangeSolver rangeSolver = new RangeSolver(d, 0);
+        IVVRange ivvr = (v, e) -> rangeSolver.getSolution(v, 0, e);
+        VariableVelocityShootingMethod tracker = new VariableVelocityShootingMethod(ivvr, 0.01);
+        VariableVelocityShootingMethod solver = new VariableVelocityShootingMethod(ivvr, 0.01);
+        GlobalVelocityR2 robotVelocity = new GlobalVelocityR2(0, 2);
+        Translation2d targetPosition = new Translation2d(2, 0);
+        GlobalVelocityR2 targetVelocity = GlobalVelocityR2.ZERO;
+        double targetElevation = 0.5;
+        double initialElevation = 0.1;
+        int trackIterations = 0;
+        int solveIterations = 0;
+        for (int i = 0; i < 50; ++i) {
+            Translation2d robotPosition = new Translation2d(0, -1 + 0.04 * i);
+            VariableVelocityShootingMethod.Solution tracked = tracker.track(
+                    robotPosition, robotVelocity, targetPosition, targetVelocity,
+                    targetElevation, initialElevation)
+                    .orElseThrow();
+            VariableVelocityShootingMethod.Solution solved = solver.solve(
+                    robotPosition, robotVelocity, targetPosition, targetVelocity,
+                    targetElevation, initialElevation)
+                    .orElseThrow();
+            assertEquals(solved.azimuth().getRadians(), tracked.azimuth().getRadians(), 0.02);
+            assertEquals(solved.velocity(), tracked.velocity(), 0.05);
+            assertEquals(solved.elevation().getRadians(), tracked.elevation().getRadians(), 0.02);
+            if (i > 0) {
+                trackIterations += tracker.lastIterations();
+                solveIterations += solver.lastIterations();
+            }
+        }
+        if (DEBUG)
+            System.out.printf("iterations track %d solve %d cold starts %d\n",
+                    trackIterations, solveIterations, tracker.coldStarts());
+        assertTrue(trackIterations < solveIterations);
+        assertEquals(0, tracker.failures());
+    }
 }
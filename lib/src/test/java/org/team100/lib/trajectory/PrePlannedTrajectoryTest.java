@@ -0,0 +1,78 @@
+package org.team100.lib.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.geometry.DirectionSE2;
+import org.team100.lib.geometry.WaypointSE2;
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.TestLoggerFactory;
+import org.team100.lib.logging.primitive.TestPrimitiveLogger;
+import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamicsFactory;
+import org.team100.lib.trajectory.constraint.TimingConstraint;
+import org.team100.lib.trajectory.constraint.TimingConstraintFactory;
+import org.team100.lib.trajectory.path.PathSE2Factory;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+public class PrePlannedTrajectoryTest {
+    private static final LoggerFactory logger = new TestLoggerFactory(new TestPrimitiveLogger());
+
+    private static PrePlannedTrajectory preplanned() {
+        SwerveKinodynamics limits = SwerveKinodynamicsFactory.forTest3(logger);
+        List<TimingConstraint> constraints = new TimingConstraintFactory(limits).fast(logger);
+        TrajectorySE2Planner planner = new TrajectorySE2Planner(
+                new PathSE2Factory(), new TrajectorySE2Factory(constraints));
+        return new PrePlannedTrajectory(start -> planner.restToRest(List.of(
+                new WaypointSE2(start, new DirectionSE2(1, 0, 0), 1),
+                new WaypointSE2(new Pose2d(2, 0, Rotation2d.kZero), new DirectionSE2(1, 0, 0), 1))));
+    }
+
+    /** Pre-planning once, nearby poses use the plan. */
+    @Test
+    void testReuse() {
+        PrePlannedTrajectory p = preplanned();
+        p.prePlan(Pose2d.kZero);
+        assertEquals(1, p.plans());
+        // small drift doesn't replan
+        p.prePlan(new Pose2d(0.01, 0, new Rotation2d(0.01)));
+        assertEquals(1, p.plans());
+        TrajectorySE2 t1 = p.apply(new Pose2d(0.02, 0, Rotation2d.kZero));
+        TrajectorySE2 t2 = p.apply(Pose2d.kZero);
+        assertSame(t1, t2);
+        assertEquals(1, p.plans());
+    }
+
+    /** Drift past the tolerance replans. */
+    @Test
+    void testDrift() {
+        PrePlannedTrajectory p = preplanned();
+        p.prePlan(Pose2d.kZero);
+        TrajectorySE2 t1 = p.apply(Pose2d.kZero);
+        p.prePlan(new Pose2d(0.1, 0, Rotation2d.kZero));
+        assertEquals(2, p.plans());
+        // rotation counts too
+        p.prePlan(new Pose2d(0.1, 0, new Rotation2d(0.1)));
+        assertEquals(3, p.plans());
+        // without pre-planning, apply() plans on the spot.
+        TrajectorySE2 t2 = p.apply(new Pose2d(0.5, 0, Rotation2d.kZero));
+        assertEquals(4, p.plans());
+        assertNotSame(t1, t2);
+        assertEquals(0.5, t2.getPoint(0).point().point().waypoint().pose().getX(), 1e-6);
+    }
+
+    @Test
+    void testClear() {
+        PrePlannedTrajectory p = preplanned();
+        p.prePlan(Pose2d.kZero);
+        p.clear();
+        p.apply(Pose2d.kZero);
+        assertEquals(2, p.plans());
+    }
+}
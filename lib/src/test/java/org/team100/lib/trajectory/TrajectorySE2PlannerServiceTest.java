@@ -0,0 +1,127 @@
+package org.team100.lib.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.geometry.DirectionSE2;
+import org.team100.lib.geometry.WaypointSE2;
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.TestLoggerFactory;
+import org.team100.lib.logging.primitive.TestPrimitiveLogger;
+import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamicsFactory;
+import org.team100.lib.testing.Timeless;
+import org.team100.lib.trajectory.constraint.TimingConstraint;
+import org.team100.lib.trajectory.constraint.TimingConstraintFactory;
+import org.team100.lib.trajectory.path.PathSE2Factory;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+public class TrajectorySE2PlannerServiceTest implements Timeless {
+    private static final double DELTA = 0.001;
+    private static final LoggerFactory logger = new TestLoggerFactory(new TestPrimitiveLogger());
+
+    private static TrajectorySE2PlannerService service(int size) {
+        SwerveKinodynamics limits = SwerveKinodynamicsFactory.forTest3(logger);
+        List<TimingConstraint> constraints = new TimingConstraintFactory(limits).fast(logger);
+        TrajectorySE2Planner planner = new TrajectorySE2Planner(
+                new PathSE2Factory(), new TrajectorySE2Factory(constraints));
+        return new TrajectorySE2PlannerService(planner, size, 0.01, 0.01);
+    }
+
+    private static List<WaypointSE2> waypoints(double x0) {
+        return List.of(
+                new WaypointSE2(new Pose2d(x0, 0, Rotation2d.kZero), new DirectionSE2(1, 0, 0), 1),
+                new WaypointSE2(new Pose2d(1, 0, Rotation2d.kZero), new DirectionSE2(1, 0, 0), 1));
+    }
+
+    /** Same answer as the planner. */
+    @Test
+    void testPlan() {
+        TrajectorySE2PlannerService service = service(4);
+        CompletableFuture<TrajectorySE2> f = service.restToRest(waypoints(0));
+        TrajectorySE2 t = f.join();
+        assertEquals(1.415, t.duration(), DELTA);
+    }
+
+    /** Nearby requests are served from the cache. */
+    @Test
+    void testCache() {
+        TrajectorySE2PlannerService service = service(4);
+        CompletableFuture<TrajectorySE2> f1 = service.restToRest(waypoints(0));
+        CompletableFuture<TrajectorySE2> f2 = service.restToRest(waypoints(0.001));
+        assertSame(f1, f2);
+        CompletableFuture<TrajectorySE2> f3 = service.restToRest(waypoints(0.1));
+        assertNotSame(f1, f3);
+        assertEquals(2, service.size());
+        // different velocity
+        CompletableFuture<TrajectorySE2> f4 = service.generateTrajectory(waypoints(0), 0, 0.5);
+        assertNotSame(f1, f4);
+        f4.join();
+    }
+
+    /** Velocities and scales aren't quantized, even by tiny amounts. */
+    @Test
+    void testExactVelocity() {
+        TrajectorySE2PlannerService service = service(4);
+        CompletableFuture<TrajectorySE2> f1 = service.generateTrajectory(waypoints(0), 0.1, 0);
+        CompletableFuture<TrajectorySE2> f2 = service.generateTrajectory(waypoints(0), 0.101, 0);
+        assertNotSame(f1, f2);
+        assertSame(f1, service.generateTrajectory(waypoints(0), 0.1, 0));
+        // negative zero is zero
+        assertSame(service.restToRest(waypoints(0)), service.generateTrajectory(waypoints(0), -0.0, 0));
+        List<WaypointSE2> scaled = List.of(
+                new WaypointSE2(new Pose2d(0, 0, Rotation2d.kZero), new DirectionSE2(1, 0, 0), 1.001),
+                new WaypointSE2(new Pose2d(1, 0, Rotation2d.kZero), new DirectionSE2(1, 0, 0), 1));
+        assertNotSame(service.restToRest(waypoints(0)), service.restToRest(scaled));
+        f1.join();
+        f2.join();
+    }
+
+    /** The least-recently-used entry is evicted. */
+    @Test
+    void testEvict() {
+        TrajectorySE2PlannerService service = service(2);
+        CompletableFuture<TrajectorySE2> f1 = service.restToRest(waypoints(0));
+        service.restToRest(waypoints(0.1));
+        // touch the first one
+        assertSame(f1, service.restToRest(waypoints(0)));
+        // evicts 0.1
+        service.restToRest(waypoints(0.2));
+        assertEquals(2, service.size());
+        assertSame(f1, service.restToRest(waypoints(0)));
+        service.restToRest(waypoints(0.2)).join();
+    }
+
+    /** Failures aren't cached, so the next request tries again. */
+    @Test
+    void testFailure() {
+        int[] calls = { 0 };
+        TrajectorySE2Planner planner = new TrajectorySE2Planner(null, null) {
+            @Override
+            public TrajectorySE2 generateTrajectory(
+                    List<WaypointSE2> waypoints, double start_vel, double end_vel) {
+                calls[0]++;
+                throw new IllegalStateException("test");
+            }
+        };
+        TrajectorySE2PlannerService service = new TrajectorySE2PlannerService(planner, 4, 0.01, 0.01);
+        CompletableFuture<TrajectorySE2> f1 = service.restToRest(waypoints(0));
+        assertThrows(CompletionException.class, f1::join);
+        assertTrue(f1.isCompletedExceptionally());
+        assertEquals(0, service.size());
+        CompletableFuture<TrajectorySE2> f2 = service.restToRest(waypoints(0));
+        assertNotSame(f1, f2);
+        assertThrows(CompletionException.class, f2::join);
+        assertEquals(2, calls[0]);
+    }
+}
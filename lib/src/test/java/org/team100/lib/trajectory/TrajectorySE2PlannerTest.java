@@ -1,6 +1,7 @@
 package org.team100.lib.trajectory;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
@@ -140,6 +141,54 @@ class TrajectorySE2PlannerTest implements Timeless {
         assertEquals(0, p.point().point().waypoint().course().headingRate(), DELTA);
     }
 
+    /**
+     * Plan time for the examples and for a long weaving auto, with realistic
+     * constraints. Not a real benchmark; use DEBUG to see the numbers.
+     */
+    @Test
+    void testExamplesPerformance() {
+        SwerveKinodynamics swerveKinodynamics = SwerveKinodynamicsFactory.forRealisticTest(log);
+        List<TimingConstraint> constraints = new TimingConstraintFactory(swerveKinodynamics).allGood(log);
+        TrajectorySE2Planner planner = new TrajectorySE2Planner(
+                new PathSE2Factory(), new TrajectorySE2Factory(constraints));
+        TrajectoryExamples ex = new TrajectoryExamples(planner);
+        List<WaypointSE2> auto = new ArrayList<>();
+        for (int i = 0; i < 8; ++i) {
+            auto.add(new WaypointSE2(
+                    new Pose2d(new Translation2d(2 * i, i % 2), new Rotation2d(0.3 * i)),
+                    new DirectionSE2(1, i % 2 == 0 ? 0.5 : -0.5, 0.2), 1.2));
+        }
+        final int iterations = 20;
+        for (int round = 0; round < 3; ++round) {
+            long startTimeNs = System.nanoTime();
+            List<TrajectorySE2> square = null;
+            for (int i = 0; i < iterations; ++i) {
+                square = ex.square(Pose2d.kZero);
+            }
+            double squareMs = (System.nanoTime() - startTimeNs) / 1e6 / iterations;
+            startTimeNs = System.nanoTime();
+            TrajectorySE2 t = null;
+            for (int i = 0; i < iterations; ++i) {
+                t = planner.restToRest(auto);
+            }
+            double autoMs = (System.nanoTime() - startTimeNs) / 1e6 / iterations;
+            if (DEBUG)
+                System.out.printf("square %6.3f ms  auto (%d points) %6.3f ms\n",
+                        squareMs, t.length(), autoMs);
+            // the plans work
+            for (TrajectorySE2 side : square) {
+                assertFalse(side.isEmpty());
+                assertTrue(side.duration() > 0);
+            }
+            assertFalse(t.isEmpty());
+            assertTrue(t.duration() > 0);
+            Pose2d end = t.getLastPoint().point().point().waypoint().pose();
+            assertEquals(14, end.getX(), DELTA);
+            assertEquals(1, end.getY(), DELTA);
+            assertEquals(0, t.getLastPoint().point().velocity(), DELTA);
+        }
+    }
+
     @Test
     void testRestToRest() {
         SwerveKinodynamics swerveKinodynamics = SwerveKinodynamicsFactory.forRealisticTest(log);
@@ -2,6 +2,7 @@ package org.team100.lib.trajectory;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.jfree.data.xy.VectorSeries;
@@ -237,4 +238,75 @@ class TrajectorySE2Test implements Timeless {
 
     }
 
+
+    /** The cursor gives the same answer as the search, in either direction. */
+    @Test
+    void testCursor() {
+        TrajectorySE2 trajectory = zigzag(10);
+        TrajectorySE2.Cursor cursor = trajectory.cursor();
+        for (double t = -0.1; t < trajectory.duration() + 0.1; t += 0.013) {
+            same(trajectory.sample(t), cursor.sample(t));
+        }
+        for (double t = trajectory.duration() + 0.1; t > -0.1; t -= 0.031) {
+            same(trajectory.sample(t), cursor.sample(t));
+        }
+    }
+
+    private static void same(TrajectorySE2Entry a, TrajectorySE2Entry b) {
+        assertEquals(a.point().time(), b.point().time(), 1e-12);
+        assertEquals(a.point().velocity(), b.point().velocity(), 1e-12);
+        Pose2d pa = a.point().point().waypoint().pose();
+        Pose2d pb = b.point().point().waypoint().pose();
+        assertEquals(pa.getX(), pb.getX(), 1e-12);
+        assertEquals(pa.getY(), pb.getY(), 1e-12);
+    }
+
+    /**
+     * Compare the cursor to the search, across trajectory lengths. The cost of
+     * sampling is mostly the interpolation, so the difference is small.
+     */
+    @Test
+    void testCursorPerformance() {
+        for (int n : new int[] { 2, 10, 40 }) {
+            TrajectorySE2 trajectory = zigzag(n);
+            int samples = (int) (trajectory.duration() / 0.02);
+            int reps = 100;
+            long start = System.nanoTime();
+            for (int rep = 0; rep < reps; ++rep) {
+                for (int i = 0; i < samples; ++i) {
+                    trajectory.sample(0.02 * i);
+                }
+            }
+            long searchDuration = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int rep = 0; rep < reps; ++rep) {
+                TrajectorySE2.Cursor cursor = trajectory.cursor();
+                for (int i = 0; i < samples; ++i) {
+                    cursor.sample(0.02 * i);
+                }
+            }
+            long cursorDuration = System.nanoTime() - start;
+            if (DEBUG)
+                System.out.printf("waypoints %d points %d per sample (ns) search %.1f cursor %.1f\n",
+                        n, trajectory.length(),
+                        (double) searchDuration / (reps * samples),
+                        (double) cursorDuration / (reps * samples));
+        }
+    }
+
+    /** A trajectory through n waypoints, alternating left and right. */
+    private static TrajectorySE2 zigzag(int n) {
+        List<WaypointSE2> waypoints = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            waypoints.add(new WaypointSE2(
+                    new Pose2d(new Translation2d(i, i % 2), Rotation2d.kZero),
+                    new DirectionSE2(1, 0, 0), 1));
+        }
+        SwerveKinodynamics limits = SwerveKinodynamicsFactory.forTest3(logger);
+        List<TimingConstraint> constraints = new TimingConstraintFactory(limits).fast(logger);
+        TrajectorySE2Factory trajectoryFactory = new TrajectorySE2Factory(constraints);
+        PathSE2Factory pathFactory = new PathSE2Factory();
+        TrajectorySE2Planner planner = new TrajectorySE2Planner(pathFactory, trajectoryFactory);
+        return planner.restToRest(waypoints);
+    }
 }
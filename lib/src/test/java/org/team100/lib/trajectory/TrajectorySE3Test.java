@@ -50,4 +50,33 @@ public class TrajectorySE3Test implements Timeless {
         assertEquals(1, sample.point().point().waypoint().pose().getTranslation().getX(), DELTA);
     }
 
+    /** The cursor gives the same answer as the search, in either direction. */
+    @Test
+    void testCursor() {
+        List<WaypointSE3> waypoints = List.of(
+                new WaypointSE3(Pose3d.kZero, new DirectionSE3(1, 0, 0, 0, 0, 0), 1),
+                new WaypointSE3(new Pose3d(1, 1, 0, Rotation3d.kZero), new DirectionSE3(1, 0, 0, 0, 0, 0), 1),
+                new WaypointSE3(new Pose3d(2, 0, 1, Rotation3d.kZero), new DirectionSE3(1, 0, 0, 0, 0, 0), 1));
+        List<TimingConstraintSE3> constraints = List.of(new ConstantConstraintSE3());
+        TrajectorySE3Planner planner = new TrajectorySE3Planner(
+                new PathSE3Factory(), new TrajectorySE3Factory(constraints));
+        TrajectorySE3 trajectory = planner.restToRest(waypoints);
+        TrajectorySE3.Cursor cursor = trajectory.cursor();
+        for (double t = -0.1; t < trajectory.duration() + 0.1; t += 0.013) {
+            same(trajectory.sample(t), cursor.sample(t));
+        }
+        for (double t = trajectory.duration() + 0.1; t > -0.1; t -= 0.031) {
+            same(trajectory.sample(t), cursor.sample(t));
+        }
+    }
+
+    private static void same(TrajectorySE3Entry a, TrajectorySE3Entry b) {
+        assertEquals(a.point().time(), b.point().time(), 1e-12);
+        Pose3d pa = a.point().point().waypoint().pose();
+        Pose3d pb = b.point().point().waypoint().pose();
+        assertEquals(pa.getX(), pb.getX(), 1e-12);
+        assertEquals(pa.getY(), pb.getY(), 1e-12);
+        assertEquals(pa.getZ(), pb.getZ(), 1e-12);
+    }
+
 }
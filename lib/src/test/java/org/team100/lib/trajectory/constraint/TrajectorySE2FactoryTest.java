@@ -14,12 +14,15 @@ import org.team100.lib.geometry.WaypointSE2;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.TestLoggerFactory;
 import org.team100.lib.logging.primitive.TestPrimitiveLogger;
+import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.subsystems.swerve.kinodynamics.SwerveKinodynamicsFactory;
 import org.team100.lib.trajectory.TrajectorySE2;
 import org.team100.lib.trajectory.TrajectorySE2Entry;
 import org.team100.lib.trajectory.TrajectorySE2Factory;
 import org.team100.lib.trajectory.TrajectorySE2ToVectorSeries;
 import org.team100.lib.trajectory.path.PathSE2;
 import org.team100.lib.trajectory.path.PathSE2Factory;
+import org.team100.lib.trajectory.path.PathSE2Point;
 import org.team100.lib.trajectory.path.PathSE2ToVectorSeries;
 import org.team100.lib.trajectory.spline.SplineSE2Factory;
 import org.team100.lib.trajectory.spline.SplineSE2;
@@ -229,6 +232,40 @@ public class TrajectorySE2FactoryTest {
         assertEquals(0, p.point().point().waypoint().course().headingRate(), DELTA);
     }
 
+    /**
+     * The whole-path velocity limits match the pointwise ones, and constraints
+     * that say they ignore velocity really do.
+     */
+    @Test
+    void testWholePathLimits() {
+        SwerveKinodynamics limits = SwerveKinodynamicsFactory.forRealisticTest(logger);
+        List<TimingConstraint> constraints = List.of(
+                new ConstantConstraint(logger, 2, 3),
+                new CapsizeAccelerationConstraint(logger, limits, 0.5),
+                new DiamondConstraint(logger, 3, 2, 4),
+                new SwerveDriveDynamicsConstraint(logger, limits, 1, 1),
+                new TorqueConstraint(20),
+                new YawRateConstraint(logger, limits, 0.2));
+        PathSE2 path = getPath();
+        for (TimingConstraint constraint : constraints) {
+            String name = constraint.getClass().getSimpleName();
+            double[] maxV = new double[path.length()];
+            Arrays.fill(maxV, 100);
+            constraint.maxV(path, maxV);
+            for (int i = 0; i < path.length(); ++i) {
+                PathSE2Point point = path.getEntry(i).point();
+                assertEquals(Math.min(100, constraint.maxV(point)), maxV[i], 0, name);
+                if (!constraint.accelDependsOnVelocity())
+                    assertEquals(constraint.maxAccel(point, 0), constraint.maxAccel(point, 2), 0, name);
+                if (!constraint.decelDependsOnVelocity())
+                    assertEquals(constraint.maxDecel(point, 0), constraint.maxDecel(point, 2), 0, name);
+            }
+        }
+        // the factory respects all of them
+        TrajectorySE2 trajectory = new TrajectorySE2Factory(constraints).fromPath(path, 0, 0);
+        verifyVelocityConstraints(trajectory, constraints);
+    }
+
     /**
      * Produce the path for testing.
      */
@@ -12,6 +12,7 @@ import org.jfree.data.xy.XYSeriesCollection;
 import org.junit.jupiter.api.Test;
 import org.team100.lib.geometry.DirectionSE2;
 import org.team100.lib.geometry.GeometryUtil;
+import org.team100.lib.geometry.Metrics;
 import org.team100.lib.geometry.WaypointSE2;
 import org.team100.lib.testing.Timeless;
 import org.team100.lib.trajectory.spline.SplineSE2Factory;
@@ -20,6 +21,7 @@ import org.team100.lib.util.ChartUtil;
 
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.geometry.Twist2d;
 
@@ -249,4 +251,69 @@ public class PathFactorySE2Test implements Timeless {
         assertEquals(0, p.waypoint().course().headingRate(), DELTA);
     }
 
+    /** The single-pass sampler produces exactly the points of the old recursion. */
+    @Test
+    void testMatchesRecursive() {
+        List<WaypointSE2> waypoints = new ArrayList<>();
+        for (int i = 0; i < 8; ++i) {
+            // a long weaving path with rotation
+            waypoints.add(new WaypointSE2(
+                    new Pose2d(new Translation2d(2 * i, i % 2), new Rotation2d(0.3 * i)),
+                    new DirectionSE2(1, i % 2 == 0 ? 0.5 : -0.5, 0.2), 1.2));
+        }
+        List<SplineSE2> splines = SplineSE2Factory.splinesFromWaypoints(waypoints);
+        PathSE2Factory pathFactory = new PathSE2Factory(0.1, 0.02, 0.1);
+        PathSE2 path = pathFactory.get(splines);
+
+        List<PathSE2Entry> expected = new ArrayList<>();
+        expected.add(splines.get(0).entry(0.0));
+        for (SplineSE2 spline : splines) {
+            recursive(0.1, 0.02, 0.1, spline, expected, 0, 1);
+        }
+        assertEquals(expected.size(), path.length());
+        double distance = 0;
+        for (int i = 0; i < expected.size(); ++i) {
+            PathSE2Entry e = expected.get(i);
+            PathSE2Entry a = path.getEntry(i);
+            assertEquals(e.parameter().s(), a.parameter().s(), 0);
+            assertEquals(e.point(), a.point());
+            assertEquals(e.point().k(), path.k(i), 0);
+            if (i > 0)
+                distance += e.point().distanceCartesian(expected.get(i - 1).point());
+            assertEquals(distance, path.distance(i), 0);
+        }
+    }
+
+    /** The old recursive bisection, for comparison. */
+    private static void recursive(
+            double maxNorm,
+            double maxDx,
+            double maxDTheta,
+            SplineSE2 spline,
+            List<PathSE2Entry> rv,
+            double s0,
+            double s1) {
+        double shalf = (s0 + s1) / 2;
+        Pose2d p0 = spline.pose(s0);
+        Pose2d phalf = spline.pose(shalf);
+        Pose2d p1 = spline.pose(s1);
+        Twist2d twist_full = p0.log(p1);
+        Twist2d twist_half = GeometryUtil.scale(twist_full, 0.5);
+        Pose2d phalf_predicted = p0.exp(twist_half);
+        Transform2d error = phalf_predicted.minus(phalf);
+        DirectionSE2 course0 = spline.waypoint(s0).course();
+        DirectionSE2 course1 = spline.waypoint(s1).course();
+        Twist2d courseChange = course0.minus(course1);
+        if (Math.abs(error.getTranslation().getNorm()) > maxDx
+                || Math.abs(error.getRotation().getRadians()) > maxDTheta
+                || Metrics.translationalNorm(twist_full) > maxNorm
+                || Metrics.l2Norm(twist_full) > maxNorm
+                || Metrics.l2Norm(courseChange) > maxNorm) {
+            recursive(maxNorm, maxDx, maxDTheta, spline, rv, s0, shalf);
+            recursive(maxNorm, maxDx, maxDTheta, spline, rv, shalf, s1);
+        } else {
+            rv.add(spline.entry(s1));
+        }
+    }
+
 }
@@ -0,0 +1,63 @@
+package org.team100.lib.tuning;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.coherence.Cache;
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.TestLoggerFactory;
+import org.team100.lib.logging.primitive.TestPrimitiveLogger;
+import org.team100.lib.testing.Timeless;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+public class MutableTest implements Timeless {
+    private static final double DELTA = 0.001;
+    private static final LoggerFactory log = new TestLoggerFactory(new TestPrimitiveLogger());
+
+    @Test
+    void testChange() {
+        List<Double> changes = new ArrayList<>();
+        Mutable m = new Mutable(log, "foo", 1.0, changes::add);
+        Mutable other = new Mutable(log, "bar", 2.0);
+        assertEquals(1.0, m.getAsDouble(), DELTA);
+        // nothing changed
+        stepTime();
+        assertEquals(1.0, m.getAsDouble(), DELTA);
+        assertEquals(0, changes.size());
+
+        try (DoublePublisher pub = NetworkTableInstance.getDefault()
+                .getDoubleTopic(log.root("foo")).publish()) {
+            pub.set(3.0);
+            pub.set(4.0);
+            // not visible until the next cycle
+            assertEquals(1.0, m.getAsDouble(), DELTA);
+            stepTime();
+            assertEquals(4.0, m.getAsDouble(), DELTA);
+            // only the latest value, only once
+            assertEquals(1, changes.size());
+            assertEquals(4.0, changes.get(0), DELTA);
+            assertEquals(2.0, other.getAsDouble(), DELTA);
+            stepTime();
+            assertEquals(1, changes.size());
+        }
+    }
+
+    @Test
+    void testPolledAfterCacheClear() {
+        new Mutable(log, "before", 1.0);
+        // forgets the poll side effect, but not the Mutables
+        Cache.clear();
+        Mutable m = new Mutable(log, "after", 1.0);
+        try (DoublePublisher pub = NetworkTableInstance.getDefault()
+                .getDoubleTopic(log.root("after")).publish()) {
+            pub.set(2.0);
+            stepTime();
+            assertEquals(2.0, m.getAsDouble(), DELTA);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package org.team100.lib.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.geometry.CentroidR2;
+import org.team100.lib.geometry.NearR2;
+import org.team100.lib.targeting.ObjectPicker;
+import org.team100.lib.targeting.SimulatedObjectDetector;
+import org.team100.lib.targeting.TargetLocalizer;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Translation3d;
+
+public class CoalescingGridR2Test {
+    private static final boolean DEBUG = false;
+    private static final double DELTA = 1e-9;
+    private static final double THRESHOLD = 0.15;
+
+    @Test
+    void testCoalesce() {
+        CoalescingGridR2 c = new CoalescingGridR2(5, THRESHOLD, new CentroidR2());
+        c.add(0.0, new Translation2d(1, 1));
+        c.add(1.0, new Translation2d(2, 2));
+        assertEquals(2, c.size());
+        // near the first one, and across a cell boundary
+        c.add(2.0, new Translation2d(1.1, 1));
+        assertEquals(2, c.size());
+        List<Translation2d> all = c.getAll();
+        assertEquals(2, all.get(0).getX(), DELTA);
+        assertEquals(1.05, all.get(1).getX(), DELTA);
+        // combines with the near one, and also expires the other one
+        c.add(6.5, new Translation2d(1.05, 1.1));
+        assertEquals(1, c.size());
+        assertEquals(1.05, c.getAll().get(0).getX(), DELTA);
+        assertEquals(1.05, c.getAll().get(0).getY(), DELTA);
+        c.cleanup(20.0);
+        assertEquals(0, c.size());
+        assertTrue(c.closest(new Translation2d()).isEmpty());
+    }
+
+    /** Same answers as the brute-force collection. */
+    @Test
+    void testMatchesCollection() {
+        Random random = new Random(0);
+        CoalescingGridR2 grid = new CoalescingGridR2(10, THRESHOLD, new CentroidR2());
+        CoalescingCollection<Translation2d> collection = new CoalescingCollection<>(
+                new TrailingHistory<>(10), new NearR2(THRESHOLD), new CentroidR2());
+        for (int i = 0; i < 2000; ++i) {
+            Translation2d t = new Translation2d(
+                    random.nextDouble() * 3 - 1, random.nextDouble() * 3 - 1);
+            grid.add(0, t);
+            collection.add(0, t);
+        }
+        List<Translation2d> expected = collection.getAll();
+        List<Translation2d> actual = grid.getAll();
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.size(), grid.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            assertEquals(expected.get(i).getX(), actual.get(i).getX(), DELTA);
+            assertEquals(expected.get(i).getY(), actual.get(i).getY(), DELTA);
+        }
+    }
+
+    /** Same answers as sorting everything. */
+    @Test
+    void testNearest() {
+        Random random = new Random(0);
+        CoalescingGridR2 grid = new CoalescingGridR2(10, THRESHOLD, new CentroidR2());
+        for (int i = 0; i < 500; ++i) {
+            grid.add(0, new Translation2d(random.nextDouble() * 16, random.nextDouble() * 8));
+        }
+        List<Translation2d> all = grid.getAll();
+        for (int i = 0; i < 100; ++i) {
+            // some queries are off the field
+            Translation2d q = new Translation2d(
+                    random.nextDouble() * 20 - 2, random.nextDouble() * 12 - 2);
+            List<Translation2d> sorted = new ArrayList<>(all);
+            sorted.sort(Comparator.comparingDouble(t -> t.getDistance(q)));
+            List<Translation2d> nearest = grid.nearest(q, 5);
+            assertEquals(5, nearest.size());
+            for (int j = 0; j < 5; ++j) {
+                assertEquals(sorted.get(j).getDistance(q), nearest.get(j).getDistance(q), DELTA);
+            }
+            assertEquals(
+                    ObjectPicker.closestObject(all, new Pose2d(q, new Rotation2d())).get(),
+                    ObjectPicker.closestObject(grid, new Pose2d(q, new Rotation2d())).get());
+        }
+        assertEquals(all.size(), grid.nearest(new Translation2d(), 10000).size());
+    }
+
+    /** Sightings may arrive out of time order, e.g. from slower cameras. */
+    @Test
+    void testOutOfOrder() {
+        CoalescingGridR2 c = new CoalescingGridR2(1, THRESHOLD, new CentroidR2());
+        c.add(1.0, new Translation2d(1, 1));
+        // a late sighting from an earlier time
+        c.add(0.5, new Translation2d(2, 2));
+        c.cleanup(1.6);
+        // the earlier one expires, even though it was added later
+        assertEquals(1, c.size());
+        assertEquals(1, c.getAll().get(0).getX(), DELTA);
+        c.cleanup(2.1);
+        assertEquals(0, c.size());
+    }
+
+    /** An outlier that expires doesn't affect later searches. */
+    @Test
+    void testOutlier() {
+        CoalescingGridR2 c = new CoalescingGridR2(1, THRESHOLD, new CentroidR2());
+        c.add(0.0, new Translation2d(1000, 1000));
+        c.add(1.0, new Translation2d(1, 1));
+        c.add(1.5, new Translation2d(2, 2));
+        // only the outlier expires
+        c.cleanup(1.6);
+        assertEquals(2, c.size());
+        List<Translation2d> nearest = c.nearest(new Translation2d(), 3);
+        assertEquals(2, nearest.size());
+        assertEquals(1, nearest.get(0).getX(), DELTA);
+        assertEquals(2, nearest.get(1).getX(), DELTA);
+    }
+
+    /**
+     * 500 balls on the field, seen by a camera on a robot driving around, at 50
+     * hz, compared with the brute-force collection. Not a real benchmark; use
+     * DEBUG to see the numbers.
+     */
+    @Test
+    void testPerformance() {
+        Random random = new Random(0);
+        Translation2d[] balls = new Translation2d[500];
+        for (int i = 0; i < balls.length; ++i) {
+            balls[i] = new Translation2d(random.nextDouble() * 16, random.nextDouble() * 8);
+        }
+        Transform3d cameraOffset = new Transform3d(
+                new Translation3d(0, 0, 1),
+                new Rotation3d(0, Math.toRadians(30), 0));
+        // precompute the sightings so we only time the collections.
+        List<List<Translation2d>> frames = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) {
+            Pose2d robot = new Pose2d(8 + 6 * Math.cos(i * 0.05), 4 + 3 * Math.sin(i * 0.05),
+                    new Rotation2d(i * 0.05 + Math.PI / 2));
+            List<Rotation3d> sights = SimulatedObjectDetector.getRotations(robot, cameraOffset, balls);
+            frames.add(TargetLocalizer.cameraRotsToFieldRelativeArray(
+                    robot, cameraOffset, sights.toArray(new Rotation3d[0])));
+        }
+        Translation2d[] bruteClosest = new Translation2d[frames.size()];
+        Translation2d[] gridClosest = new Translation2d[frames.size()];
+        for (int round = 0; round < 3; ++round) {
+            CoalescingCollection<Translation2d> collection = new CoalescingCollection<>(
+                    new TrailingHistory<>(1.0), new NearR2(THRESHOLD), new CentroidR2());
+            long start = System.nanoTime();
+            for (int i = 0; i < frames.size(); ++i) {
+                collection.addAll(i * 0.02, frames.get(i));
+                bruteClosest[i] = ObjectPicker.closestObject(collection.getAll(), new Pose2d()).orElse(null);
+            }
+            long brute = System.nanoTime() - start;
+
+            CoalescingGridR2 grid = new CoalescingGridR2(1.0, THRESHOLD, new CentroidR2());
+            start = System.nanoTime();
+            for (int i = 0; i < frames.size(); ++i) {
+                grid.addAll(i * 0.02, frames.get(i));
+                gridClosest[i] = ObjectPicker.closestObject(grid, new Pose2d()).orElse(null);
+            }
+            long indexed = System.nanoTime() - start;
+            if (DEBUG)
+                System.out.printf("size %d brute %6.1f us/frame  grid %6.1f us/frame\n",
+                        grid.size(),
+                        brute / 1e3 / frames.size(),
+                        indexed / 1e3 / frames.size());
+
+            // same answers
+            List<Translation2d> expected = collection.getAll();
+            List<Translation2d> actual = grid.getAll();
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); ++i) {
+                assertEquals(expected.get(i).getX(), actual.get(i).getX(), DELTA);
+                assertEquals(expected.get(i).getY(), actual.get(i).getY(), DELTA);
+            }
+            for (int i = 0; i < frames.size(); ++i) {
+                if (bruteClosest[i] == null) {
+                    assertNull(gridClosest[i]);
+                    continue;
+                }
+                assertEquals(bruteClosest[i].getNorm(), gridClosest[i].getNorm(), DELTA);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.team100.lib.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.util.TimeInterpolatableBuffer100Test.Item;
+import org.team100.lib.util.TimeInterpolatableBuffer100Test.ItemInterpolator;
+
+class TimeInterpolatableRingBuffer100Test {
+    private static final boolean DEBUG = false;
+    private static final double DELTA = 0.001;
+
+    /** It interpolates proportionally. */
+    @Test
+    void testSimple2() {
+        TimeInterpolatableRingBuffer100<Item> b = new TimeInterpolatableRingBuffer100<>(
+                new ItemInterpolator(), 10, 16, 0, new Item(0));
+        assertEquals(0, b.get(0).value, DELTA);
+        b.put(1, new Item(10));
+        assertEquals(5, b.get(0.5).value, DELTA);
+        assertEquals(7.5, b.get(0.75).value, DELTA);
+    }
+
+    /** For off-the-end requests, it returns the last item. */
+    @Test
+    void testOffTheEnd2() {
+        TimeInterpolatableRingBuffer100<Item> b = new TimeInterpolatableRingBuffer100<>(
+                new ItemInterpolator(), 10, 16, 0, new Item(0));
+        assertEquals(0, b.get(1).value, DELTA);
+        b.put(1, new Item(10));
+        assertEquals(10, b.get(1.5).value, DELTA);
+        assertEquals(0, b.get(-1).value, DELTA);
+    }
+
+    /** Out-of-order puts are inserted in time order, same times replace. */
+    @Test
+    void testInsert() {
+        TimeInterpolatableRingBuffer100<Item> b = new TimeInterpolatableRingBuffer100<>(
+                new ItemInterpolator(), 10, 16, 0, new Item(0));
+        b.put(2, new Item(20));
+        b.put(1, new Item(5));
+        assertEquals(3, b.size());
+        assertEquals(2.5, b.get(0.5).value, DELTA);
+        assertEquals(12.5, b.get(1.5).value, DELTA);
+        b.put(1, new Item(10));
+        assertEquals(3, b.size());
+        assertEquals(5, b.get(0.5).value, DELTA);
+        assertEquals(0, b.lowerIndex(1));
+        assertEquals(2, b.higherIndex(1));
+        assertEquals(1, b.ceilingIndex(1));
+        assertEquals(-1, b.higherIndex(2));
+        assertEquals(-1, b.lowerIndex(0));
+        assertEquals(1.0, b.time(1), DELTA);
+        assertEquals(10, b.value(1).value, DELTA);
+        assertEquals(2, b.lastKey(), DELTA);
+    }
+
+    /** Old entries are evicted by time, and by capacity. */
+    @Test
+    void testEvict() {
+        TimeInterpolatableRingBuffer100<Item> b = new TimeInterpolatableRingBuffer100<>(
+                new ItemInterpolator(), 1, 4, 0, new Item(0));
+        b.put(0.5, new Item(5));
+        b.put(1.0, new Item(10));
+        // evicts 0
+        assertEquals(2, b.size());
+        assertTrue(b.tooOld(-0.1));
+        assertFalse(b.tooOld(0.1));
+        b.put(1.1, new Item(11));
+        b.put(1.2, new Item(12));
+        b.put(1.3, new Item(13));
+        // capacity is 4, so 0.5 is gone
+        assertEquals(4, b.size());
+        assertEquals(1.0, b.time(0), DELTA);
+        // wraps around
+        for (int i = 0; i < 20; ++i) {
+            b.put(1.4 + 0.1 * i, new Item(14 + i));
+        }
+        assertEquals(4, b.size());
+        assertEquals(32.5, b.get(3.25).value, DELTA);
+        b.reset(5, new Item(50));
+        assertEquals(1, b.size());
+        assertEquals(50, b.get(0).value, DELTA);
+    }
+
+    /** If it's full, an entry older than all the others is dropped. */
+    @Test
+    void testFullAndOlder() {
+        TimeInterpolatableRingBuffer100<Item> b = new TimeInterpolatableRingBuffer100<>(
+                new ItemInterpolator(), 10, 4, 1, new Item(10));
+        b.put(2, new Item(20));
+        b.put(3, new Item(30));
+        b.put(4, new Item(40));
+        assertEquals(4, b.size());
+        b.put(0.5, new Item(5));
+        // nothing changed
+        assertEquals(4, b.size());
+        assertEquals(1.0, b.time(0), DELTA);
+        assertEquals(10, b.value(0).value, DELTA);
+        // an entry in the middle evicts the oldest
+        b.put(2.5, new Item(25));
+        assertEquals(4, b.size());
+        assertEquals(2.0, b.time(0), DELTA);
+        assertEquals(2.5, b.time(1), DELTA);
+        assertEquals(4, b.lastKey(), DELTA);
+    }
+
+    /** Compare to the skip-list buffer, in the odometry use case. */
+    @Test
+    void testPerformance() {
+        int n = 1000000;
+        TimeInterpolatableBuffer100<Item> map = new TimeInterpolatableBuffer100<>(
+                new ItemInterpolator(), 0.2, 0, new Item(0));
+        TimeInterpolatableRingBuffer100<Item> ring = new TimeInterpolatableRingBuffer100<>(
+                new ItemInterpolator(), 0.2, 256, 0, new Item(0));
+        Item item = new Item(1);
+
+        long start = System.nanoTime();
+        for (int i = 1; i < n; ++i) {
+            double t = 0.02 * i;
+            map.put(t, item);
+            map.get(t - 0.075);
+        }
+        long mapDuration = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 1; i < n; ++i) {
+            double t = 0.02 * i;
+            ring.put(t, item);
+            ring.get(t - 0.075);
+        }
+        long ringDuration = System.nanoTime() - start;
+
+        assertEquals(map.size(), ring.size());
+        if (DEBUG)
+            System.out.printf("put+get (ns) skip list %.1f ring %.1f\n",
+                    (double) mapDuration / n, (double) ringDuration / n);
+    }
+}
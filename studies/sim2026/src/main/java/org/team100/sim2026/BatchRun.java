@@ -0,0 +1,90 @@
+package org.team100.sim2026;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.team100.sim2026.scenarios.Scenario;
+
+/**
+ * Runs many matches of one scenario, in parallel on all the cores, and
+ * collects the score distributions.
+ *
+ * Each match gets its own seed, drawn in order from the batch seed, so the
+ * results are the same for the same seed no matter how the runs are scheduled.
+ * The matches don't print anything.
+ */
+public class BatchRun {
+    public record Result(
+            String scenario,
+            String redName,
+            String blueName,
+            Histogram red,
+            Histogram blue,
+            int redWins,
+            int blueWins,
+            int ties) {
+
+        public static String csvHeader() {
+            return "scenario, runs, red, blue, "
+                    + "red mean, red stddev, red p5, red p50, red p95, "
+                    + "blue mean, blue stddev, blue p5, blue p50, blue p95, "
+                    + "red wins, blue wins, ties";
+        }
+
+        public String csv() {
+            return String.format(
+                    "%s, %d, %s, %s, %.1f, %.1f, %d, %d, %d, %.1f, %.1f, %d, %d, %d, %d, %d, %d",
+                    scenario, red.count(), redName, blueName,
+                    red.mean(), red.stddev(), red.percentile(0.05), red.percentile(0.5), red.percentile(0.95),
+                    blue.mean(), blue.stddev(), blue.percentile(0.05), blue.percentile(0.5), blue.percentile(0.95),
+                    redWins, blueWins, ties);
+        }
+    }
+
+    /**
+     * @param name     for the summary
+     * @param scenario must be safe to use from several threads at once, i.e.
+     *                 a stateless factory, like all the ones we have.
+     * @param runs     number of matches
+     * @param seed     batch seed
+     */
+    public static Result run(String name, Scenario scenario, int runs, long seed) {
+        Random random = new Random(seed);
+        long[] seeds = new long[runs];
+        for (int i = 0; i < runs; ++i) {
+            seeds[i] = random.nextLong();
+        }
+        int[] red = new int[runs];
+        int[] blue = new int[runs];
+        IntStream.range(0, runs).parallel().forEach(i -> {
+            SimRun sim = new SimRun(scenario, seeds[i]);
+            sim.run();
+            red[i] = sim.redScore().total();
+            blue[i] = sim.blueScore().total();
+        });
+        // Just for the names.
+        SimRun names = new SimRun(scenario, seed);
+        Histogram redHistogram = new Histogram();
+        Histogram blueHistogram = new Histogram();
+        int redWins = 0;
+        int blueWins = 0;
+        int ties = 0;
+        for (int i = 0; i < runs; ++i) {
+            redHistogram.add(red[i]);
+            blueHistogram.add(blue[i]);
+            if (red[i] > blue[i]) {
+                redWins++;
+            } else if (red[i] < blue[i]) {
+                blueWins++;
+            } else {
+                ties++;
+            }
+        }
+        return new Result(name, names.redName(), names.blueName(),
+                redHistogram, blueHistogram, redWins, blueWins, ties);
+    }
+
+    private BatchRun() {
+        //
+    }
+}
@@ -0,0 +1,66 @@
+package org.team100.sim2026;
+
+import java.util.Arrays;
+
+/**
+ * Counts of integer scores, one bin per point, so the percentiles are exact.
+ *
+ * Not thread-safe; fill it from one thread.
+ */
+public class Histogram {
+    private int[] counts = new int[256];
+    private int n;
+    private long sum;
+    private long sumSq;
+
+    public void add(int score) {
+        if (score < 0)
+            throw new IllegalArgumentException("negative score " + score);
+        if (score >= counts.length)
+            counts = Arrays.copyOf(counts, Math.max(score + 1, 2 * counts.length));
+        counts[score]++;
+        n++;
+        sum += score;
+        sumSq += (long) score * score;
+    }
+
+    public void addAll(Histogram other) {
+        for (int score = 0; score < other.counts.length; ++score) {
+            for (int i = 0; i < other.counts[score]; ++i) {
+                add(score);
+            }
+        }
+    }
+
+    public int count() {
+        return n;
+    }
+
+    public double mean() {
+        if (n == 0)
+            return 0;
+        return (double) sum / n;
+    }
+
+    /** Population standard deviation. */
+    public double stddev() {
+        if (n == 0)
+            return 0;
+        double mean = mean();
+        return Math.sqrt(Math.max(0, (double) sumSq / n - mean * mean));
+    }
+
+    /** The smallest score with at least the fraction p of the runs at or below it. */
+    public int percentile(double p) {
+        if (n == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(p * n));
+        long seen = 0;
+        for (int score = 0; score < counts.length; ++score) {
+            seen += counts[score];
+            if (seen >= rank)
+                return score;
+        }
+        return counts.length - 1;
+    }
+}
@@ -4,6 +4,7 @@ import org.team100.sim2026.studies.BalancedVsUniformStudy;
 import org.team100.sim2026.studies.CapacityStudy;
 import org.team100.sim2026.studies.IntakeStudy;
 import org.team100.sim2026.studies.ShootingStudy;
+import org.team100.sim2026.studies.SweepStudy;
 
 public class Main {
     public static void main(String... args) {
@@ -25,6 +26,10 @@ public class Main {
         study = new ShootingStudy();
         study.run();
 
+        System.out.println("\nSWEEP");
+        study = new SweepStudy();
+        study.run();
+
         System.out.println("\nSimulation done.");
     }
 
@@ -48,12 +48,27 @@ public class SimRun {
     // set after auto
     AllianceColor firstActive;
     final boolean printDetail;
+    /** Print the initial total and the final score. */
+    final boolean printScore;
+    /** All the randomness in the run comes from here. */
+    final Random random;
 
     final Alliance red;
     final Alliance blue;
 
     public SimRun(Scenario scenario, boolean printDetail) {
+        this(scenario, printDetail, true, new Random());
+    }
+
+    /** Silent and reproducible, for batches. */
+    public SimRun(Scenario scenario, long seed) {
+        this(scenario, false, false, new Random(seed));
+    }
+
+    private SimRun(Scenario scenario, boolean printDetail, boolean printScore, Random random) {
         this.printDetail = printDetail;
+        this.printScore = printScore;
+        this.random = random;
         // TODO: avoid "this" leakage here.
         this.red = scenario.red(this);
         this.blue = scenario.blue(this);
@@ -72,7 +87,8 @@ public class SimRun {
                 redOutpost, blueOutpost,
                 red1, red2, red3, blue1, blue2, blue3);
         robots = List.of(red1, red2, red3, blue1, blue2, blue3);
-        System.out.printf("initial total %d\n", total());
+        if (printScore)
+            System.out.printf("initial total %d\n", total());
     }
 
     private int total() {
@@ -95,7 +111,7 @@ public class SimRun {
             robots.stream().filter(r -> r.action.getClass() == Block.class)
                     .forEach(r -> ((Block) r.action).target.blocked = true);
             // Execute the actions in random order.
-            Collections.shuffle(actions);
+            Collections.shuffle(actions, random);
             for (Runnable runnable : actions) {
                 runnable.run();
             }
@@ -104,6 +120,22 @@ public class SimRun {
         score();
     }
 
+    public Score redScore() {
+        return redScore;
+    }
+
+    public Score blueScore() {
+        return blueScore;
+    }
+
+    public String redName() {
+        return red.name;
+    }
+
+    public String blueName() {
+        return blue.name;
+    }
+
     public List<Robot> robots() {
         return robots;
     }
@@ -139,7 +171,7 @@ public class SimRun {
             } else if (blueScore.autoFuel < redScore.autoFuel) {
                 firstActive = AllianceColor.BLUE;
             } else {
-                firstActive = new Random().nextBoolean() ? AllianceColor.RED : AllianceColor.BLUE;
+                firstActive = random.nextBoolean() ? AllianceColor.RED : AllianceColor.BLUE;
             }
         }
         // then set the active hubs
@@ -218,6 +250,8 @@ public class SimRun {
     }
 
     void score() {
+        if (!printScore)
+            return;
         System.out.printf("RED:   %10s %s\nBLUE:  %10s %s\n", red.name, redScore, blue.name, blueScore);
     }
 
@@ -0,0 +1,54 @@
+package org.team100.sim2026.studies;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.team100.sim2026.BatchRun;
+import org.team100.sim2026.BatchRun.Result;
+import org.team100.sim2026.Histogram;
+import org.team100.sim2026.scenarios.BalancedVsBalanced;
+import org.team100.sim2026.scenarios.BalancedVsFerry;
+import org.team100.sim2026.scenarios.FerryVsFerry;
+import org.team100.sim2026.scenarios.FerryVsFerryVariable;
+import org.team100.sim2026.scenarios.FerryVsLob;
+import org.team100.sim2026.scenarios.Scenario;
+
+/**
+ * Many runs of every scenario, printed as CSV: one row per scenario, and then
+ * one row per alliance strategy, over all the scenarios it appears in.
+ */
+public class SweepStudy implements Runnable {
+    private static final int RUNS = 1000;
+    private static final long SEED = 100;
+
+    /** When you add a scenario, add it here too. */
+    private static final Map<String, Scenario> SCENARIOS = new LinkedHashMap<>();
+    static {
+        SCENARIOS.put("BalancedVsBalanced", new BalancedVsBalanced());
+        SCENARIOS.put("BalancedVsFerry", new BalancedVsFerry());
+        SCENARIOS.put("FerryVsFerry", new FerryVsFerry());
+        // the same numbers as Alliance.ferryOnly()
+        SCENARIOS.put("FerryVsFerryVariable", new FerryVsFerryVariable(50, 25, 10, 50, 25, 10));
+        SCENARIOS.put("FerryVsLob", new FerryVsLob());
+    }
+
+    @Override
+    public void run() {
+        Map<String, Histogram> byStrategy = new LinkedHashMap<>();
+        System.out.println(Result.csvHeader());
+        for (Map.Entry<String, Scenario> e : SCENARIOS.entrySet()) {
+            Result result = BatchRun.run(e.getKey(), e.getValue(), RUNS, SEED);
+            System.out.println(result.csv());
+            byStrategy.computeIfAbsent(result.redName(), x -> new Histogram()).addAll(result.red());
+            byStrategy.computeIfAbsent(result.blueName(), x -> new Histogram()).addAll(result.blue());
+        }
+        System.out.println();
+        System.out.println("strategy, runs, mean, stddev, p5, p50, p95");
+        for (Map.Entry<String, Histogram> e : byStrategy.entrySet()) {
+            Histogram h = e.getValue();
+            System.out.printf("%s, %d, %.1f, %.1f, %d, %d, %d\n",
+                    e.getKey(), h.count(), h.mean(), h.stddev(),
+                    h.percentile(0.05), h.percentile(0.5), h.percentile(0.95));
+        }
+    }
+}